@@ -0,0 +1,67 @@
+package jp.sagalab.jftk.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import jp.sagalab.jftk.Sigmoid;
+import jp.sagalab.jftk.blend.SplineCurveBlender;
+import jp.sagalab.jftk.curve.Range;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.transform.TransformMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FSC融合のベンチマークです。
+ * <p>
+ * ストロークの前半部分を既存の曲線、少しずらした後半部分を重ね書きした曲線とし、
+ * {@link SplineCurveBlender#createBlendedFsc(SplineCurve, SplineCurve, double, double)} で融合します。
+ * 前半部分と後半部分はストロークの中央で重複します。
+ * </p>
+ * @author agent
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class BlendBenchmark {
+
+	/**
+	 * 融合器と融合対象の曲線を生成します。
+	 * @param _data 入力ストローク
+	 */
+	@Setup
+	public void setUp( StrokeData _data ) {
+		m_blender = SplineCurveBlender.create( Sigmoid.create( 6.6, -3.3 ), Sigmoid.create( 6.6, -3.3 ),
+			StrokeData.FSC_CONVERT_VELOCITY_COEFF, StrokeData.FSC_CONVERT_ACCELERATION_COEFF );
+		SplineCurve fsc = _data.fsc();
+		Range range = fsc.range();
+		m_existedFsc = fsc.part( Range.create( range.start(), range.start() + range.length() * 0.6 ) );
+		m_fsc = fsc.transform( TransformMatrix.translation( 1.0, 1.0, 0.0 ) )
+			.part( Range.create( range.start() + range.length() * 0.4, range.end() ) );
+	}
+
+	/**
+	 * 二つのFSCを融合します。
+	 * @return 融合した曲線(融合できない場合はnull)
+	 */
+	@Benchmark
+	public SplineCurve createBlendedFsc() {
+		return m_blender.createBlendedFsc( m_existedFsc, m_fsc, 1.0, 1.0 );
+	}
+
+	/** 融合器 */
+	private SplineCurveBlender m_blender;
+	/** 既存の曲線 */
+	private SplineCurve m_existedFsc;
+	/** 重ね書きした曲線 */
+	private SplineCurve m_fsc;
+}
@@ -0,0 +1,84 @@
+package jp.sagalab.jftk.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.curve.interporation.SplineCurveInterpolator;
+import jp.sagalab.jftk.fuzzysplinecurve.ControlPointsFSCCreater;
+import jp.sagalab.jftk.fuzzysplinecurve.FuzzySplineCurveCreater;
+import jp.sagalab.jftk.fuzzysplinecurve.TimeStretchingModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FSC生成の各段階のベンチマークです。
+ * <p>
+ * 点列からのFSC生成全体({@link ControlPointsFSCCreater#createFSC(jp.sagalab.jftk.Point[])})と、
+ * その内部のスプライン曲線補間、非負制約条件下の最小自乗法を個別に計測します。
+ * </p>
+ * @author agent
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class FSCCreationBenchmark {
+
+	/**
+	 * FSC生成器を生成します。
+	 */
+	@Setup
+	public void setUp() {
+		TimeStretchingModel timeStretcher = TimeStretchingModel.create( 0.0, 1.0, 1.0,
+			StrokeData.POINT_EXTRAPOLATE_LENGTH, StrokeData.POINT_EXTRAPOLATE_SPAN,
+			StrokeData.POINT_INTERPOLATE_SPAN, StrokeData.SPLINE_INTERPOLATE_KNOT_SPAN,
+			StrokeData.FSC_CONVERT_VELOCITY_COEFF, StrokeData.FSC_CONVERT_ACCELERATION_COEFF );
+		m_creater = ControlPointsFSCCreater.create( timeStretcher,
+			StrokeData.POINT_EXTRAPOLATE_LENGTH, StrokeData.POINT_EXTRAPOLATE_SPAN,
+			StrokeData.POINT_INTERPOLATE_SPAN, StrokeData.SPLINE_INTERPOLATE_KNOT_SPAN,
+			StrokeData.FSC_CONVERT_VELOCITY_COEFF, StrokeData.FSC_CONVERT_ACCELERATION_COEFF );
+	}
+
+	/**
+	 * 点列からFSCを生成します。
+	 * @param _data 入力ストローク
+	 * @return FSC
+	 */
+	@Benchmark
+	public SplineCurve createFSC( StrokeData _data ) {
+		return m_creater.createFSC( _data.points() );
+	}
+
+	/**
+	 * 外挿・内挿後の点列をスプライン曲線補間します。
+	 * @param _data 入力ストローク
+	 * @return スプライン曲線
+	 */
+	@Benchmark
+	public SplineCurve interpolate( StrokeData _data ) {
+		return SplineCurveInterpolator.interpolate( _data.fixedPoints(),
+			StrokeData.DEGREE, StrokeData.SPLINE_INTERPOLATE_KNOT_SPAN );
+	}
+
+	/**
+	 * 非負制約条件下の最小自乗法によりファジネスを求めます。
+	 * @param _data 入力ストローク
+	 * @return 制御点のファジネス
+	 */
+	@Benchmark
+	public double[] nnls( StrokeData _data ) {
+		return FuzzySplineCurveCreater.nnls( _data.weightMatrix(), _data.observations() );
+	}
+
+	/** FSC生成器 */
+	private ControlPointsFSCCreater m_creater;
+}
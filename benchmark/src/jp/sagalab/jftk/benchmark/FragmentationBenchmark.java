@@ -0,0 +1,85 @@
+package jp.sagalab.jftk.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import jp.sagalab.jftk.TruthValue;
+import jp.sagalab.jftk.fragmentation.Fragment;
+import jp.sagalab.jftk.fragmentation.FuzzyConnerPointFragmentation;
+import jp.sagalab.jftk.fragmentation.FuzzyControlPointFragmentation;
+import jp.sagalab.jftk.fragmentation.FuzzyEvaluationPointFragmentation;
+import jp.sagalab.jftk.fragmentation.FuzzyFragmentation;
+import jp.sagalab.jftk.fragmentation.NonPartitionFragmentation;
+import jp.sagalab.jftk.recognition.FuzzyRule;
+import jp.sagalab.jftk.recognition.SingleReferenceModelRecognizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ファジィフラグメンテーション法のベンチマークです。
+ * <p>
+ * {@link FuzzyFragmentation} の各実装で、同じFSCからフラグメント列を生成します。
+ * {@link NonPartitionFragmentation} は認識結果のキャッシュを持つため、
+ * 呼び出しごとにインスタンスを生成して前回の結果が再利用されないようにします。
+ * </p>
+ * @author agent
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class FragmentationBenchmark {
+
+	/** ファジィフラグメンテーション法の種類 */
+	public static enum Algorithm {
+		/** 非分割型 */
+		NON_PARTITION,
+		/** 制御点の停止性判定 */
+		CONTROL_POINT,
+		/** 評価点の停止性判定 */
+		EVALUATION_POINT,
+		/** 角点 */
+		CONNER_POINT;
+
+		/**
+		 * ファジィフラグメンテーション法のインスタンスを生成します。
+		 * @return インスタンス
+		 */
+		FuzzyFragmentation create() {
+			switch ( this ) {
+				case NON_PARTITION:
+					return new NonPartitionFragmentation( 3, FuzzyRule.defaultRule(), SingleReferenceModelRecognizer.create( 10 ) );
+				case CONTROL_POINT:
+					return FuzzyControlPointFragmentation.create( TruthValue.create( 0.5, 0.5 ), 10, TruthValue.create( 0.5, 0.5 ) );
+				case EVALUATION_POINT:
+					return FuzzyEvaluationPointFragmentation.create( TruthValue.create( 0.5, 0.5 ), 0.01, 0.1 );
+				case CONNER_POINT:
+					return FuzzyConnerPointFragmentation.create( Math.PI / 4 );
+				default:
+					throw new AssertionError( this );
+			}
+		}
+	}
+
+	/**
+	 * FSCからフラグメント列を生成します。
+	 * @param _data 入力ストローク
+	 * @return フラグメント列
+	 */
+	@Benchmark
+	public Fragment[] createFragment( StrokeData _data ) {
+		return algorithm.create().createFragment( _data.fsc() );
+	}
+
+	/** ファジィフラグメンテーション法の種類 */
+	@Param
+	public Algorithm algorithm;
+}
@@ -0,0 +1,61 @@
+package jp.sagalab.jftk.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import jp.sagalab.jftk.Sigmoid;
+import jp.sagalab.jftk.fragmentation.IdentificationFragment;
+import jp.sagalab.jftk.recognition.FuzzyRule;
+import jp.sagalab.jftk.recognition.RecognitionResult;
+import jp.sagalab.jftk.recognition.SingleReferenceModelRecognizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 幾何曲線認識のベンチマークです。
+ * <p>
+ * ストローク全体を一つの同定単位フラグメントとして
+ * {@link SingleReferenceModelRecognizer#recognize(IdentificationFragment, jp.sagalab.jftk.curve.SplineCurve, Map)}
+ * で認識します。
+ * </p>
+ * @author agent
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class RecognitionBenchmark {
+
+	/**
+	 * 認識器と推論規則を生成します。
+	 */
+	@Setup
+	public void setUp() {
+		m_recognizer = SingleReferenceModelRecognizer.create( 10 );
+		m_rule = FuzzyRule.defaultRule();
+	}
+
+	/**
+	 * FSCを幾何曲線へ認識します。
+	 * @param _data 入力ストローク
+	 * @return 認識結果
+	 */
+	@Benchmark
+	public RecognitionResult recognize( StrokeData _data ) {
+		return m_recognizer.recognize( IdentificationFragment.create( _data.fsc() ), _data.fsc(), m_rule );
+	}
+
+	/** 認識器 */
+	private SingleReferenceModelRecognizer m_recognizer;
+	/** 推論規則 */
+	private Map<String, Sigmoid> m_rule;
+}
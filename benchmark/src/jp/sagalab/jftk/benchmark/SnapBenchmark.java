@@ -0,0 +1,182 @@
+package jp.sagalab.jftk.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.Sigmoid;
+import jp.sagalab.jftk.TruthValue;
+import jp.sagalab.jftk.curve.ParametricEvaluable;
+import jp.sagalab.jftk.fragmentation.Fragment;
+import jp.sagalab.jftk.fragmentation.FuzzyControlPointFragmentation;
+import jp.sagalab.jftk.fragmentation.IdentificationFragment;
+import jp.sagalab.jftk.fragmentation.PartitionFragment;
+import jp.sagalab.jftk.recognition.FuzzyRule;
+import jp.sagalab.jftk.recognition.RecognitionResult;
+import jp.sagalab.jftk.recognition.SingleReferenceModelRecognizer;
+import jp.sagalab.jftk.shaper.ShapedResult;
+import jp.sagalab.jftk.shaper.snapper.CoaxialityObjectSnapper;
+import jp.sagalab.jftk.shaper.snapper.ConnectionSnapper;
+import jp.sagalab.jftk.shaper.snapper.EndPointsObjectSnapper;
+import jp.sagalab.jftk.shaper.snapper.FuzzyGridSnapper;
+import jp.sagalab.jftk.shaper.snapper.FuzzyObjectSnapper;
+import jp.sagalab.jftk.shaper.snapper.GridSpace;
+import jp.sagalab.jftk.shaper.snapper.IFGSSnapper;
+import jp.sagalab.jftk.shaper.snapper.MFGSSnapper;
+import jp.sagalab.jftk.transform.TransformMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * スナッピングのベンチマークです。
+ * <p>
+ * グリッドスナッピング({@link IFGSSnapper}、{@link MFGSSnapper})はFSCの等時間間隔の評価点列を、
+ * オブジェクトスナッピング({@link EndPointsObjectSnapper}、{@link CoaxialityObjectSnapper}、
+ * {@link ConnectionSnapper})はストロークのフラグメント列とその認識結果をスナッピングします。
+ * フラグメント列と認識結果は試行の前に一度だけ求めます。
+ * </p>
+ * @author agent
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class SnapBenchmark {
+
+	/**
+	 * スナッパー、グリッド、スナッピング対象を生成します。
+	 * @param _data 入力ストローク
+	 */
+	@Setup
+	public void setUp( StrokeData _data ) {
+		Sigmoid sigmoidTrue = Sigmoid.create( 6.6, -3.3 );
+		Sigmoid sigmoidFalse = Sigmoid.create( -6.6, 3.3 );
+		m_ifgs = IFGSSnapper.create( sigmoidTrue, sigmoidFalse );
+		m_mfgs = MFGSSnapper.create( sigmoidTrue, sigmoidFalse, 3 );
+		m_endPoints = EndPointsObjectSnapper.create( m_ifgs );
+		m_coaxiality = CoaxialityObjectSnapper.create( m_ifgs );
+		m_connection = ConnectionSnapper.create( m_ifgs );
+		m_grid = GridSpace.create( TransformMatrix.scaling( 1.0 / GRID_INTERVAL ), 0.5, 2.0 );
+
+		m_points = _data.fsc().evaluateAll(
+			Math.max( (int) Math.ceil( _data.fsc().range().length() / 0.01 ), 2 ), ParametricEvaluable.EvaluationType.TIME );
+
+		// フラグメント列と同定単位フラグメントの認識結果
+		Fragment[] fragments = FuzzyControlPointFragmentation.create(
+			TruthValue.create( 0.5, 0.5 ), 10, TruthValue.create( 0.5, 0.5 ) ).createFragment( _data.fsc() );
+		m_fragments = new ArrayList<Fragment>( Arrays.asList( fragments ) );
+		m_recognitions = new HashMap<Fragment, RecognitionResult>();
+		SingleReferenceModelRecognizer recognizer = SingleReferenceModelRecognizer.create( 10 );
+		Map<String, Sigmoid> rule = FuzzyRule.defaultRule();
+		for ( int i = 0; i < fragments.length; ++i ) {
+			if ( fragments[i] instanceof IdentificationFragment ) {
+				IdentificationFragment identificationFragment = (IdentificationFragment) fragments[i];
+				PartitionFragment start = i > 0 ? (PartitionFragment) fragments[i - 1] : null;
+				PartitionFragment end = i < fragments.length - 1 ? (PartitionFragment) fragments[i + 1] : null;
+				m_recognitions.put( identificationFragment, recognizer.recognize( identificationFragment,
+					identificationFragment.extendCurve( start, end ), rule ) );
+			}
+		}
+	}
+
+	/**
+	 * 評価点列を無限解像度ファジィグリッドスナッピングします。
+	 * @return スナッピング先のグリッド格子点列
+	 */
+	@Benchmark
+	public Point[] ifgs() {
+		return snapAll( m_ifgs );
+	}
+
+	/**
+	 * 評価点列を多重解像度ファジィグリッドスナッピングします。
+	 * @return スナッピング先のグリッド格子点列
+	 */
+	@Benchmark
+	public Point[] mfgs() {
+		return snapAll( m_mfgs );
+	}
+
+	/**
+	 * フラグメント列を端点スナッピングします。
+	 * @return スナッピング結果
+	 */
+	@Benchmark
+	public Map<Fragment, ShapedResult> endPoints() {
+		return snapObjects( m_endPoints );
+	}
+
+	/**
+	 * フラグメント列を同軸性スナッピングします。
+	 * @return スナッピング結果
+	 */
+	@Benchmark
+	public Map<Fragment, ShapedResult> coaxiality() {
+		return snapObjects( m_coaxiality );
+	}
+
+	/**
+	 * フラグメント列を接続スナッピングします。
+	 * @return スナッピング結果
+	 */
+	@Benchmark
+	public Map<Fragment, ShapedResult> connection() {
+		return snapObjects( m_connection );
+	}
+
+	/**
+	 * 評価点列をグリッドスナッピングします。
+	 * @param _snapper グリッドスナッパー
+	 * @return スナッピング先のグリッド格子点列
+	 */
+	private Point[] snapAll( FuzzyGridSnapper<Point> _snapper ) {
+		Point[] snapped = new Point[ m_points.length ];
+		for ( int i = 0; i < m_points.length; ++i ) {
+			snapped[i] = _snapper.snap( m_grid, m_points[i] ).getPoint();
+		}
+		return snapped;
+	}
+
+	/**
+	 * フラグメント列をオブジェクトスナッピングします。
+	 * @param _snapper オブジェクトスナッパー
+	 * @return スナッピング結果
+	 */
+	private Map<Fragment, ShapedResult> snapObjects( FuzzyObjectSnapper _snapper ) {
+		return _snapper.snap( m_recognitions, m_fragments, m_grid );
+	}
+
+	/** グリッド間隔 */
+	private static final double GRID_INTERVAL = 50.0;
+	/** 無限解像度ファジィグリッドスナッパー */
+	private IFGSSnapper m_ifgs;
+	/** 多重解像度ファジィグリッドスナッパー */
+	private MFGSSnapper m_mfgs;
+	/** 端点スナッパー */
+	private EndPointsObjectSnapper m_endPoints;
+	/** 同軸性スナッパー */
+	private CoaxialityObjectSnapper m_coaxiality;
+	/** 接続スナッパー */
+	private ConnectionSnapper m_connection;
+	/** グリッド */
+	private GridSpace m_grid;
+	/** グリッドスナッピング対象の評価点列 */
+	private Point[] m_points;
+	/** オブジェクトスナッピング対象のフラグメント列 */
+	private List<Fragment> m_fragments;
+	/** 同定単位フラグメントの認識結果 */
+	private Map<Fragment, RecognitionResult> m_recognitions;
+}
@@ -0,0 +1,188 @@
+package jp.sagalab.jftk.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import jp.sagalab.jftk.BandMatrix;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.curve.Range;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.curve.interporation.PointExtrapolator2th;
+import jp.sagalab.jftk.curve.interporation.PointInterpolator0th;
+import jp.sagalab.jftk.curve.interporation.SplineCurveInterpolator;
+import jp.sagalab.jftk.fuzzysplinecurve.FuzzySplineCurveCreater;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * ベンチマークで用いる入力ストロークを表すクラスです。
+ * <p>
+ * リポジトリに同梱されている入力点列ファイル(1行ごとに x y t)を読み込み、
+ * 各段階の入力となる外挿・内挿後の点列、スプライン曲線、FSCなどを試行の前に一度だけ生成します。
+ * 各段階のベンチマークは前段の結果をここから受け取るため、測定対象の段階だけが計測されます。
+ * </p>
+ * <p>
+ * 入力点列ファイルのディレクトリはシステムプロパティ {@value #DATA_DIR_PROPERTY} で指定します。
+ * 指定がない場合はカレントディレクトリから読み込みます。
+ * </p>
+ * @author agent
+ */
+@State( Scope.Benchmark )
+public class StrokeData {
+
+	/**
+	 * 入力点列ファイルを読み込みます。
+	 * @param _file 入力点列ファイル
+	 * @return 入力点列
+	 * @throws IOException 読み込みに失敗した場合
+	 */
+	public static Point[] load( File _file ) throws IOException {
+		List<Point> points = new ArrayList<Point>();
+		BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( _file ), "UTF-8" ) );
+		try {
+			String line;
+			while ( ( line = reader.readLine() ) != null ) {
+				line = line.trim();
+				if ( line.length() == 0 ) {
+					continue;
+				}
+				String[] values = line.split( "\\s+" );
+				points.add( Point.createXYZT( Double.parseDouble( values[0] ), Double.parseDouble( values[1] ),
+					0.0, Double.parseDouble( values[2] ) ) );
+			}
+		} finally {
+			reader.close();
+		}
+		return points.toArray( new Point[ points.size() ] );
+	}
+
+	/**
+	 * 入力ストロークを読み込み、各段階の入力を生成します。
+	 * @throws IOException 読み込みに失敗した場合
+	 */
+	@Setup( Level.Trial )
+	public void setUp() throws IOException {
+		File dir = new File( System.getProperty( DATA_DIR_PROPERTY, "." ) );
+		m_points = load( new File( dir, stroke ) );
+
+		// 外挿・内挿
+		Point[] fixedPoints = PointExtrapolator2th.extrapolate( m_points, POINT_EXTRAPOLATE_LENGTH, POINT_EXTRAPOLATE_SPAN );
+		m_fixedPoints = PointInterpolator0th.interpolate( fixedPoints, POINT_INTERPOLATE_SPAN );
+		// スプライン曲線補間
+		m_spline = SplineCurveInterpolator.interpolate( m_fixedPoints, DEGREE, SPLINE_INTERPOLATE_KNOT_SPAN );
+
+		// ファジネス導出の最小自乗問題(FuzzySplineCurveCreater と同じ等時間間隔の観測)
+		double[] knots = m_spline.knots();
+		Range range = Range.create( knots[DEGREE - 1], knots[knots.length - DEGREE] );
+		double[] times = new double[ Math.max( (int) Math.ceil( range.length() / 0.01 ), 2 ) ];
+		for ( int i = 0; i < times.length - 1; ++i ) {
+			times[i] = range.start() + i * ( range.end() - range.start() ) / ( times.length - 1 );
+		}
+		times[times.length - 1] = range.end();
+		SplineCurve vCurve = m_spline.differentiate();
+		SplineCurve aCurve = vCurve.differentiate();
+		double[][] v = new double[ 3 ][ times.length ];
+		double[][] a = new double[ 3 ][ times.length ];
+		vCurve.evaluateInto( times, v[0], v[1], v[2], null );
+		aCurve.evaluateInto( times, a[0], a[1], a[2], null );
+		m_observations = new double[ times.length ];
+		for ( int i = 0; i < times.length; ++i ) {
+			m_observations[i] = FSC_CONVERT_VELOCITY_COEFF * Math.sqrt( v[0][i] * v[0][i] + v[1][i] * v[1][i] + v[2][i] * v[2][i] )
+				+ FSC_CONVERT_ACCELERATION_COEFF * Math.sqrt( a[0][i] * a[0][i] + a[1][i] * a[1][i] + a[2][i] * a[2][i] );
+		}
+		m_weightMatrix = SplineCurveInterpolator.createBandWeightMatrix( times, DEGREE, knots );
+
+		// FSC化して外挿した部分を存在範囲から外す
+		SplineCurve fsc = FuzzySplineCurveCreater.create( m_spline, FSC_CONVERT_VELOCITY_COEFF, FSC_CONVERT_ACCELERATION_COEFF );
+		m_fsc = fsc.part( Range.create( m_points[0].time(), m_points[m_points.length - 1].time() ) );
+	}
+
+	/**
+	 * 入力点列を返します。
+	 * @return 入力点列
+	 */
+	public Point[] points() {
+		return m_points;
+	}
+
+	/**
+	 * 外挿・内挿後の点列を返します。
+	 * @return 外挿・内挿後の点列
+	 */
+	public Point[] fixedPoints() {
+		return m_fixedPoints;
+	}
+
+	/**
+	 * ファジネスを付加する前のスプライン曲線を返します。
+	 * @return スプライン曲線
+	 */
+	public SplineCurve spline() {
+		return m_spline;
+	}
+
+	/**
+	 * ファジネス導出の重み行列を返します。
+	 * @return 重み行列
+	 */
+	public BandMatrix weightMatrix() {
+		return m_weightMatrix;
+	}
+
+	/**
+	 * ファジネス導出の観測ファジネス列を返します。
+	 * @return 観測ファジネス列
+	 */
+	public double[] observations() {
+		return m_observations;
+	}
+
+	/**
+	 * ファジィスプライン曲線を返します。
+	 * @return ファジィスプライン曲線
+	 */
+	public SplineCurve fsc() {
+		return m_fsc;
+	}
+
+	/** 入力点列ファイルのディレクトリを指定するシステムプロパティ名 */
+	public static final String DATA_DIR_PROPERTY = "jftk.benchmark.data";
+	/** スプライン曲線の次数 */
+	public static final int DEGREE = 3;
+	/** 点列外挿の外挿時間長 */
+	public static final double POINT_EXTRAPOLATE_LENGTH = 0.1;
+	/** 点列外挿の外挿時間間隔 */
+	public static final double POINT_EXTRAPOLATE_SPAN = 0.01;
+	/** 点列内挿の内挿時間間隔 */
+	public static final double POINT_INTERPOLATE_SPAN = 0.01;
+	/** スプライン曲線補間の節点間隔 */
+	public static final double SPLINE_INTERPOLATE_KNOT_SPAN = 0.04;
+	/** FSC変換の速度係数 */
+	public static final double FSC_CONVERT_VELOCITY_COEFF = 0.01;
+	/** FSC変換の加速度係数 */
+	public static final double FSC_CONVERT_ACCELERATION_COEFF = 0.001;
+
+	/** 入力点列ファイル名 */
+	@Param( { "test_short.dat", "test_mid.dat", "test_long.dat", "test_long_sep.dat", "test_verylong.dat" } )
+	public String stroke;
+
+	/** 入力点列 */
+	private Point[] m_points;
+	/** 外挿・内挿後の点列 */
+	private Point[] m_fixedPoints;
+	/** スプライン曲線 */
+	private SplineCurve m_spline;
+	/** ファジネス導出の重み行列 */
+	private BandMatrix m_weightMatrix;
+	/** ファジネス導出の観測ファジネス列 */
+	private double[] m_observations;
+	/** ファジィスプライン曲線 */
+	private SplineCurve m_fsc;
+}
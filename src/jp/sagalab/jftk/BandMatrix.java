@@ -0,0 +1,312 @@
+package jp.sagalab.jftk;
+
+import java.util.Arrays;
+
+/**
+ * 各行の非零要素が連続した一定幅の区間にのみ存在するm×n行列を表すクラスです。
+ * <p>
+ * B-スプラインの重み行列のように、各行が高々(次数+1)個の非零要素しか持たない行列を
+ * 行ごとの開始列番号と非零区間の要素のみで保持します。
+ * 正規方程式 NtN は帯幅(非零区間の幅-1)の対称帯行列となるため、
+ * {@link SymmetricBandMatrix} を用いて行数に比例する計算量で解くことができます。
+ * </p>
+ * @author agent
+ */
+public class BandMatrix {
+
+	/**
+	 * m×n行列を生成します。
+	 * <p>
+	 * i行目の非零区間は列番号 _starts[i] から _starts[i] + 区間幅 - 1 までとなり、
+	 * その要素は _elements[i * 区間幅] から順に格納します。
+	 * </p>
+	 * @param _starts 各行の非零区間の開始列番号
+	 * @param _elements 各行の非零区間の要素群
+	 * @param _width 非零区間の幅
+	 * @param _columnSize 列数
+	 * @return m×nの行列
+	 * @throws NullPointerException 引数の型にnullが指定された場合にスローします。
+	 * @throws IllegalArgumentException 行数が０の場合、区間幅が０以下の場合、区間幅が列数より大きい場合、
+	 * 要素群のサイズが行数×区間幅でない場合、非零区間が行列の範囲外となる場合、
+	 * 要素群にNaNまたはInfiniteが含まれる場合にスローします。
+	 */
+	public static BandMatrix create( int[] _starts, double[] _elements, int _width, int _columnSize ) {
+		if ( _starts == null ) {
+			throw new NullPointerException( "_starts is null." );
+		}
+		if ( _elements == null ) {
+			throw new NullPointerException( "_elements is null." );
+		}
+		if ( _starts.length == 0 ) {
+			throw new IllegalArgumentException( "row size is 0." );
+		}
+		if ( _width <= 0 || _width > _columnSize ) {
+			throw new IllegalArgumentException( "illegal _width." );
+		}
+		if ( _elements.length != _starts.length * _width ) {
+			throw new IllegalArgumentException( "illegal length of _elements." );
+		}
+		for ( int start : _starts ) {
+			if ( start < 0 || start + _width > _columnSize ) {
+				throw new IllegalArgumentException( "band is out of range." );
+			}
+		}
+		for ( double d : _elements ) {
+			if ( Double.isNaN( d ) || Double.isInfinite( d ) ) {
+				throw new IllegalArgumentException( "_elements has NaN or Infinite." );
+			}
+		}
+		return new BandMatrix( _starts.clone(), _elements.clone(), _width, _columnSize );
+	}
+
+	/**
+	 * 行列の要素を返します。
+	 * @param _i 行番号
+	 * @param _j 列番号
+	 * @return 行列の要素
+	 * @throws ArrayIndexOutOfBoundsException 指定された列番号または行番号が行列のサイズ以上の場合にスローします。
+	 */
+	public double get( int _i, int _j ) {
+		if ( _i >= rowSize() || _j >= m_columnSize ) {
+			throw new ArrayIndexOutOfBoundsException( "Row size or column size is wrong." );
+		}
+		int d = _j - m_starts[_i];
+		if ( d < 0 || d >= m_width ) {
+			return 0.0;
+		}
+		return m_elements[_i * m_width + d];
+	}
+
+	/**
+	 * 指定された行の非零区間の開始列番号を返します。
+	 * @param _i 行番号
+	 * @return 開始列番号
+	 */
+	public int start( int _i ) {
+		return m_starts[_i];
+	}
+
+	/**
+	 * 非零区間の幅を返します。
+	 * @return 非零区間の幅
+	 */
+	public int width() {
+		return m_width;
+	}
+
+	/**
+	 * 行数を返します。
+	 * @return 行数
+	 */
+	public int rowSize() {
+		return m_starts.length;
+	}
+
+	/**
+	 * 列数を返します。
+	 * @return 列数
+	 */
+	public int columnSize() {
+		return m_columnSize;
+	}
+
+	/**
+	 * 密な行列に変換します。
+	 * @return 行列
+	 */
+	public Matrix toMatrix() {
+		int rowSize = rowSize();
+		double[][] elements = new double[ rowSize ][ m_columnSize ];
+		for ( int i = 0; i < rowSize; ++i ) {
+			System.arraycopy( m_elements, i * m_width, elements[i], m_starts[i], m_width );
+		}
+		return Matrix.create( elements );
+	}
+
+	/**
+	 * 指定されたベクトルとの積を求めます。(この行列×指定されたベクトル)
+	 * @param _vector 右辺ベクトル
+	 * @return 積演算の結果
+	 * @throws IllegalArgumentException 指定されたベクトルの要素数がこの行列の列数に
+	 * 等しくない場合にスローします。
+	 */
+	public double[] product( double[] _vector ) {
+		return product( _vector, new double[ rowSize() ] );
+	}
+
+	/**
+	 * 指定されたベクトルとの積を求め、指定された配列に格納します。(この行列×指定されたベクトル)
+	 * <p>
+	 * 反復計算の中で作業領域を使い回すために用います。
+	 * </p>
+	 * @param _vector 右辺ベクトル
+	 * @param _result 結果の格納先(要素数は行数)
+	 * @return 結果の格納先
+	 * @throws IllegalArgumentException 指定されたベクトルの要素数がこの行列の列数に
+	 * 等しくない場合、格納先の要素数がこの行列の行数に等しくない場合にスローします。
+	 */
+	public double[] product( double[] _vector, double[] _result ) {
+		if ( _vector.length != m_columnSize ) {
+			throw new IllegalArgumentException( "vector's length not equals this matrix's column size." );
+		}
+		int rowSize = rowSize();
+		if ( _result.length != rowSize ) {
+			throw new IllegalArgumentException( "result's length not equals this matrix's row size." );
+		}
+		double[] result = _result;
+		for ( int i = 0; i < rowSize; ++i ) {
+			int offset = i * m_width;
+			int start = m_starts[i];
+			double d = 0.0;
+			for ( int k = 0; k < m_width; ++k ) {
+				d += m_elements[offset + k] * _vector[start + k];
+			}
+			result[i] = d;
+		}
+		return result;
+	}
+
+	/**
+	 * この行列の転置行列と指定されたベクトルとの積を求めます。(この行列の転置×指定されたベクトル)
+	 * @param _vector 右辺ベクトル
+	 * @return 積演算の結果
+	 * @throws IllegalArgumentException 指定されたベクトルの要素数がこの行列の行数に
+	 * 等しくない場合にスローします。
+	 */
+	public double[] transposeProduct( double[] _vector ) {
+		int rowSize = rowSize();
+		if ( _vector.length != rowSize ) {
+			throw new IllegalArgumentException( "vector's length not equals this matrix's row size." );
+		}
+		double[] result = new double[ m_columnSize ];
+		for ( int i = 0; i < rowSize; ++i ) {
+			int offset = i * m_width;
+			int start = m_starts[i];
+			double v = _vector[i];
+			for ( int k = 0; k < m_width; ++k ) {
+				result[start + k] += m_elements[offset + k] * v;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * この行列の転置行列と指定された行列との積を求めます。(この行列の転置×指定された行列)
+	 * @param _right 右辺行列
+	 * @return 積演算の結果
+	 * @throws IllegalArgumentException 指定された行列の行数がこの行列の行数に
+	 * 等しくない場合にスローします。
+	 */
+	public Matrix transposeProduct( Matrix _right ) {
+		int rowSize = rowSize();
+		if ( _right.rowSize() != rowSize ) {
+			throw new IllegalArgumentException( "Other matrix's row size not equals this matrix's." );
+		}
+		int oColumnSize = _right.columnSize();
+		double[][] right = _right.elements();
+		double[][] elements = new double[ m_columnSize ][ oColumnSize ];
+		for ( int i = 0; i < rowSize; ++i ) {
+			int offset = i * m_width;
+			int start = m_starts[i];
+			double[] row = right[i];
+			for ( int k = 0; k < m_width; ++k ) {
+				double e = m_elements[offset + k];
+				double[] resultRow = elements[start + k];
+				for ( int j = 0; j < oColumnSize; ++j ) {
+					resultRow[j] += e * row[j];
+				}
+			}
+		}
+		return Matrix.create( elements );
+	}
+
+	/**
+	 * この行列の転置行列とこの行列との積(正規方程式の係数行列 NtN)を求めます。
+	 * <p>
+	 * 結果は帯幅が(非零区間の幅-1)の対称帯行列となります。
+	 * </p>
+	 * @return 積演算の結果
+	 */
+	public SymmetricBandMatrix normalMatrix() {
+		int rowSize = rowSize();
+		int bandWidth = m_width - 1;
+		int width = bandWidth + 1;
+		double[] band = new double[ m_columnSize * width ];
+		for ( int i = 0; i < rowSize; ++i ) {
+			int offset = i * m_width;
+			int start = m_starts[i];
+			for ( int a = 0; a < m_width; ++a ) {
+				double e = m_elements[offset + a];
+				int bandOffset = ( start + a ) * width + a;
+				// (start+a, start+b)成分(b <= a)に寄与する
+				for ( int b = 0; b <= a; ++b ) {
+					band[bandOffset - b] += e * m_elements[offset + b];
+				}
+			}
+		}
+		return SymmetricBandMatrix.create( band, bandWidth );
+	}
+
+	/**
+	 * この BandMatrix と指定された Object が等しいかどうかを比較します。
+	 * @param obj この BandMatrix と比較される Object
+	 * @return 指定された Object が、このオブジェクトと要素、列数がまったく同じ BandMatrix である限りtrue
+	 */
+	@Override
+	public boolean equals( Object obj ) {
+		if ( obj == null ) {
+			return false;
+		}
+		if ( getClass() != obj.getClass() ) {
+			return false;
+		}
+		final BandMatrix other = (BandMatrix) obj;
+		if ( !Arrays.equals( this.m_starts, other.m_starts ) ) {
+			return false;
+		}
+		if ( !Arrays.equals( this.m_elements, other.m_elements ) ) {
+			return false;
+		}
+
+		return m_width == other.m_width && m_columnSize == other.m_columnSize;
+	}
+
+	/**
+	 * この BandMatrix のハッシュコードを返します。
+	 * @return この BandMatrix のハッシュコード
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 3;
+		hash = 67 * hash + Arrays.hashCode( this.m_starts );
+		hash = 67 * hash + Arrays.hashCode( this.m_elements );
+		hash = 67 * hash + this.m_width;
+		hash = 67 * hash + this.m_columnSize;
+		return hash;
+	}
+
+	/**
+	 * この BandMatrix の文字列表現を返します。
+	 * @return 列数と行数、各要素を表す String
+	 */
+	@Override
+	public String toString() {
+		return toMatrix().toString();
+	}
+
+	private BandMatrix( int[] _starts, double[] _elements, int _width, int _columnSize ) {
+		m_starts = _starts;
+		m_elements = _elements;
+		m_width = _width;
+		m_columnSize = _columnSize;
+	}
+
+	/** 各行の非零区間の開始列番号 */
+	private final int[] m_starts;
+	/** 各行の非零区間の要素 */
+	private final double[] m_elements;
+	/** 非零区間の幅 */
+	private final int m_width;
+	/** 行列の列数 */
+	private final int m_columnSize;
+}
@@ -0,0 +1,418 @@
+package jp.sagalab.jftk;
+
+/**
+ * Brent法による1変数関数の最小値探索と求根を行うクラスです。
+ * <p>
+ * 最小値探索は放物線補間と黄金分割探索を組み合わせたアルゴリズム、
+ * 求根は逆2次補間と二分法を組み合わせたアルゴリズムを用いています。<br>
+ * (詳しくは 「ニューメリカルレシピ・イン・シー : C言語による数値計算のレシピ : 日本語版」
+ * William H. Press[ほか]著 を参考にしてください。)
+ * </p>
+ * <p>
+ * このクラスは探索の設定のみを保持する不変クラスであり、
+ * 一つのインスタンスを複数の探索や複数のスレッドで共有できます。
+ * 探索の結果は関数の評価回数とともに {@link Result} として返します。
+ * 同じ点での関数値は一度だけ評価します。
+ * </p>
+ * @author agent
+ * @see BrentMethod
+ */
+public final class BrentSolver {
+
+	/** 探索の結果を表すクラスです。 */
+	public static final class Result {
+
+		/**
+		 * 探索で得られた点を返します。
+		 * @return 最小値探索では関数値が最小となる点、求根では根
+		 */
+		public double point() {
+			return m_point;
+		}
+
+		/**
+		 * 探索で得られた点での関数値を返します。
+		 * @return 関数値
+		 */
+		public double value() {
+			return m_value;
+		}
+
+		/**
+		 * 関数の評価回数を返します。
+		 * @return 評価回数
+		 */
+		public int evaluations() {
+			return m_evaluations;
+		}
+
+		/**
+		 * 許容誤差内に収束したかを返します。
+		 * @return 反復回数の上限に達する前に収束した場合true
+		 */
+		public boolean isConverged() {
+			return m_converged;
+		}
+
+		@Override
+		public String toString() {
+			return String.format( "point:%s value:%s evaluations:%d converged:%b",
+				m_point, m_value, m_evaluations, m_converged );
+		}
+
+		private Result( double _point, double _value, int _evaluations, boolean _converged ) {
+			m_point = _point;
+			m_value = _value;
+			m_evaluations = _evaluations;
+			m_converged = _converged;
+		}
+
+		/** 探索で得られた点 */
+		private final double m_point;
+		/** 探索で得られた点での関数値 */
+		private final double m_value;
+		/** 関数の評価回数 */
+		private final int m_evaluations;
+		/** 収束したか */
+		private final boolean m_converged;
+	}
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _tol 探索の相対誤差
+	 * @return インスタンス
+	 * @throws IllegalArgumentException 相対誤差が負かNaNの場合
+	 */
+	public static BrentSolver create( double _tol ) {
+		if ( _tol < 0 || Double.isNaN( _tol ) ) {
+			throw new IllegalArgumentException( "_tol is negative sign or NaN." );
+		}
+		return new BrentSolver( _tol );
+	}
+
+	/**
+	 * 関数の最小値探索を行います。
+	 * <p>
+	 * 探索は0を初期点として始めます(0が探索範囲外の場合は範囲の端に収めます)。
+	 * </p>
+	 * @param _function 評価関数
+	 * @param _floor 探索範囲の最小値
+	 * @param _ceiling 探索範囲の最大値
+	 * @return 探索の結果
+	 * @throws IllegalArgumentException 評価関数がnullの場合
+	 * @throws IllegalArgumentException 探索範囲の最小値または最大値がNaNか無限大の場合
+	 */
+	public Result minimize( UnivariateFunction _function, double _floor, double _ceiling ) {
+		return minimize( _function, _floor, _ceiling, 0.0 );
+	}
+
+	/**
+	 * 初期点を指定して関数の最小値探索を行います。
+	 * <p>
+	 * 前回の探索結果などを初期点とすることで、探索を再開できます。
+	 * 初期点が探索範囲外の場合は範囲の端に収めます。
+	 * </p>
+	 * @param _function 評価関数
+	 * @param _floor 探索範囲の最小値
+	 * @param _ceiling 探索範囲の最大値
+	 * @param _initial 初期点
+	 * @return 探索の結果
+	 * @throws IllegalArgumentException 評価関数がnullの場合
+	 * @throws IllegalArgumentException 探索範囲の最小値または最大値がNaNか無限大の場合
+	 * @throws IllegalArgumentException 初期点がNaNか無限大の場合
+	 */
+	public Result minimize( UnivariateFunction _function, double _floor, double _ceiling, double _initial ) {
+		validate( _function, _floor, _ceiling );
+		if ( Double.isNaN( _initial ) || Double.isInfinite( _initial ) ) {
+			throw new IllegalArgumentException( "_initial is NaN or Infinite." );
+		}
+
+		// 探索範囲の上限
+		double floor;
+		double ceiling;
+		if ( _floor < _ceiling ) {
+			floor = _floor;
+			ceiling = _ceiling;
+		} else {
+			floor = _ceiling;
+			ceiling = _floor;
+		}
+		int evaluations = 0;
+
+		// このときの関数値が、目的関数の最小値となる
+		double result = Math.min( Math.max( _initial, floor ), ceiling );
+		double evalResult = _function.value( result );
+		++evaluations;
+		// 前回の探索結果の更新量
+		double renewUpdateResult = 0.0;
+		// 前々回の探索結果の更新量
+		double lastButOneRenewUpdateResult = 0.0;
+		// 探索結果の更新量
+		double updateResult;
+		// 探索時の探索範囲の更新量とその評価値
+		double updateSearchRangeA = result;
+		double evalA = evalResult;
+		double updateSearchRangeB = result;
+		double evalB = evalResult;
+
+		// Brent法での最小値探索
+		for ( int i = 0; i < ITMAX; ++i ) {
+			// 前回の探索での定義域の中点
+			double previousMedian = 0.5 * ( floor + ceiling );
+			// 探索での許容誤差
+			double tolerance = m_relativeError * Math.abs( result ) + ABSOLUTE_ERROR;
+			double twiceTol = 2.0 * tolerance;
+			// 収束判定
+			if ( Math.abs( result - previousMedian ) <= ( twiceTol - 0.5 * ( ceiling - floor ) ) ) {
+				// 最良の値を返す
+				return new Result( result, evalResult, evaluations, true );
+			}
+
+			// 放物線補間を行う
+			if ( Math.abs( lastButOneRenewUpdateResult ) > tolerance ) {
+				// 放物線補間を行うための3点
+				double a = updateSearchRangeA;
+				double c = result;
+				double b = updateSearchRangeB;
+
+				// 放物線補間で最小値を探索するための更新量の分子 p
+				double numerator = ( c - a ) * ( c - a ) * ( evalResult - evalB ) - ( c - b ) * ( c - b ) * ( evalResult - evalA );
+				// 放物線補間で最小値を探索するための更新量の分母 q
+				double denominator = 2 * ( ( c - a ) * ( evalResult - evalB ) - ( c - b ) * ( evalResult - evalA ) );
+				// 探索結果を更新するために、符号を定義に合わせる
+				numerator = ( denominator > 0.0 ) ? -numerator : numerator;
+				denominator = Math.abs( denominator );
+
+				double tmpLastButOneUpdateResult = lastButOneRenewUpdateResult;
+				lastButOneRenewUpdateResult = renewUpdateResult;
+
+				// 放物線補間の適否の検査
+				if ( Math.abs( numerator ) >= Math.abs( 0.5 * denominator * tmpLastButOneUpdateResult )
+					|| numerator <= denominator * ( floor - result )
+					|| numerator >= denominator * ( ceiling - result ) ) {
+					// 放物線補間は不適なので、黄金分割比を採択する
+					lastButOneRenewUpdateResult = ( result >= previousMedian ) ? floor - result : ceiling - result;
+					renewUpdateResult = GOLDEN_RATIO * lastButOneRenewUpdateResult;
+				} else {
+					// 条件を満たすため、放物線補間を採択する
+					renewUpdateResult = numerator / denominator;
+					// 探索結果を更新
+					updateResult = result + renewUpdateResult;
+					if ( updateResult - floor < twiceTol || ceiling - updateResult < twiceTol ) {
+						renewUpdateResult = sign( tolerance, previousMedian - result );
+					}
+				}
+			} else {
+				// 黄金分割比を採択する
+				lastButOneRenewUpdateResult = ( result >= previousMedian ) ? floor - result : ceiling - result;
+				renewUpdateResult = GOLDEN_RATIO * lastButOneRenewUpdateResult;
+			}
+			updateResult = result + ( ( Math.abs( renewUpdateResult ) >= tolerance ) ? renewUpdateResult : sign( tolerance, renewUpdateResult ) );
+			// ここでこの探索の関数評価を行う
+			double evaluate = _function.value( updateResult );
+			++evaluations;
+			if ( evaluate <= evalResult ) {
+				if ( updateResult >= result ) {
+					floor = result;
+				} else {
+					ceiling = result;
+				}
+				// 探索範囲の更新
+				updateSearchRangeA = updateSearchRangeB;
+				evalA = evalB;
+				updateSearchRangeB = result;
+				evalB = evalResult;
+				result = updateResult;
+				evalResult = evaluate;
+			} else {
+				if ( updateResult < result ) {
+					floor = updateResult;
+				} else {
+					ceiling = updateResult;
+				}
+				if ( evaluate <= evalB || isConvergence( updateSearchRangeB, result, ABSOLUTE_ERROR ) ) {
+					updateSearchRangeA = updateSearchRangeB;
+					evalA = evalB;
+					updateSearchRangeB = updateResult;
+					evalB = evaluate;
+				} else if ( evaluate <= evalA
+					|| isConvergence( updateSearchRangeA, result, ABSOLUTE_ERROR )
+					|| isConvergence( updateSearchRangeA, updateSearchRangeB, ABSOLUTE_ERROR ) ) {
+					updateSearchRangeA = updateResult;
+					evalA = evaluate;
+				}
+			}
+		}
+
+		return new Result( result, evalResult, evaluations, false );
+	}
+
+	/**
+	 * 関数の根を探索します。
+	 * <p>
+	 * 探索範囲の両端で関数値の符号が異なる必要があります。
+	 * </p>
+	 * @param _function 評価関数
+	 * @param _floor 探索範囲の最小値
+	 * @param _ceiling 探索範囲の最大値
+	 * @return 探索の結果
+	 * @throws IllegalArgumentException 評価関数がnullの場合
+	 * @throws IllegalArgumentException 探索範囲の最小値または最大値がNaNか無限大の場合
+	 * @throws IllegalArgumentException 探索範囲の両端で関数値の符号が同じ場合
+	 */
+	public Result findRoot( UnivariateFunction _function, double _floor, double _ceiling ) {
+		validate( _function, _floor, _ceiling );
+		double a = _floor;
+		double b = _ceiling;
+		double fa = _function.value( a );
+		double fb = _function.value( b );
+		int evaluations = 2;
+		if ( fa == 0.0 ) {
+			return new Result( a, fa, evaluations, true );
+		}
+		if ( fb == 0.0 ) {
+			return new Result( b, fb, evaluations, true );
+		}
+		if ( ( fa > 0.0 ) == ( fb > 0.0 ) ) {
+			throw new IllegalArgumentException( "_function must have opposite signs at _floor and _ceiling." );
+		}
+
+		// 根を挟む点
+		double c = b;
+		double fc = fb;
+		// 前回と前々回の更新量
+		double d = 0.0;
+		double e = 0.0;
+		for ( int i = 0; i < ITMAX_ROOT; ++i ) {
+			if ( ( fb > 0.0 ) == ( fc > 0.0 ) ) {
+				// bとcが根を挟むように取り直す
+				c = a;
+				fc = fa;
+				d = b - a;
+				e = d;
+			}
+			if ( Math.abs( fc ) < Math.abs( fb ) ) {
+				a = b;
+				b = c;
+				c = a;
+				fa = fb;
+				fb = fc;
+				fc = fa;
+			}
+			// 探索での許容誤差
+			double tolerance = 2.0 * EPSILON * Math.abs( b ) + 0.5 * ( m_relativeError * Math.abs( b ) + ABSOLUTE_ERROR );
+			double median = 0.5 * ( c - b );
+			// 収束判定
+			if ( Math.abs( median ) <= tolerance || fb == 0.0 ) {
+				return new Result( b, fb, evaluations, true );
+			}
+			if ( Math.abs( e ) >= tolerance && Math.abs( fa ) > Math.abs( fb ) ) {
+				// 逆2次補間(2点の場合は割線法)を試みる
+				double s = fb / fa;
+				double p;
+				double q;
+				if ( a == c ) {
+					p = 2.0 * median * s;
+					q = 1.0 - s;
+				} else {
+					double r = fb / fc;
+					q = fa / fc;
+					p = s * ( 2.0 * median * q * ( q - r ) - ( b - a ) * ( r - 1.0 ) );
+					q = ( q - 1.0 ) * ( r - 1.0 ) * ( s - 1.0 );
+				}
+				if ( p > 0.0 ) {
+					q = -q;
+				}
+				p = Math.abs( p );
+				if ( 2.0 * p < Math.min( 3.0 * median * q - Math.abs( tolerance * q ), Math.abs( e * q ) ) ) {
+					// 補間を採択する
+					e = d;
+					d = p / q;
+				} else {
+					// 補間は不適なので、二分法を採択する
+					d = median;
+					e = d;
+				}
+			} else {
+				// 更新量が小さいので、二分法を採択する
+				d = median;
+				e = d;
+			}
+			a = b;
+			fa = fb;
+			b += ( Math.abs( d ) > tolerance ) ? d : sign( tolerance, median );
+			fb = _function.value( b );
+			++evaluations;
+		}
+
+		return new Result( b, fb, evaluations, false );
+	}
+
+	/**
+	 * 探索の引数を検査します。
+	 * @param _function 評価関数
+	 * @param _floor 探索範囲の最小値
+	 * @param _ceiling 探索範囲の最大値
+	 */
+	private static void validate( UnivariateFunction _function, double _floor, double _ceiling ) {
+		if ( _function == null ) {
+			throw new IllegalArgumentException( "_function is null." );
+		}
+		if ( Double.isNaN( _floor ) ) {
+			throw new IllegalArgumentException( "_floor is NaN." );
+		}
+		if ( Double.isInfinite( _floor ) ) {
+			throw new IllegalArgumentException( "_floor is Infinite." );
+		}
+		if ( Double.isNaN( _ceiling ) ) {
+			throw new IllegalArgumentException( "_ceiling is NaN." );
+		}
+		if ( Double.isInfinite( _ceiling ) ) {
+			throw new IllegalArgumentException( "_ceiling is Infinite." );
+		}
+	}
+
+	/**
+	 * 符号の付け替えを行います。
+	 * (参考 : Fortranの関数)
+	 * _b ＞= 0 なら | _a |を返し、 _b ＜ 0 なら -| _a |を返します。
+	 * @param _a 符号を付け替える値
+	 * @param _b 基準となる値
+	 * @return 符号の付け替えを行った値
+	 */
+	private static double sign( double _a, double _b ) {
+		if ( _b >= 0.0 ) {
+			return Math.abs( _a );
+		} else {
+			return -Math.abs( _a );
+		}
+	}
+
+	/**
+	 * 与えられた2変数が近似しているかを判定します。
+	 * @param _a 基準a
+	 * @param _b 基準b
+	 * @param _eps 許容値
+	 * @return 2変数が近似しているか
+	 */
+	private static boolean isConvergence( double _a, double _b, double _eps ) {
+		return ( Math.abs( _a - _b ) <= _eps );
+	}
+
+	private BrentSolver( double _relativeError ) {
+		m_relativeError = _relativeError;
+	}
+
+	/** 探索の相対誤差 */
+	private final double m_relativeError;
+	/** 黄金分割比 */
+	private static final double GOLDEN_RATIO = 0.3819660;
+	/** 最小値探索の反復回数の上限 */
+	private static final int ITMAX = 20;
+	/** 求根の反復回数の上限 */
+	private static final int ITMAX_ROOT = 100;
+	/** 絶対精度 */
+	private static final double ABSOLUTE_ERROR = 1.0E-5;
+	/** 計算機イプシロン */
+	private static final double EPSILON = Math.ulp( 1.0 );
+}
@@ -0,0 +1,38 @@
+package jp.sagalab.jftk;
+
+/**
+ * ライブラリ内部の事象の通知先を保持するクラスです。
+ * <p>
+ * 既定の通知先は何もしないリスナーであり、コンソールへの出力は行いません。
+ * 事象を計測や記録に用いる場合は {@link #setListener(InstrumentationListener)} でリスナーを登録してください。
+ * 通知先はプロセス全体で一つです。
+ * </p>
+ * @author agent
+ */
+public final class Instrumentation {
+
+	/**
+	 * 通知先のリスナーを返します。
+	 * @return リスナー
+	 */
+	public static InstrumentationListener listener() {
+		return c_listener;
+	}
+
+	/**
+	 * 通知先のリスナーを登録します。
+	 * @param _listener リスナー(nullの場合は何もしないリスナーに戻します)
+	 */
+	public static void setListener( InstrumentationListener _listener ) {
+		c_listener = _listener != null ? _listener : NONE;
+	}
+
+	private Instrumentation() {
+		throw new UnsupportedOperationException( "can not create instance." );
+	}
+
+	/** 何もしないリスナー */
+	private static final InstrumentationListener NONE = new InstrumentationAdapter();
+	/** 通知先のリスナー */
+	private static volatile InstrumentationListener c_listener = NONE;
+}
@@ -0,0 +1,30 @@
+package jp.sagalab.jftk;
+
+import java.util.Map;
+import jp.sagalab.jftk.recognition.PrimitiveType;
+
+/**
+ * 何もしない {@link InstrumentationListener} です。
+ * <p>
+ * 一部の事象のみを受け取るリスナーは、このクラスを継承して必要なメソッドをオーバーライドしてください。
+ * </p>
+ * @author agent
+ */
+public class InstrumentationAdapter implements InstrumentationListener {
+
+	@Override
+	public void recognized( PrimitiveType _type, Map<PrimitiveType, Double> _grades ) {
+	}
+
+	@Override
+	public void nnlsSolved( int _iterateCount, boolean _converged ) {
+	}
+
+	@Override
+	public void solveFailed( Class<?> _solver ) {
+	}
+
+	@Override
+	public void warned( Class<?> _source, String _message ) {
+	}
+}
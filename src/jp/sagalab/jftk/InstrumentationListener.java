@@ -0,0 +1,46 @@
+package jp.sagalab.jftk;
+
+import java.util.Map;
+import jp.sagalab.jftk.recognition.PrimitiveType;
+
+/**
+ * ライブラリ内部で発生した事象の通知を受け取るためのインタフェースです。
+ * <p>
+ * 幾何曲線認識の結果、NNLSの反復回数、連立方程式の求解の失敗などが
+ * {@link Instrumentation} に登録されたリスナーへ通知されます。
+ * 通知は事象が発生したスレッドから同期的に行われるため、各メソッドは短時間で戻り、
+ * 複数のスレッドから同時に呼び出されても安全である必要があります。
+ * 一部の事象のみを受け取る場合は {@link InstrumentationAdapter} を継承してください。
+ * </p>
+ * @author agent
+ * @see Instrumentation
+ */
+public interface InstrumentationListener {
+
+	/**
+	 * 幾何曲線認識が行われたことを通知します。
+	 * @param _type 認識された曲線種
+	 * @param _grades 曲線種毎のグレード値(変更不可)
+	 */
+	public void recognized( PrimitiveType _type, Map<PrimitiveType, Double> _grades );
+
+	/**
+	 * NNLSの反復が終了したことを通知します。
+	 * @param _iterateCount 反復回数
+	 * @param _converged 反復回数の上限に達する前に収束した場合true
+	 */
+	public void nnlsSolved( int _iterateCount, boolean _converged );
+
+	/**
+	 * 連立方程式の求解に失敗したことを通知します。
+	 * @param _solver 求解を行ったクラス
+	 */
+	public void solveFailed( Class<?> _solver );
+
+	/**
+	 * 処理は継続できるが想定外の事象が発生したことを通知します。
+	 * @param _source 事象が発生したクラス
+	 * @param _message 事象の内容
+	 */
+	public void warned( Class<?> _source, String _message );
+}
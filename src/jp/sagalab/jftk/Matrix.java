@@ -317,7 +317,7 @@ public class Matrix {
 				if ( elem[j][i] != 0.0 ) {
 					elem[j][i] /= denominator;
 					if ( Double.isNaN( elem[j][i] ) || Double.isInfinite( elem[j][i] ) ) {
-						System.err.println( "Warning: fault solving in Matrix." );
+						Instrumentation.listener().solveFailed( Matrix.class );
 						return null;
 					}
 					for ( int k = i + 1; k < rowSize; ++k ) {
@@ -358,7 +358,7 @@ public class Matrix {
 				}
 				result[index] = dd / denominator;
 				if ( Double.isNaN( result[index] ) || Double.isInfinite( result[index] ) ) {
-					System.err.println( "Warning: fault solving in Matrix." );
+					Instrumentation.listener().solveFailed( Matrix.class );
 					return null;
 				}
 			}
@@ -0,0 +1,432 @@
+package jp.sagalab.jftk;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ファジネスで重み付けした距離に関する最小包含球を表すクラスです。
+ * <p>
+ * 各ファジィ点について、中心からの距離をそのファジィ点のファジネスで割った値(修正距離)を考え、
+ * 修正距離の最大値(半径)が最小となる中心を求めます。
+ * 全てのファジネスが等しい場合は通常の最小包含球と一致します。
+ * </p>
+ * <p>
+ * 中心はWelzlの移動先頭法(move-to-front)で厳密に求めます。
+ * 点列を乱択で並べ替えることで、期待計算量は点数に対して線形となります。
+ * 乱数の種は固定しているため、同じ点列に対しては常に同じ結果を返します。
+ * </p>
+ * <p>
+ * 中心を表す点のファジネスには、中心を支持点(球面上にある点)の重心座標で表したときの
+ * 支持点のファジネスの重み付き平均を設定します。
+ * クリスプな点(ファジネスが0の点)を含む場合は、クリスプな点のみの最小包含球の中心を
+ * ファジネス0の点として返します。
+ * </p>
+ * @author agent
+ * @see MultiPoint#getVertex()
+ */
+public final class MinimumEnclosingBall {
+
+	/**
+	 * ファジィ点列の最小包含球を求めます。
+	 * @param _points ファジィ点列
+	 * @return 最小包含球
+	 * @throws IllegalArgumentException ファジィ点列がnullまたは空の場合
+	 * @throws IllegalArgumentException ファジィ点列にnullが含まれる場合
+	 */
+	public static MinimumEnclosingBall create( Point[] _points ) {
+		if ( _points == null || _points.length == 0 ) {
+			throw new IllegalArgumentException( "_points is null or empty." );
+		}
+		if ( Arrays.asList( _points ).indexOf( null ) > -1 ) {
+			throw new IllegalArgumentException( "_points include null." );
+		}
+
+		// クリスプな点の抽出
+		int crispCount = 0;
+		for ( Point p : _points ) {
+			if ( p.fuzziness() == 0 ) {
+				++crispCount;
+			}
+		}
+		if ( crispCount == 0 ) {
+			Solver solver = new Solver( _points, false );
+			solver.solve();
+			return new MinimumEnclosingBall( solver.center(), Math.sqrt( solver.m_squaredRadius ) );
+		}
+
+		// クリスプな点の重みは無限大となるため、クリスプな点のみで通常の最小包含球を求める
+		Point[] crisps = new Point[ crispCount ];
+		int index = 0;
+		for ( Point p : _points ) {
+			if ( p.fuzziness() == 0 ) {
+				crisps[index++] = p;
+			}
+		}
+		Solver solver = new Solver( crisps, true );
+		solver.solve();
+		Point center = solver.center();
+		double radius = 0.0;
+		if ( solver.m_squaredRadius > 0 ) {
+			radius = Double.POSITIVE_INFINITY;
+		} else {
+			for ( Point p : _points ) {
+				if ( p.fuzziness() > 0 ) {
+					radius = Math.max( radius, center.distance( p ) / p.fuzziness() );
+				}
+			}
+		}
+		return new MinimumEnclosingBall( center, radius );
+	}
+
+	/**
+	 * 最小包含球の中心を返します。
+	 * @return 中心
+	 */
+	public Point center() {
+		return m_center;
+	}
+
+	/**
+	 * 最小包含球の半径を返します。
+	 * <p>
+	 * 半径は中心から各点への修正距離の最大値です。
+	 * 複数の異なるクリスプな点を含む場合は無限大となります。
+	 * </p>
+	 * @return 半径
+	 */
+	public double radius() {
+		return m_radius;
+	}
+
+	@Override
+	public String toString() {
+		return String.format( "center:%s radius:%s", m_center, m_radius );
+	}
+
+	/**
+	 * 移動先頭法で最小包含球を求めるクラスです。
+	 */
+	private static final class Solver {
+
+		/**
+		 * 求解の準備を行います。
+		 * @param _points ファジィ点列
+		 * @param _unweighted 重みを付けない(全ての点の重みを1とする)か
+		 */
+		Solver( Point[] _points, boolean _unweighted ) {
+			int size = _points.length;
+			m_x = new double[ size ];
+			m_y = new double[ size ];
+			m_z = new double[ size ];
+			m_f = new double[ size ];
+			m_squaredF = new double[ size ];
+			m_order = new int[ size ];
+			for ( int i = 0; i < size; ++i ) {
+				m_x[i] = _points[i].x();
+				m_y[i] = _points[i].y();
+				m_z[i] = _points[i].z();
+				m_f[i] = _points[i].fuzziness();
+				m_squaredF[i] = _unweighted ? 1.0 : m_f[i] * m_f[i];
+				m_order[i] = i;
+			}
+			// 期待計算量を線形にするための乱択の並べ替え
+			Random random = new Random( SEED );
+			for ( int i = size - 1; i > 0; --i ) {
+				int j = random.nextInt( i + 1 );
+				int tmp = m_order[i];
+				m_order[i] = m_order[j];
+				m_order[j] = tmp;
+			}
+			m_support = new int[ MAX_SUPPORT ];
+			m_barycentric = new double[ MAX_SUPPORT ];
+		}
+
+		/**
+		 * 最小包含球を求めます。
+		 */
+		void solve() {
+			int[] boundary = new int[ MAX_SUPPORT ];
+			moveToFront( m_order.length, boundary, 0 );
+		}
+
+		/**
+		 * 最小包含球の中心を返します。
+		 * @return 中心
+		 */
+		Point center() {
+			double fuzziness = 0.0;
+			for ( int i = 0; i < m_supportSize; ++i ) {
+				fuzziness += m_barycentric[i] * m_f[m_support[i]];
+			}
+			return Point.createXYZTF( m_cx, m_cy, m_cz, Double.NaN, Math.max( fuzziness, 0.0 ) );
+		}
+
+		/**
+		 * 先頭から指定された数の点と、球面上にあるべき点について最小包含球を求めます。
+		 * @param _end 対象とする点の数
+		 * @param _boundary 球面上にあるべき点の番号
+		 * @param _boundarySize 球面上にあるべき点の数
+		 */
+		private void moveToFront( int _end, int[] _boundary, int _boundarySize ) {
+			computeBall( _boundary, _boundarySize );
+			if ( _boundarySize == MAX_SUPPORT ) {
+				return;
+			}
+			for ( int i = 0; i < _end; ++i ) {
+				int point = m_order[i];
+				if ( isViolated( point ) ) {
+					_boundary[_boundarySize] = point;
+					moveToFront( i, _boundary, _boundarySize + 1 );
+					// 違反した点を先頭に移動
+					System.arraycopy( m_order, 0, m_order, 1, i );
+					m_order[0] = point;
+				}
+			}
+		}
+
+		/**
+		 * 指定された点が現在の球に含まれないかを判定します。
+		 * @param _point 点番号
+		 * @return 含まれない場合true
+		 */
+		private boolean isViolated( int _point ) {
+			if ( m_squaredRadius < 0 ) {
+				return true;
+			}
+			double dx = m_x[_point] - m_cx;
+			double dy = m_y[_point] - m_cy;
+			double dz = m_z[_point] - m_cz;
+			double squaredDistance = dx * dx + dy * dy + dz * dz;
+			return squaredDistance > m_squaredRadius * m_squaredF[_point] * ( 1 + TOLERANCE );
+		}
+
+		/**
+		 * 指定された点が全て球面上にある最小の球を求めます。
+		 * <p>
+		 * 点が退化していて球が定まらない場合は、最後の点を残して1点ずつ除いた球のうち、
+		 * 除いた点を含む最小の球を用います。
+		 * </p>
+		 * @param _boundary 球面上にあるべき点の番号
+		 * @param _boundarySize 球面上にあるべき点の数
+		 */
+		private void computeBall( int[] _boundary, int _boundarySize ) {
+			if ( _boundarySize == 0 ) {
+				m_squaredRadius = -1.0;
+				m_supportSize = 0;
+				return;
+			}
+			if ( solveBoundary( _boundary, _boundarySize ) ) {
+				return;
+			}
+			// 退化している場合
+			int[] subset = new int[ _boundarySize - 1 ];
+			double bestRadius = Double.POSITIVE_INFINITY;
+			boolean bestContains = false;
+			double[] best = null;
+			int[] bestSupport = null;
+			for ( int skip = 0; skip < _boundarySize - 1; ++skip ) {
+				int n = 0;
+				for ( int i = 0; i < _boundarySize; ++i ) {
+					if ( i != skip ) {
+						subset[n++] = _boundary[i];
+					}
+				}
+				computeBall( subset, n );
+				boolean contains = !isViolated( _boundary[skip] );
+				if ( best == null || ( contains && !bestContains )
+					|| ( contains == bestContains && ( contains ? m_squaredRadius < bestRadius : m_squaredRadius > bestRadius ) ) ) {
+					bestRadius = m_squaredRadius;
+					bestContains = contains;
+					best = new double[ 3 + m_supportSize ];
+					best[0] = m_cx;
+					best[1] = m_cy;
+					best[2] = m_cz;
+					System.arraycopy( m_barycentric, 0, best, 3, m_supportSize );
+					bestSupport = Arrays.copyOf( m_support, m_supportSize );
+				}
+			}
+			m_cx = best[0];
+			m_cy = best[1];
+			m_cz = best[2];
+			m_squaredRadius = bestRadius;
+			m_supportSize = bestSupport.length;
+			System.arraycopy( bestSupport, 0, m_support, 0, m_supportSize );
+			System.arraycopy( best, 3, m_barycentric, 0, m_supportSize );
+		}
+
+		/**
+		 * 指定された点が全て球面上にあり、中心がそれらの点のアフィン包にある最小の球を求めます。
+		 * <p>
+		 * 中心を c = p0 + Σ αj (pj - p0) 、半径の2乗を s とすると、
+		 * |c - pj|^2 = s fj^2 の差をとった式はαとsについて線形となるため、
+		 * αを s の1次式で表し、|c - p0|^2 = s f0^2 に代入した s の2次方程式の最小の非負の解を求めます。
+		 * </p>
+		 * @param _boundary 球面上にあるべき点の番号
+		 * @param _boundarySize 球面上にあるべき点の数
+		 * @return 球が定まった場合true
+		 */
+		private boolean solveBoundary( int[] _boundary, int _boundarySize ) {
+			int p0 = _boundary[0];
+			int k = _boundarySize - 1;
+			// p0から各点へのベクトル
+			double[][] q = new double[ k ][];
+			for ( int j = 0; j < k; ++j ) {
+				int p = _boundary[j + 1];
+				q[j] = new double[]{ m_x[p] - m_x[p0], m_y[p] - m_y[p0], m_z[p] - m_z[p0] };
+			}
+			// グラム行列と右辺(定数項とsの係数)
+			double[][] gram = new double[ k ][ k + 2 ];
+			double scale = 0.0;
+			for ( int i = 0; i < k; ++i ) {
+				for ( int j = 0; j < k; ++j ) {
+					gram[i][j] = dot( q[i], q[j] );
+				}
+				scale = Math.max( scale, gram[i][i] );
+				gram[i][k] = 0.5 * gram[i][i];
+				gram[i][k + 1] = 0.5 * ( m_squaredF[p0] - m_squaredF[_boundary[i + 1]] );
+			}
+			if ( !eliminate( gram, k, scale ) ) {
+				return false;
+			}
+			// u = Q a, v = Q b
+			double[] u = new double[ 3 ];
+			double[] v = new double[ 3 ];
+			for ( int j = 0; j < k; ++j ) {
+				for ( int d = 0; d < 3; ++d ) {
+					u[d] += gram[j][k] * q[j][d];
+					v[d] += gram[j][k + 1] * q[j][d];
+				}
+			}
+			// |u + s v|^2 = s f0^2
+			double a = dot( v, v );
+			double b = 2 * dot( u, v ) - m_squaredF[p0];
+			double c = dot( u, u );
+			double s;
+			if ( c == 0 ) {
+				s = 0.0;
+			} else {
+				double discriminant = b * b - 4 * a * c;
+				if ( !( b < 0 ) || discriminant < 0 ) {
+					return false;
+				}
+				// 桁落ちを避けた小さい方の解
+				s = 2 * c / ( -b + Math.sqrt( discriminant ) );
+			}
+			if ( Double.isNaN( s ) || Double.isInfinite( s ) ) {
+				return false;
+			}
+
+			m_cx = m_x[p0] + u[0] + s * v[0];
+			m_cy = m_y[p0] + u[1] + s * v[1];
+			m_cz = m_z[p0] + u[2] + s * v[2];
+			m_squaredRadius = s;
+			m_supportSize = _boundarySize;
+			double sum = 0.0;
+			for ( int j = 0; j < k; ++j ) {
+				double alpha = gram[j][k] + s * gram[j][k + 1];
+				m_support[j + 1] = _boundary[j + 1];
+				m_barycentric[j + 1] = alpha;
+				sum += alpha;
+			}
+			m_support[0] = p0;
+			m_barycentric[0] = 1 - sum;
+			return true;
+		}
+
+		/**
+		 * 部分ピボット選択付きのガウス・ジョルダン法で連立方程式を解きます。
+		 * <p>
+		 * 解は拡大係数行列の右辺の列に格納されます。
+		 * </p>
+		 * @param _matrix 拡大係数行列(右辺は2列)
+		 * @param _size 未知数の数
+		 * @param _scale 特異性を判定するための基準値
+		 * @return 解が定まった場合true
+		 */
+		private static boolean eliminate( double[][] _matrix, int _size, double _scale ) {
+			int width = _size + 2;
+			for ( int col = 0; col < _size; ++col ) {
+				int pivot = col;
+				for ( int row = col + 1; row < _size; ++row ) {
+					if ( Math.abs( _matrix[row][col] ) > Math.abs( _matrix[pivot][col] ) ) {
+						pivot = row;
+					}
+				}
+				if ( !( Math.abs( _matrix[pivot][col] ) > SINGULAR_TOLERANCE * _scale ) ) {
+					return false;
+				}
+				double[] tmp = _matrix[col];
+				_matrix[col] = _matrix[pivot];
+				_matrix[pivot] = tmp;
+				double diagonal = _matrix[col][col];
+				for ( int j = col; j < width; ++j ) {
+					_matrix[col][j] /= diagonal;
+				}
+				for ( int row = 0; row < _size; ++row ) {
+					if ( row != col && _matrix[row][col] != 0 ) {
+						double factor = _matrix[row][col];
+						for ( int j = col; j < width; ++j ) {
+							_matrix[row][j] -= factor * _matrix[col][j];
+						}
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 内積を求めます。
+		 * @param _a ベクトルa
+		 * @param _b ベクトルb
+		 * @return 内積
+		 */
+		private static double dot( double[] _a, double[] _b ) {
+			return _a[0] * _b[0] + _a[1] * _b[1] + _a[2] * _b[2];
+		}
+
+		/** x座標 */
+		private final double[] m_x;
+		/** y座標 */
+		private final double[] m_y;
+		/** z座標 */
+		private final double[] m_z;
+		/** ファジネス */
+		private final double[] m_f;
+		/** 重み(ファジネスの2乗) */
+		private final double[] m_squaredF;
+		/** 点の探索順 */
+		private final int[] m_order;
+		/** 支持点の番号 */
+		private final int[] m_support;
+		/** 支持点に関する中心の重心座標 */
+		private final double[] m_barycentric;
+		/** 支持点の数 */
+		private int m_supportSize;
+		/** 中心のx座標 */
+		private double m_cx;
+		/** 中心のy座標 */
+		private double m_cy;
+		/** 中心のz座標 */
+		private double m_cz;
+		/** 半径の2乗(球が空の場合は負) */
+		private double m_squaredRadius;
+	}
+
+	private MinimumEnclosingBall( Point _center, double _radius ) {
+		m_center = _center;
+		m_radius = _radius;
+	}
+
+	/** 中心 */
+	private final Point m_center;
+	/** 半径 */
+	private final double m_radius;
+	/** 球面上にある点の最大数(3次元) */
+	private static final int MAX_SUPPORT = 4;
+	/** 包含判定の相対的な許容誤差 */
+	private static final double TOLERANCE = 1.0E-12;
+	/** 特異性の判定に用いる相対的な許容誤差 */
+	private static final double SINGULAR_TOLERANCE = 1.0E-12;
+	/** 並べ替えに用いる乱数の種 */
+	private static final long SEED = 0x5DEECE66DL;
+}
@@ -200,51 +200,15 @@ public class MultiPoint extends FuzzySet implements Transformable<MultiPoint>{
 
 	/**
 	 * マルチファジィ点の各要素における頂点を求めます。
+	 * <p>
+	 * 頂点は各要素への修正距離の最大値が最小となる点であり、
+	 * ファジネスで重み付けした最小包含球の中心として厳密に求めます。
+	 * </p>
 	 * @return 頂点
+	 * @see MinimumEnclosingBall
 	 */
 	private static Point calculateVertex(Point[] _points) {
-
-		// 頂点
-		Point vertex = _points[ 0 ];
-		// 頂点のx座標
-		double vertexX = vertex.x();
-		// 頂点のy座標
-		double vertexY = vertex.y();
-		// 頂点のz座標
-		double vertexZ = vertex.z();
-		// 頂点のファジネス
-		double fuzziness = vertex.fuzziness();
-		// 探索移動量 (倍率)
-		double move = 0.5;
-		// 探索時での最遠点番号
-		int apocenterNum = 0;
-		// 探索時での最遠点までの最大距離
-		double maxDistance;
-
-		// moveが一定の倍率より小さくなるまで探索を行う
-		while ( move > 1.0e-8 ) {
-			// 現在のmoveで探索を行う
-			for ( int t = 0; t < 50; ++t ) {
-				// 変数の初期化
-				maxDistance = 0;
-				for ( int i = 0; i < _points.length; ++i ) {
-					if ( vertex.modifiedDistance( _points[i] ) > maxDistance ) {
-						maxDistance = vertex.modifiedDistance( _points[i] );
-						apocenterNum = i;
-					}
-				}
-				// 頂点座標の計算
-				vertexX += ( _points[apocenterNum].x() - vertex.x() ) * move;
-				vertexY += ( _points[apocenterNum].y() - vertex.y() ) * move;
-				vertexZ += ( _points[apocenterNum].z() - vertex.z() ) * move;
-				fuzziness += ( _points[apocenterNum].fuzziness()- vertex.fuzziness()) * move;
-				// vertexのインスタンスを再生成
-				vertex = Point.createXYZTF( vertexX, vertexY, vertexZ, Double.NaN, fuzziness );
-			}
-			move = move / 2.0;
-		}
-
-		return vertex;
+		return MinimumEnclosingBall.create( _points ).center();
 	}
 		
 	/**
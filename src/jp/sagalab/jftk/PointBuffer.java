@@ -0,0 +1,602 @@
+package jp.sagalab.jftk;
+
+import java.util.Arrays;
+import jp.sagalab.jftk.curve.OutOfRangeException;
+
+/**
+ * ファジィ点列を座標成分ごとの配列で保持するクラスです。
+ * <p>
+ * {@link Point} の配列と同じ情報(X座標、Y座標、Z座標、時刻、ファジネス)を
+ * 成分ごとのプリミティブ配列として保持します。
+ * 数千点規模の点列を扱う処理で、点ごとのオブジェクト生成と値の検査を省くために用います。
+ * </p>
+ * <p>
+ * このクラスは不変クラスです。{@link #view(int, int)} で得られる部分点列は
+ * 元の点列と配列を共有するため、複製は行われません。
+ * 点列を逐次構築する場合は {@link Builder} を用います。
+ * </p>
+ * @author agent
+ */
+public final class PointBuffer {
+
+	/**
+	 * 点列を逐次構築するためのクラスです。
+	 * <p>
+	 * {@link #build()} は構築した配列をそのまま点列に引き渡すため、
+	 * 一度 build した後にこのインスタンスを使用することはできません。
+	 * </p>
+	 */
+	public static final class Builder {
+
+		/**
+		 * 点列の構築を開始します。
+		 * @param _capacity 初期容量
+		 * @throws IllegalArgumentException 初期容量が負の場合
+		 */
+		public Builder( int _capacity ) {
+			if ( _capacity < 0 ) {
+				throw new IllegalArgumentException( "_capacity is negative." );
+			}
+			int capacity = Math.max( _capacity, 1 );
+			m_x = new double[ capacity ];
+			m_y = new double[ capacity ];
+			m_z = new double[ capacity ];
+			m_t = new double[ capacity ];
+			m_f = new double[ capacity ];
+			m_size = 0;
+		}
+
+		/**
+		 * 点を追加します。
+		 * @param _x X座標
+		 * @param _y Y座標
+		 * @param _z Z座標
+		 * @param _time 時刻
+		 * @param _fuzziness 位置のあいまいさ
+		 * @return このインスタンス
+		 * @throws IllegalArgumentException 各値にNaNまたはInfiniteが指定された場合(時刻はNaNを許容します)
+		 * @throws OutOfRangeException ファジネスに0未満が指定された場合
+		 * @throws IllegalStateException 既に build されている場合
+		 */
+		public Builder add( double _x, double _y, double _z, double _time, double _fuzziness ) {
+			// NaNとInfiniteをまとめて検査する
+			if ( !( Math.abs( _x ) <= Double.MAX_VALUE && Math.abs( _y ) <= Double.MAX_VALUE
+				&& Math.abs( _z ) <= Double.MAX_VALUE && Math.abs( _fuzziness ) <= Double.MAX_VALUE ) ) {
+				throw new IllegalArgumentException(
+					String.format( "x:%f y:%f z:%f f:%f has NaN or Inf.", _x, _y, _z, _fuzziness ) );
+			}
+			if ( Double.isInfinite( _time ) ) {
+				throw new IllegalArgumentException( "_time is Inf." );
+			}
+			if ( _fuzziness < 0 ) {
+				throw new OutOfRangeException( "_fuzziness < 0" );
+			}
+			ensureCapacity( m_size + 1 );
+			m_x[m_size] = _x;
+			m_y[m_size] = _y;
+			m_z[m_size] = _z;
+			m_t[m_size] = _time;
+			m_f[m_size] = _fuzziness;
+			++m_size;
+			return this;
+		}
+
+		/**
+		 * 点を追加します。
+		 * @param _point 点
+		 * @return このインスタンス
+		 * @throws IllegalStateException 既に build されている場合
+		 */
+		public Builder add( Point _point ) {
+			// Pointは生成時に検査済み
+			ensureCapacity( m_size + 1 );
+			m_x[m_size] = _point.x();
+			m_y[m_size] = _point.y();
+			m_z[m_size] = _point.z();
+			m_t[m_size] = _point.time();
+			m_f[m_size] = _point.fuzziness();
+			++m_size;
+			return this;
+		}
+
+		/**
+		 * 点列の指定された点を追加します。
+		 * @param _buffer 点列
+		 * @param _index 点番号
+		 * @return このインスタンス
+		 * @throws IllegalStateException 既に build されている場合
+		 */
+		public Builder add( PointBuffer _buffer, int _index ) {
+			// PointBufferは構築時に検査済み
+			int index = _buffer.checkedIndex( _index );
+			ensureCapacity( m_size + 1 );
+			m_x[m_size] = _buffer.m_x[index];
+			m_y[m_size] = _buffer.m_y[index];
+			m_z[m_size] = _buffer.m_z[index];
+			m_t[m_size] = _buffer.m_t[index];
+			m_f[m_size] = _buffer.m_f[index];
+			++m_size;
+			return this;
+		}
+
+		/**
+		 * 点列を全て追加します。
+		 * @param _buffer 点列
+		 * @return このインスタンス
+		 * @throws IllegalStateException 既に build されている場合
+		 */
+		public Builder addAll( PointBuffer _buffer ) {
+			int size = _buffer.m_size;
+			ensureCapacity( m_size + size );
+			System.arraycopy( _buffer.m_x, _buffer.m_offset, m_x, m_size, size );
+			System.arraycopy( _buffer.m_y, _buffer.m_offset, m_y, m_size, size );
+			System.arraycopy( _buffer.m_z, _buffer.m_offset, m_z, m_size, size );
+			System.arraycopy( _buffer.m_t, _buffer.m_offset, m_t, m_size, size );
+			System.arraycopy( _buffer.m_f, _buffer.m_offset, m_f, m_size, size );
+			m_size += size;
+			return this;
+		}
+
+		/**
+		 * 追加済みの点数を返します。
+		 * @return 点数
+		 */
+		public int size() {
+			return m_size;
+		}
+
+		/**
+		 * 点列を生成します。
+		 * @return 点列
+		 * @throws IllegalStateException 既に build されている場合
+		 */
+		public PointBuffer build() {
+			if ( m_x == null ) {
+				throw new IllegalStateException( "already built." );
+			}
+			PointBuffer buffer = new PointBuffer( m_x, m_y, m_z, m_t, m_f, 0, m_size );
+			m_x = null;
+			m_y = null;
+			m_z = null;
+			m_t = null;
+			m_f = null;
+			return buffer;
+		}
+
+		private void ensureCapacity( int _capacity ) {
+			if ( m_x == null ) {
+				throw new IllegalStateException( "already built." );
+			}
+			if ( _capacity > m_x.length ) {
+				int capacity = Math.max( _capacity, m_x.length * 2 );
+				m_x = Arrays.copyOf( m_x, capacity );
+				m_y = Arrays.copyOf( m_y, capacity );
+				m_z = Arrays.copyOf( m_z, capacity );
+				m_t = Arrays.copyOf( m_t, capacity );
+				m_f = Arrays.copyOf( m_f, capacity );
+			}
+		}
+
+		/** X座標 */
+		private double[] m_x;
+		/** Y座標 */
+		private double[] m_y;
+		/** Z座標 */
+		private double[] m_z;
+		/** 時刻 */
+		private double[] m_t;
+		/** 位置のあいまいさ（ファジネス） */
+		private double[] m_f;
+		/** 点数 */
+		private int m_size;
+	}
+
+	/**
+	 * 点列を生成します。
+	 * @param _points 点列
+	 * @return 点列
+	 * @throws IllegalArgumentException 点列がnullの場合
+	 * @throws IllegalArgumentException 点列にnullが含まれる場合
+	 */
+	public static PointBuffer create( Point[] _points ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null." );
+		}
+		Builder builder = new Builder( _points.length );
+		for ( Point p : _points ) {
+			if ( p == null ) {
+				throw new IllegalArgumentException( "_points include null." );
+			}
+			builder.add( p );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 成分ごとの配列から点列を生成します。
+	 * <p>
+	 * 指定された配列は複製されます。
+	 * </p>
+	 * @param _x X座標列
+	 * @param _y Y座標列
+	 * @param _z Z座標列
+	 * @param _time 時刻列
+	 * @param _fuzziness ファジネス列
+	 * @return 点列
+	 * @throws IllegalArgumentException 配列がnullの場合
+	 * @throws IllegalArgumentException 配列の要素数が等しくない場合
+	 * @throws IllegalArgumentException 各値にNaNまたはInfiniteが含まれる場合(時刻はNaNを許容します)
+	 * @throws OutOfRangeException ファジネスに0未満が含まれる場合
+	 */
+	public static PointBuffer create( double[] _x, double[] _y, double[] _z, double[] _time, double[] _fuzziness ) {
+		if ( _x == null || _y == null || _z == null || _time == null || _fuzziness == null ) {
+			throw new IllegalArgumentException( "arrays include null." );
+		}
+		int size = _x.length;
+		if ( _y.length != size || _z.length != size || _time.length != size || _fuzziness.length != size ) {
+			throw new IllegalArgumentException( "arrays' lengths are not equal." );
+		}
+		Builder builder = new Builder( size );
+		for ( int i = 0; i < size; ++i ) {
+			builder.add( _x[i], _y[i], _z[i], _time[i], _fuzziness[i] );
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 点数を返します。
+	 * @return 点数
+	 */
+	public int size() {
+		return m_size;
+	}
+
+	/**
+	 * 指定された点のX座標を返します。
+	 * @param _index 点番号
+	 * @return X座標
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public double x( int _index ) {
+		return m_x[checkedIndex( _index )];
+	}
+
+	/**
+	 * 指定された点のY座標を返します。
+	 * @param _index 点番号
+	 * @return Y座標
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public double y( int _index ) {
+		return m_y[checkedIndex( _index )];
+	}
+
+	/**
+	 * 指定された点のZ座標を返します。
+	 * @param _index 点番号
+	 * @return Z座標
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public double z( int _index ) {
+		return m_z[checkedIndex( _index )];
+	}
+
+	/**
+	 * 指定された点の時刻を返します。
+	 * @param _index 点番号
+	 * @return 時刻
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public double time( int _index ) {
+		return m_t[checkedIndex( _index )];
+	}
+
+	/**
+	 * 指定された点のファジネスを返します。
+	 * @param _index 点番号
+	 * @return ファジネス
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public double fuzziness( int _index ) {
+		return m_f[checkedIndex( _index )];
+	}
+
+	/**
+	 * 指定された点を返します。
+	 * @param _index 点番号
+	 * @return 点
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public Point point( int _index ) {
+		int index = checkedIndex( _index );
+		return Point.createXYZTF( m_x[index], m_y[index], m_z[index], m_t[index], m_f[index] );
+	}
+
+	/**
+	 * X座標列を返します。
+	 * @return X座標列の複製
+	 */
+	public double[] xs() {
+		return Arrays.copyOfRange( m_x, m_offset, m_offset + m_size );
+	}
+
+	/**
+	 * Y座標列を返します。
+	 * @return Y座標列の複製
+	 */
+	public double[] ys() {
+		return Arrays.copyOfRange( m_y, m_offset, m_offset + m_size );
+	}
+
+	/**
+	 * Z座標列を返します。
+	 * @return Z座標列の複製
+	 */
+	public double[] zs() {
+		return Arrays.copyOfRange( m_z, m_offset, m_offset + m_size );
+	}
+
+	/**
+	 * 時刻列を返します。
+	 * @return 時刻列の複製
+	 */
+	public double[] times() {
+		return Arrays.copyOfRange( m_t, m_offset, m_offset + m_size );
+	}
+
+	/**
+	 * ファジネス列を返します。
+	 * @return ファジネス列の複製
+	 */
+	public double[] fuzzinesses() {
+		return Arrays.copyOfRange( m_f, m_offset, m_offset + m_size );
+	}
+
+	/**
+	 * 部分点列を返します。
+	 * <p>
+	 * 部分点列はこの点列と配列を共有します。
+	 * </p>
+	 * @param _from 開始点番号(この点を含む)
+	 * @param _to 終了点番号(この点を含まない)
+	 * @return 部分点列
+	 * @throws IndexOutOfBoundsException 点番号が範囲外の場合
+	 */
+	public PointBuffer view( int _from, int _to ) {
+		if ( _from < 0 || _to > m_size || _from > _to ) {
+			throw new IndexOutOfBoundsException( String.format( "from:%d to:%d size:%d", _from, _to, m_size ) );
+		}
+		return new PointBuffer( m_x, m_y, m_z, m_t, m_f, m_offset + _from, _to - _from );
+	}
+
+	/**
+	 * Point の配列に変換します。
+	 * @return 点列
+	 */
+	public Point[] toPoints() {
+		Point[] points = new Point[ m_size ];
+		for ( int i = 0; i < m_size; ++i ) {
+			points[i] = point( i );
+		}
+		return points;
+	}
+
+	/**
+	 * 各点間の距離合計を計測します。
+	 * @return 距離合計
+	 * @see Point#length(jp.sagalab.jftk.Point[])
+	 */
+	public double length() {
+		double length = 0;
+		for ( int i = m_offset + 1, end = m_offset + m_size; i < end; ++i ) {
+			double dx = m_x[i - 1] - m_x[i];
+			double dy = m_y[i - 1] - m_y[i];
+			double dz = m_z[i - 1] - m_z[i];
+			length += Math.sqrt( dx * dx + dy * dy + dz * dz );
+		}
+		return length;
+	}
+
+	/**
+	 * 指定された点が他方の点列の指定された点に含まれる可能性値を返します。
+	 * <p>
+	 * {@link Point#includedIn(jp.sagalab.jftk.Point)} の可能性値と同じ値を、
+	 * 区間真理値を生成せずに求めます。
+	 * </p>
+	 * @param _index この点列の点番号
+	 * @param _other 他方の点列
+	 * @param _otherIndex 他方の点列の点番号
+	 * @return 可能性値
+	 */
+	public double possibility( int _index, PointBuffer _other, int _otherIndex ) {
+		int i = checkedIndex( _index );
+		int j = _other.checkedIndex( _otherIndex );
+		double dx = m_x[i] - _other.m_x[j];
+		double dy = m_y[i] - _other.m_y[j];
+		double dz = m_z[i] - _other.m_z[j];
+		double distance = Math.sqrt( dx * dx + dy * dy + dz * dz );
+		double fuzzinessSum = m_f[i] + _other.m_f[j];
+		if ( Double.isInfinite( fuzzinessSum ) ) {
+			return 1;
+		}
+		double pos = Math.max( ( fuzzinessSum - distance ) / fuzzinessSum, 0 );
+		// 共にクリスプな点が一致する場合
+		return Double.isNaN( pos ) ? 1 : pos;
+	}
+
+	/**
+	 * 各点が他方の点列の同じ番号の点に含まれるかを評価し、その最小値を返します。
+	 * <p>
+	 * 全ての点について {@link Point#includedIn(jp.sagalab.jftk.Point)} を求め、
+	 * 必然性値・可能性値それぞれの最小値をとった区間真理値と同じ値を返します。
+	 * 点ごとの区間真理値は生成せず、距離の計算と最小値の畳み込みを
+	 * 成分ごとの配列に対する単純なループで行います。
+	 * </p>
+	 * @param _other 他方の点列
+	 * @return 区間真理値
+	 * @throws IllegalArgumentException 他方の点列がnullの場合
+	 * @throws IllegalArgumentException 点数が等しくない場合
+	 */
+	public TruthValue includedIn( PointBuffer _other ) {
+		if ( _other == null ) {
+			throw new IllegalArgumentException( "_other is null." );
+		}
+		if ( _other.m_size != m_size ) {
+			throw new IllegalArgumentException( "size is not equal." );
+		}
+		final int size = m_size;
+		final int a = m_offset;
+		final int b = _other.m_offset;
+		final double[] ax = m_x;
+		final double[] ay = m_y;
+		final double[] az = m_z;
+		final double[] af = m_f;
+		final double[] bx = _other.m_x;
+		final double[] by = _other.m_y;
+		final double[] bz = _other.m_z;
+		final double[] bf = _other.m_f;
+
+		// 距離
+		double[] distances = new double[ size ];
+		for ( int i = 0; i < size; ++i ) {
+			double dx = ax[a + i] - bx[b + i];
+			double dy = ay[a + i] - by[b + i];
+			double dz = az[a + i] - bz[b + i];
+			distances[i] = Math.sqrt( dx * dx + dy * dy + dz * dz );
+		}
+
+		// 必然性値・可能性値の最小値
+		double nec = 1;
+		double pos = 1;
+		for ( int i = 0; i < size; ++i ) {
+			double fuzzinessSum = af[a + i] + bf[b + i];
+			nec = Math.min( nec, Math.max( ( bf[b + i] - distances[i] ) / fuzzinessSum, 0 ) );
+			pos = Math.min( pos, Math.max( ( fuzzinessSum - distances[i] ) / fuzzinessSum, 0 ) );
+		}
+
+		// 共にクリスプな点が一致する場合などは非数となるため、点ごとに評価し直す
+		if ( Double.isNaN( nec ) || Double.isNaN( pos ) ) {
+			nec = 1;
+			pos = 1;
+			for ( int i = 0; i < size; ++i ) {
+				double fuzzinessSum = af[a + i] + bf[b + i];
+				double n;
+				double p;
+				if ( Double.isInfinite( fuzzinessSum ) ) {
+					n = 0;
+					p = 1;
+				} else {
+					n = Math.max( ( bf[b + i] - distances[i] ) / fuzzinessSum, 0 );
+					p = Math.max( ( fuzzinessSum - distances[i] ) / fuzzinessSum, 0 );
+				}
+				if ( Double.isNaN( n ) && Double.isNaN( p ) ) {
+					n = 0.5;
+					p = 1;
+				}
+				nec = Math.min( nec, n );
+				pos = Math.min( pos, p );
+			}
+		}
+
+		return TruthValue.create( nec, pos );
+	}
+
+	/**
+	 * この PointBuffer と指定された Object が等しいかどうかを比較します。
+	 * @param obj この PointBuffer と比較される Object
+	 * @return 指定された Object が、このオブジェクトと全ての点がまったく同じ PointBuffer である限りtrue
+	 */
+	@Override
+	public boolean equals( Object obj ) {
+		if ( obj == null ) {
+			return false;
+		}
+		if ( getClass() != obj.getClass() ) {
+			return false;
+		}
+		final PointBuffer other = (PointBuffer) obj;
+		if ( m_size != other.m_size ) {
+			return false;
+		}
+		for ( int i = 0; i < m_size; ++i ) {
+			int a = m_offset + i;
+			int b = other.m_offset + i;
+			if ( m_x[a] != other.m_x[b] || m_y[a] != other.m_y[b] || m_z[a] != other.m_z[b]
+				|| m_f[a] != other.m_f[b] ) {
+				return false;
+			}
+			if ( Double.isNaN( m_t[a] ) ) {
+				if ( !Double.isNaN( other.m_t[b] ) ) {
+					return false;
+				}
+			} else if ( m_t[a] != other.m_t[b] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * この PointBuffer のハッシュコードを返します。
+	 * @return この PointBuffer のハッシュコード
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		for ( int i = m_offset, end = m_offset + m_size; i < end; ++i ) {
+			hash = 67 * hash + (int) ( Double.doubleToLongBits( m_x[i] ) ^ ( Double.doubleToLongBits( m_x[i] ) >>> 32 ) );
+			hash = 67 * hash + (int) ( Double.doubleToLongBits( m_y[i] ) ^ ( Double.doubleToLongBits( m_y[i] ) >>> 32 ) );
+			hash = 67 * hash + (int) ( Double.doubleToLongBits( m_z[i] ) ^ ( Double.doubleToLongBits( m_z[i] ) >>> 32 ) );
+			hash = 67 * hash + (int) ( Double.doubleToLongBits( m_t[i] ) ^ ( Double.doubleToLongBits( m_t[i] ) >>> 32 ) );
+			hash = 67 * hash + (int) ( Double.doubleToLongBits( m_f[i] ) ^ ( Double.doubleToLongBits( m_f[i] ) >>> 32 ) );
+		}
+		return hash;
+	}
+
+	/**
+	 * この PointBuffer の文字列表現を返します。
+	 * @return 点数と各点を表す String
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append( "size:" ).append( m_size ).append( '\n' );
+		for ( int i = m_offset, end = m_offset + m_size; i < end; ++i ) {
+			builder.append( String.format( "x:%.3f y:%.3f z:%.3f t:%.3f f:%.3f\n",
+				m_x[i], m_y[i], m_z[i], m_t[i], m_f[i] ) );
+		}
+		return builder.toString();
+	}
+
+	private int checkedIndex( int _index ) {
+		if ( _index < 0 || _index >= m_size ) {
+			throw new IndexOutOfBoundsException( String.format( "index:%d size:%d", _index, m_size ) );
+		}
+		return m_offset + _index;
+	}
+
+	private PointBuffer( double[] _x, double[] _y, double[] _z, double[] _t, double[] _f, int _offset, int _size ) {
+		m_x = _x;
+		m_y = _y;
+		m_z = _z;
+		m_t = _t;
+		m_f = _f;
+		m_offset = _offset;
+		m_size = _size;
+	}
+
+	/** X座標 */
+	private final double[] m_x;
+	/** Y座標 */
+	private final double[] m_y;
+	/** Z座標 */
+	private final double[] m_z;
+	/** 時刻 */
+	private final double[] m_t;
+	/** 位置のあいまいさ（ファジネス） */
+	private final double[] m_f;
+	/** 先頭の点の配列上の位置 */
+	private final int m_offset;
+	/** 点数 */
+	private final int m_size;
+}
@@ -0,0 +1,332 @@
+package jp.sagalab.jftk;
+
+import java.util.Arrays;
+
+/**
+ * n×nの対称帯行列を表すクラスです。
+ * <p>
+ * 対角成分から帯幅以内にある下三角部分の要素のみを保持します。
+ * B-スプラインの正規方程式 NtN のように、非零要素が対角近傍に集中する行列を
+ * 少ないメモリと計算量で扱うために用います。
+ * </p>
+ * @author agent
+ */
+public class SymmetricBandMatrix {
+
+	/**
+	 * n×nの対称帯行列を生成します。
+	 * <p>
+	 * 要素群は行ごとに(帯幅+1)個ずつ並べたもので、i行目のd番目の要素が
+	 * (i, i-d)成分を表します(0 &lt;= d &lt;= 帯幅)。行列の範囲外となる要素は無視されます。
+	 * </p>
+	 * @param _lowerBand 下三角帯部分の要素群
+	 * @param _bandWidth 帯幅(対角成分を除いた片側の幅)
+	 * @return n×nの対称帯行列
+	 * @throws NullPointerException 要素群にnullが指定された場合にスローします。
+	 * @throws IllegalArgumentException 帯幅が負の場合、要素群のサイズが(帯幅+1)の倍数でない場合、
+	 * 要素群にNaNまたはInfiniteが含まれる場合にスローします。
+	 */
+	public static SymmetricBandMatrix create( double[] _lowerBand, int _bandWidth ) {
+		if ( _lowerBand == null ) {
+			throw new NullPointerException( "_lowerBand is null." );
+		}
+		if ( _bandWidth < 0 ) {
+			throw new IllegalArgumentException( "_bandWidth is negative." );
+		}
+		if ( _lowerBand.length == 0 || _lowerBand.length % ( _bandWidth + 1 ) != 0 ) {
+			throw new IllegalArgumentException( "illegal length of _lowerBand." );
+		}
+		for ( double d : _lowerBand ) {
+			if ( Double.isNaN( d ) || Double.isInfinite( d ) ) {
+				throw new IllegalArgumentException( "_lowerBand has NaN or Infinite." );
+			}
+		}
+		return new SymmetricBandMatrix( _lowerBand.clone(), _bandWidth );
+	}
+
+	/**
+	 * 行列の要素を返します。
+	 * @param _i 行番号
+	 * @param _j 列番号
+	 * @return 行列の要素
+	 * @throws ArrayIndexOutOfBoundsException 指定された列番号または行番号が行列のサイズ以上の場合にスローします。
+	 */
+	public double get( int _i, int _j ) {
+		int size = size();
+		if ( _i >= size || _j >= size ) {
+			throw new ArrayIndexOutOfBoundsException( "Row size or column size is wrong." );
+		}
+		int row = Math.max( _i, _j );
+		int d = Math.abs( _i - _j );
+		if ( d > m_bandWidth ) {
+			return 0.0;
+		}
+		return m_elements[row * ( m_bandWidth + 1 ) + d];
+	}
+
+	/**
+	 * 行数(列数)を返します。
+	 * @return 行数
+	 */
+	public int size() {
+		return m_elements.length / ( m_bandWidth + 1 );
+	}
+
+	/**
+	 * 帯幅(対角成分を除いた片側の幅)を返します。
+	 * @return 帯幅
+	 */
+	public int bandWidth() {
+		return m_bandWidth;
+	}
+
+	/**
+	 * 密な行列に変換します。
+	 * @return 行列
+	 */
+	public Matrix toMatrix() {
+		int size = size();
+		double[][] elements = new double[ size ][ size ];
+		for ( int i = 0; i < size; ++i ) {
+			int offset = i * ( m_bandWidth + 1 );
+			for ( int d = 0, end = Math.min( m_bandWidth, i ); d <= end; ++d ) {
+				elements[i][i - d] = m_elements[offset + d];
+				elements[i - d][i] = m_elements[offset + d];
+			}
+		}
+		return Matrix.create( elements );
+	}
+
+	/**
+	 * 指定されたベクトルとの積を求めます。(この行列×指定されたベクトル)
+	 * @param _vector 右辺ベクトル
+	 * @return 積演算の結果
+	 * @throws IllegalArgumentException 指定されたベクトルの要素数がこの行列の列数に
+	 * 等しくない場合にスローします。
+	 */
+	public double[] product( double[] _vector ) {
+		return product( _vector, new double[ size() ] );
+	}
+
+	/**
+	 * 指定されたベクトルとの積を求め、指定された配列に格納します。(この行列×指定されたベクトル)
+	 * <p>
+	 * 反復計算の中で作業領域を使い回すために用います。
+	 * </p>
+	 * @param _vector 右辺ベクトル
+	 * @param _result 結果の格納先(要素数は行数)
+	 * @return 結果の格納先
+	 * @throws IllegalArgumentException 指定されたベクトルまたは格納先の要素数がこの行列の行数に
+	 * 等しくない場合にスローします。
+	 */
+	public double[] product( double[] _vector, double[] _result ) {
+		int size = size();
+		if ( _vector.length != size || _result.length != size ) {
+			throw new IllegalArgumentException( "vector's length not equals this matrix's column size." );
+		}
+		double[] result = _result;
+		Arrays.fill( result, 0.0 );
+		int width = m_bandWidth + 1;
+		for ( int i = 0; i < size; ++i ) {
+			int offset = i * width;
+			double diagonal = m_elements[offset] * _vector[i];
+			for ( int d = 1, end = Math.min( m_bandWidth, i ); d <= end; ++d ) {
+				double e = m_elements[offset + d];
+				// (i, i-d)成分と(i-d, i)成分の両方に寄与する
+				diagonal += e * _vector[i - d];
+				result[i - d] += e * _vector[i];
+			}
+			result[i] += diagonal;
+		}
+		return result;
+	}
+
+	/**
+	 * 指定された行列との解を求めます。
+	 * <p>
+	 * Ax = b （ただし　A(this)、b(_right)）の x を帯Cholesky分解により求めます。
+	 * 計算量は行数をn、帯幅をwとしてO(n・w<sup>2</sup>)です。
+	 * </p>
+	 * <p>
+	 * この行列が正定値でなく解が求められない場合はnullを返します。
+	 * </p>
+	 * @param _right 右辺行列
+	 * @return 解行列
+	 * @throws IllegalArgumentException 指定された行列の行数とこの行列の行数が
+	 * 等しくない場合にスローします。
+	 */
+	public Matrix solve( Matrix _right ) {
+		final int size = size();
+		if ( size != _right.rowSize() ) {
+			throw new IllegalArgumentException( "not equals other matrix's row size." );
+		}
+		double[] factor = decompose();
+		if ( factor == null ) {
+			Instrumentation.listener().solveFailed( SymmetricBandMatrix.class );
+			return null;
+		}
+
+		int columnSize = _right.columnSize();
+		double[][] result = _right.elements();
+		double[] column = new double[ size ];
+		for ( int j = 0; j < columnSize; ++j ) {
+			for ( int i = 0; i < size; ++i ) {
+				column[i] = result[i][j];
+			}
+			substitute( factor, column );
+			for ( int i = 0; i < size; ++i ) {
+				if ( Double.isNaN( column[i] ) || Double.isInfinite( column[i] ) ) {
+					Instrumentation.listener().solveFailed( SymmetricBandMatrix.class );
+					return null;
+				}
+				result[i][j] = column[i];
+			}
+		}
+
+		return Matrix.create( result );
+	}
+
+	/**
+	 * 指定されたベクトルとの解を求めます。
+	 * <p>
+	 * Ax = b （ただし　A(this)、b(_right)）の x を帯Cholesky分解により求めます。
+	 * 解が求められない場合はnullを返します。
+	 * </p>
+	 * @param _right 右辺ベクトル
+	 * @return 解ベクトル
+	 * @throws IllegalArgumentException 指定されたベクトルの要素数とこの行列の行数が
+	 * 等しくない場合にスローします。
+	 */
+	public double[] solve( double[] _right ) {
+		if ( size() != _right.length ) {
+			throw new IllegalArgumentException( "not equals other vector's length." );
+		}
+		double[] factor = decompose();
+		if ( factor == null ) {
+			Instrumentation.listener().solveFailed( SymmetricBandMatrix.class );
+			return null;
+		}
+		double[] result = _right.clone();
+		substitute( factor, result );
+		for ( double d : result ) {
+			if ( Double.isNaN( d ) || Double.isInfinite( d ) ) {
+				Instrumentation.listener().solveFailed( SymmetricBandMatrix.class );
+				return null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 帯Cholesky分解 A = LLt を行います。
+	 * <p>
+	 * 下三角行列Lをこの行列と同じ帯形式で返します。
+	 * 正定値でない場合はnullを返します。
+	 * </p>
+	 * @return 下三角行列Lの帯要素群
+	 */
+	private double[] decompose() {
+		final int size = size();
+		final int width = m_bandWidth + 1;
+		double[] factor = new double[ m_elements.length ];
+		for ( int i = 0; i < size; ++i ) {
+			int iOffset = i * width;
+			for ( int j = Math.max( 0, i - m_bandWidth ); j <= i; ++j ) {
+				int jOffset = j * width;
+				double sum = m_elements[iOffset + i - j];
+				// L(i,k)とL(j,k)が共に帯内にあるkについて和をとる
+				for ( int k = Math.max( 0, i - m_bandWidth ); k < j; ++k ) {
+					sum -= factor[iOffset + i - k] * factor[jOffset + j - k];
+				}
+				if ( i == j ) {
+					if ( !( sum > 0.0 ) ) {
+						return null;
+					}
+					factor[iOffset] = Math.sqrt( sum );
+				} else {
+					factor[iOffset + i - j] = sum / factor[jOffset];
+				}
+			}
+		}
+		return factor;
+	}
+
+	/**
+	 * 帯Cholesky分解の結果を用いて前進代入・後退代入を行います。
+	 * @param _factor 下三角行列Lの帯要素群
+	 * @param _vector 右辺ベクトル(解で上書きされます)
+	 */
+	private void substitute( double[] _factor, double[] _vector ) {
+		final int size = _vector.length;
+		final int width = m_bandWidth + 1;
+		// 前進代入 Ly = b
+		for ( int i = 0; i < size; ++i ) {
+			int offset = i * width;
+			double d = _vector[i];
+			for ( int k = Math.max( 0, i - m_bandWidth ); k < i; ++k ) {
+				d -= _factor[offset + i - k] * _vector[k];
+			}
+			_vector[i] = d / _factor[offset];
+		}
+		// 後退代入 Ltx = y
+		for ( int i = size - 1; i >= 0; --i ) {
+			double d = _vector[i];
+			for ( int k = i + 1, end = Math.min( size - 1, i + m_bandWidth ); k <= end; ++k ) {
+				d -= _factor[k * width + k - i] * _vector[k];
+			}
+			_vector[i] = d / _factor[i * width];
+		}
+	}
+
+	/**
+	 * この SymmetricBandMatrix と指定された Object が等しいかどうかを比較します。
+	 * @param obj この SymmetricBandMatrix と比較される Object
+	 * @return 指定された Object が、このオブジェクトと要素、帯幅がまったく同じ SymmetricBandMatrix である限りtrue
+	 */
+	@Override
+	public boolean equals( Object obj ) {
+		if ( obj == null ) {
+			return false;
+		}
+		if ( getClass() != obj.getClass() ) {
+			return false;
+		}
+		final SymmetricBandMatrix other = (SymmetricBandMatrix) obj;
+		if ( !Arrays.equals( this.m_elements, other.m_elements ) ) {
+			return false;
+		}
+
+		return m_bandWidth == other.m_bandWidth;
+	}
+
+	/**
+	 * この SymmetricBandMatrix のハッシュコードを返します。
+	 * @return この SymmetricBandMatrix のハッシュコード
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 5;
+		hash = 41 * hash + Arrays.hashCode( this.m_elements );
+		hash = 41 * hash + this.m_bandWidth;
+		return hash;
+	}
+
+	/**
+	 * この SymmetricBandMatrix の文字列表現を返します。
+	 * @return 行数と帯幅、各要素を表す String
+	 */
+	@Override
+	public String toString() {
+		return String.format( "size:[%d] bandWidth:%d\n", size(), m_bandWidth ) + toMatrix().toString();
+	}
+
+	private SymmetricBandMatrix( double[] _elements, int _bandWidth ) {
+		m_elements = _elements;
+		m_bandWidth = _bandWidth;
+	}
+
+	/** 下三角帯部分の要素 */
+	private final double[] m_elements;
+	/** 帯幅 */
+	private final int m_bandWidth;
+}
@@ -0,0 +1,20 @@
+package jp.sagalab.jftk;
+
+/**
+ * 1変数の実数値関数を表すインタフェースです。
+ * <p>
+ * {@link BrentSolver} による最小値探索や求根の対象となる関数を表します。
+ * 引数と戻り値はボクシングを伴わない基本型で受け渡します。
+ * </p>
+ * @author agent
+ * @see BrentSolver
+ */
+public interface UnivariateFunction {
+
+	/**
+	 * 関数値を返します。
+	 * @param _x 変数
+	 * @return 関数値
+	 */
+	double value( double _x );
+}
@@ -0,0 +1,283 @@
+package jp.sagalab.jftk.blend;
+
+import java.util.Arrays;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.convex.ConvexHull;
+
+/**
+ * 凸包列の軸平行境界ボックス(AABB)による階層構造を表すクラスです。
+ * <p>
+ * 各凸包の境界ボックスは、凸包を構成するファジィ点のファジネスの最大値だけ膨らませています。
+ * 2つの凸包の膨らませた境界ボックスが交わらない場合、凸包間の距離はファジネスの和より大きいため、
+ * {@link ConvexHull#includedIn(ConvexHull)} の可能性値は必ず0となります。
+ * このクラスはその性質を用いて、厳密な包含判定の前に重ならない凸包の組を除外します。
+ * </p>
+ * @author agent
+ */
+final class ConvexHullTree {
+
+	/**
+	 * 凸包列の階層構造を生成します。
+	 * @param _hulls 凸包列
+	 * @return 凸包列の階層構造
+	 */
+	static ConvexHullTree create( ConvexHull[] _hulls ) {
+		int size = _hulls.length;
+		double[] bounds = new double[ size * 6 ];
+		for ( int i = 0; i < size; ++i ) {
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double minZ = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			double maxZ = Double.NEGATIVE_INFINITY;
+			double fuzziness = 0.0;
+			for ( Point p : _hulls[i].elements() ) {
+				minX = Math.min( minX, p.x() );
+				minY = Math.min( minY, p.y() );
+				minZ = Math.min( minZ, p.z() );
+				maxX = Math.max( maxX, p.x() );
+				maxY = Math.max( maxY, p.y() );
+				maxZ = Math.max( maxZ, p.z() );
+				fuzziness = Math.max( fuzziness, p.fuzziness() );
+			}
+			int offset = i * 6;
+			bounds[offset] = minX - fuzziness;
+			bounds[offset + 1] = minY - fuzziness;
+			bounds[offset + 2] = minZ - fuzziness;
+			bounds[offset + 3] = maxX + fuzziness;
+			bounds[offset + 4] = maxY + fuzziness;
+			bounds[offset + 5] = maxZ + fuzziness;
+		}
+
+		ConvexHullTree tree = new ConvexHullTree( bounds, size );
+		if ( size > 0 ) {
+			int[] indices = new int[ size ];
+			for ( int i = 0; i < size; ++i ) {
+				indices[i] = i;
+			}
+			tree.build( indices, 0, size );
+		}
+		return tree;
+	}
+
+	/**
+	 * 凸包の数を返します。
+	 * @return 凸包の数
+	 */
+	int size() {
+		return m_size;
+	}
+
+	/**
+	 * 2つの凸包の境界ボックスが交わるかを返します。
+	 * <p>
+	 * falseの場合、2つの凸包の包含関係の可能性値は0です。
+	 * </p>
+	 * @param _index この階層構造の凸包のインデックス
+	 * @param _other 他方の階層構造
+	 * @param _otherIndex 他方の階層構造の凸包のインデックス
+	 * @return 境界ボックスが交わる場合true
+	 */
+	boolean mayOverlap( int _index, ConvexHullTree _other, int _otherIndex ) {
+		return intersects( m_bounds, _index * 6, _other.m_bounds, _otherIndex * 6 );
+	}
+
+	/**
+	 * 他方の凸包と境界ボックスが交わる凸包を探索します。
+	 * @param _other 他方の階層構造
+	 * @param _otherIndex 他方の階層構造の凸包のインデックス
+	 * @return インデックス毎に境界ボックスが交わるかを表す配列
+	 */
+	boolean[] searchOverlapping( ConvexHullTree _other, int _otherIndex ) {
+		boolean[] result = new boolean[ m_size ];
+		if ( m_size > 0 ) {
+			search( 0, _other.m_bounds, _otherIndex * 6, result );
+		}
+		return result;
+	}
+
+	/**
+	 * 指定された範囲の凸包から節点を構築します。
+	 * <p>
+	 * 境界ボックスの中心が最も広がっている軸で中央値分割します。
+	 * </p>
+	 * @param _indices 凸包のインデックス列
+	 * @param _from 範囲の先頭(この値を含む)
+	 * @param _to 範囲の末尾(この値を含まない)
+	 * @return 節点番号
+	 */
+	private int build( int[] _indices, int _from, int _to ) {
+		int node = m_nodeCount++;
+		int offset = node * 6;
+		Arrays.fill( m_nodeBounds, offset, offset + 3, Double.POSITIVE_INFINITY );
+		Arrays.fill( m_nodeBounds, offset + 3, offset + 6, Double.NEGATIVE_INFINITY );
+		for ( int i = _from; i < _to; ++i ) {
+			int hull = _indices[i] * 6;
+			for ( int k = 0; k < 3; ++k ) {
+				m_nodeBounds[offset + k] = Math.min( m_nodeBounds[offset + k], m_bounds[hull + k] );
+				m_nodeBounds[offset + k + 3] = Math.max( m_nodeBounds[offset + k + 3], m_bounds[hull + k + 3] );
+			}
+		}
+
+		if ( _to - _from <= LEAF_SIZE ) {
+			m_leafFrom[node] = _from;
+			m_leafTo[node] = _to;
+			m_left[node] = -1;
+			m_right[node] = -1;
+			System.arraycopy( _indices, _from, m_order, _from, _to - _from );
+			return node;
+		}
+
+		// 境界ボックスの中心が最も広がっている軸を選ぶ
+		int axis = 0;
+		double widest = -1.0;
+		for ( int k = 0; k < 3; ++k ) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for ( int i = _from; i < _to; ++i ) {
+				double center = center( _indices[i], k );
+				min = Math.min( min, center );
+				max = Math.max( max, center );
+			}
+			if ( max - min > widest ) {
+				widest = max - min;
+				axis = k;
+			}
+		}
+		int mid = ( _from + _to ) >>> 1;
+		select( _indices, _from, _to - 1, mid, axis );
+
+		m_left[node] = build( _indices, _from, mid );
+		m_right[node] = build( _indices, mid, _to );
+		return node;
+	}
+
+	/**
+	 * 指定された節点以下で境界ボックスが交わる凸包を探索します。
+	 * @param _node 節点番号
+	 * @param _bounds 探索する境界ボックスの配列
+	 * @param _offset 探索する境界ボックスの位置
+	 * @param _result 探索結果
+	 */
+	private void search( int _node, double[] _bounds, int _offset, boolean[] _result ) {
+		if ( !intersects( m_nodeBounds, _node * 6, _bounds, _offset ) ) {
+			return;
+		}
+		if ( m_left[_node] < 0 ) {
+			for ( int i = m_leafFrom[_node]; i < m_leafTo[_node]; ++i ) {
+				int hull = m_order[i];
+				if ( intersects( m_bounds, hull * 6, _bounds, _offset ) ) {
+					_result[hull] = true;
+				}
+			}
+		} else {
+			search( m_left[_node], _bounds, _offset, _result );
+			search( m_right[_node], _bounds, _offset, _result );
+		}
+	}
+
+	/**
+	 * インデックス列を部分的に並べ替え、指定された位置に中央値を置きます。
+	 * @param _indices 凸包のインデックス列
+	 * @param _left 範囲の先頭(この値を含む)
+	 * @param _right 範囲の末尾(この値を含む)
+	 * @param _k 中央値を置く位置
+	 * @param _axis 軸
+	 */
+	private void select( int[] _indices, int _left, int _right, int _k, int _axis ) {
+		while ( _left < _right ) {
+			double pivot = center( _indices[( _left + _right ) >>> 1], _axis );
+			int i = _left;
+			int j = _right;
+			while ( i <= j ) {
+				while ( center( _indices[i], _axis ) < pivot ) {
+					++i;
+				}
+				while ( center( _indices[j], _axis ) > pivot ) {
+					--j;
+				}
+				if ( i <= j ) {
+					int tmp = _indices[i];
+					_indices[i] = _indices[j];
+					_indices[j] = tmp;
+					++i;
+					--j;
+				}
+			}
+			if ( _k <= j ) {
+				_right = j;
+			} else if ( _k >= i ) {
+				_left = i;
+			} else {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 凸包の境界ボックスの中心座標を返します。
+	 * @param _hull 凸包のインデックス
+	 * @param _axis 軸
+	 * @return 中心座標
+	 */
+	private double center( int _hull, int _axis ) {
+		double center = 0.5 * ( m_bounds[_hull * 6 + _axis] + m_bounds[_hull * 6 + _axis + 3] );
+		// 無限大同士の和などで中心が定まらない場合も並べ替えが停止するように0とみなす
+		return Double.isNaN( center ) ? 0.0 : center;
+	}
+
+	/**
+	 * 2つの境界ボックスが交わるかを判定します。
+	 * <p>
+	 * 座標にNaNを含む場合は交わるとみなします。
+	 * </p>
+	 * @param _a 境界ボックスaの配列
+	 * @param _aOffset 境界ボックスaの位置
+	 * @param _b 境界ボックスbの配列
+	 * @param _bOffset 境界ボックスbの位置
+	 * @return 交わる場合true
+	 */
+	private static boolean intersects( double[] _a, int _aOffset, double[] _b, int _bOffset ) {
+		for ( int k = 0; k < 3; ++k ) {
+			if ( _a[_aOffset + k] > _b[_bOffset + k + 3] || _b[_bOffset + k] > _a[_aOffset + k + 3] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ConvexHullTree( double[] _bounds, int _size ) {
+		m_bounds = _bounds;
+		m_size = _size;
+		int capacity = Math.max( 2 * _size, 1 );
+		m_order = new int[ _size ];
+		m_nodeBounds = new double[ capacity * 6 ];
+		m_left = new int[ capacity ];
+		m_right = new int[ capacity ];
+		m_leafFrom = new int[ capacity ];
+		m_leafTo = new int[ capacity ];
+		m_nodeCount = 0;
+	}
+
+	/** 凸包毎の境界ボックス(最小x, y, z, 最大x, y, zの順) */
+	private final double[] m_bounds;
+	/** 凸包の数 */
+	private final int m_size;
+	/** 葉に含まれる凸包のインデックス */
+	private final int[] m_order;
+	/** 節点毎の境界ボックス */
+	private final double[] m_nodeBounds;
+	/** 左の子の節点番号(葉の場合は-1) */
+	private final int[] m_left;
+	/** 右の子の節点番号(葉の場合は-1) */
+	private final int[] m_right;
+	/** 葉に含まれる凸包の先頭位置 */
+	private final int[] m_leafFrom;
+	/** 葉に含まれる凸包の末尾位置 */
+	private final int[] m_leafTo;
+	/** 構築済みの節点数 */
+	private int m_nodeCount;
+	/** 葉に含める凸包の最大数 */
+	private static final int LEAF_SIZE = 4;
+}
@@ -4,7 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.blend.OverlappingPath.Position;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 重複経路を探索するためのクラスです。
@@ -17,101 +19,402 @@ public class OverlappingPathFinder {
 	 * @param _existed 既存ファジィ点列
 	 * @param _overlapped 重複ファジィ点列
 	 * @return 重複経路
+	 * @throws IllegalArgumentException 既存ファジィ点列が空の場合
+	 * @throws IllegalArgumentException 重複ファジィ点列の点数が2未満の場合
 	 */
 	public static OverlappingPath[] find( Point[] _existed, Point[] _overlapped ) {
-		// 重複状態行列(OSM)の生成
-		double[][] osm = new double[ _existed.length ][ _overlapped.length ];
-		for ( int i = 0; i < _existed.length; ++i ) {
-			for ( int j = 0; j < _overlapped.length; ++j ) {
-				osm[ i ][ j ] = _existed[ i ].includedIn( _overlapped[ j ] ).possibility();
-			}
+		return find( PointBuffer.create( _existed ), PointBuffer.create( _overlapped ) );
+	}
+
+	/**
+	 * 重複経路を探索します。
+	 * <p>
+	 * 重複状態行列の各要素は、点ごとの区間真理値を生成せずに可能性値のみを求めます。
+	 * 可能性値が0とならない要素はファジネスの和より近い点の組に限られるため、
+	 * 重複ファジィ点列を空間格子に登録し、近傍の格子の点との組についてのみ可能性値を求めます。
+	 * 重複状態行列と逆探索OSMは、行毎に0でない要素だけを保持します。
+	 * </p>
+	 * @param _existed 既存ファジィ点列
+	 * @param _overlapped 重複ファジィ点列
+	 * @return 重複経路
+	 * @throws IllegalArgumentException 既存ファジィ点列が空の場合
+	 * @throws IllegalArgumentException 重複ファジィ点列の点数が2未満の場合
+	 */
+	public static OverlappingPath[] find( PointBuffer _existed, PointBuffer _overlapped ) {
+		if ( _existed.size() < 1 ) {
+			throw new IllegalArgumentException( "_existed is empty." );
+		}
+		if ( _overlapped.size() < 2 ) {
+			throw new IllegalArgumentException( "_overlapped has less than 2 points." );
 		}
+		Metrics.Sample sample = Metrics.start( Metrics.OVERLAPPING_PATH );
+		// 重複状態行列(OSM)の生成
+		SparseMatrix osm = createOSM( _existed, _overlapped );
 
 		// 正順探索
-		double[][] wbOSM_A = createWalkBackOSM( osm );
+		SparseMatrix wbOSM_A = createWalkBackOSM( osm );
 		List<List<Position>> pathsA = searchPaths( wbOSM_A );
 		// 逆順探索
-		double[][] revOSM = new double[ osm.length ][];
-		for ( int i = 0; i < osm.length; ++i ) {
-			revOSM[ osm.length - i - 1 ] = osm[ i ];
-		}
-		double[][] wbOSM_B = createWalkBackOSM( revOSM );
+		SparseMatrix revOSM = osm.reverse();
+		SparseMatrix wbOSM_B = createWalkBackOSM( revOSM );
 		List<List<Position>> pathsB = searchPaths( wbOSM_B );
 		// 逆順の経路はYを逆転
 		for ( List<Position> path : pathsB ) {
 			for ( int i = 0; i < path.size(); ++i ) {
-				path.set( i, new Position( path.get( i ).x(), osm.length - 1 - path.get( i ).y() ) );
+				path.set( i, new Position( path.get( i ).x(), osm.rowSize() - 1 - path.get( i ).y() ) );
 			}
 		}
-		for ( int i = 0; i < revOSM.length; ++i ) {
-			revOSM[ revOSM.length - 1 - i ] = wbOSM_B[ i ];
-		}
-		wbOSM_B = revOSM;
+		wbOSM_B = wbOSM_B.reverse();
 
 		// 重複経路情報の構築
 		OverlappingPath[] olPaths = new OverlappingPath[ pathsA.size() + pathsB.size() ];
-		double overlappedAllTime = _overlapped[ _overlapped.length - 1 ].time() - _overlapped[ 0 ].time();
-		double overlappedAllLength = Point.length( _overlapped );
+		double overlappedAllTime = _overlapped.time( _overlapped.size() - 1 ) - _overlapped.time( 0 );
+		double overlappedAllLength = _overlapped.length();
 		for ( int i = 0; i < pathsA.size(); ++i ) {
 			Position[] path = pathsA.get( i ).toArray( new Position[ pathsA.get( i ).size() ] );
 			int start = path[ 0 ].x();
 			int end = path[ path.length - 1 ].x();
-			double possibility = wbOSM_A[ path[ 0 ].y() ][ start ];
-			double timeRatio = ( _overlapped[ end ].time() - _overlapped[ start ].time() ) / overlappedAllTime;
-			double lengthRatio = Point.length( Arrays.copyOfRange( _overlapped, start, end + 1 ) ) / overlappedAllLength;
+			double possibility = wbOSM_A.get( path[ 0 ].y(), start );
+			double timeRatio = ( _overlapped.time( end ) - _overlapped.time( start ) ) / overlappedAllTime;
+			double lengthRatio = _overlapped.view( start, end + 1 ).length() / overlappedAllLength;
 			olPaths[ i ] = OverlappingPath.create( path, possibility, timeRatio, lengthRatio );
 		}
 		for ( int i = 0; i < pathsB.size(); ++i ) {
 			Position[] path = pathsB.get( i ).toArray( new Position[ pathsB.get( i ).size() ] );
 			int start = path[ 0 ].x();
 			int end = path[ path.length - 1 ].x();
-			double possibility = wbOSM_B[ path[ 0 ].y() ][ start ];
-			double timeRatio = ( _overlapped[ end ].time() - _overlapped[ start ].time() ) / overlappedAllTime;
-			double lengthRatio = Point.length( Arrays.copyOfRange( _overlapped, start, end + 1 ) ) / overlappedAllLength;
+			double possibility = wbOSM_B.get( path[ 0 ].y(), start );
+			double timeRatio = ( _overlapped.time( end ) - _overlapped.time( start ) ) / overlappedAllTime;
+			double lengthRatio = _overlapped.view( start, end + 1 ).length() / overlappedAllLength;
 			olPaths[ i + pathsA.size() ] = OverlappingPath.create( path, possibility, timeRatio, lengthRatio );
 		}
 
+		Metrics.stop( sample );
 		return olPaths;
 	}
 
+	/**
+	 * 行毎に0でない要素だけを保持する行列を表すクラスです。
+	 */
+	private static final class SparseMatrix {
+
+		/**
+		 * 行列を生成します。
+		 * @param _columns 行毎の0でない要素の列番号(昇順)
+		 * @param _values 行毎の0でない要素の値
+		 * @param _columnSize 列数
+		 */
+		SparseMatrix( int[][] _columns, double[][] _values, int _columnSize ) {
+			m_columns = _columns;
+			m_values = _values;
+			m_columnSize = _columnSize;
+		}
+
+		/**
+		 * 行数を返します。
+		 * @return 行数
+		 */
+		int rowSize() {
+			return m_columns.length;
+		}
+
+		/**
+		 * 列数を返します。
+		 * @return 列数
+		 */
+		int columnSize() {
+			return m_columnSize;
+		}
+
+		/**
+		 * 要素の値を返します。
+		 * @param _row 行番号
+		 * @param _column 列番号
+		 * @return 要素の値
+		 */
+		double get( int _row, int _column ) {
+			int index = Arrays.binarySearch( m_columns[ _row ], _column );
+			return index >= 0 ? m_values[ _row ][ index ] : 0.0;
+		}
+
+		/**
+		 * 行の順序を逆にした行列を返します。
+		 * <p>
+		 * 行毎の配列は複製せずに共有します。
+		 * </p>
+		 * @return 行の順序を逆にした行列
+		 */
+		SparseMatrix reverse() {
+			int rowSize = m_columns.length;
+			int[][] columns = new int[ rowSize ][];
+			double[][] values = new double[ rowSize ][];
+			for ( int i = 0; i < rowSize; ++i ) {
+				columns[ rowSize - 1 - i ] = m_columns[ i ];
+				values[ rowSize - 1 - i ] = m_values[ i ];
+			}
+			return new SparseMatrix( columns, values, m_columnSize );
+		}
+
+		/** 行毎の0でない要素の列番号 */
+		final int[][] m_columns;
+		/** 行毎の0でない要素の値 */
+		final double[][] m_values;
+		/** 列数 */
+		final int m_columnSize;
+	}
+
+	/**
+	 * OSM(重複状態行列)を生成します。
+	 * <p>
+	 * 可能性値が0より大きくなるのは2点間の距離がファジネスの和より小さい場合(またはクリスプな点が一致する場合)です。
+	 * ファジネスの和の最大値を一辺とする空間格子に重複ファジィ点列を登録し、
+	 * 既存ファジィ点列の各点について隣接する格子の点との可能性値のみを求めます。
+	 * 座標やファジネスが有限でないなど格子を構成できない場合は、全ての組について可能性値を求めます。
+	 * </p>
+	 * @param _existed 既存ファジィ点列
+	 * @param _overlapped 重複ファジィ点列
+	 * @return OSM
+	 */
+	private static SparseMatrix createOSM( PointBuffer _existed, PointBuffer _overlapped ) {
+		int rowSize = _existed.size();
+		int columnSize = _overlapped.size();
+		int[][] columns = new int[ rowSize ][];
+		double[][] values = new double[ rowSize ][];
+		// 行毎の候補列と可能性値の作業領域
+		int[] candidates = new int[ columnSize ];
+		double[] possibilities = new double[ columnSize ];
+
+		double cellSize = ( maxFuzziness( _existed ) + maxFuzziness( _overlapped ) ) * ( 1 + CELL_MARGIN );
+		if ( !isGridApplicable( _existed, cellSize ) || !isGridApplicable( _overlapped, cellSize ) ) {
+			// 全ての組について可能性値を求める
+			for ( int i = 0; i < columnSize; ++i ) {
+				candidates[ i ] = i;
+			}
+			for ( int i = 0; i < rowSize; ++i ) {
+				storeRow( _existed, i, _overlapped, candidates, columnSize, possibilities, columns, values );
+			}
+			return new SparseMatrix( columns, values, columnSize );
+		}
+
+		// 重複ファジィ点列を格子に登録する(格子のキーで整列した点番号列と格子毎の先頭位置)
+		long[] keys = new long[ columnSize ];
+		for ( int i = 0; i < columnSize; ++i ) {
+			keys[ i ] = cellKey( cell( _overlapped.x( i ), cellSize ), cell( _overlapped.y( i ), cellSize ), cell( _overlapped.z( i ), cellSize ) );
+		}
+		long[] cellKeys = keys.clone();
+		Arrays.sort( cellKeys );
+		int cellCount = 0;
+		for ( int i = 0; i < columnSize; ++i ) {
+			if ( i == 0 || cellKeys[ i ] != cellKeys[ i - 1 ] ) {
+				cellKeys[ cellCount++ ] = cellKeys[ i ];
+			}
+		}
+		int[] cellStarts = new int[ cellCount + 1 ];
+		int[] cellIndices = new int[ columnSize ];
+		int[] cellOf = new int[ columnSize ];
+		for ( int i = 0; i < columnSize; ++i ) {
+			cellOf[ i ] = Arrays.binarySearch( cellKeys, 0, cellCount, keys[ i ] );
+			++cellStarts[ cellOf[ i ] + 1 ];
+		}
+		for ( int i = 0; i < cellCount; ++i ) {
+			cellStarts[ i + 1 ] += cellStarts[ i ];
+		}
+		int[] fill = Arrays.copyOf( cellStarts, cellCount );
+		for ( int i = 0; i < columnSize; ++i ) {
+			cellIndices[ fill[ cellOf[ i ] ]++ ] = i;
+		}
+
+		// 既存ファジィ点列の各点について隣接する格子の点を候補とする
+		int[] marks = new int[ columnSize ];
+		for ( int i = 0; i < rowSize; ++i ) {
+			long cx = cell( _existed.x( i ), cellSize );
+			long cy = cell( _existed.y( i ), cellSize );
+			long cz = cell( _existed.z( i ), cellSize );
+			int size = 0;
+			for ( long dx = -1; dx <= 1; ++dx ) {
+				for ( long dy = -1; dy <= 1; ++dy ) {
+					for ( long dz = -1; dz <= 1; ++dz ) {
+						int c = Arrays.binarySearch( cellKeys, 0, cellCount, cellKey( cx + dx, cy + dy, cz + dz ) );
+						if ( c < 0 ) {
+							continue;
+						}
+						for ( int k = cellStarts[ c ]; k < cellStarts[ c + 1 ]; ++k ) {
+							int j = cellIndices[ k ];
+							// キーの衝突による重複を除く
+							if ( marks[ j ] != i + 1 ) {
+								marks[ j ] = i + 1;
+								candidates[ size++ ] = j;
+							}
+						}
+					}
+				}
+			}
+			Arrays.sort( candidates, 0, size );
+			storeRow( _existed, i, _overlapped, candidates, size, possibilities, columns, values );
+		}
+
+		return new SparseMatrix( columns, values, columnSize );
+	}
+
+	/**
+	 * 候補列の可能性値を求め、0でない要素をOSMの行として格納します。
+	 * @param _existed 既存ファジィ点列
+	 * @param _row 行番号
+	 * @param _overlapped 重複ファジィ点列
+	 * @param _candidates 候補列の列番号(昇順)
+	 * @param _size 候補列の数
+	 * @param _possibilities 可能性値の作業領域
+	 * @param _columns 行毎の0でない要素の列番号
+	 * @param _values 行毎の0でない要素の値
+	 */
+	private static void storeRow( PointBuffer _existed, int _row, PointBuffer _overlapped,
+		int[] _candidates, int _size, double[] _possibilities, int[][] _columns, double[][] _values ) {
+		int count = 0;
+		for ( int k = 0; k < _size; ++k ) {
+			double possibility = _existed.possibility( _row, _overlapped, _candidates[ k ] );
+			if ( possibility != 0 ) {
+				_candidates[ count ] = _candidates[ k ];
+				_possibilities[ count ] = possibility;
+				++count;
+			}
+		}
+		_columns[ _row ] = Arrays.copyOf( _candidates, count );
+		_values[ _row ] = Arrays.copyOf( _possibilities, count );
+	}
+
+	/**
+	 * ファジネスの最大値を返します。
+	 * @param _points ファジィ点列
+	 * @return ファジネスの最大値
+	 */
+	private static double maxFuzziness( PointBuffer _points ) {
+		double max = 0.0;
+		for ( int i = 0; i < _points.size(); ++i ) {
+			max = Math.max( max, _points.fuzziness( i ) );
+		}
+		return max;
+	}
+
+	/**
+	 * 指定された格子の大きさで点列を格子に登録できるかを判定します。
+	 * @param _points ファジィ点列
+	 * @param _cellSize 格子の一辺の長さ
+	 * @return 登録できる場合true
+	 */
+	private static boolean isGridApplicable( PointBuffer _points, double _cellSize ) {
+		if ( !( _cellSize > 0 ) || Double.isInfinite( _cellSize ) ) {
+			return false;
+		}
+		for ( int i = 0; i < _points.size(); ++i ) {
+			double max = Math.max( Math.abs( _points.x( i ) ), Math.max( Math.abs( _points.y( i ) ), Math.abs( _points.z( i ) ) ) );
+			// NaNの場合もfalseとなる
+			if ( !( max / _cellSize < MAX_CELL_INDEX ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 座標を含む格子の番号を返します。
+	 * @param _coordinate 座標
+	 * @param _cellSize 格子の一辺の長さ
+	 * @return 格子の番号
+	 */
+	private static long cell( double _coordinate, double _cellSize ) {
+		return (long) Math.floor( _coordinate / _cellSize );
+	}
+
+	/**
+	 * 格子の番号からキーを求めます。
+	 * <p>
+	 * 異なる格子が同じキーとなる場合もありますが、候補が増えるだけで結果は変わりません。
+	 * </p>
+	 * @param _x x方向の格子の番号
+	 * @param _y y方向の格子の番号
+	 * @param _z z方向の格子の番号
+	 * @return キー
+	 */
+	private static long cellKey( long _x, long _y, long _z ) {
+		return _x * 0x9E3779B97F4A7C15L + _y * 0xC2B2AE3D27D4EB4FL + _z * 0x165667B19E3779F9L;
+	}
+
 	/**
 	 * 逆探索OSMを生成します。
+	 * <p>
+	 * 逆探索OSMの要素はOSMが0でない位置にのみ値を持つため、OSMと同じ列番号の配列を共有します。
+	 * 計算中は下の行と現在の行の値だけを列数分の配列に展開して参照します。
+	 * </p>
 	 * @param _osm OSM(重複状態行列)
 	 * @return 逆探索OSM
 	 */
-	private static double[][] createWalkBackOSM( double[][] _osm ) {
+	private static SparseMatrix createWalkBackOSM( SparseMatrix _osm ) {
 		// 逆探索OSM
-		int rowSize = _osm.length;
-		int columnSize = _osm[ 0 ].length;
-		double[][] wbOSM = new double[ rowSize ][ columnSize ];
+		int rowSize = _osm.rowSize();
+		int columnSize = _osm.columnSize();
+		double[][] wbOSM = new double[ rowSize ][];
+		// 下の行と現在の行の逆探索OSMの値
+		double[] down = new double[ columnSize ];
+		double[] current = new double[ columnSize ];
 
 		// まず最後の一行をコピー
-		System.arraycopy( _osm, rowSize - 1, wbOSM, rowSize - 1, 1 );
-		// 右端二列のコピーと逆探
-		for ( int i = rowSize - 2; i >= 0; --i ) {
-			// 右端は代入
-			wbOSM[ i ][ columnSize - 1 ] = _osm[ i ][ columnSize - 1 ];
-			// 右端から二番目は逆探
-			double right = _osm[ i ][ columnSize - 1 ];
-			double rightDown = _osm[ i + 1 ][ columnSize - 1 ];
-			double down = _osm[ i + 1 ][ columnSize - 2 ];
-			double adjoiningMax = Math.max( Math.max( right, rightDown ), down );
-			wbOSM[ i ][ columnSize - 2 ] = Math.min( adjoiningMax, _osm[ i ][ columnSize - 2 ] );
-		}
+		wbOSM[ rowSize - 1 ] = _osm.m_values[ rowSize - 1 ].clone();
+		scatter( _osm.m_columns[ rowSize - 1 ], wbOSM[ rowSize - 1 ], down );
 
-		// その他の逆探
 		for ( int i = rowSize - 2; i >= 0; --i ) {
-			for ( int j = columnSize - 3; j >= 0; --j ) {
-				if ( _osm[ i ][ j ] > 0 ) {
-					double adjoiningMax = Math.max( wbOSM[ i ][ j + 1 ], wbOSM[ i + 1 ][ j ] );
-					if ( adjoiningMax > 0 ) {
-						wbOSM[ i ][ j ] = Math.min( _osm[ i ][ j ], adjoiningMax );
+			int[] columns = _osm.m_columns[ i ];
+			double[] values = _osm.m_values[ i ];
+			double[] wb = new double[ columns.length ];
+			// 右端から二番目の逆探に用いる隣接要素
+			double right = _osm.get( i, columnSize - 1 );
+			double rightDown = _osm.get( i + 1, columnSize - 1 );
+			double down2 = _osm.get( i + 1, columnSize - 2 );
+			for ( int k = columns.length - 1; k >= 0; --k ) {
+				int j = columns[ k ];
+				double value;
+				if ( j == columnSize - 1 ) {
+					// 右端は代入
+					value = values[ k ];
+				} else if ( j == columnSize - 2 ) {
+					// 右端から二番目は逆探
+					double adjoiningMax = Math.max( Math.max( right, rightDown ), down2 );
+					value = Math.min( adjoiningMax, values[ k ] );
+				} else {
+					// その他の逆探
+					value = 0.0;
+					if ( values[ k ] > 0 ) {
+						double adjoiningMax = Math.max( current[ j + 1 ], down[ j ] );
+						if ( adjoiningMax > 0 ) {
+							value = Math.min( values[ k ], adjoiningMax );
+						}
 					}
 				}
+				wb[ k ] = value;
+				current[ j ] = value;
+			}
+			wbOSM[ i ] = wb;
+			// 下の行を消去して現在の行と入れ替える
+			for ( int j : _osm.m_columns[ i + 1 ] ) {
+				down[ j ] = 0.0;
 			}
+			double[] tmp = down;
+			down = current;
+			current = tmp;
 		}
 
-		return wbOSM;
+		return new SparseMatrix( _osm.m_columns, wbOSM, columnSize );
+	}
+
+	/**
+	 * 行の要素を列数分の配列に展開します。
+	 * @param _columns 0でない要素の列番号
+	 * @param _values 0でない要素の値
+	 * @param _dest 展開先
+	 */
+	private static void scatter( int[] _columns, double[] _values, double[] _dest ) {
+		for ( int k = 0; k < _columns.length; ++k ) {
+			_dest[ _columns[ k ] ] = _values[ k ];
+		}
 	}
 
 	/**
@@ -119,26 +422,28 @@ public class OverlappingPathFinder {
 	 * @param _wbOSM 逆探索OSM(重複状態行列)
 	 * @return 経路
 	 */
-	private static List<List<Position>> searchPaths( double[][] _wbOSM ) {
-		int rowSize = _wbOSM.length;
-		int columnSize = _wbOSM[ 0 ].length;
+	private static List<List<Position>> searchPaths( SparseMatrix _wbOSM ) {
+		int rowSize = _wbOSM.rowSize();
+		int columnSize = _wbOSM.columnSize();
 
 		// 経路探索開始位置の検出
 		List<Position> starts = new ArrayList<Position>();
 		double pre = 0;
-		double now = _wbOSM[ 0 ][ 0 ];
+		double now = _wbOSM.get( 0, 0 );
 		for ( int i = 0; i < rowSize; ++i ) {
-			double post = i + 1 < rowSize ? _wbOSM[ i + 1 ][ 0 ] : 0;
+			double post = i + 1 < rowSize ? _wbOSM.get( i + 1, 0 ) : 0;
 			if ( pre < now && now >= post ) {
 				starts.add( new Position( 0, i ) );
 			}
 			pre = now;
 			now = post;
 		}
-		pre = _wbOSM[ 0 ][ 0 ];
-		now = _wbOSM[ 0 ][ 1 ];
+		double[] firstRow = new double[ columnSize ];
+		scatter( _wbOSM.m_columns[ 0 ], _wbOSM.m_values[ 0 ], firstRow );
+		pre = firstRow[ 0 ];
+		now = firstRow[ 1 ];
 		for ( int i = 1; i < columnSize; ++i ) {
-			double post = i + 1 < columnSize ? _wbOSM[ 0 ][ i + 1 ] : 0;
+			double post = i + 1 < columnSize ? firstRow[ i + 1 ] : 0;
 			if ( pre < now && now >= post ) {
 				starts.add( new Position( i, 0 ) );
 			}
@@ -156,9 +461,9 @@ public class OverlappingPathFinder {
 			// 外縁部に到着するまでループ
 			while ( p.x() + 1 < columnSize && p.y() + 1 < rowSize ) {
 				// 隣接する一番大きな値のマスに移動
-				double right = _wbOSM[ p.y() ][ p.x() + 1 ];
-				double rightDown = _wbOSM[ p.y() + 1 ][ p.x() + 1 ];
-				double down = _wbOSM[ p.y() + 1 ][ p.x() ];
+				double right = _wbOSM.get( p.y(), p.x() + 1 );
+				double rightDown = _wbOSM.get( p.y() + 1, p.x() + 1 );
+				double down = _wbOSM.get( p.y() + 1, p.x() );
 				if ( right > down ) {
 					p = rightDown >= right ? new Position( p.x() + 1, p.y() + 1 ) : new Position( p.x() + 1, p.y() );
 				} else {
@@ -173,8 +478,13 @@ public class OverlappingPathFinder {
 
 		return paths;
 	}
-	
+
 	private OverlappingPathFinder(){
 		throw new UnsupportedOperationException("can not create instance.");
 	}
+
+	/** 格子の一辺の長さに加える相対的な余裕(除算の丸め誤差で近傍の点を取りこぼさないため) */
+	private static final double CELL_MARGIN = 1.0E-9;
+	/** 格子の番号の絶対値の上限 */
+	private static final double MAX_CELL_INDEX = 1.0E15;
 }
\ No newline at end of file
@@ -3,11 +3,12 @@ package jp.sagalab.jftk.blend;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.TruthValue;
 import jp.sagalab.jftk.convex.ConvexHull;
+import jp.sagalab.jftk.convex.ConvexHullPairEvaluator;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 重複範囲を探索するためのクラスです。
@@ -39,13 +40,17 @@ public class OverlappingRangeFinder {
 		if ( _existed.degree() != _overlapped.degree() ) {
 			throw new IllegalArgumentException( "_existed's degree not equal _overlapped's degree" );
 		}
+		Metrics.Sample sample = Metrics.start( Metrics.OVERLAPPING_RANGE );
 		// 凸包単位で重複区間探索
 		List<List<Range>> rangePairs = searchConvexHullOverlappingRangePairs( _existed, _overlapped, 0.0 );
 		List<Range> existedRange = rangePairs.get( 0 );
 		List<Range> overlappedRange = rangePairs.get( 1 );
 		if ( existedRange.size() > 0 && overlappedRange.size() > 0 ) {
-			return searchOverlappingRanges( _existed, existedRange, _overlapped, overlappedRange, _threshold );
+			OverlappingRange[] ranges = searchOverlappingRanges( _existed, existedRange, _overlapped, overlappedRange, _threshold );
+			Metrics.stop( sample );
+			return ranges;
 		} else {
+			Metrics.stop( sample );
 			return new OverlappingRange[ 0 ];
 		}
 	}
@@ -60,33 +65,24 @@ public class OverlappingRangeFinder {
 	private static List<List<Range>> searchConvexHullOverlappingRangePairs( SplineCurve _existed, SplineCurve _overlapped, double _threshold ) {
 		Range existedRange = _existed.range();
 		Range overlappedRange = _overlapped.range();
+		// 凸包列を取得(曲線毎に保持されているため、同じ既存曲線との探索では再利用される)
+		ConvexHull[] existedConvexHulls = _existed.spanConvexHulls();
+		ConvexHull[] overlappedConvexHulls = _overlapped.spanConvexHulls();
 		_existed = insertMultipleKnotsAtStartAndEnd( _existed, existedRange );
 		_overlapped = insertMultipleKnotsAtStartAndEnd( _overlapped, overlappedRange );
-		Point[] existedCP = _existed.controlPoints();
-		Point[] overlappedCP = _overlapped.controlPoints();
 		double[] existedKnots = _existed.knots();
 		double[] overlappedKnots = _overlapped.knots();
 		int existedStartIndex = _existed.searchKnotNum( existedRange.start(), _existed.degree() - 1, existedKnots.length - _existed.degree() );
 		int overlappedStartIndex = _overlapped.searchKnotNum( overlappedRange.start(), _overlapped.degree() - 1, overlappedKnots.length - _overlapped.degree() );
 
-		// 凸包列を生成
-		List<ConvexHull> convexHullList = new ArrayList<ConvexHull>();
-		ConvexHull[] existedConvexHulls;
-		ConvexHull[] overlappedConvexHulls;
-		for ( int i = existedStartIndex; existedKnots[i - 1] < existedRange.end(); ++i ) {
-			Point[] cp = Arrays.copyOfRange( existedCP, i - _existed.degree(), i + 1 );
-			convexHullList.add( ConvexHull.create( cp, ConvexHull.Dimension.THREE_DIMENSION ) );
-		}
-		existedConvexHulls = convexHullList.toArray( new ConvexHull[ convexHullList.size() ] );
-		convexHullList.clear();
-		for ( int i = overlappedStartIndex; overlappedKnots[i - 1] < overlappedRange.end(); ++i ) {
-			Point[] cp = Arrays.copyOfRange( overlappedCP, i - _overlapped.degree(), i + 1 );
-			convexHullList.add( ConvexHull.create( cp, ConvexHull.Dimension.THREE_DIMENSION ) );
-		}
-		overlappedConvexHulls = convexHullList.toArray( new ConvexHull[ convexHullList.size() ] );
+		// 重ならない凸包の組を除外するための境界ボックスの階層構造
+		ConvexHullTree existedTree = ConvexHullTree.create( existedConvexHulls );
+		ConvexHullTree overlappedTree = ConvexHullTree.create( overlappedConvexHulls );
+		// 凸包の組の可能性値を保持し、閾値判定を打ち切りながら評価する評価器
+		ConvexHullPairEvaluator evaluator = ConvexHullPairEvaluator.create( existedConvexHulls, overlappedConvexHulls );
 
 		// 重複開始インデックス取得
-		List<int[]> indexPairs = searchOverlappingStartConvexHullIndexPairs( existedConvexHulls, overlappedConvexHulls, _threshold );
+		List<int[]> indexPairs = searchOverlappingStartConvexHullIndexPairs( existedTree, overlappedTree, evaluator, _threshold );
 
 		List<List<Range>> rangePairs = new ArrayList<List<Range>>();
 		rangePairs.add( new ArrayList<Range>() );
@@ -98,9 +94,9 @@ public class OverlappingRangeFinder {
 			int j = indexPair[1];
 			while ( i + 1 < existedConvexHulls.length && j + 1 < overlappedConvexHulls.length ) {
 				double[] candidatePos = {
-					existedConvexHulls[i + 1].includedIn( overlappedConvexHulls[j + 1] ).possibility(),
-					existedConvexHulls[i].includedIn( overlappedConvexHulls[j + 1] ).possibility(),
-					existedConvexHulls[i + 1].includedIn( overlappedConvexHulls[j] ).possibility()
+					possibility( existedTree, i + 1, overlappedTree, j + 1, evaluator ),
+					possibility( existedTree, i, overlappedTree, j + 1, evaluator ),
+					possibility( existedTree, i + 1, overlappedTree, j, evaluator )
 				};
 				if ( Math.max( candidatePos[0], Math.max( candidatePos[1], candidatePos[2] ) ) > _threshold ) {
 					if ( candidatePos[0] >= Math.max( candidatePos[1], candidatePos[2] ) ) {
@@ -118,8 +114,7 @@ public class OverlappingRangeFinder {
 			// 重複経路の末端部分の探索
 			if ( i + 1 >= existedConvexHulls.length ) {
 				while ( j + 1 < overlappedConvexHulls.length ) {
-					double pos = existedConvexHulls[i].includedIn( overlappedConvexHulls[j + 1] ).possibility();
-					if ( pos > _threshold ) {
+					if ( exceeds( existedTree, i, overlappedTree, j + 1, evaluator, _threshold ) ) {
 						++j;
 					} else {
 						break;
@@ -128,8 +123,7 @@ public class OverlappingRangeFinder {
 			}
 			if ( j + 1 >= overlappedConvexHulls.length ) {
 				while ( i + 1 < existedConvexHulls.length ) {
-					double pos = existedConvexHulls[i + 1].includedIn( overlappedConvexHulls[j] ).possibility();
-					if ( pos > _threshold ) {
+					if ( exceeds( existedTree, i + 1, overlappedTree, j, evaluator, _threshold ) ) {
 						++i;
 					} else {
 						break;
@@ -141,9 +135,8 @@ public class OverlappingRangeFinder {
 			boolean isStartOfExisted = ( indexPair[0] == 0 );
 			boolean isStartOfOverlapped = ( indexPair[1] == 0 );
 			if ( isStartOfExisted ) {
-				ConvexHull existedConvexHull = existedConvexHulls[indexPair[0]];
 				int k = indexPair[1] + 1;
-				while ( k <= j && existedConvexHull.includedIn( overlappedConvexHulls[k] ).possibility() > _threshold ) {
+				while ( k <= j && exceeds( existedTree, indexPair[0], overlappedTree, k, evaluator, _threshold ) ) {
 					++k;
 				}
 				if ( !isStartOfOverlapped ) {
@@ -152,9 +145,8 @@ public class OverlappingRangeFinder {
 				rangePairs.get( 1 ).add( Range.create( overlappedKnots[overlappedStartIndex + indexPair[1] - 1], overlappedKnots[overlappedStartIndex + k - 1] ) );
 			}
 			if ( isStartOfOverlapped ) {
-				ConvexHull overlappedConvexHull = overlappedConvexHulls[indexPair[1]];
 				int k = indexPair[0] + 1;
-				while ( k <= i && existedConvexHulls[k].includedIn( overlappedConvexHull ).possibility() > _threshold ) {
+				while ( k <= i && exceeds( existedTree, k, overlappedTree, indexPair[1], evaluator, _threshold ) ) {
 					++k;
 				}
 				if ( !isStartOfExisted ) {
@@ -169,27 +161,36 @@ public class OverlappingRangeFinder {
 
 	/**
 	 * 指定された凸包列の重複開始インデックスのペアを探索します。
-	 * @param _existed 既存曲線の凸包列
-	 * @param _overlapped 重ね書き曲線の凸包列
+	 * <p>
+	 * 先頭の凸包と境界ボックスが交わらない凸包は、包含判定を行わずに可能性値を0とみなします。
+	 * </p>
+	 * @param _existedTree 既存曲線の凸包列の階層構造
+	 * @param _overlappedTree 重ね書き曲線の凸包列の階層構造
+	 * @param _evaluator 凸包の組の評価器
 	 * @param _threshold 閾値
 	 * @return 重複開始インデックスのペア
 	 */
-	private static List<int[]> searchOverlappingStartConvexHullIndexPairs( ConvexHull[] _existed, ConvexHull[] _overlapped, double _threshold ) {
+	private static List<int[]> searchOverlappingStartConvexHullIndexPairs( ConvexHullTree _existedTree,
+		ConvexHullTree _overlappedTree, ConvexHullPairEvaluator _evaluator, double _threshold ) {
 		List<int[]> starts = new ArrayList<int[]>();
 
-		double prev = 0.0;
-		for ( int i = 0; i < _existed.length; ++i ) {
-			double now = _existed[i].includedIn( _overlapped[0] ).possibility();
-			if ( prev <= _threshold && now > _threshold ) {
+		// 重ね書き曲線の先頭の凸包と重なり得る既存曲線の凸包
+		boolean[] candidates = _existedTree.searchOverlapping( _overlappedTree, 0 );
+		boolean prev = false;
+		for ( int i = 0; i < _existedTree.size(); ++i ) {
+			boolean now = candidates[i] ? _evaluator.exceeds( i, 0, _threshold ) : 0.0 > _threshold;
+			if ( !prev && now ) {
 				starts.add( new int[]{ i, 0 } );
 			}
 			prev = now;
 		}
 
-		prev = _existed[0].includedIn( _overlapped[0] ).possibility();
-		for ( int i = 1; i < _overlapped.length; ++i ) {
-			double now = _existed[0].includedIn( _overlapped[i] ).possibility();
-			if ( prev <= _threshold && now > _threshold ) {
+		// 既存曲線の先頭の凸包と重なり得る重ね書き曲線の凸包
+		candidates = _overlappedTree.searchOverlapping( _existedTree, 0 );
+		prev = candidates[0] ? _evaluator.exceeds( 0, 0, _threshold ) : 0.0 > _threshold;
+		for ( int i = 1; i < _overlappedTree.size(); ++i ) {
+			boolean now = candidates[i] ? _evaluator.exceeds( 0, i, _threshold ) : 0.0 > _threshold;
+			if ( !prev && now ) {
 				starts.add( new int[]{ 0, i } );
 			}
 			prev = now;
@@ -198,6 +199,47 @@ public class OverlappingRangeFinder {
 		return starts;
 	}
 
+	/**
+	 * 既存曲線の凸包が重ね書き曲線の凸包に含まれる可能性値を返します。
+	 * <p>
+	 * 境界ボックスが交わらない場合は、包含判定を行わずに0を返します。
+	 * </p>
+	 * @param _existedTree 既存曲線の凸包列の階層構造
+	 * @param _existedIndex 既存曲線の凸包のインデックス
+	 * @param _overlappedTree 重ね書き曲線の凸包列の階層構造
+	 * @param _overlappedIndex 重ね書き曲線の凸包のインデックス
+	 * @param _evaluator 凸包の組の評価器
+	 * @return 可能性値
+	 */
+	private static double possibility( ConvexHullTree _existedTree, int _existedIndex,
+		ConvexHullTree _overlappedTree, int _overlappedIndex, ConvexHullPairEvaluator _evaluator ) {
+		if ( !_existedTree.mayOverlap( _existedIndex, _overlappedTree, _overlappedIndex ) ) {
+			return 0.0;
+		}
+		return _evaluator.possibility( _existedIndex, _overlappedIndex );
+	}
+
+	/**
+	 * 既存曲線の凸包が重ね書き曲線の凸包に含まれる可能性値が閾値を超えるかを返します。
+	 * <p>
+	 * 境界ボックスが交わらない場合は、包含判定を行わずにfalseを返します。
+	 * </p>
+	 * @param _existedTree 既存曲線の凸包列の階層構造
+	 * @param _existedIndex 既存曲線の凸包のインデックス
+	 * @param _overlappedTree 重ね書き曲線の凸包列の階層構造
+	 * @param _overlappedIndex 重ね書き曲線の凸包のインデックス
+	 * @param _evaluator 凸包の組の評価器
+	 * @param _threshold 閾値
+	 * @return 可能性値が閾値を超える場合true
+	 */
+	private static boolean exceeds( ConvexHullTree _existedTree, int _existedIndex,
+		ConvexHullTree _overlappedTree, int _overlappedIndex, ConvexHullPairEvaluator _evaluator, double _threshold ) {
+		if ( !_existedTree.mayOverlap( _existedIndex, _overlappedTree, _overlappedIndex ) ) {
+			return 0.0 > _threshold;
+		}
+		return _evaluator.exceeds( _existedIndex, _overlappedIndex, _threshold );
+	}
+
 	/**
 	 * 重複範囲を探索します。
 	 * @param _existed 既存曲線
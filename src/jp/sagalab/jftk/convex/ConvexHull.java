@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.TruthValue;
@@ -98,6 +99,52 @@ public class ConvexHull extends Polytope implements Iterable<Point[]> {
 		return new ConvexHull( _points, Collections.unmodifiableList( uniformVertices ), _dimension );
 	}
 
+	/**
+	 * 点列の連続する指定された点数毎の凸包領域列を生成します。
+	 * <p>
+	 * i番目の凸包領域は、点列のi番目から(i + 点数 - 1)番目までの点の凸包領域です。
+	 * スプライン曲線の各区間の制御点列のように、隣り合う凸包領域が点を共有する場合に用います。
+	 * </p>
+	 * <p>
+	 * 全ての点がいずれかの座標軸に垂直な同一平面上にある場合は、その判定を点列全体で一度だけ行い、
+	 * 各凸包領域を平面上の凸包として直接求めます。
+	 * 手書き入力のように全ての点のz座標が等しい点列では、
+	 * {@link #create(Point[], Dimension)} が3次元の単体の探索に失敗してから2次元で生成し直す処理を省けます。
+	 * それ以外の凸包領域は {@link #create(Point[], Dimension)} で生成します。
+	 * </p>
+	 * @param _points 点列
+	 * @param _size 1つの凸包領域を構成する点数
+	 * @param _dimension 次元
+	 * @return 凸包領域列。点列の点数が指定された点数に満たない場合は空の配列
+	 * @throws IllegalArgumentException 点列がnullの場合
+	 * @throws IllegalArgumentException 点列にnullが含まれる場合
+	 * @throws IllegalArgumentException 次元数がnullの場合
+	 * @throws IllegalArgumentException 点数が次元数に満たない場合
+	 */
+	public static ConvexHull[] createSequence( Point[] _points, int _size, Dimension _dimension ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null" );
+		}
+		if ( Arrays.asList( _points ).indexOf( null ) >= 0 ) {
+			throw new IllegalArgumentException( "_points included null");
+		}
+		if ( _dimension == null ) {
+			throw new IllegalArgumentException( "_dimension is null" );
+		}
+		if ( _size <= _dimension.ordinal() ) {
+			throw new IllegalArgumentException( "fail to create convex hull." );
+		}
+		ConvexHull[] hulls = new ConvexHull[ Math.max( _points.length - _size + 1, 0 ) ];
+		// 全ての点を含む座標軸に垂直な平面の法線方向の軸
+		int axis = _dimension.compareTo( Dimension.TWO_DIMENSION ) >= 0 ? perpendicularAxis( _points ) : -1;
+		for ( int i = 0; i < hulls.length; ++i ) {
+			Point[] points = Arrays.copyOfRange( _points, i, i + _size );
+			ConvexHull hull = axis >= 0 ? createPlanar( points, axis ) : null;
+			hulls[i] = hull != null ? hull : ConvexHull.create( points, _dimension );
+		}
+		return hulls;
+	}
+
 	/**
 	 * この凸包領域の次元を返します。
 	 * @return 次元。
@@ -436,6 +483,182 @@ public class ConvexHull extends Polytope implements Iterable<Point[]> {
 		return null;
 	}
 
+	/**
+	 * 全ての点を含む、座標軸に垂直な平面の法線方向の軸を求めます。
+	 * <p>
+	 * いずれかの座標値が全ての点で等しい場合、3次元の単体の探索で求まる平面と点の距離は厳密に0となり、
+	 * {@link #create(Point[], Dimension)} は2次元の凸包領域を生成します。
+	 * </p>
+	 * @param _points 点列
+	 * @return 軸(x軸が0、y軸が1、z軸が2)。該当する軸がない場合、または有限でない座標値を含む場合は-1
+	 */
+	private static int perpendicularAxis( Point[] _points ) {
+		if ( _points.length == 0 ) {
+			return -1;
+		}
+		boolean[] isConstant = new boolean[]{ true, true, true };
+		for ( Point p : _points ) {
+			double sum = p.x() + p.y() + p.z();
+			if ( Double.isNaN( sum ) || Double.isInfinite( sum ) ) {
+				return -1;
+			}
+			isConstant[0] &= p.x() == _points[0].x();
+			isConstant[1] &= p.y() == _points[0].y();
+			isConstant[2] &= p.z() == _points[0].z();
+		}
+		for ( int k = 2; k >= 0; --k ) {
+			if ( isConstant[k] ) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 座標軸に垂直な平面上の点列から2次元の凸包領域を生成します。
+	 * <p>
+	 * 平面上の2つの座標で点列を並べ、下側と上側の凸包の辺を順に求めます(Andrewの単調連鎖法)。
+	 * 辺は法線方向の軸から見て反時計回りに並び、辺上の点は頂点に含めません。
+	 * 位置の等しい点はファジネスの大きい方を頂点の候補とします。
+	 * 頂点のファジネスは、頂点と辺上の点のファジネスの最大値に揃えます。
+	 * </p>
+	 * @param _points 点列
+	 * @param _axis 平面の法線方向の軸(x軸が0、y軸が1、z軸が2)
+	 * @return 凸包領域。頂点が3点未満となる場合はnull
+	 */
+	private static ConvexHull createPlanar( Point[] _points, final int _axis ) {
+		Point[] sorted = _points.clone();
+		Arrays.sort( sorted, new Comparator<Point>() {
+
+			@Override
+			public int compare( Point _a, Point _b ) {
+				int result = Double.compare( coordinate( _a, _axis + 1 ), coordinate( _b, _axis + 1 ) );
+				if ( result == 0 ) {
+					result = Double.compare( coordinate( _a, _axis + 2 ), coordinate( _b, _axis + 2 ) );
+				}
+				return result;
+			}
+		} );
+
+		// 位置の等しい点はファジネスの大きい方を残す
+		int size = 0;
+		for ( Point p : sorted ) {
+			if ( size > 0
+				&& coordinate( sorted[size - 1], _axis + 1 ) == coordinate( p, _axis + 1 )
+				&& coordinate( sorted[size - 1], _axis + 2 ) == coordinate( p, _axis + 2 ) ) {
+				if ( sorted[size - 1].fuzziness() < p.fuzziness() ) {
+					sorted[size - 1] = p;
+				}
+			} else {
+				sorted[size++] = p;
+			}
+		}
+		if ( size < 3 ) {
+			return null;
+		}
+
+		// 下側の凸包と上側の凸包を順に求める
+		Point[] hull = new Point[ 2 * size ];
+		int count = 0;
+		for ( int i = 0; i < size; ++i ) {
+			while ( count >= 2 && turn( hull[count - 2], hull[count - 1], sorted[i], _axis ) <= 0 ) {
+				--count;
+			}
+			hull[count++] = sorted[i];
+		}
+		for ( int i = size - 2, lower = count + 1; i >= 0; --i ) {
+			while ( count >= lower && turn( hull[count - 2], hull[count - 1], sorted[i], _axis ) <= 0 ) {
+				--count;
+			}
+			hull[count++] = sorted[i];
+		}
+		// 始点が末尾にも含まれている
+		--count;
+		if ( count < 3 ) {
+			return null;
+		}
+
+		// 頂点のファジネスを正規化する
+		double maxFuzziness = Double.NEGATIVE_INFINITY;
+		for ( int i = 0; i < count; ++i ) {
+			maxFuzziness = Math.max( maxFuzziness, hull[i].fuzziness() );
+		}
+		// 辺上の点は頂点に含めないが、ファジネスの最大値には含める
+		for ( int i = 0; i < size; ++i ) {
+			if ( sorted[i].fuzziness() > maxFuzziness && isOnBoundary( sorted[i], hull, count, _axis ) ) {
+				maxFuzziness = sorted[i].fuzziness();
+			}
+		}
+		Point[] uniformed = new Point[ count ];
+		for ( int i = 0; i < count; ++i ) {
+			uniformed[i] = Point.createXYZTF( hull[i].x(), hull[i].y(), hull[i].z(), hull[i].time(), maxFuzziness );
+		}
+		List<Point[]> sides = new ArrayList<Point[]>();
+		for ( int i = 0; i < count; ++i ) {
+			sides.add( new Point[]{ uniformed[i], uniformed[( i + 1 ) % count] } );
+		}
+
+		return new ConvexHull( _points, Collections.unmodifiableList( sides ), Dimension.TWO_DIMENSION );
+	}
+
+	/**
+	 * 座標軸に垂直な平面上で、点が凸包の辺上にあるかを判定します。
+	 * @param _point 点
+	 * @param _hull 凸包の頂点列(反時計回り)
+	 * @param _count 頂点数
+	 * @param _axis 平面の法線方向の軸
+	 * @return 辺上にある場合true
+	 */
+	private static boolean isOnBoundary( Point _point, Point[] _hull, int _count, int _axis ) {
+		double u = coordinate( _point, _axis + 1 );
+		double v = coordinate( _point, _axis + 2 );
+		for ( int i = 0; i < _count; ++i ) {
+			Point a = _hull[i];
+			Point b = _hull[( i + 1 ) % _count];
+			if ( turn( a, b, _point, _axis ) == 0
+				&& Math.min( coordinate( a, _axis + 1 ), coordinate( b, _axis + 1 ) ) <= u
+				&& u <= Math.max( coordinate( a, _axis + 1 ), coordinate( b, _axis + 1 ) )
+				&& Math.min( coordinate( a, _axis + 2 ), coordinate( b, _axis + 2 ) ) <= v
+				&& v <= Math.max( coordinate( a, _axis + 2 ), coordinate( b, _axis + 2 ) ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 座標軸に垂直な平面上で、3点が反時計回りに並んでいるかを判定するための値を求めます。
+	 * @param _a 点a
+	 * @param _b 点b
+	 * @param _c 点c
+	 * @param _axis 平面の法線方向の軸
+	 * @return 反時計回りの場合は正、時計回りの場合は負、同一直線上の場合は0
+	 */
+	private static double turn( Point _a, Point _b, Point _c, int _axis ) {
+		double u1 = coordinate( _b, _axis + 1 ) - coordinate( _a, _axis + 1 );
+		double v1 = coordinate( _b, _axis + 2 ) - coordinate( _a, _axis + 2 );
+		double u2 = coordinate( _c, _axis + 1 ) - coordinate( _a, _axis + 1 );
+		double v2 = coordinate( _c, _axis + 2 ) - coordinate( _a, _axis + 2 );
+		return u1 * v2 - v1 * u2;
+	}
+
+	/**
+	 * 点の指定された軸の座標値を返します。
+	 * @param _point 点
+	 * @param _axis 軸(3で割った余りが0の場合x軸、1の場合y軸、2の場合z軸)
+	 * @return 座標値
+	 */
+	private static double coordinate( Point _point, int _axis ) {
+		switch ( _axis % 3 ) {
+			case 0:
+				return _point.x();
+			case 1:
+				return _point.y();
+			default:
+				return _point.z();
+		}
+	}
+
 	private ConvexHull( Point[] _elements, List<Point[]> _vertices, Dimension _dimension ) {
 		m_elements = _elements;
 		m_verticesList = _vertices;
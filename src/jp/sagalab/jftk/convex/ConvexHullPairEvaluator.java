@@ -0,0 +1,301 @@
+package jp.sagalab.jftk.convex;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.Vector;
+
+/**
+ * 2つの凸包列の間で、凸包同士の包含関係の可能性値を繰り返し評価するためのクラスです。
+ * <p>
+ * 可能性値は {@link ConvexHull#includedIn(ConvexHull)} と同じ値を返します。
+ * 一度評価した凸包の組の可能性値は保持し、同じ組の評価では再計算を行いません。
+ * 凸包と点の可能性値も点毎に保持し、頂点を共有する隣り合った凸包の組の評価で再利用します。
+ * また、凸包間の最短距離の下界がファジネスの和の最大値以上であれば、可能性値は0に確定します。
+ * </p>
+ * <p>
+ * 閾値との比較({@link #exceeds(int, int, double)})では、可能性値を求める前にGJKアルゴリズムで
+ * 凸包間の最短距離の下界を求め、閾値を超え得ないことが確定した時点で打ち切ります。
+ * 下界の探索は、凸包の組毎に保持した分離軸、または直前に評価した組の分離軸から開始します。
+ * 隣り合う凸包は頂点を共有しているため、多くの場合は保持した軸だけで判定が済みます。
+ * 閾値を超えることが確定した時点でも残りの評価を打ち切ります。
+ * </p>
+ * <p>
+ * このクラスのインスタンスはスレッドセーフではありません。
+ * </p>
+ * @author agent
+ */
+public final class ConvexHullPairEvaluator {
+
+	/**
+	 * 凸包列の組の評価器を生成します。
+	 * @param _existed 包含される側の凸包列
+	 * @param _overlapped 包含する側の凸包列
+	 * @return 評価器
+	 * @throws IllegalArgumentException 凸包列がnullの場合
+	 * @throws IllegalArgumentException 凸包列にnullが含まれる場合
+	 */
+	public static ConvexHullPairEvaluator create( ConvexHull[] _existed, ConvexHull[] _overlapped ) {
+		if ( _existed == null ) {
+			throw new IllegalArgumentException( "_existed is null" );
+		}
+		if ( _overlapped == null ) {
+			throw new IllegalArgumentException( "_overlapped is null" );
+		}
+		for ( ConvexHull hull : _existed ) {
+			if ( hull == null ) {
+				throw new IllegalArgumentException( "_existed included null" );
+			}
+		}
+		for ( ConvexHull hull : _overlapped ) {
+			if ( hull == null ) {
+				throw new IllegalArgumentException( "_overlapped included null" );
+			}
+		}
+		return new ConvexHullPairEvaluator( _existed.clone(), _overlapped.clone() );
+	}
+
+	/**
+	 * 包含される側の凸包が包含する側の凸包に含まれる可能性値を返します。
+	 * @param _existedIndex 包含される側の凸包のインデックス
+	 * @param _overlappedIndex 包含する側の凸包のインデックス
+	 * @return 可能性値
+	 */
+	public double possibility( int _existedIndex, int _overlappedIndex ) {
+		Long key = key( _existedIndex, _overlappedIndex );
+		Double cached = m_possibilities.get( key );
+		if ( cached != null ) {
+			return cached;
+		}
+		// 可能性値が0を超え得ない場合は0に確定する
+		if ( isUnreachable( _existedIndex, _overlappedIndex, key, 0.0 ) ) {
+			m_possibilities.put( key, 0.0 );
+			return 0.0;
+		}
+		return evaluate( _existedIndex, _overlappedIndex, key, Double.POSITIVE_INFINITY );
+	}
+
+	/**
+	 * 包含される側の凸包が包含する側の凸包に含まれる可能性値が閾値を超えるかを返します。
+	 * <p>
+	 * 結果は {@code possibility( _existedIndex, _overlappedIndex ) > _threshold} と等しくなります。
+	 * </p>
+	 * @param _existedIndex 包含される側の凸包のインデックス
+	 * @param _overlappedIndex 包含する側の凸包のインデックス
+	 * @param _threshold 閾値
+	 * @return 可能性値が閾値を超える場合true
+	 */
+	public boolean exceeds( int _existedIndex, int _overlappedIndex, double _threshold ) {
+		Long key = key( _existedIndex, _overlappedIndex );
+		Double cached = m_possibilities.get( key );
+		if ( cached != null ) {
+			return cached > _threshold;
+		}
+		if ( isUnreachable( _existedIndex, _overlappedIndex, key, _threshold ) ) {
+			return false;
+		}
+		return evaluate( _existedIndex, _overlappedIndex, key, _threshold ) > _threshold;
+	}
+
+	/**
+	 * 凸包の包含関係の可能性値を、凸包同士、凸包と点、点同士の可能性値の最大値として求めます。
+	 * <p>
+	 * 凸包と点の可能性値は要素の点毎に保持し、頂点を共有する凸包の組の間で再利用します。
+	 * 可能性値が閾値を超えた時点で評価を打ち切ります。
+	 * 全ての要素を評価した場合のみ、可能性値を保持します。
+	 * </p>
+	 * @param _existedIndex 包含される側の凸包のインデックス
+	 * @param _overlappedIndex 包含する側の凸包のインデックス
+	 * @param _key 凸包の組のキー
+	 * @param _threshold 評価を打ち切る閾値
+	 * @return 可能性値。打ち切った場合は閾値を超えた時点の値
+	 */
+	private double evaluate( int _existedIndex, int _overlappedIndex, Long _key, double _threshold ) {
+		ConvexHull existed = m_existed[_existedIndex];
+		ConvexHull overlapped = m_overlapped[_overlappedIndex];
+		Point[] existedElements = m_elements[0][_existedIndex];
+		Point[] overlappedElements = m_elements[1][_overlappedIndex];
+		int[] existedIds = m_pointIds[0][_existedIndex];
+		int[] overlappedIds = m_pointIds[1][_overlappedIndex];
+		int existedPointCount = m_pointCount[0];
+		int overlappedPointCount = m_pointCount[1];
+
+		double pos = 0.0;
+		// 計算量の小さい点同士から評価する
+		for ( Point tP : existedElements ) {
+			for ( Point oP : overlappedElements ) {
+				pos = Math.max( tP.includedIn( oP ).possibility(), pos );
+				if ( pos > _threshold ) {
+					return pos;
+				}
+			}
+		}
+		// 凸包と点
+		for ( int i = 0; i < existedElements.length; ++i ) {
+			Long key = ( (long) _overlappedIndex * existedPointCount + existedIds[i] ) * 2;
+			Double value = m_hullPointPossibilities.get( key );
+			if ( value == null ) {
+				value = overlapped.includedIn( existedElements[i] ).possibility();
+				m_hullPointPossibilities.put( key, value );
+			}
+			pos = Math.max( value, pos );
+			if ( pos > _threshold ) {
+				return pos;
+			}
+		}
+		for ( int j = 0; j < overlappedElements.length; ++j ) {
+			Long key = ( (long) _existedIndex * overlappedPointCount + overlappedIds[j] ) * 2 + 1;
+			Double value = m_hullPointPossibilities.get( key );
+			if ( value == null ) {
+				value = ( (Polytope) existed ).includedIn( overlappedElements[j] ).possibility();
+				m_hullPointPossibilities.put( key, value );
+			}
+			pos = Math.max( value, pos );
+			if ( pos > _threshold ) {
+				return pos;
+			}
+		}
+		// 凸包同士
+		pos = Math.max( ( (Polytope) existed ).includedIn( overlapped ).possibility(), pos );
+
+		m_possibilities.put( _key, pos );
+		return pos;
+	}
+
+	/**
+	 * 凸包間の最短距離の下界から、可能性値が閾値を超え得ないことを判定します。
+	 * <p>
+	 * 凸包同士、凸包と点、点同士の距離はいずれも凸包間の最短距離以上であり、
+	 * ファジネスの和は両凸包の要素のファジネスの最大値の和以下であるため、
+	 * 可能性値は 1 - 下界 / ファジネスの最大値の和 以下となります。
+	 * </p>
+	 * @param _existedIndex 包含される側の凸包のインデックス
+	 * @param _overlappedIndex 包含する側の凸包のインデックス
+	 * @param _key 凸包の組のキー
+	 * @param _threshold 閾値
+	 * @return 閾値を超え得ないことが確定した場合true
+	 */
+	private boolean isUnreachable( int _existedIndex, int _overlappedIndex, Long _key, double _threshold ) {
+		double fuzziness = m_maxFuzziness[0][_existedIndex] + m_maxFuzziness[1][_overlappedIndex];
+		if ( Double.isInfinite( fuzziness ) || _threshold < 0.0 ) {
+			return false;
+		}
+		// 下界がこの値以上であれば可能性値は閾値以下
+		double required = _threshold < 1.0 ? fuzziness * ( 1.0 - _threshold ) : 0.0;
+		// 接している場合と区別できない程度の距離では判定しない
+		required = Math.max( required,
+			MIN_RELATIVE_SEPARATION * ( m_maxNorm[0][_existedIndex] + m_maxNorm[1][_overlappedIndex] ) );
+		if ( !( required > 0.0 ) ) {
+			return false;
+		}
+
+		ConvexHull existed = m_existed[_existedIndex];
+		ConvexHull overlapped = m_overlapped[_overlappedIndex];
+		// 保持している分離軸で判定する
+		Vector axis = m_axes.get( _key );
+		if ( axis != null && existed.separation( overlapped, axis ) >= required ) {
+			return true;
+		}
+		if ( m_lastAxis != null && existed.separation( overlapped, m_lastAxis ) >= required ) {
+			m_axes.put( _key, m_lastAxis );
+			return true;
+		}
+
+		// 保持している分離軸から探索を始める
+		Vector initial = axis != null ? axis : m_lastAxis != null ? m_lastAxis : INITIAL_AXIS;
+		Vector separating = existed.calcSeparatingVector( overlapped, initial, required );
+		if ( separating == null ) {
+			return false;
+		}
+		m_axes.put( _key, separating );
+		m_lastAxis = separating;
+		return existed.separation( overlapped, separating ) >= required;
+	}
+
+	/**
+	 * 凸包の組のキーを返します。
+	 * @param _existedIndex 包含される側の凸包のインデックス
+	 * @param _overlappedIndex 包含する側の凸包のインデックス
+	 * @return キー
+	 */
+	private Long key( int _existedIndex, int _overlappedIndex ) {
+		return (long) _existedIndex * m_overlapped.length + _overlappedIndex;
+	}
+
+	private ConvexHullPairEvaluator( ConvexHull[] _existed, ConvexHull[] _overlapped ) {
+		m_existed = _existed;
+		m_overlapped = _overlapped;
+		ConvexHull[][] hulls = new ConvexHull[][]{ _existed, _overlapped };
+		m_elements = new Point[ 2 ][][];
+		m_pointIds = new int[ 2 ][][];
+		m_pointCount = new int[ 2 ];
+		m_maxFuzziness = new double[ 2 ][];
+		m_maxNorm = new double[ 2 ][];
+		for ( int k = 0; k < 2; ++k ) {
+			m_elements[k] = new Point[ hulls[k].length ][];
+			m_pointIds[k] = new int[ hulls[k].length ][];
+			m_maxFuzziness[k] = new double[ hulls[k].length ];
+			m_maxNorm[k] = new double[ hulls[k].length ];
+			// 隣り合う凸包で共有されている点に同じ番号を振る
+			Map<Point, Integer> ids = new IdentityHashMap<Point, Integer>();
+			for ( int i = 0; i < hulls[k].length; ++i ) {
+				Point[] elements = hulls[k][i].elements();
+				int[] pointIds = new int[ elements.length ];
+				double fuzziness = 0.0;
+				double norm = 0.0;
+				for ( int j = 0; j < elements.length; ++j ) {
+					Point p = elements[j];
+					Integer id = ids.get( p );
+					if ( id == null ) {
+						id = ids.size();
+						ids.put( p, id );
+					}
+					pointIds[j] = id;
+					fuzziness = Math.max( fuzziness, p.fuzziness() );
+					norm = Math.max( norm, Math.sqrt( p.x() * p.x() + p.y() * p.y() + p.z() * p.z() ) );
+				}
+				m_elements[k][i] = elements;
+				m_pointIds[k][i] = pointIds;
+				m_maxFuzziness[k][i] = fuzziness;
+				m_maxNorm[k][i] = norm;
+			}
+			m_pointCount[k] = ids.size();
+		}
+		m_possibilities = new HashMap<Long, Double>();
+		m_hullPointPossibilities = new HashMap<Long, Double>();
+		m_axes = new HashMap<Long, Vector>();
+		m_lastAxis = null;
+	}
+
+	/** 包含される側の凸包列 */
+	private final ConvexHull[] m_existed;
+	/** 包含する側の凸包列 */
+	private final ConvexHull[] m_overlapped;
+	/** 凸包毎の要素の点列(包含される側、包含する側の順) */
+	private final Point[][][] m_elements;
+	/** 凸包毎の要素の点の番号 */
+	private final int[][][] m_pointIds;
+	/** 包含される側、包含する側それぞれの異なる点の数 */
+	private final int[] m_pointCount;
+	/** 凸包毎の要素のファジネスの最大値 */
+	private final double[][] m_maxFuzziness;
+	/** 凸包毎の要素の原点からの距離の最大値 */
+	private final double[][] m_maxNorm;
+	/** 評価済みの凸包の組の可能性値 */
+	private final Map<Long, Double> m_possibilities;
+	/** 評価済みの凸包と点の組の可能性値 */
+	private final Map<Long, Double> m_hullPointPossibilities;
+
+	/** 凸包の組毎に最後に求めた分離軸 */
+	private final Map<Long, Vector> m_axes;
+	/** 直前に求めた分離軸 */
+	private Vector m_lastAxis;
+	/** 分離軸の探索の初期方向 */
+	private static final Vector INITIAL_AXIS = Vector.createXYZ( 1.0, 0.0, 0.0 );
+	/**
+	 * 分離を判定する最短距離の下界の、要素の原点からの距離に対する最小の比率。
+	 * GJKアルゴリズムが接しているとみなす距離(零ベクトルとみなす誤差許容量の平方根程度)より大きくしています。
+	 */
+	private static final double MIN_RELATIVE_SEPARATION = 1.0e-6;
+}
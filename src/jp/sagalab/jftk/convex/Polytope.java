@@ -50,6 +50,116 @@ public abstract class Polytope {
 		return TruthValue.create( 0.0, pos );
 	}
 
+	/**
+	 * 指定された軸に沿った、他方のポリトープとの分離量を求めます。
+	 * <p>
+	 * 軸方向に射影したときの自身の最小値と他方の最大値の差です。
+	 * 正の値の場合、2つのポリトープの最短距離はこの値以上となります。
+	 * </p>
+	 * @param _other 他方のポリトープ
+	 * @param _axis 軸(他方から自身へ向かう向き)
+	 * @return 分離量。軸が零ベクトルの場合は負の無限大
+	 */
+	double separation( Polytope _other, Vector _axis ) {
+		double length = _axis.length();
+		if ( !( length > 0.0 ) ) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		Point thisS = support( _axis.reverse() );
+		Point otherS = _other.support( _axis );
+		return _axis.dot( Vector.createSE( otherS, thisS ) ) / length;
+	}
+
+	/**
+	 * GJKアルゴリズムを用いて、他方のポリトープとの最短距離の下界を与える分離軸を求めます。
+	 * <p>
+	 * 指定された初期方向から探索を始めるため、近い位置関係にあるポリトープの組で求めた軸を与えると
+	 * 少ない反復で収束します。
+	 * 反復毎に {@link #separation(Polytope, Vector)} による下界を評価し、
+	 * 下界が指定された値に達した時点、または最短距離が指定された値未満であることが確定した時点で
+	 * 探索を打ち切ります。
+	 * </p>
+	 * @param _other 他方のポリトープ
+	 * @param _initial 初期方向(他方から自身へ向かう向き)
+	 * @param _limit 探索を打ち切る下界
+	 * @return 最も大きな下界を与えた分離軸。正の下界が得られなかった場合はnull
+	 */
+	Vector calcSeparatingVector( Polytope _other, Vector _initial, double _limit ) {
+		Point thisS = support( _initial.reverse() );
+		Point otherS = _other.support( _initial );
+		Vector v = Vector.createSE( otherS, thisS );
+
+		Vector best = null;
+		double bestBound = 0.0;
+		Point[] verticesSet = new Point[ 0 ];
+		Point[] smallestSet = new Point[ 0 ];
+		double smallestMax = Double.NEGATIVE_INFINITY;
+		do {
+			thisS = support( v.reverse() );
+			otherS = _other.support( v );
+			Point w = Point.createXYZTF(
+				thisS.x() - otherS.x(), thisS.y() - otherS.y(), thisS.z() - otherS.z(),
+				Double.NaN, thisS.fuzziness() + otherS.fuzziness() );
+			double squaredV = v.dot( v );
+			// 最短距離は|v|以下であるため、下界が指定された値に達することはない
+			if ( squaredV < _limit * _limit ) {
+				return best;
+			}
+			double projected = v.dot( Vector.createXYZ( w.x(), w.y(), w.z() ) );
+			if ( projected > 0.0 ) {
+				// 差集合の全ての点はvに射影するとw以上となるため、最短距離の下界が得られる
+				double bound = projected / Math.sqrt( squaredV );
+				if ( bound > bestBound ) {
+					bestBound = bound;
+					best = v;
+				}
+				if ( bound >= _limit ) {
+					return best;
+				}
+			}
+			// 下界と現在の距離が丸め誤差の範囲で一致したら終了
+			double dotResult = squaredV - projected;
+			if ( dotResult <= ERROR_TOLERANCE * squaredV ) {
+				return best;
+			}
+			for ( Point p : verticesSet ) {
+				if ( p.equals( w ) ) {
+					return best;
+				}
+			}
+
+			// 頂点集合を更新
+			verticesSet = new Point[ smallestSet.length + 1 ];
+			System.arraycopy( smallestSet, 0, verticesSet, 0, smallestSet.length );
+			verticesSet[smallestSet.length] = w;
+
+			// 最小集合を更新
+			smallestSet = calcSmallestSet( verticesSet );
+			if ( smallestSet.length < 4 ) {
+				double[] param = calcClosestParameters( smallestSet );
+				double x = 0.0;
+				double y = 0.0;
+				double z = 0.0;
+				for ( int i = 0; i < smallestSet.length; ++i ) {
+					x += param[i] * smallestSet[i].x();
+					y += param[i] * smallestSet[i].y();
+					z += param[i] * smallestSet[i].z();
+				}
+				v = Vector.createXYZ( x, y, z );
+				smallestMax = Double.NEGATIVE_INFINITY;
+				for ( Point vertex : smallestSet ) {
+					double square = vertex.x() * vertex.x() + vertex.y() * vertex.y() + vertex.z() * vertex.z();
+					if ( square > smallestMax ) {
+						smallestMax = square;
+					}
+				}
+			}
+		} while ( smallestSet.length < 4 && v.dot( v ) > ERROR_TOLERANCE * smallestMax );
+
+		// 原点を含む(ポリトープ同士が交わる)
+		return best;
+	}
+
 	/**
 	 * サポート写像を行います。
 	 * @param _vector ベクトル
@@ -0,0 +1,164 @@
+package jp.sagalab.jftk.curve;
+
+import java.util.Arrays;
+import jp.sagalab.jftk.Point;
+
+/**
+ * 曲線のパラメータと始点からの弧長の対応表を表すクラスです。
+ * <p>
+ * 曲線上の標本点列(パラメータの昇順)から、隣接標本点間の距離とその累積を保持します。
+ * 標本点間は線分で近似し、パラメータから弧長、弧長からパラメータへの変換を
+ * 二分探索と線形補間で行います。
+ * </p>
+ * <p>
+ * 曲線ごとに一度だけ生成され、等距離間隔での評価({@link ParametricCurve#arcLengthTable()})、
+ * 全体長と部分長({@link ParametricCurve#lengthTable()})で共有されます。
+ * </p>
+ * @author agent
+ */
+public final class ArcLengthTable {
+
+	/**
+	 * 標本点列から弧長の対応表を生成します。
+	 * @param _samples 標本点列(時刻の昇順)
+	 * @return 弧長の対応表
+	 * @throws IllegalArgumentException 標本点列がnullの場合
+	 * @throws IllegalArgumentException 標本点列の要素数が0の場合
+	 */
+	public static ArcLengthTable create( Point[] _samples ) {
+		if ( _samples == null ) {
+			throw new IllegalArgumentException( "_samples is null." );
+		}
+		if ( _samples.length == 0 ) {
+			throw new IllegalArgumentException( "_samples's length must be greater than 0." );
+		}
+		int num = _samples.length;
+		double[] parameters = new double[ num ];
+		double[] segments = new double[ num ];
+		double[] cumulatives = new double[ num ];
+		parameters[0] = _samples[0].time();
+		for ( int i = 1; i < num; ++i ) {
+			parameters[i] = _samples[i].time();
+			segments[i] = _samples[i - 1].distance( _samples[i] );
+			// Point#length(Point[]) と同じ順序で累積する
+			cumulatives[i] = cumulatives[i - 1] + segments[i];
+		}
+		return new ArcLengthTable( parameters, segments, cumulatives );
+	}
+
+	/**
+	 * 全体の弧長を返します。
+	 * @return 弧長
+	 */
+	public double length() {
+		return m_cumulatives[m_cumulatives.length - 1];
+	}
+
+	/**
+	 * 指定されたパラメータ間の弧長を返します。
+	 * @param _start 開始パラメータ
+	 * @param _end 終了パラメータ
+	 * @return 弧長
+	 */
+	public double length( double _start, double _end ) {
+		return lengthAt( _end ) - lengthAt( _start );
+	}
+
+	/**
+	 * 始点から指定されたパラメータまでの弧長を返します。
+	 * <p>
+	 * 対応表の範囲外のパラメータは範囲の端に丸めます。
+	 * </p>
+	 * @param _parameter パラメータ
+	 * @return 弧長
+	 */
+	public double lengthAt( double _parameter ) {
+		int last = m_parameters.length - 1;
+		if ( !( _parameter > m_parameters[0] ) ) {
+			return 0.0;
+		}
+		if ( _parameter >= m_parameters[last] ) {
+			return m_cumulatives[last];
+		}
+		// parameters[i - 1] < _parameter <= parameters[i] となる i
+		int i = Arrays.binarySearch( m_parameters, _parameter );
+		if ( i < 0 ) {
+			i = -i - 1;
+		} else {
+			return m_cumulatives[i];
+		}
+		double span = m_parameters[i] - m_parameters[i - 1];
+		double w = span > 0 ? ( _parameter - m_parameters[i - 1] ) / span : 0.0;
+		return m_cumulatives[i - 1] + w * m_segments[i];
+	}
+
+	/**
+	 * 始点からの弧長が指定された値となるパラメータを返します。
+	 * <p>
+	 * 弧長が0以下の場合は開始パラメータ、全体の弧長を超える場合は終了パラメータを返します。
+	 * </p>
+	 * @param _length 始点からの弧長
+	 * @return パラメータ
+	 */
+	public double parameterAt( double _length ) {
+		int last = m_cumulatives.length - 1;
+		if ( !( _length > 0 ) ) {
+			return m_parameters[0];
+		}
+		if ( _length > m_cumulatives[last] ) {
+			return m_parameters[last];
+		}
+		// cumulatives[i] >= _length となる最小の i (このとき区間 i の長さは正)
+		int low = 1;
+		int high = last;
+		while ( low < high ) {
+			int mid = ( low + high ) >>> 1;
+			if ( m_cumulatives[mid] >= _length ) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		double w = ( _length - m_cumulatives[low - 1] ) / m_segments[low];
+		return ( 1 - w ) * m_parameters[low - 1] + w * m_parameters[low];
+	}
+
+	/**
+	 * 対応表のパラメータ範囲を返します。
+	 * @return パラメータ範囲
+	 */
+	public Range range() {
+		return Range.create( m_parameters[0], m_parameters[m_parameters.length - 1] );
+	}
+
+	/**
+	 * 標本点数を返します。
+	 * @return 標本点数
+	 */
+	public int size() {
+		return m_parameters.length;
+	}
+
+	/**
+	 * この ArcLengthTable の文字列表現を返します。
+	 * @return 標本点数、パラメータ範囲、弧長を表す String
+	 */
+	@Override
+	public String toString() {
+		return String.format( "size:%d range:[%f, %f] length:%f",
+			m_parameters.length, m_parameters[0], m_parameters[m_parameters.length - 1], length() );
+	}
+
+	private ArcLengthTable( double[] _parameters, double[] _segments, double[] _cumulatives ) {
+		m_parameters = _parameters;
+		m_segments = _segments;
+		m_cumulatives = _cumulatives;
+	}
+
+	/** 標本点のパラメータ */
+	private final double[] m_parameters;
+	/** 直前の標本点との距離 */
+	private final double[] m_segments;
+	/** 始点からの累積距離 */
+	private final double[] m_cumulatives;
+}
@@ -8,6 +8,7 @@ import jp.sagalab.jftk.FuzzySet;
 import jp.sagalab.jftk.GeomUtil;
 import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.transform.Transformable;
 import jp.sagalab.jftk.TruthValue;
 import jp.sagalab.jftk.Vector;
@@ -68,6 +69,22 @@ public abstract class ParametricCurve implements ParametricEvaluable<Point>,
 		return points;
 	}
 
+	/**
+	 * パラメータ範囲全体に対応する点列を評価し、座標成分ごとの点列として返します。
+	 * <p>
+	 * 評価する点は {@link #evaluateAll(int, jp.sagalab.jftk.curve.ParametricCurve.EvaluationType)}
+	 * と同じです。
+	 * </p>
+	 * @param _num 評価数
+	 * @param _type 評価タイプ
+	 * @return 評価点列
+	 * @throws OutOfRangeException 評価数が2未満の場合
+	 * @throws UnsupportedOperationException 評価タイプがTIMEまたはDISTANCEでない場合
+	 */
+	public PointBuffer evaluateAllAsBuffer( int _num, ParametricCurve.EvaluationType _type ) {
+		return PointBuffer.create( evaluateAll( _num, _type ) );
+	}
+
 	@Override
 	public Point evaluateAtStart() {
 		return evaluateAt( m_range.start() );
@@ -168,6 +185,13 @@ public abstract class ParametricCurve implements ParametricEvaluable<Point>,
 			throw new IllegalArgumentException("_num <= 0");
 		}
 		
+		if ( _other instanceof ParametricCurve ) {
+			// 点ごとの区間真理値を生成せずに、成分ごとの配列からまとめて求める
+			PointBuffer pointsA = evaluateAllAsBuffer( _num, EvaluationType.DISTANCE );
+			PointBuffer pointsB = ( (ParametricCurve) _other ).evaluateAllAsBuffer( _num, EvaluationType.DISTANCE );
+			return pointsA.includedIn( pointsB );
+		}
+
 		FuzzySet[] pointsA = evaluateAll( _num, EvaluationType.DISTANCE );
 		FuzzySet[] pointsB = _other.evaluateAll( _num, EvaluationType.DISTANCE );
 
@@ -186,8 +210,66 @@ public abstract class ParametricCurve implements ParametricEvaluable<Point>,
 	 * @return 曲線の長さ
 	 */
 	public double length() {
-		Point[] samplePoints = evaluateAllByOptimized( 100, 0.001 );
-		return Point.length( samplePoints );
+		return lengthTable().length();
+	}
+
+	/**
+	 * 指定された範囲に対応する部分の長さを返します。
+	 * <p>
+	 * {@link #lengthTable()} の累積弧長の差から求めます。
+	 * 範囲の端点では標本点間を線形補間するため、
+	 * 切り出した部分曲線の長さ({@link #part(Range)} の {@link #length()})とは一致しない場合があります。
+	 * </p>
+	 * @param _range 範囲
+	 * @return 部分の長さ
+	 * @throws OutOfRangeException 範囲がこの曲線の存在範囲に含まれない場合
+	 */
+	public double length( Range _range ) {
+		if ( !m_range.isInner( _range ) ) {
+			throw new OutOfRangeException( String.format( "_range:%s is out of range:%s", _range, m_range ) );
+		}
+		return lengthTable().length( _range.start(), _range.end() );
+	}
+
+	/**
+	 * 曲線の長さを求めるパラメータと弧長の対応表を返します。
+	 * <p>
+	 * {@link #length()} と {@link #length(Range)} はこの対応表から求めます。
+	 * 標準では {@link #arcLengthTable()} を返します。
+	 * </p>
+	 * @return 弧長の対応表
+	 */
+	public ArcLengthTable lengthTable() {
+		return arcLengthTable();
+	}
+
+	/**
+	 * パラメータと弧長の対応表を返します。
+	 * <p>
+	 * 対応表は最初に必要になった時点で一度だけ生成され、
+	 * 等距離間隔での評価で共有されます。
+	 * </p>
+	 * @return 弧長の対応表
+	 */
+	public ArcLengthTable arcLengthTable() {
+		ArcLengthTable table = m_arcLengthTable;
+		if ( table == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			table = createArcLengthTable();
+			m_arcLengthTable = table;
+		}
+		return table;
+	}
+
+	/**
+	 * パラメータと弧長の対応表を生成します。
+	 * <p>
+	 * 直線性を用いた評価点列(分割数100、閾値0.001)を標本点列とします。
+	 * </p>
+	 * @return 弧長の対応表
+	 */
+	protected ArcLengthTable createArcLengthTable() {
+		return ArcLengthTable.create( evaluateAllByOptimized( 100, 0.001 ) );
 	}
 
 	/**
@@ -241,50 +323,63 @@ public abstract class ParametricCurve implements ParametricEvaluable<Point>,
 	 * @return 評価点列
 	 */
 	protected Point[] evaluateAllByDistance( int _num ) {
-		// TODO 曲線によって、その特性を活かした精度と速度の両立が可能
-		// ここで評価するパラメータのリスト化を行う
-		// リスト化の処理でprotectedなメソッドを呼ぶ（そこでクラスごとの最適化？）
-
-		// 等距離間隔のためのサンプル評価点列
-		// サンプル評価点列には直線性での評価点列を使用
-		Point[] samplePoints = evaluateAllByOptimized( 100, 0.001 );
-		// 曲線の長さ
-		double length = Point.length( samplePoints );
+		double[] parameters = distanceParameters( _num );
 		Point[] points = new Point[ _num ];
+		for ( int i = 0; i < _num; ++i ) {
+			points[i] = evaluateAt( parameters[i] );
+		}
 
-		// 始点
-		points[0] = evaluateAtStart();
-
-		// 現在の評価点番号
-		int n = 1;
-
-		// 直線性で評価した曲線の更新距離
-		// ループごとに直線性で評価した点列の隣接点間の距離を累積した値
-		double optLengthStep = 0;
-		// 各点間の距離を測りつつ、評価点を追加していく
-		for ( int i = 1; i < samplePoints.length; ++i ) {
-			// 隣接サンプル点の距離
-			double optDelta = samplePoints[i - 1].distance( samplePoints[i] );
-			if ( optDelta > 0 ) {
-				// 等距離で評価する曲線の更新距離
-				// ループごとに等距離評価した点列の隣接点間の距離を累積した値
-				double disLengthStep = n * length / ( _num - 1 );
-				while ( n < _num - 1 && disLengthStep <= optLengthStep + optDelta ) {
-					double w = ( disLengthStep - optLengthStep ) / optDelta;
-					double t = ( 1 - w ) * samplePoints[i - 1].time() + w * samplePoints[i].time();
-					points[n++] = evaluateAt( t );
-					disLengthStep = n * length / ( _num - 1 );
-				}
+		return points;
+	}
+
+	/**
+	 * 等時間間隔の評価パラメータ列を生成します。
+	 * @param _num 評価数
+	 * @return パラメータ列
+	 * @see #evaluateAllByTime(int)
+	 */
+	protected double[] timeParameters( int _num ) {
+		double[] times = new double[ _num ];
+		double start = m_range.start();
+		double end = m_range.end();
+		if ( _num > 0 ) {
+			// 内分で評価パラメータを決定（パラメータのズレが累積しない）
+			times[0] = start;
+			double step = ( end - start ) / ( _num - 1 );
+			for ( int i = 1; i < _num - 1; ++i ) {
+				times[i] = start + i * step;
 			}
-			optLengthStep += optDelta;
+			times[_num - 1] = end;
 		}
+		return times;
+	}
+
+	/**
+	 * 等距離間隔の評価パラメータ列を求めます。
+	 * <p>
+	 * パラメータ列は昇順となります。
+	 * </p>
+	 * @param _num 評価点数
+	 * @return パラメータ列
+	 * @see #evaluateAllByDistance(int)
+	 */
+	protected double[] distanceParameters( int _num ) {
+		// 曲線の長さ
+		ArcLengthTable table = arcLengthTable();
+		double length = table.length();
+		double[] parameters = new double[ _num ];
 
-		// 残りは全部最後の点を詰める
-		while ( n < _num ) {
-			points[n++] = evaluateAtEnd();
+		// 始点
+		parameters[0] = m_range.start();
+		// 等距離で評価する曲線の更新距離に対応するパラメータを対応表から求める
+		for ( int n = 1; n < _num - 1; ++n ) {
+			double disLengthStep = n * length / ( _num - 1 );
+			parameters[n] = length > 0 && disLengthStep <= length ? table.parameterAt( disLengthStep ) : m_range.end();
 		}
+		// 終点
+		parameters[_num - 1] = m_range.end();
 
-		return points;
+		return parameters;
 	}
 	
 	/**
@@ -335,6 +430,8 @@ public abstract class ParametricCurve implements ParametricEvaluable<Point>,
 
 	/** パラメータ範囲 */
 	private final Range m_range;
+	/** 弧長の対応表 */
+	private volatile ArcLengthTable m_arcLengthTable;
 	/** 線形性探索を行う深さの限界 */
 	private static final int LIMIT_OF_SEARCH_DEEPTH = 3;
 }
\ No newline at end of file
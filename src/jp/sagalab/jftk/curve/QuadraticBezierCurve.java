@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.transform.TransformMatrix;
 
 /**
@@ -83,6 +84,81 @@ public class QuadraticBezierCurve extends ParametricCurve{
 		return Point.length( evaluateAllByOptimized( (int) Math.ceil( range().length() / 0.1 ), 0.001 ) );
 	}
 
+	/**
+	 * 指定されたパラメータ間の弧長を数値積分により求めます。
+	 * <p>
+	 * パラメータ範囲によらず、曲線の定義式上の弧長を返します。
+	 * 導関数の大きさを適応的なGauss-Legendre求積で積分するため、
+	 * 評価点列の折れ線長である {@link #length()} よりも正確な値となります。
+	 * </p>
+	 * @param _start 開始パラメータ
+	 * @param _end 終了パラメータ
+	 * @return 弧長(終了パラメータが開始パラメータより小さい場合も非負)
+	 */
+	public double arcLength( double _start, double _end ) {
+		double from = Math.min( _start, _end );
+		double to = Math.max( _start, _end );
+		double length = 0.0;
+		// 区間の境界をARC_LENGTH_PANEL_WIDTHの整数倍に揃える
+		double a = from;
+		while ( a < to ) {
+			double b = Math.min( ( Math.floor( a / ARC_LENGTH_PANEL_WIDTH ) + 1 ) * ARC_LENGTH_PANEL_WIDTH, to );
+			length += integrateSpeed( a, b );
+			a = b;
+		}
+		return length;
+	}
+
+	/**
+	 * 指定されたパラメータからの弧長が指定された長さとなるパラメータを求めます。
+	 * <p>
+	 * 固定幅の区間毎に弧長を累積して目標の弧長を含む区間を特定し、
+	 * その区間内をNewton法(区間外に出る場合は二分法)で解きます。
+	 * 曲線の定義式は周期2であり、1周期を超える長さの場合は周期単位で読み飛ばします。
+	 * </p>
+	 * @param _start 開始パラメータ
+	 * @param _length 弧長(正の場合はパラメータの増加方向、負の場合は減少方向に進みます)
+	 * @return パラメータ。弧長が0もしくは非数の場合、または曲線が点に縮退している場合は開始パラメータ
+	 */
+	public double parameterAtLength( double _start, double _length ) {
+		if ( !( Math.abs( _length ) > 0 ) || Double.isInfinite( _length ) ) {
+			return _start;
+		}
+		double direction = Math.signum( _length );
+		double target = Math.abs( _length );
+
+		// 目標の弧長を含む区間を探索
+		double a = _start;
+		double accumulated = 0.0;
+		boolean isPeriodSkipped = false;
+		while ( true ) {
+			double b = direction > 0
+				? ( Math.floor( a / ARC_LENGTH_PANEL_WIDTH ) + 1 ) * ARC_LENGTH_PANEL_WIDTH
+				: ( Math.ceil( a / ARC_LENGTH_PANEL_WIDTH ) - 1 ) * ARC_LENGTH_PANEL_WIDTH;
+			if ( !isPeriodSkipped && Math.abs( b - _start ) >= PERIOD ) {
+				b = _start + direction * PERIOD;
+			}
+			double panel = integrateSpeed( Math.min( a, b ), Math.max( a, b ) );
+			if ( accumulated + panel >= target ) {
+				return solveInPanel( a, b, target - accumulated );
+			}
+			accumulated += panel;
+			a = b;
+			if ( !isPeriodSkipped && Math.abs( b - _start ) >= PERIOD ) {
+				// 1周期分の長さが分かったので、残りの周期を読み飛ばす
+				if ( !( accumulated > 0 ) ) {
+					return _start;
+				}
+				double periods = Math.floor( target / accumulated ) - 1;
+				if ( periods > 0 ) {
+					a += direction * PERIOD * periods;
+					target -= accumulated * periods;
+				}
+				isPeriodSkipped = true;
+			}
+		}
+	}
+
 	@Override
 	public Point evaluateAt( double _parameter ) {
 		return evaluate( _parameter );
@@ -90,6 +166,55 @@ public class QuadraticBezierCurve extends ParametricCurve{
 
 	@Override
 	protected Point evaluate( double _parameter ) {
+		double[] w = new double[ 3 ];
+		calculateWeights( _parameter, w );
+
+		return Point.createXYZTF(
+			w[0] * m_cp0.x() + w[1] * m_cp1.x() + w[2] * m_cp2.x(),
+			w[0] * m_cp0.y() + w[1] * m_cp1.y() + w[2] * m_cp2.y(),
+			w[0] * m_cp0.z() + w[1] * m_cp1.z() + w[2] * m_cp2.z(),
+			_parameter,
+			Math.abs( w[0] ) * m_cp0.fuzziness() + Math.abs( w[1] ) * m_cp1.fuzziness() + Math.abs( w[2] ) * m_cp2.fuzziness() );
+	}
+
+	@Override
+	public PointBuffer evaluateAllAsBuffer( int _num, EvaluationType _type ) {
+		double[] parameters;
+		if ( _num < 2 ) {
+			return super.evaluateAllAsBuffer( _num, _type );
+		} else if ( _type == EvaluationType.TIME ) {
+			parameters = timeParameters( _num );
+		} else if ( _type == EvaluationType.DISTANCE ) {
+			parameters = distanceParameters( _num );
+		} else {
+			return super.evaluateAllAsBuffer( _num, _type );
+		}
+		double[] x = new double[ _num ];
+		double[] y = new double[ _num ];
+		double[] z = new double[ _num ];
+		double[] f = new double[ _num ];
+		// 評価点を生成せず、成分ごとの配列に直接格納する
+		double[] w = new double[ 3 ];
+		for ( int i = 0; i < _num; ++i ) {
+			calculateWeights( parameters[i], w );
+			x[i] = w[0] * m_cp0.x() + w[1] * m_cp1.x() + w[2] * m_cp2.x();
+			y[i] = w[0] * m_cp0.y() + w[1] * m_cp1.y() + w[2] * m_cp2.y();
+			z[i] = w[0] * m_cp0.z() + w[1] * m_cp1.z() + w[2] * m_cp2.z();
+			f[i] = Math.abs( w[0] ) * m_cp0.fuzziness() + Math.abs( w[1] ) * m_cp1.fuzziness() + Math.abs( w[2] ) * m_cp2.fuzziness();
+		}
+
+		return PointBuffer.create( x, y, z, parameters, f );
+	}
+
+	/**
+	 * 指定されたパラメータでの各制御点の重みを求めます。
+	 * <p>
+	 * 重みは和が1となるように正規化します。
+	 * </p>
+	 * @param _parameter パラメータ
+	 * @param _weights 重みの格納先(要素数3)
+	 */
+	private void calculateWeights( double _parameter, double[] _weights ) {
 		// パラメータを[ 0.0 - 2.0 ]の範囲に正規化
 		double t = _parameter % 2.0;
 		if ( t < 0 ) {
@@ -108,16 +233,139 @@ public class QuadraticBezierCurve extends ParametricCurve{
 			w2 = t * t - t * ( 1 - t );
 		}
 		double sum = 1 / ( w0 + w1 + w2 );
-		w0 *= sum;
-		w1 *= sum;
-		w2 *= sum;
+		_weights[0] = w0 * sum;
+		_weights[1] = w1 * sum;
+		_weights[2] = w2 * sum;
+	}
 
-		return Point.createXYZTF(
-			w0 * m_cp0.x() + w1 * m_cp1.x() + w2 * m_cp2.x(),
-			w0 * m_cp0.y() + w1 * m_cp1.y() + w2 * m_cp2.y(),
-			w0 * m_cp0.z() + w1 * m_cp1.z() + w2 * m_cp2.z(),
-			_parameter,
-			Math.abs( w0 ) * m_cp0.fuzziness() + Math.abs( w1 ) * m_cp1.fuzziness() + Math.abs( w2 ) * m_cp2.fuzziness() );
+	/**
+	 * 区間内で弧長が指定された長さとなるパラメータを求めます。
+	 * @param _a 区間の開始パラメータ
+	 * @param _b 区間の終了パラメータ(開始パラメータより小さくても構いません)
+	 * @param _length 区間の開始パラメータからの弧長(区間の弧長以下)
+	 * @return パラメータ
+	 */
+	private double solveInPanel( double _a, double _b, double _length ) {
+		double direction = Math.signum( _b - _a );
+		// 探索区間(lowは弧長が不足、highは弧長が超過する側)
+		double low = _a;
+		double high = _b;
+		double t = _a + ( _b - _a ) * 0.5;
+		for ( int i = 0; i < MAX_NEWTON_ITERATION; ++i ) {
+			double residual = integrateSpeed( Math.min( _a, t ), Math.max( _a, t ) ) - _length;
+			if ( residual > 0 ) {
+				high = t;
+			} else {
+				low = t;
+			}
+			if ( Math.abs( residual ) <= ARC_LENGTH_TOLERANCE * _length || Math.abs( high - low ) < PARAMETER_TOLERANCE ) {
+				break;
+			}
+			double speed = speed( t );
+			double next = t - direction * residual / speed;
+			// Newton法の更新が探索区間外となる場合は二分法に切り替える
+			if ( Double.isNaN( next ) || Double.isInfinite( next )
+				|| !( Math.min( low, high ) < next && next < Math.max( low, high ) ) ) {
+				next = ( low + high ) * 0.5;
+			}
+			t = next;
+		}
+		return t;
+	}
+
+	/**
+	 * 導関数の大きさを適応的なGauss-Legendre求積で積分します。
+	 * @param _a 開始パラメータ
+	 * @param _b 終了パラメータ(開始パラメータ以上)
+	 * @return 弧長
+	 */
+	private double integrateSpeed( double _a, double _b ) {
+		double whole = gaussLegendre( _a, _b );
+		return integrateSpeed( _a, _b, whole, ARC_LENGTH_TOLERANCE * Math.abs( whole ), 0 );
+	}
+
+	/**
+	 * 導関数の大きさを適応的なGauss-Legendre求積で積分します。
+	 * <p>
+	 * 区間を2等分した求積値との差が許容誤差を超える場合、許容誤差を半分ずつに分けて再帰します。
+	 * </p>
+	 * @param _a 開始パラメータ
+	 * @param _b 終了パラメータ
+	 * @param _whole 区間全体での求積値
+	 * @param _tolerance 区間の許容誤差
+	 * @param _depth 再帰の深さ
+	 * @return 弧長
+	 */
+	private double integrateSpeed( double _a, double _b, double _whole, double _tolerance, int _depth ) {
+		double mid = ( _a + _b ) * 0.5;
+		double left = gaussLegendre( _a, mid );
+		double right = gaussLegendre( mid, _b );
+		double sum = left + right;
+		if ( _depth >= MAX_QUADRATURE_DEPTH || Math.abs( sum - _whole ) <= _tolerance ) {
+			return sum;
+		}
+		double tolerance = _tolerance * 0.5;
+		return integrateSpeed( _a, mid, left, tolerance, _depth + 1 )
+			+ integrateSpeed( mid, _b, right, tolerance, _depth + 1 );
+	}
+
+	/**
+	 * 5点のGauss-Legendre公式で導関数の大きさを積分します。
+	 * @param _a 開始パラメータ
+	 * @param _b 終了パラメータ
+	 * @return 積分値
+	 */
+	private double gaussLegendre( double _a, double _b ) {
+		double half = ( _b - _a ) * 0.5;
+		double center = ( _a + _b ) * 0.5;
+		double sum = 0.0;
+		for ( int i = 0; i < GAUSS_NODES.length; ++i ) {
+			sum += GAUSS_WEIGHTS[i] * speed( center + half * GAUSS_NODES[i] );
+		}
+		return sum * half;
+	}
+
+	/**
+	 * 指定されたパラメータでの導関数の大きさを求めます。
+	 * @param _parameter パラメータ
+	 * @return 導関数の大きさ
+	 */
+	private double speed( double _parameter ) {
+		// パラメータを[ 0.0 - 2.0 ]の範囲に正規化
+		double t = _parameter % 2.0;
+		if ( t < 0 ) {
+			t += 2.0;
+		}
+
+		// 基底関数とその導関数(符号は大きさに影響しないため、後半の区間では反転したパラメータで微分する)
+		double w0, w1, w2, d0, d1, d2;
+		if ( t > 1.0 ) {
+			t = 2 - t;
+			w0 = 1 - t;
+			w1 = -2 * ( 1 + m_weight ) * t * ( 1 - t );
+			w2 = t;
+			d0 = -1;
+			d1 = -2 * ( 1 + m_weight ) * ( 1 - 2 * t );
+			d2 = 1;
+		} else {
+			w0 = ( 1 - t ) * ( 1 - t ) - t * ( 1 - t );
+			w1 = 2 * ( 1 + m_weight ) * t * ( 1 - t );
+			w2 = t * t - t * ( 1 - t );
+			d0 = 4 * t - 3;
+			d1 = 2 * ( 1 + m_weight ) * ( 1 - 2 * t );
+			d2 = 4 * t - 1;
+		}
+		double denominator = w0 + w1 + w2;
+		double derivative = d0 + d1 + d2;
+		// 商の微分 ( N'D - ND' ) / D^2
+		double x = ( ( d0 * m_cp0.x() + d1 * m_cp1.x() + d2 * m_cp2.x() ) * denominator
+			- ( w0 * m_cp0.x() + w1 * m_cp1.x() + w2 * m_cp2.x() ) * derivative );
+		double y = ( ( d0 * m_cp0.y() + d1 * m_cp1.y() + d2 * m_cp2.y() ) * denominator
+			- ( w0 * m_cp0.y() + w1 * m_cp1.y() + w2 * m_cp2.y() ) * derivative );
+		double z = ( ( d0 * m_cp0.z() + d1 * m_cp1.z() + d2 * m_cp2.z() ) * denominator
+			- ( w0 * m_cp0.z() + w1 * m_cp1.z() + w2 * m_cp2.z() ) * derivative );
+
+		return Math.sqrt( x * x + y * y + z * z ) / ( denominator * denominator );
 	}
 
 	@Override
@@ -327,4 +575,24 @@ public class QuadraticBezierCurve extends ParametricCurve{
 	private final Point m_cp2;
 	/** 重み */
 	private final double m_weight;
+	/** 定義式の周期 */
+	private static final double PERIOD = 2.0;
+	/** 弧長を累積する区間の幅 */
+	private static final double ARC_LENGTH_PANEL_WIDTH = 0.125;
+	/** 弧長の相対許容誤差 */
+	private static final double ARC_LENGTH_TOLERANCE = 1.0E-10;
+	/** パラメータの許容誤差 */
+	private static final double PARAMETER_TOLERANCE = 1.0E-14;
+	/** 適応的求積の再帰の深さの限界 */
+	private static final int MAX_QUADRATURE_DEPTH = 8;
+	/** Newton法の反復回数の上限 */
+	private static final int MAX_NEWTON_ITERATION = 64;
+	/** 5点のGauss-Legendre公式の分点 */
+	private static final double[] GAUSS_NODES = {
+		-0.9061798459386640, -0.5384693101056831, 0.0, 0.5384693101056831, 0.9061798459386640
+	};
+	/** 5点のGauss-Legendre公式の重み */
+	private static final double[] GAUSS_WEIGHTS = {
+		0.2369268850561891, 0.4786286704993665, 0.5688888888888889, 0.4786286704993665, 0.2369268850561891
+	};
 }
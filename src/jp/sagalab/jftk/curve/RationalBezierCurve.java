@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
+import jp.sagalab.jftk.Instrumentation;
 import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.transform.TransformMatrix;
@@ -294,7 +295,8 @@ public class RationalBezierCurve extends ParametricCurve {
 		}
 
 		if ( n >= MAX_DIVIDING_NUM ) {
-			System.err.printf( "Warning: reached a max dviding number(%d) in intersectionWith().\r\n", MAX_DIVIDING_NUM );
+			Instrumentation.listener().warned( RationalBezierCurve.class,
+				String.format( "reached a max dviding number(%d) in intersectionWith().", MAX_DIVIDING_NUM ) );
 		}
 
 		return result.toArray( new Point[ result.size() ] );
@@ -5,8 +5,10 @@ import java.util.Arrays;
 import java.util.List;
 import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.transform.TransformMatrix;
 import jp.sagalab.jftk.TruthValue;
+import jp.sagalab.jftk.convex.ConvexHull;
 
 /**
  * スプライン曲線を表すクラスです。
@@ -54,27 +56,111 @@ public class SplineCurve extends ParametricCurve implements CurveConvertible<Bez
 	
 	@Override
 	public double length() {
-		return Point.length( evaluateAllByOptimized( (int) Math.ceil( range().length() / 0.01 ), 0.001 ) );
+		return lengthTable().length();
+	}
+
+	/**
+	 * 曲線の長さを求めるパラメータと弧長の対応表を返します。
+	 * <p>
+	 * 直線性を用いた評価点列(分割数はパラメータ幅0.01毎、閾値0.001)を標本点列とします。
+	 * 最初に必要になった時点で一度だけ生成され、曲線の長さと部分長の問い合わせで共有されます。
+	 * </p>
+	 * @return 弧長の対応表
+	 */
+	@Override
+	public ArcLengthTable lengthTable() {
+		ArcLengthTable table = m_lengthTable;
+		if ( table == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			table = ArcLengthTable.create( evaluateAllByOptimized( (int) Math.ceil( range().length() / 0.01 ), 0.001 ) );
+			m_lengthTable = table;
+		}
+		return table;
 	}
 
 	@Override
 	public Point evaluate( double _t ) {
-		// 対象となる節点番号を求める
-		int knotNum = searchKnotNum( _t, m_degree - 1, m_knots.length - m_degree );
-		// 部分制御点列の抽出
-		Point[] part = new Point[ m_degree + 1 ];
-		System.arraycopy( m_cp, knotNum - m_degree, part, 0, part.length );
-		// de Boor による評価
-		for ( int i = 0; i < m_degree; ++i ) {
-			for ( int j = 0; j < m_degree - i; ++j ) {
-				int k = knotNum - j - 1;
-				double w = ( _t - m_knots[ k ] ) / ( m_knots[ k + m_degree - i ] - m_knots[ k ] );
-				part[ m_degree - j ] = part[ m_degree - j ].internalDivision( part[ m_degree - j - 1 ], 1 - w, w );
-			}
+		return polynomial().evaluate( _t );
+	}
+
+	/**
+	 * 昇順に並んだパラメータ列で一括評価し、評価点の各成分を指定された配列に格納します。
+	 * <p>
+	 * {@link #evaluate(double)} と同じ値を求めますが、節点区間をパラメータ列に沿って順に進めるため、
+	 * 評価点ごとの節点区間の探索とオブジェクト生成を行いません。
+	 * {@link #evaluate(double)} と同様に、存在範囲の検査は行いません。
+	 * </p>
+	 * <p>
+	 * 格納先にnullを指定した成分は格納しません。
+	 * </p>
+	 * @param _parameters パラメータ列(昇順)
+	 * @param _x X座標の格納先
+	 * @param _y Y座標の格納先
+	 * @param _z Z座標の格納先
+	 * @param _fuzziness ファジネスの格納先
+	 * @throws IllegalArgumentException パラメータ列がnullの場合
+	 * @throws IllegalArgumentException パラメータ列が昇順でない場合、またはNaNを含む場合
+	 * @throws IllegalArgumentException 格納先の要素数がパラメータ列の要素数より小さい場合
+	 * @throws IllegalArgumentException 評価結果がNaNまたはInfiniteとなった場合
+	 * @see SplinePolynomial#evaluateInto(double[], double[], double[], double[], double[])
+	 */
+	public void evaluateInto( double[] _parameters, double[] _x, double[] _y, double[] _z, double[] _fuzziness ) {
+		polynomial().evaluateInto( _parameters, _x, _y, _z, _fuzziness );
+	}
+
+	/**
+	 * 節点区間ごとの多項式表現を返します。
+	 * <p>
+	 * 多項式表現は最初に必要になった時点で一度だけ生成され、
+	 * {@link #part(jp.sagalab.jftk.curve.Range)} で生成した部分曲線とも共有されます。
+	 * </p>
+	 * @return 多項式表現
+	 */
+	public SplinePolynomial polynomial() {
+		SplinePolynomial polynomial = m_polynomial.m_value;
+		if ( polynomial == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			polynomial = SplinePolynomial.compile( m_degree, m_cp, m_knots );
+			m_polynomial.m_value = polynomial;
+		}
+		return polynomial;
+	}
+
+	@Override
+	public PointBuffer evaluateAllAsBuffer( int _num, EvaluationType _type ) {
+		double[] times;
+		if ( _num < 2 ) {
+			return super.evaluateAllAsBuffer( _num, _type );
+		} else if ( _type == EvaluationType.TIME ) {
+			times = timeParameters( _num );
+		} else if ( _type == EvaluationType.DISTANCE ) {
+			times = distanceParameters( _num );
+		} else {
+			return super.evaluateAllAsBuffer( _num, _type );
 		}
-		Point p = part[ m_degree ];
+		double[] x = new double[ _num ];
+		double[] y = new double[ _num ];
+		double[] z = new double[ _num ];
+		double[] f = new double[ _num ];
+		evaluateInto( times, x, y, z, f );
 
-		return Point.createXYZTF( p.x(), p.y(), p.z(), _t, p.fuzziness() );
+		return PointBuffer.create( x, y, z, times, f );
+	}
+
+	@Override
+	protected Point[] evaluateAllByTime( int _num ) {
+		double[] times = timeParameters( _num );
+		double[] x = new double[ _num ];
+		double[] y = new double[ _num ];
+		double[] z = new double[ _num ];
+		double[] f = new double[ _num ];
+		evaluateInto( times, x, y, z, f );
+
+		Point[] points = new Point[ _num ];
+		for ( int i = 0; i < _num; ++i ) {
+			points[i] = Point.createXYZTF( x[i], y[i], z[i], times[i], f[i] );
+		}
+		return points;
 	}
 
 	@Override
@@ -83,7 +169,7 @@ public class SplineCurve extends ParametricCurve implements CurveConvertible<Bez
 			throw new OutOfRangeException( String.format( "_range:%s is out of range:%s", _range, range() ) );
 		}
 
-		return new SplineCurve( m_degree, m_cp, m_knots, _range );
+		return new SplineCurve( m_degree, m_cp, m_knots, _range, m_polynomial );
 	}
 
 	@Override
@@ -585,6 +671,27 @@ public class SplineCurve extends ParametricCurve implements CurveConvertible<Bez
 		return bezierCurves;
 	}
 
+	/**
+	 * 存在範囲内の各節点区間の制御点列の凸包列を返します。
+	 * <p>
+	 * 存在範囲の始点と終点に次数分の多重節点を挿入した曲線について、
+	 * 存在範囲内の節点区間毎に、その区間を定める(次数 + 1)個の制御点の凸包を求めます。
+	 * 曲線の各区間は対応する凸包に含まれます。
+	 * 凸包列は {@link ConvexHull#createSequence(Point[], int, ConvexHull.Dimension)} でまとめて生成します。
+	 * 最初に必要になった時点で一度だけ生成され、同じ曲線に対して重複範囲の探索を繰り返す場合に再利用されます。
+	 * </p>
+	 * @return 凸包列
+	 */
+	public ConvexHull[] spanConvexHulls() {
+		ConvexHull[] hulls = m_spanConvexHulls;
+		if ( hulls == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			hulls = createSpanConvexHulls();
+			m_spanConvexHulls = hulls;
+		}
+		return hulls.clone();
+	}
+
 	/**
 	 * 次数を返します。
 	 * @return 次数
@@ -661,12 +768,47 @@ public class SplineCurve extends ParametricCurve implements CurveConvertible<Bez
 			Arrays.toString( m_knots ), m_degree, super.toString() );
 	}
 	
+	/**
+	 * 存在範囲内の各節点区間の制御点列の凸包列を生成します。
+	 * @return 凸包列
+	 */
+	private ConvexHull[] createSpanConvexHulls() {
+		Range range = range();
+		SplineCurve inserted = this;
+		for ( int i = 0; i < m_degree; ++i ) {
+			inserted = inserted.insertKnot( range.start() );
+			inserted = inserted.insertKnot( range.end() );
+		}
+		double[] knots = inserted.m_knots;
+		int startIndex = inserted.searchKnotNum( range.start(), m_degree - 1, knots.length - m_degree );
+		int endIndex = startIndex;
+		while ( knots[endIndex - 1] < range.end() ) {
+			++endIndex;
+		}
+
+		Point[] cp = Arrays.copyOfRange( inserted.m_cp, startIndex - m_degree, endIndex );
+		return ConvexHull.createSequence( cp, m_degree + 1, ConvexHull.Dimension.THREE_DIMENSION );
+	}
+
+	/** 多項式表現の保持領域 */
+	private static final class PolynomialHolder {
+
+		/** 多項式表現 */
+		volatile SplinePolynomial m_value;
+	}
+
 	private SplineCurve( int _degree, Point[] _controlPoints, double[] _knots, Range _range ) {
+		this( _degree, _controlPoints, _knots, _range, new PolynomialHolder() );
+	}
+
+	private SplineCurve( int _degree, Point[] _controlPoints, double[] _knots, Range _range,
+		PolynomialHolder _polynomial ) {
 		super( _range );
 
 		m_degree = _degree;
 		m_cp = _controlPoints;
 		m_knots = _knots;
+		m_polynomial = _polynomial;
 	}
 	
 	/** 次数 */
@@ -675,4 +817,10 @@ public class SplineCurve extends ParametricCurve implements CurveConvertible<Bez
 	private final Point[] m_cp;
 	/** 節点系列 */
 	private final double[] m_knots;
+	/** 多項式表現(同じ制御点列・節点系列を持つ部分曲線と共有する) */
+	private final PolynomialHolder m_polynomial;
+	/** 存在範囲内の各節点区間の凸包列(最初に必要になった時点で生成する) */
+	private volatile ConvexHull[] m_spanConvexHulls;
+	/** 曲線の長さを求める弧長の対応表(最初に必要になった時点で生成する) */
+	private volatile ArcLengthTable m_lengthTable;
 }
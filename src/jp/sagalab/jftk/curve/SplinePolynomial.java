@@ -0,0 +1,280 @@
+package jp.sagalab.jftk.curve;
+
+import java.util.Arrays;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.Vector;
+
+/**
+ * スプライン曲線を節点区間ごとの多項式(べき基底)で表したクラスです。
+ * <p>
+ * 各節点区間について、区間の始点を原点とした局所パラメータ u の多項式として
+ * X座標、Y座標、Z座標、ファジネスの係数を一度だけ求めておきます。
+ * 評価と微分はHorner法で行うため、de Boorのアルゴリズムのような
+ * 評価ごとの内分計算とオブジェクト生成が不要になります。
+ * </p>
+ * <p>
+ * 係数は節点区間内の de Boor の各内分を局所パラメータの一次式として展開して求めます。
+ * このクラスは {@link SplineCurve#polynomial()} により生成され、
+ * 同じ制御点列・節点系列を持つ部分曲線の間で共有されます。
+ * </p>
+ * @author agent
+ */
+public final class SplinePolynomial {
+
+	/**
+	 * スプライン曲線の多項式表現を生成します。
+	 * @param _degree 次数
+	 * @param _cp 制御点列
+	 * @param _knots 節点系列
+	 * @return 多項式表現
+	 */
+	static SplinePolynomial compile( int _degree, Point[] _cp, double[] _knots ) {
+		final int order = _degree + 1;
+		// 有効定義域の節点区間数
+		final int spanNum = _cp.length - _degree;
+		double[] origins = new double[ spanNum ];
+		double[] coefficients = new double[ spanNum * COMPONENT_NUM * order ];
+
+		// 作業領域 [制御点][成分][べき]
+		double[][][] part = new double[ order ][ COMPONENT_NUM ][ order ];
+		for ( int s = 0; s < spanNum; ++s ) {
+			// 節点区間[ knots[knotNum - 1], knots[knotNum] ]
+			int knotNum = s + _degree;
+			double origin = _knots[knotNum - 1];
+			origins[s] = origin;
+			for ( int m = 0; m < order; ++m ) {
+				Point p = _cp[knotNum - _degree + m];
+				double[][] poly = part[m];
+				for ( double[] c : poly ) {
+					Arrays.fill( c, 0.0 );
+				}
+				poly[0][0] = p.x();
+				poly[1][0] = p.y();
+				poly[2][0] = p.z();
+				poly[3][0] = p.fuzziness();
+			}
+			// de Boor の内分比 w = c0 + c1 * u を多項式として適用する
+			// 有効定義域内では 0 <= w <= 1 であるため、ファジネスも同じ一次結合となる
+			for ( int i = 0; i < _degree; ++i ) {
+				for ( int j = 0; j < _degree - i; ++j ) {
+					int k = knotNum - j - 1;
+					double denominator = _knots[k + _degree - i] - _knots[k];
+					double c0 = ( origin - _knots[k] ) / denominator;
+					double c1 = 1.0 / denominator;
+					int d = _degree - j;
+					for ( int n = 0; n < COMPONENT_NUM; ++n ) {
+						double[] target = part[d][n];
+						double[] previous = part[d - 1][n];
+						// P[d] = P[d - 1] + w * ( P[d] - P[d - 1] )
+						for ( int p = i + 1; p >= 0; --p ) {
+							double diff = target[p] - previous[p];
+							double lower = p > 0 ? target[p - 1] - previous[p - 1] : 0.0;
+							target[p] = previous[p] + c0 * diff + c1 * lower;
+						}
+					}
+				}
+			}
+			for ( int n = 0; n < COMPONENT_NUM; ++n ) {
+				System.arraycopy( part[_degree][n], 0, coefficients, ( s * COMPONENT_NUM + n ) * order, order );
+			}
+		}
+
+		return new SplinePolynomial( _degree, _knots, origins, coefficients );
+	}
+
+	/**
+	 * 次数を返します。
+	 * @return 次数
+	 */
+	public int degree() {
+		return m_degree;
+	}
+
+	/**
+	 * 指定されたパラメータでの点を評価します。
+	 * <p>
+	 * 存在範囲の検査は行いません。有効定義域外のパラメータは両端の節点区間の多項式で評価します。
+	 * </p>
+	 * @param _t パラメータ
+	 * @return 評価点
+	 */
+	public Point evaluate( double _t ) {
+		int s = searchSpan( _t );
+		double u = _t - m_origins[s];
+		int offset = s * COMPONENT_NUM * ( m_degree + 1 );
+		double x = horner( offset, u );
+		double y = horner( offset + ( m_degree + 1 ), u );
+		double z = horner( offset + 2 * ( m_degree + 1 ), u );
+		double f = horner( offset + 3 * ( m_degree + 1 ), u );
+		// 丸め誤差で負にならないようにする
+		return Point.createXYZTF( x, y, z, _t, Math.max( f, 0.0 ) );
+	}
+
+	/**
+	 * 昇順に並んだパラメータ列で一括評価し、評価点の各成分を指定された配列に格納します。
+	 * <p>
+	 * 節点区間をパラメータ列に沿って順に進めるため、評価点ごとの節点区間の探索を行いません。
+	 * 格納先にnullを指定した成分は格納しません。
+	 * </p>
+	 * @param _parameters パラメータ列(昇順)
+	 * @param _x X座標の格納先
+	 * @param _y Y座標の格納先
+	 * @param _z Z座標の格納先
+	 * @param _fuzziness ファジネスの格納先
+	 * @throws IllegalArgumentException パラメータ列がnullの場合
+	 * @throws IllegalArgumentException パラメータ列が昇順でない場合、またはNaNを含む場合
+	 * @throws IllegalArgumentException 格納先の要素数がパラメータ列の要素数より小さい場合
+	 * @throws IllegalArgumentException 評価結果がNaNまたはInfiniteとなった場合
+	 */
+	public void evaluateInto( double[] _parameters, double[] _x, double[] _y, double[] _z, double[] _fuzziness ) {
+		if ( _parameters == null ) {
+			throw new IllegalArgumentException( "_parameters is null." );
+		}
+		final int num = _parameters.length;
+		if ( ( _x != null && _x.length < num ) || ( _y != null && _y.length < num )
+			|| ( _z != null && _z.length < num ) || ( _fuzziness != null && _fuzziness.length < num ) ) {
+			throw new IllegalArgumentException( "destination's length is less than _parameters' length." );
+		}
+		if ( num == 0 ) {
+			return;
+		}
+		double pre = _parameters[0];
+		for ( double t : _parameters ) {
+			if ( !( pre <= t ) ) {
+				throw new IllegalArgumentException( "_parameters is not ascending order or include NaN." );
+			}
+			pre = t;
+		}
+
+		final int order = m_degree + 1;
+		final int lastSpan = m_origins.length - 1;
+		int s = searchSpan( _parameters[0] );
+		for ( int n = 0; n < num; ++n ) {
+			final double t = _parameters[n];
+			// パラメータは昇順なので、節点区間は前の評価点から進めるだけでよい
+			while ( s < lastSpan && m_knots[s + m_degree] <= t ) {
+				++s;
+			}
+			double u = t - m_origins[s];
+			int offset = s * COMPONENT_NUM * order;
+			double x = horner( offset, u );
+			double y = horner( offset + order, u );
+			double z = horner( offset + 2 * order, u );
+			double f = Math.max( horner( offset + 3 * order, u ), 0.0 );
+			if ( !( Math.abs( x ) <= Double.MAX_VALUE && Math.abs( y ) <= Double.MAX_VALUE
+				&& Math.abs( z ) <= Double.MAX_VALUE && Math.abs( f ) <= Double.MAX_VALUE ) ) {
+				throw new IllegalArgumentException( String.format( "evaluated point at %f has NaN or Inf.", t ) );
+			}
+			if ( _x != null ) {
+				_x[n] = x;
+			}
+			if ( _y != null ) {
+				_y[n] = y;
+			}
+			if ( _z != null ) {
+				_z[n] = z;
+			}
+			if ( _fuzziness != null ) {
+				_fuzziness[n] = f;
+			}
+		}
+	}
+
+	/**
+	 * 指定されたパラメータでの導関数の値を評価します。
+	 * @param _t パラメータ
+	 * @param _order 微分の階数
+	 * @return 導関数の値(X座標、Y座標、Z座標成分)
+	 * @throws IllegalArgumentException 微分の階数が1未満の場合
+	 */
+	public Vector evaluateDerivative( double _t, int _order ) {
+		if ( _order < 1 ) {
+			throw new IllegalArgumentException( "_order < 1" );
+		}
+		if ( _order > m_degree ) {
+			return Vector.createXYZ( 0, 0, 0 );
+		}
+		int s = searchSpan( _t );
+		double u = _t - m_origins[s];
+		int offset = s * COMPONENT_NUM * ( m_degree + 1 );
+		return Vector.createXYZ(
+			derivative( offset, u, _order ),
+			derivative( offset + ( m_degree + 1 ), u, _order ),
+			derivative( offset + 2 * ( m_degree + 1 ), u, _order ) );
+	}
+
+	/**
+	 * 指定されたパラメータを含む節点区間の番号を求めます。
+	 * <p>
+	 * {@link SplineCurve#searchKnotNum(double, int, int)} と同じ節点区間を選びます。
+	 * </p>
+	 * @param _t パラメータ
+	 * @return 節点区間の番号
+	 */
+	private int searchSpan( double _t ) {
+		// knots[s + degree - 1] <= t < knots[s + degree] となる s
+		int low = 0;
+		int high = m_origins.length - 1;
+		while ( low < high ) {
+			int mid = ( low + high ) >>> 1;
+			if ( _t < m_knots[mid + m_degree] ) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Horner法により多項式を評価します。
+	 * @param _offset 係数の開始位置
+	 * @param _u 局所パラメータ
+	 * @return 多項式の値
+	 */
+	private double horner( int _offset, double _u ) {
+		double value = m_coefficients[_offset + m_degree];
+		for ( int p = m_degree - 1; p >= 0; --p ) {
+			value = value * _u + m_coefficients[_offset + p];
+		}
+		return value;
+	}
+
+	/**
+	 * Horner法により多項式の導関数を評価します。
+	 * @param _offset 係数の開始位置
+	 * @param _u 局所パラメータ
+	 * @param _order 微分の階数
+	 * @return 導関数の値
+	 */
+	private double derivative( int _offset, double _u, int _order ) {
+		double value = 0.0;
+		for ( int p = m_degree; p >= _order; --p ) {
+			// p! / ( p - order )!
+			double factor = 1.0;
+			for ( int q = 0; q < _order; ++q ) {
+				factor *= p - q;
+			}
+			value = value * _u + factor * m_coefficients[_offset + p];
+		}
+		return value;
+	}
+
+	private SplinePolynomial( int _degree, double[] _knots, double[] _origins, double[] _coefficients ) {
+		m_degree = _degree;
+		m_knots = _knots;
+		m_origins = _origins;
+		m_coefficients = _coefficients;
+	}
+
+	/** 成分数(X座標、Y座標、Z座標、ファジネス) */
+	private static final int COMPONENT_NUM = 4;
+	/** 次数 */
+	private final int m_degree;
+	/** 節点系列 */
+	private final double[] m_knots;
+	/** 各節点区間の始点 */
+	private final double[] m_origins;
+	/** 係数 [節点区間][成分][べき] */
+	private final double[] m_coefficients;
+}
@@ -0,0 +1,305 @@
+package jp.sagalab.jftk.curve.interporation;
+
+import java.util.Arrays;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.curve.Range;
+import jp.sagalab.jftk.curve.SplineCurve;
+
+/**
+ * 時刻順に到着する点列に対して逐次的にスプライン曲線補間を行うクラスです。
+ * <p>
+ * {@link SplineCurveInterpolator} は点列全体の時間長から節点系列を決めて一括で補間しますが、
+ * このクラスは最初の点の時刻を起点として一定の節点間隔で節点系列を定め、
+ * 点が節点系列の末尾を越えるたびに節点区間を一つずつ延長します。
+ * </p>
+ * <p>
+ * 最小自乗法の正規方程式 NtN * d = NtP は点の追加ごとに帯要素へ足し込みます。
+ * 新しい点が影響するのは末尾の(次数+1)個の制御点のみであるため、
+ * 帯Cholesky分解と前進代入の結果はそれより前の行を確定したものとして保持し、
+ * 曲線を求める際には末尾の行だけを分解し直して後退代入を行います。
+ * 点1個の追加はO(次数<sup>2</sup>)、曲線の導出は制御点数をnとしてO(n・次数)です。
+ * </p>
+ * <p>
+ * 制御点が定まるためには、各節点区間に点が含まれている必要があります。
+ * 節点間隔より長い時間的隙間がある場合は、あらかじめ点列の内挿を行ってください。
+ * このクラスはスレッドセーフではありません。
+ * </p>
+ * @author agent
+ * @see SplineCurveInterpolator
+ */
+public final class IncrementalSplineCurveInterpolator {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _degree 次数
+	 * @param _knotInterval 節点間隔
+	 * @return インスタンス
+	 * @throws IllegalArgumentException 次数が0以下の場合
+	 * @throws IllegalArgumentException 節点間隔が0以下、NaN、もしくは無限大の場合
+	 */
+	public static IncrementalSplineCurveInterpolator create( int _degree, double _knotInterval ) {
+		if ( _degree < 1 ) {
+			throw new IllegalArgumentException( " degree is must be greater than 0 " );
+		}
+		if ( !( _knotInterval > 0.0 ) || Double.isInfinite( _knotInterval ) ) {
+			throw new IllegalArgumentException( " knot's interval is must be greater than 0 " );
+		}
+		return new IncrementalSplineCurveInterpolator( _degree, _knotInterval );
+	}
+
+	/**
+	 * 点を追加します。
+	 * <p>
+	 * 点のファジネスは用いません。
+	 * </p>
+	 * @param _point 点
+	 * @throws IllegalArgumentException 点がnullの場合
+	 * @throws IllegalArgumentException 点の座標または時刻がNaN、もしくは無限大の場合
+	 * @throws IllegalArgumentException 点の時刻が直前に追加した点の時刻より前の場合
+	 */
+	public void add( Point _point ) {
+		if ( _point == null ) {
+			throw new IllegalArgumentException( "_point is null." );
+		}
+		add( _point.x(), _point.y(), _point.z(), _point.time() );
+	}
+
+	/**
+	 * 点を追加します。
+	 * @param _x X座標
+	 * @param _y Y座標
+	 * @param _z Z座標
+	 * @param _time 時刻
+	 * @throws IllegalArgumentException 座標または時刻がNaN、もしくは無限大の場合
+	 * @throws IllegalArgumentException 時刻が直前に追加した点の時刻より前の場合
+	 */
+	public void add( double _x, double _y, double _z, double _time ) {
+		if ( Double.isNaN( _time ) || Double.isInfinite( _time ) ) {
+			throw new IllegalArgumentException( "point's time include NaN or infinite" );
+		}
+		if ( Double.isNaN( _x ) || Double.isInfinite( _x ) || Double.isNaN( _y ) || Double.isInfinite( _y )
+			|| Double.isNaN( _z ) || Double.isInfinite( _z ) ) {
+			throw new IllegalArgumentException( "point's coordinate include NaN or infinite" );
+		}
+		if ( m_size > 0 && _time < m_lastTime ) {
+			throw new IllegalArgumentException( "time series is not a positive order" );
+		}
+
+		if ( m_size == 0 ) {
+			// 最初の点の時刻を有効定義域の始点とし、節点区間1個から始める
+			m_origin = _time;
+			m_firstTime = _time;
+			m_knotsLength = 2 * m_degree;
+			ensureCapacity( m_degree + 1 );
+			for ( int i = 0; i < m_knotsLength; ++i ) {
+				m_knots[i] = knot( i );
+			}
+		}
+		// 有効定義域の終点を越えたら節点区間を延長する
+		while ( _time > m_knots[m_knotsLength - m_degree] ) {
+			ensureCapacity( m_knotsLength - m_degree + 2 );
+			m_knots[m_knotsLength] = knot( m_knotsLength );
+			++m_knotsLength;
+		}
+
+		// 重み列を求め、正規方程式に足し込む
+		final int width = m_degree + 1;
+		m_searchFrom = SplineCurveInterpolator.calculateWeights(
+			m_knots, m_knotsLength, m_degree, _time, m_weights, 0, m_searchFrom ) + m_degree;
+		final int start = m_searchFrom - m_degree;
+		for ( int a = 0; a < width; ++a ) {
+			int row = start + a;
+			double w = m_weights[a];
+			for ( int b = 0; b <= a; ++b ) {
+				m_normal[row * width + a - b] += w * m_weights[b];
+			}
+			m_rightX[row] += w * _x;
+			m_rightY[row] += w * _y;
+			m_rightZ[row] += w * _z;
+		}
+		// 足し込んだ行以降の分解結果は無効になる
+		m_factoredRows = Math.min( m_factoredRows, start );
+
+		m_lastTime = _time;
+		++m_size;
+	}
+
+	/**
+	 * 追加された点の数を返します。
+	 * @return 点の数
+	 */
+	public int size() {
+		return m_size;
+	}
+
+	/**
+	 * 追加された点の時刻の範囲を返します。
+	 * @return 時刻の範囲。点が追加されていない場合はnull
+	 */
+	public Range range() {
+		return m_size > 0 ? Range.create( m_firstTime, m_lastTime ) : null;
+	}
+
+	/**
+	 * 現時点までに追加された点列を補間したスプライン曲線を返します。
+	 * <p>
+	 * 存在範囲は最初の点の時刻から最後の点の時刻までです。
+	 * 点の数が(次数+1)未満の場合や、正規方程式が解けない場合はnullを返します。
+	 * </p>
+	 * @return スプライン曲線
+	 */
+	public SplineCurve curve() {
+		if ( m_size < m_degree + 1 ) {
+			return null;
+		}
+		final int width = m_degree + 1;
+		final int size = m_knotsLength - m_degree + 1;
+
+		// 確定していない行の帯Cholesky分解と前進代入 Ly = b
+		for ( int i = m_factoredRows; i < size; ++i ) {
+			int iOffset = i * width;
+			for ( int j = Math.max( 0, i - m_degree ); j <= i; ++j ) {
+				int jOffset = j * width;
+				double sum = m_normal[iOffset + i - j];
+				for ( int k = Math.max( 0, i - m_degree ); k < j; ++k ) {
+					sum -= m_factor[iOffset + i - k] * m_factor[jOffset + j - k];
+				}
+				if ( i == j ) {
+					if ( !( sum > 0.0 ) ) {
+						return null;
+					}
+					m_factor[iOffset] = Math.sqrt( sum );
+				} else {
+					m_factor[iOffset + i - j] = sum / m_factor[jOffset];
+				}
+			}
+			double x = m_rightX[i];
+			double y = m_rightY[i];
+			double z = m_rightZ[i];
+			for ( int k = Math.max( 0, i - m_degree ); k < i; ++k ) {
+				double l = m_factor[iOffset + i - k];
+				x -= l * m_forwardX[k];
+				y -= l * m_forwardY[k];
+				z -= l * m_forwardZ[k];
+			}
+			m_forwardX[i] = x / m_factor[iOffset];
+			m_forwardY[i] = y / m_factor[iOffset];
+			m_forwardZ[i] = z / m_factor[iOffset];
+			m_factoredRows = i + 1;
+		}
+
+		// 後退代入 Ltx = y
+		double[] x = new double[ size ];
+		double[] y = new double[ size ];
+		double[] z = new double[ size ];
+		Point[] controlPoints = new Point[ size ];
+		for ( int i = size - 1; i >= 0; --i ) {
+			double dx = m_forwardX[i];
+			double dy = m_forwardY[i];
+			double dz = m_forwardZ[i];
+			for ( int k = i + 1, end = Math.min( size - 1, i + m_degree ); k <= end; ++k ) {
+				double l = m_factor[k * width + k - i];
+				dx -= l * x[k];
+				dy -= l * y[k];
+				dz -= l * z[k];
+			}
+			double diagonal = m_factor[i * width];
+			x[i] = dx / diagonal;
+			y[i] = dy / diagonal;
+			z[i] = dz / diagonal;
+			if ( Double.isNaN( x[i] ) || Double.isInfinite( x[i] ) || Double.isNaN( y[i] ) || Double.isInfinite( y[i] )
+				|| Double.isNaN( z[i] ) || Double.isInfinite( z[i] ) ) {
+				return null;
+			}
+			controlPoints[i] = Point.createXYZ( x[i], y[i], z[i] );
+		}
+
+		return SplineCurve.create( m_degree, controlPoints, Arrays.copyOf( m_knots, m_knotsLength ),
+			Range.create( m_firstTime, m_lastTime ) );
+	}
+
+	/**
+	 * 指定された番号の節点を返します。
+	 * @param _index 節点番号
+	 * @return 節点
+	 */
+	private double knot( int _index ) {
+		return m_origin + ( _index - m_degree + 1 ) * m_knotInterval;
+	}
+
+	/**
+	 * 指定された制御点数を格納できるよう作業領域を拡張します。
+	 * @param _size 制御点数
+	 */
+	private void ensureCapacity( int _size ) {
+		if ( m_rightX.length >= _size ) {
+			return;
+		}
+		int capacity = Math.max( _size, m_rightX.length * 2 );
+		final int width = m_degree + 1;
+		m_knots = Arrays.copyOf( m_knots, capacity + m_degree - 1 );
+		m_normal = Arrays.copyOf( m_normal, capacity * width );
+		m_factor = Arrays.copyOf( m_factor, capacity * width );
+		m_rightX = Arrays.copyOf( m_rightX, capacity );
+		m_rightY = Arrays.copyOf( m_rightY, capacity );
+		m_rightZ = Arrays.copyOf( m_rightZ, capacity );
+		m_forwardX = Arrays.copyOf( m_forwardX, capacity );
+		m_forwardY = Arrays.copyOf( m_forwardY, capacity );
+		m_forwardZ = Arrays.copyOf( m_forwardZ, capacity );
+	}
+
+	private IncrementalSplineCurveInterpolator( int _degree, double _knotInterval ) {
+		m_degree = _degree;
+		m_knotInterval = _knotInterval;
+		m_weights = new double[ _degree + 1 ];
+		m_searchFrom = _degree;
+		m_knots = new double[ 0 ];
+		m_normal = new double[ 0 ];
+		m_factor = new double[ 0 ];
+		m_rightX = new double[ 0 ];
+		m_rightY = new double[ 0 ];
+		m_rightZ = new double[ 0 ];
+		m_forwardX = new double[ 0 ];
+		m_forwardY = new double[ 0 ];
+		m_forwardZ = new double[ 0 ];
+	}
+
+	/** 次数 */
+	private final int m_degree;
+	/** 節点間隔 */
+	private final double m_knotInterval;
+	/** 重み列の作業領域 */
+	private final double[] m_weights;
+	/** 有効定義域の始点 */
+	private double m_origin;
+	/** 最初の点の時刻 */
+	private double m_firstTime;
+	/** 最後の点の時刻 */
+	private double m_lastTime;
+	/** 追加された点の数 */
+	private int m_size;
+	/** 節点番号の探索開始位置 */
+	private int m_searchFrom;
+	/** 節点系列(先頭から m_knotsLength 個が有効) */
+	private double[] m_knots;
+	/** 節点系列の要素数 */
+	private int m_knotsLength;
+	/** 正規方程式の係数行列 NtN の下三角帯要素 */
+	private double[] m_normal;
+	/** NtN の帯Cholesky分解 */
+	private double[] m_factor;
+	/** 分解と前進代入が確定している行数 */
+	private int m_factoredRows;
+	/** NtP のX成分 */
+	private double[] m_rightX;
+	/** NtP のY成分 */
+	private double[] m_rightY;
+	/** NtP のZ成分 */
+	private double[] m_rightZ;
+	/** 前進代入の結果のX成分 */
+	private double[] m_forwardX;
+	/** 前進代入の結果のY成分 */
+	private double[] m_forwardY;
+	/** 前進代入の結果のZ成分 */
+	private double[] m_forwardZ;
+}
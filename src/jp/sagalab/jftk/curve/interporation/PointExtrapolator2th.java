@@ -1,7 +1,10 @@
 package jp.sagalab.jftk.curve.interporation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.BezierCurve;
 
@@ -40,62 +43,156 @@ public final class PointExtrapolator2th {
 			throw new IllegalArgumentException(" _length and _interval must be greater than 0 ");
 		}
 
-		// 点列の先頭付近で2次ベジェ曲線補間
 		final int num = (int) Math.ceil( _length / _interval );
+		// 点列の先頭付近で2次ベジェ曲線補間
 		final double start = _points[ 0 ].time();
 		// 開始時刻から0.1秒進んだ時刻を含まない範囲内の点列を抽出
-		Point[] points = PointExtrapolator1th.extractPartPoint( _points, Range.create( start, start + 0.1 - Math.ulp( start + 0.1 ) ) );
+		Point[] prePoints = extrapolateBackward( PointExtrapolator1th.extractPartPoint( _points,
+			Range.create( start, start + 0.1 - Math.ulp( start + 0.1 ) ) ), start, _length, num );
+
+		// 点列の末尾付近で2次ベジェ曲線補間
+		final double end = _points[ _points.length - 1 ].time();
+		// 終了時刻を含まない範囲内の点列を抽出 
+		Point[] postPoints = extrapolateForward( PointExtrapolator1th.extractPartPoint( _points,
+			Range.create( end - 0.1 + Math.ulp( end - 0.1 ), end ) ), end, _length, num );
+
+		// 統合
+		Point[] points = new Point[ _points.length + prePoints.length + postPoints.length ];
+		System.arraycopy( prePoints, 0, points, 0, prePoints.length );
+		System.arraycopy( _points, 0, points, prePoints.length, _points.length );
+		System.arraycopy( postPoints, 0, points, prePoints.length + _points.length, postPoints.length );
+
+		return points;
+	}
+
+	/**
+	 * 指定された点列の2次外挿を行います。
+	 * <p>
+	 * {@link #extrapolate(jp.sagalab.jftk.Point[], double, double)} と同じ外挿を行います。
+	 * 外挿に用いる先頭付近と末尾付近の点のみを Point として扱い、
+	 * その他の点は座標成分の配列のまま複製します。
+	 * </p>
+	 * @param _points 点列
+	 * @param _length 外挿時間長
+	 * @param _interval 外挿時間間隔
+	 * @return 外挿後の点列
+	 * @throws IllegalArgumentException 点列がnullの場合
+	 * @throws IllegalArgumentException 点列の要素数が0以下の場合
+	 * @throws IllegalArgumentException 外挿時間長、もしくは外挿時間間隔がNaNの場合
+	 * @throws IllegalArgumentException 外挿時間長、もしくは外挿時間間隔が0以下の場合
+	 */
+	public static PointBuffer extrapolate( PointBuffer _points, double _length, double _interval ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null." );
+		}
+		if( _points.size() == 0 ){
+			throw new IllegalArgumentException( " _points's length must be greater than 0" );
+		}
+		if( Double.isNaN(_length) || Double.isNaN(_interval) ){
+			throw new IllegalArgumentException(" _length or _interval is NaN ");
+		}
+		if( _length <= 0 || _interval <= 0 ) {
+			throw new IllegalArgumentException(" _length and _interval must be greater than 0 ");
+		}
+
+		final int num = (int) Math.ceil( _length / _interval );
+		// 点列の先頭付近で2次ベジェ曲線補間
+		final double start = _points.time( 0 );
+		Point[] prePoints = extrapolateBackward( extractPartPoint( _points,
+			Range.create( start, start + 0.1 - Math.ulp( start + 0.1 ) ) ), start, _length, num );
+
+		// 点列の末尾付近で2次ベジェ曲線補間
+		final double end = _points.time( _points.size() - 1 );
+		Point[] postPoints = extrapolateForward( extractPartPoint( _points,
+			Range.create( end - 0.1 + Math.ulp( end - 0.1 ), end ) ), end, _length, num );
+
+		// 統合
+		PointBuffer.Builder builder = new PointBuffer.Builder( _points.size() + prePoints.length + postPoints.length );
+		for ( Point p : prePoints ) {
+			builder.add( p );
+		}
+		builder.addAll( _points );
+		for ( Point p : postPoints ) {
+			builder.add( p );
+		}
+
+		return builder.build();
+	}
 
+	/**
+	 * 点列の先頭付近の点から、開始時刻より前の点列を外挿します。
+	 * @param _points 先頭付近の点列
+	 * @param _start 開始時刻
+	 * @param _length 外挿時間長
+	 * @param _num 外挿点数
+	 * @return 外挿点列
+	 */
+	private static Point[] extrapolateBackward( Point[] _points, double _start, double _length, int _num ) {
+		Point[] points = _points;
 		//2点以下の場合、2次ベジェ曲線補間で生成できる点列へ変換
 		if ( points.length <= 2 ) {
 			Point[] tmp = new Point[ 3 ];
 			System.arraycopy( points, 0, tmp, 0, points.length );
 			Point p = points[ points.length - 1 ];
 			for ( int i = points.length; i < tmp.length; ++i ) {
-				tmp[ i ] = Point.createXYZT( p.x(), p.y(), p.z(), start + 0.1 * i / ( tmp.length - 1 ) );
+				tmp[ i ] = Point.createXYZT( p.x(), p.y(), p.z(), _start + 0.1 * i / ( tmp.length - 1 ) );
 			}
 			points = tmp;
 		}
 
 		BezierCurve guideCurve = BezierCurveInterpolator.interpolate( points, 2 );
 		guideCurve = BezierCurve.create(guideCurve.controlPoints(), Range.zeroToOne() );
-		Point[] prePoints = new Point[ num ];
-		for ( int i = 0; i < num; ++i ) {
-			prePoints[ i ] = guideCurve.evaluateOuter( i / ( num - 1.0 ) - 1 );
+		Point[] prePoints = new Point[ _num ];
+		for ( int i = 0; i < _num; ++i ) {
+			prePoints[ i ] = guideCurve.evaluateOuter( i / ( _num - 1.0 ) - 1 );
 		}
-		prePoints = PointExtrapolator1th.timeRemap( prePoints, Range.create( start - _length, start ) );
-
-		// 点列の末尾付近で2次ベジェ曲線補間
-		final double end = _points[ _points.length - 1 ].time();
-		// 終了時刻を含まない範囲内の点列を抽出 
-		points = PointExtrapolator1th.extractPartPoint( _points, Range.create( end - 0.1 + Math.ulp( end - 0.1 ), end ) );
+		return PointExtrapolator1th.timeRemap( prePoints, Range.create( _start - _length, _start ) );
+	}
 
+	/**
+	 * 点列の末尾付近の点から、終了時刻より後の点列を外挿します。
+	 * @param _points 末尾付近の点列
+	 * @param _end 終了時刻
+	 * @param _length 外挿時間長
+	 * @param _num 外挿点数
+	 * @return 外挿点列
+	 */
+	private static Point[] extrapolateForward( Point[] _points, double _end, double _length, int _num ) {
+		Point[] points = _points;
 		//2点以下の場合、2次ベジェ曲線補間で生成できる点列へ変換
 		if ( points.length <= 2 ) {
 			Point[] tmp = new Point[ 3 ];
 			System.arraycopy( points, 0, tmp, tmp.length - points.length, points.length );
 			Point p = points[ 0 ];
 			for ( int i = 0; i < tmp.length - points.length; ++i ) {
-				tmp[ i ] = Point.createXYZT( p.x(), p.y(), p.z(), end - 0.1 * ( tmp.length - 1.0 - i ) / ( tmp.length - 1.0 ) );
+				tmp[ i ] = Point.createXYZT( p.x(), p.y(), p.z(), _end - 0.1 * ( tmp.length - 1.0 - i ) / ( tmp.length - 1.0 ) );
 			}
 			points = tmp;
 		}
 
-		guideCurve = BezierCurveInterpolator.interpolate( points, 2 );
+		BezierCurve guideCurve = BezierCurveInterpolator.interpolate( points, 2 );
 		guideCurve = BezierCurve.create( guideCurve.controlPoints(), Range.zeroToOne() );
-		Point[] postPoints = new Point[ num ];
-		for ( int i = 0; i < num; ++i ) {
-			postPoints[ i ] = guideCurve.evaluateOuter( i / ( num - 1.0 ) + 1 );
+		Point[] postPoints = new Point[ _num ];
+		for ( int i = 0; i < _num; ++i ) {
+			postPoints[ i ] = guideCurve.evaluateOuter( i / ( _num - 1.0 ) + 1 );
 		}
-		postPoints = PointExtrapolator1th.timeRemap( postPoints, Range.create( end, end + _length ) );
-
-		// 統合
-		points = new Point[ _points.length + prePoints.length + postPoints.length ];
-		System.arraycopy( prePoints, 0, points, 0, prePoints.length );
-		System.arraycopy( _points, 0, points, prePoints.length, _points.length );
-		System.arraycopy( postPoints, 0, points, prePoints.length + _points.length, postPoints.length );
+		return PointExtrapolator1th.timeRemap( postPoints, Range.create( _end, _end + _length ) );
+	}
 
-		return points;
+	/**
+	 * 指定された範囲内の時刻を持つ点を抽出します。
+	 * @param _points 点列
+	 * @param _range 時刻の範囲
+	 * @return 抽出した点列
+	 */
+	private static Point[] extractPartPoint( PointBuffer _points, Range _range ) {
+		List<Point> points = new ArrayList<Point>();
+		for ( int i = 0; i < _points.size(); ++i ) {
+			if ( _range.isInner( _points.time( i ) ) ) {
+				points.add( _points.point( i ) );
+			}
+		}
+		return points.toArray( new Point[ points.size() ] );
 	}
 	
 	private PointExtrapolator2th(){
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 
 /**
  * 点列の０次内挿を行うためのクラスです。
@@ -66,6 +67,67 @@ public final class PointInterpolator0th {
 		return fixedPoints.toArray( new Point[ fixedPoints.size() ] );
 	}
 	
+	/**
+	 * 指定された点列の0次内挿を行います。
+	 * <p>
+	 * {@link #interpolate(jp.sagalab.jftk.Point[], double)} と同じ内挿を
+	 * 座標成分の配列のまま行います。
+	 * </p>
+	 * @param _points 点列
+	 * @param _maxSpan 内挿時間間隔
+	 * @return 内挿後の点列
+	 * @throws IllegalArgumentException 点列がnullの場合
+	 * @throws IllegalArgumentException 点列の要素数が0以下の場合
+	 * @throws IllegalArgumentException 内挿時間間隔がNaNの場合
+	 * @throws IllegalArgumentException 内挿時間間隔が0以下の場合
+	 * @throws IllegalArgumentException 点列中に時間的に逆行している箇所があった場合
+	 */
+	public static PointBuffer interpolate( PointBuffer _points, double _maxSpan ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null." );
+		}
+		if( _points.size() == 0 ){
+			throw new IllegalArgumentException( " _points's length must be greater than 0" );
+		}
+		if( Double.isNaN( _maxSpan ) ){
+			throw new IllegalArgumentException(" _maxSpan is NaN ");
+		}
+		if( _maxSpan <= 0 ){
+			throw new IllegalArgumentException(" _maxSpan must be greater than 0 ");
+		}
+
+		PointBuffer.Builder builder = new PointBuffer.Builder( _points.size() );
+
+		builder.add( _points, 0 );
+		double preX = _points.x( 0 );
+		double preY = _points.y( 0 );
+		double preZ = _points.z( 0 );
+		double preTime = _points.time( 0 );
+
+		for ( int i = 1; i < _points.size(); ++i ) {
+			double span = _points.time( i ) - preTime;
+			// 時間的に逆行している箇所があった場合に例外発生
+			if ( span < 0 ) {
+				throw new IllegalArgumentException("time series is not a positive order");
+			}
+			// 許容する時間的隙間を上回っている箇所に点を追加
+			// 一つ前の点と同じ位置
+			while ( span >= _maxSpan ) {
+				preTime += _maxSpan;
+				builder.add( preX, preY, preZ, preTime, 0 );
+				span -= _maxSpan;
+			}
+
+			preX = _points.x( i );
+			preY = _points.y( i );
+			preZ = _points.z( i );
+			preTime = _points.time( i );
+			builder.add( _points, i );
+		}
+
+		return builder.build();
+	}
+	
 	private PointInterpolator0th(){
 		throw new UnsupportedOperationException("can not create instance.");
 	}
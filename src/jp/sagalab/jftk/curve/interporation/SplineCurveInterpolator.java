@@ -1,11 +1,15 @@
 package jp.sagalab.jftk.curve.interporation;
 
 import java.util.Arrays;
+import jp.sagalab.jftk.BandMatrix;
 import jp.sagalab.jftk.Matrix;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
+import jp.sagalab.jftk.SymmetricBandMatrix;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.fuzzysplinecurve.FuzzySplineCurveCreater;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * スプライン曲線補間を行うためのクラスです。
@@ -28,6 +32,32 @@ public final class SplineCurveInterpolator {
 	 * @throws IllegalArgumentException 点列中に時間的に逆行している箇所があった場合
 	 */
 	public static SplineCurve interpolate( Point[] _points, int _degree, double _knotInterval ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null." );
+		}
+		// 入力点列にnullが混入していないかチェック
+		if ( Arrays.asList( _points ).indexOf( null ) >= 0 ) {
+			throw new IllegalArgumentException(" points include null ");
+		}
+
+		return interpolate( PointBuffer.create( _points ), _degree, _knotInterval );
+	}
+
+	/**
+	 * 指定された点列に対してスプライン曲線補間を行います。
+	 * @param _points 点列
+	 * @param _degree 次数
+	 * @param _knotInterval 節点間隔
+	 * @return スプライン曲線
+	 * @throws IllegalArgumentException 次数が0以下の場合
+	 * @throws IllegalArgumentException 節点間隔が0以下の場合
+	 * @throws IllegalArgumentException 点列がnullの場合
+	 * @throws IllegalArgumentException 点列の要素数が1以下の場合
+	 * @throws IllegalArgumentException 点列中の時刻がNaN、もしくは無限大の場合
+	 * @throws IllegalArgumentException 点列中に時間的に逆行している箇所があった場合
+	 */
+	public static SplineCurve interpolate( PointBuffer _points, int _degree, double _knotInterval ) {
+		Metrics.Sample sample = Metrics.start( Metrics.SPLINE_INTERPOLATION );
 		// 次数のチェック
 		if ( _degree < 1 ) {
 			throw new IllegalArgumentException(" degree is must be greater than 0 ");
@@ -39,20 +69,18 @@ public final class SplineCurveInterpolator {
 		if ( _points == null ) {
 			throw new IllegalArgumentException( "_points is null." );
 		}
-		// 入力点列にnullが混入していないかチェック
-		if ( Arrays.asList( _points ).indexOf( null ) >= 0 ) {
-			throw new IllegalArgumentException(" points include null ");
-		}
 		// 点列の要素数チェック
-		if( _points.length < 2 ){
+		if( _points.size() < 2 ){
 			throw new IllegalArgumentException(" points's length must be greater than 1 ");
 		}
 		
 		// 時系列チェック
+		double[] times = _points.times();
+		double[] fuzzinesses = _points.fuzzinesses();
 		double preTime = Double.NEGATIVE_INFINITY;
 		boolean isFuzzy = false;
-		for ( Point p : _points ) {
-			double t = p.time();
+		for ( int i = 0; i < times.length; ++i ) {
+			double t = times[i];
 			if ( Double.isNaN( t ) || Double.isInfinite( t ) ) {
 				throw new IllegalArgumentException("point's time include NaN or infinite");
 			}
@@ -60,28 +88,24 @@ public final class SplineCurveInterpolator {
 				throw new IllegalArgumentException("time series is not a positive order");
 			}
 			if ( !isFuzzy ) {
-				isFuzzy = ( p.fuzziness() > 0.0 );
+				isFuzzy = ( fuzzinesses[i] > 0.0 );
 			}
 		}
 
-		Range range = Range.create( _points[0].time(), _points[_points.length - 1].time() );
+		Range range = Range.create( times[0], times[times.length - 1] );
 
 		// 節点系列の生成
 		double[] knots = createKnots( range, _degree, _knotInterval );
 
 		// 重み行列の生成
-		Matrix wmat = createWeightMatrix( _points, _degree, knots );
+		BandMatrix wmat = createBandWeightMatrix( times, _degree, knots );
 
 		// 制御点列の導出
 		Point[] controlPoints = calculateControlPoints( wmat, _points );
 		
 		//点列中にファジィ点が含まれていた場合はファジィスプライン曲線補間を行う
 		if ( isFuzzy ) {
-			double[] observations = new double[ _points.length ];
-			for ( int i = 0; i < observations.length; ++i ) {
-				observations[i] = _points[i].fuzziness();
-			}
-			double[] fuzzinessElements = FuzzySplineCurveCreater.nnls( wmat, observations );
+			double[] fuzzinessElements = FuzzySplineCurveCreater.nnls( wmat, fuzzinesses );
 			for ( int i = 0; i < controlPoints.length; ++i ) {
 				controlPoints[i] = Point.createXYZTF( controlPoints[i].x(), controlPoints[i].y(), controlPoints[i].z(),
 					controlPoints[i].time(), fuzzinessElements[i] );
@@ -89,7 +113,9 @@ public final class SplineCurveInterpolator {
 		}
 
 		// スプライン曲線構築
-		return SplineCurve.create( _degree, controlPoints, knots, range );
+		SplineCurve spline = SplineCurve.create( _degree, controlPoints, knots, range );
+		Metrics.stop( sample );
+		return spline;
 	}
 
 	/**
@@ -122,58 +148,111 @@ public final class SplineCurveInterpolator {
 	 * @param _degree 次数
 	 * @param _knots 節点系列
 	 * @return 重み行列
+	 * @see #createBandWeightMatrix(jp.sagalab.jftk.Point[], int, double[])
 	 */
 	public static Matrix createWeightMatrix( Point[] _points, int _degree, double[] _knots ) {
+		return createBandWeightMatrix( _points, _degree, _knots ).toMatrix();
+	}
+
+	/**
+	 * スプライン曲線の重み行列を帯形式で生成します。<br>
+	 * 生成する行列は行数：入力点数、列数：制御点数となり、
+	 * 各行は高々(次数+1)個の連続した非零要素のみを持ちます。
+	 * @param _points 入力点列
+	 * @param _degree 次数
+	 * @param _knots 節点系列
+	 * @return 重み行列
+	 */
+	public static BandMatrix createBandWeightMatrix( Point[] _points, int _degree, double[] _knots ) {
+		double[] times = new double[ _points.length ];
+		for ( int i = 0; i < times.length; ++i ) {
+			times[i] = _points[i].time();
+		}
+		return createBandWeightMatrix( times, _degree, _knots );
+	}
+
+	/**
+	 * スプライン曲線の重み行列を帯形式で生成します。<br>
+	 * 生成する行列は行数：入力点数、列数：制御点数となり、
+	 * 各行は高々(次数+1)個の連続した非零要素のみを持ちます。
+	 * @param _times 入力点列の時刻列
+	 * @param _degree 次数
+	 * @param _knots 節点系列
+	 * @return 重み行列
+	 */
+	public static BandMatrix createBandWeightMatrix( double[] _times, int _degree, double[] _knots ) {
 		// 生成する行列は行数：入力点数、列数：制御点数
-		final int pointsNum = _points.length;
-		double[][] elements = new double[ pointsNum ][];
+		final int pointsNum = _times.length;
+		final int width = _degree + 1;
+		int[] starts = new int[ pointsNum ];
+		double[] elements = new double[ pointsNum * width ];
 
 		// 各入力点の時刻での重み列を導出し、重み行列として構成する
 		for ( int i = 0; i < pointsNum; ++i ) {
 			// ある時刻における重み列（各制御点に対応する重みの列）の導出
-			elements[i] = calculateWeights( _knots, _degree, _points[i].time() );
+			starts[i] = calculateWeights( _knots, _degree, _times[i], elements, i * width );
 		}
 
-		return Matrix.create( elements );
+		return BandMatrix.create( starts, elements, width, _knots.length - _degree + 1 );
 	}
 
 	/**
-	 * ある時刻における重み列を導出します。
+	 * ある時刻における重み列を導出します。<br>
+	 * 非零となる(次数+1)個の重みを指定された配列の指定位置から格納します。
 	 * @param _knots 節点系列
 	 * @param _time 時刻
-	 * @return 重み列
+	 * @param _weights 重み列の格納先
+	 * @param _offset 格納先の開始位置
+	 * @return 非零となる重みに対応する先頭の制御点番号
 	 */
-	private static double[] calculateWeights( double[] _knots, int _degree, double _time ) {
+	private static int calculateWeights( double[] _knots, int _degree, double _time,
+		double[] _weights, int _offset ) {
+		return calculateWeights( _knots, _knots.length, _degree, _time, _weights, _offset, _degree );
+	}
+
+	/**
+	 * ある時刻における重み列を導出します。<br>
+	 * 節点系列は先頭から指定された要素数のみを用い、節点番号の探索を指定された番号から始めます。
+	 * 時刻が昇順に並ぶ場合に、前の時刻で求めた番号から探索を再開するために用います。
+	 * @param _knots 節点系列
+	 * @param _knotsLength 節点系列の要素数
+	 * @param _degree 次数
+	 * @param _time 時刻
+	 * @param _weights 重み列の格納先
+	 * @param _offset 格納先の開始位置
+	 * @param _from 節点番号の探索開始位置(次数以上)
+	 * @return 非零となる重みに対応する先頭の制御点番号
+	 */
+	static int calculateWeights( double[] _knots, int _knotsLength, int _degree, double _time,
+		double[] _weights, int _offset, int _from ) {
 		// 時刻に対応する節点番号( _knots[ num ] <= _time <= _knots[ num + 1 ] )の取得
-		int num = _degree;
-		int end = _knots.length - _degree;
+		int num = _from;
+		int end = _knotsLength - _degree;
 		while ( num < end && _time > _knots[num] ) {
 			++num;
 		}
 
-		double[] part = new double[]{ 1.0 };
-
+		// 格納先の領域を作業領域として用い、次数を上げながら重みを更新する
+		_weights[_offset] = 1.0;
 		for ( int i = 1; i <= _degree; ++i ) {
-			double[] now = new double[ i + 1 ];
+			double next = 0.0;
 			for ( int j = 0; j <= i; ++j ) {
-				double tmp = 0;
+				double tmp = next;
 				int base = num + j - 1;
-				if ( j != 0 ) {
-					final double d = _knots[base - i];
-					tmp += ( _time - d ) * part[j - 1] / ( _knots[base] - d );
-				}
+				next = 0.0;
 				if ( j != i ) {
-					final double d = _knots[base + 1];
-					tmp += ( d - _time ) * part[j] / ( d - _knots[base + 1 - i] );
+					final double part = _weights[_offset + j];
+					final double right = _knots[base + 1];
+					final double left = _knots[base + 1 - i];
+					tmp += ( right - _time ) * part / ( right - left );
+					// 次の要素への寄与(元の実装における part[j - 1] の項)
+					next = ( _time - left ) * part / ( right - left );
 				}
-				now[j] = tmp;
+				_weights[_offset + j] = tmp;
 			}
-			part = now;
 		}
 
-		double[] weights = new double[ _knots.length - _degree + 1 ];
-		System.arraycopy( part, 0, weights, num - _degree, _degree + 1 );
-		return weights;
+		return num - _degree;
 	}
 
 	/**
@@ -182,18 +261,17 @@ public final class SplineCurveInterpolator {
 	 * @param _points 通過点列
 	 * @return 制御点列
 	 */
-	private static Point[] calculateControlPoints( Matrix _mat, Point[] _points ) {
+	private static Point[] calculateControlPoints( BandMatrix _mat, PointBuffer _points ) {
 		// NtN * d = NtP
 		// Nは重み行列、NtはNの転置行列、dは制御点、Pは通過点
-		
-		Matrix Nt = _mat.transpose();
-		Matrix NtN = Nt.product( _mat );
-		double[][] elements = new double[ _points.length ][];
-		for ( int i = 0; i < _points.length; ++i ) {
-			Point p = _points[i];
-			elements[i] = new double[]{ p.x(), p.y(), p.z() };
+		// Nは各行の非零要素が(次数+1)個であるため、NtNは帯行列となる
+
+		SymmetricBandMatrix NtN = _mat.normalMatrix();
+		double[][] elements = new double[ _points.size() ][];
+		for ( int i = 0; i < elements.length; ++i ) {
+			elements[i] = new double[]{ _points.x( i ), _points.y( i ), _points.z( i ) };
 		}
-		Matrix NtP = Nt.product( Matrix.create( elements ) );
+		Matrix NtP = _mat.transposeProduct( Matrix.create( elements ) );
 
 		Matrix result = NtN.solve( NtP );
 
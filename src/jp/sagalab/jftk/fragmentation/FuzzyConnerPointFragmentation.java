@@ -7,6 +7,7 @@ import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.Vector;
 import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * ファジィ角フラグメンテーションを行います。
@@ -40,6 +41,7 @@ public class FuzzyConnerPointFragmentation implements FuzzyFragmentation {
 	
 	@Override
 	public Fragment[] createFragment( SplineCurve _splineCurve ) {
+		Metrics.Sample sample = Metrics.start( Metrics.CONNER_POINT_FRAGMENTATION );
 		List<Fragment> fragments = new ArrayList<Fragment>();
 
 		int evalateNum = (int) Math.max( 2, Math.ceil( _splineCurve.range().length() / 0.01 ) );
@@ -100,7 +102,9 @@ public class FuzzyConnerPointFragmentation implements FuzzyFragmentation {
 			}
 		}
 		
-		return fragments.toArray( new Fragment[ fragments.size() ] );
+		Fragment[] result = fragments.toArray( new Fragment[ fragments.size() ] );
+		Metrics.stop( sample );
+		return result;
 	}
 		
 	@Override
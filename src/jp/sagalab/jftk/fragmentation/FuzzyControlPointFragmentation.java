@@ -7,6 +7,7 @@ import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.TruthValue;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * ファジィスプライン曲線の制御点列を用いてファジィフラグメンテーションを行います。
@@ -41,6 +42,7 @@ public class FuzzyControlPointFragmentation implements FuzzyFragmentation{
 	
 	@Override
 	public Fragment[] createFragment( SplineCurve _splineCurve ) {
+		Metrics.Sample sample = Metrics.start( Metrics.CONTROL_POINT_FRAGMENTATION );
 		// フラグメント列
 		List<Fragment> fragments = new ArrayList<Fragment>();
 
@@ -102,7 +104,9 @@ public class FuzzyControlPointFragmentation implements FuzzyFragmentation{
 					PartitionFragment.create( partition, partition.start(), null ) );
 			}
 		}
-		return fragments.toArray( new Fragment[ fragments.size() ] );
+		Fragment[] result = fragments.toArray( new Fragment[ fragments.size() ] );
+		Metrics.stop( sample );
+		return result;
 	}
 	
 	@Override
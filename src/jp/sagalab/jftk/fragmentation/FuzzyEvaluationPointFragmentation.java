@@ -9,6 +9,7 @@ import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.TruthValue;
 import jp.sagalab.jftk.curve.ParametricCurve;
 import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * ファジィスプライン曲線の評価点列を用いてファジィフラグメンテーション法を行います。
@@ -147,6 +148,7 @@ public class FuzzyEvaluationPointFragmentation implements FuzzyFragmentation{
 	
 	@Override
 	public Fragment[] createFragment( SplineCurve _splineCurve ) {
+		Metrics.Sample sample = Metrics.start( Metrics.EVALUATION_POINT_FRAGMENTATION );
 		// フラグメント列
 		List<Fragment> fragments = new ArrayList<Fragment>();
 
@@ -217,7 +219,9 @@ public class FuzzyEvaluationPointFragmentation implements FuzzyFragmentation{
 					PartitionFragment.create( partition, partition.start(), null ) );
 			}
 		}
-		return fragments.toArray( new Fragment[ fragments.size() ] );
+		Fragment[] result = fragments.toArray( new Fragment[ fragments.size() ] );
+		Metrics.stop( sample );
+		return result;
 	}
 
 	@Override
@@ -238,7 +242,7 @@ public class FuzzyEvaluationPointFragmentation implements FuzzyFragmentation{
 	 * @param _threshold 閾値
 	 * @return チャンクの状態
 	 */
-	private static State state( Point[] _chunk, TruthValue _threshold ) {
+	static State state( Point[] _chunk, TruthValue _threshold ) {
 		double nec = 1;
 		double pos = 1;
 		Point last = _chunk[ _chunk.length - 1];
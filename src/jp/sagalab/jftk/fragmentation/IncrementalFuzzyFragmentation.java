@@ -0,0 +1,266 @@
+package jp.sagalab.jftk.fragmentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.TruthValue;
+import jp.sagalab.jftk.curve.Range;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.fragmentation.FuzzyFragmentation.State;
+
+/**
+ * 描画中に成長していくファジィスプライン曲線に対して逐次的にファジィフラグメンテーションを行うクラスです。
+ * <p>
+ * 判定の方法は {@link FuzzyEvaluationPointFragmentation} と同じで、評価点列のチャンク毎に
+ * 「移動」「停止」「不明」の状態を判別し、状態が遷移した時点でそれまでの区間をフラグメントとします。
+ * ただし、評価点は曲線全体の時間長から決めるのではなく、始点の時刻から時間分解能の間隔で定めます。
+ * </p>
+ * <p>
+ * 描画中の暫定の曲線は終点付近ほど形状が定まっていないため、
+ * 終点から先読み時間長より前の評価点だけを確定したものとして扱います。
+ * {@link #update(SplineCurve)} を呼ぶたびに確定した評価点でチャンクの判定を進め、
+ * 状態が遷移したチャンクまでのフラグメントを確定して返します。
+ * 描画の終了時には {@link #finish(SplineCurve)} に最終的な曲線を渡し、残りのフラグメントを得ます。
+ * 確定したフラグメントは、確定した時点の暫定の曲線から切り出したものです。
+ * </p>
+ * <p>
+ * 先読み時間長は、暫定の曲線の終点付近の変動が収まる時間(目安として節点間隔の次数倍程度)を指定します。
+ * このクラスはスレッドセーフではありません。
+ * </p>
+ * @author agent
+ * @see FuzzyEvaluationPointFragmentation
+ * @see jp.sagalab.jftk.fuzzysplinecurve.StreamingFSCCreater
+ */
+public final class IncrementalFuzzyFragmentation {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _divideThreshold 閾値
+	 * @param _divideTimeResolution 時間解像度
+	 * @param _divideChunkLength チャンク時間長
+	 * @param _lookaheadLength 先読み時間長
+	 * @return インスタンス
+	 * @throws IllegalArgumentException 閾値がnullの場合
+	 * @throws IllegalArgumentException 時間解像度が0以下、NaN、もしくは無限大の場合
+	 * @throws IllegalArgumentException チャンク時間長がNaN、もしくは無限大の場合
+	 * @throws IllegalArgumentException 先読み時間長が負、NaN、もしくは無限大の場合
+	 */
+	public static IncrementalFuzzyFragmentation create( TruthValue _divideThreshold,
+		double _divideTimeResolution, double _divideChunkLength, double _lookaheadLength ) {
+		if ( _divideThreshold == null ) {
+			throw new IllegalArgumentException( "_divideThreshold is null" );
+		}
+		if ( Double.isNaN( _divideTimeResolution ) ) {
+			throw new IllegalArgumentException( "_divideTimeResolution is NaN" );
+		}
+		if ( Double.isInfinite( _divideTimeResolution ) ) {
+			throw new IllegalArgumentException( "_divideTimeResolution is Infinite" );
+		}
+		if ( _divideTimeResolution <= 0 ) {
+			throw new IllegalArgumentException( "_divideTimeResolution is no more than 0" );
+		}
+		if ( Double.isNaN( _divideChunkLength ) ) {
+			throw new IllegalArgumentException( "_divideChunkLength is NaN" );
+		}
+		if ( Double.isInfinite( _divideChunkLength ) ) {
+			throw new IllegalArgumentException( "_divideChunkLength is Infinite" );
+		}
+		if ( !( _lookaheadLength >= 0 ) || Double.isInfinite( _lookaheadLength ) ) {
+			throw new IllegalArgumentException( "_lookaheadLength must be a finite non-negative value" );
+		}
+		return new IncrementalFuzzyFragmentation( _divideThreshold, _divideTimeResolution,
+			_divideChunkLength, _lookaheadLength );
+	}
+
+	/**
+	 * 暫定のファジィスプライン曲線で判定を進め、新たに確定したフラグメント列を返します。
+	 * <p>
+	 * 曲線の始点は毎回同じ時刻である必要があります。
+	 * </p>
+	 * @param _fsc 現時点までの暫定のファジィスプライン曲線。nullの場合は何もしない
+	 * @return 新たに確定したフラグメント列(確定したものがなければ空の配列)
+	 * @throws IllegalStateException 終了している場合
+	 */
+	public Fragment[] update( SplineCurve _fsc ) {
+		if ( m_finished ) {
+			throw new IllegalStateException( "fragmentation is already finished." );
+		}
+		if ( _fsc == null ) {
+			return new Fragment[ 0 ];
+		}
+		int from = m_fragments.size();
+		Range range = _fsc.range();
+		// 先読み時間長より前の評価点を確定する
+		evaluateUntil( _fsc, range.end() - m_lookaheadLength, true );
+		if ( m_globalState == null && m_points.size() >= m_chunkPointNum ) {
+			initializeState( m_chunkPointNum );
+		}
+		if ( m_globalState != null ) {
+			proceed( _fsc );
+		}
+		return newFragments( from );
+	}
+
+	/**
+	 * 最終的なファジィスプライン曲線で判定を終え、残りのフラグメント列を返します。
+	 * <p>
+	 * 二度目以降は空の配列を返します。
+	 * </p>
+	 * @param _fsc 最終的なファジィスプライン曲線
+	 * @return 新たに確定したフラグメント列
+	 * @throws IllegalArgumentException 曲線がnullの場合
+	 */
+	public Fragment[] finish( SplineCurve _fsc ) {
+		if ( m_finished ) {
+			return new Fragment[ 0 ];
+		}
+		if ( _fsc == null ) {
+			throw new IllegalArgumentException( "_fsc is null" );
+		}
+		m_finished = true;
+		int from = m_fragments.size();
+		Range range = _fsc.range();
+		// 終点までの評価点(終点を含む)を加える
+		evaluateUntil( _fsc, range.end(), false );
+		if ( m_points.isEmpty() || m_points.get( m_points.size() - 1 ).time() < range.end() ) {
+			m_points.add( _fsc.evaluateAt( range.end() ) );
+		}
+		if ( m_globalState == null ) {
+			initializeState( Math.min( m_chunkPointNum, m_points.size() ) );
+		}
+		proceed( _fsc );
+
+		SplineCurve curve = _fsc.part( Range.create( m_stateStart, range.end() ) );
+		if ( m_globalState == State.MOVE ) {
+			// 移動状態を同定フラグメントとする
+			m_fragments.add( IdentificationFragment.create( curve ) );
+		} else {
+			// 停止状態を区切りフラグメントとする
+			m_fragments.add( PartitionFragment.create( curve, m_stayStart, null ) );
+		}
+		return newFragments( from );
+	}
+
+	/**
+	 * これまでに確定したフラグメント列を返します。
+	 * @return フラグメント列
+	 */
+	public Fragment[] fragments() {
+		return m_fragments.toArray( new Fragment[ m_fragments.size() ] );
+	}
+
+	/**
+	 * 終了しているかを返します。
+	 * @return 終了している場合true
+	 */
+	public boolean isFinished() {
+		return m_finished;
+	}
+
+	/**
+	 * 指定された時刻までの評価点を追加します。
+	 * @param _fsc ファジィスプライン曲線
+	 * @param _until 評価する時刻の上限
+	 * @param _inclusive 上限の時刻を含める場合true
+	 */
+	private void evaluateUntil( SplineCurve _fsc, double _until, boolean _inclusive ) {
+		if ( m_points.isEmpty() ) {
+			m_origin = _fsc.range().start();
+		}
+		while ( true ) {
+			double t = m_origin + m_points.size() * m_divideTimeResolution;
+			if ( _inclusive ? t > _until : t >= _until ) {
+				break;
+			}
+			m_points.add( _fsc.evaluateAt( t ) );
+		}
+	}
+
+	/**
+	 * 先頭のチャンクから初期状態を決めます。
+	 * @param _num 先頭のチャンクの評価点数
+	 */
+	private void initializeState( int _num ) {
+		Point[] chunk = m_points.subList( 0, _num ).toArray( new Point[ _num ] );
+		State state = FuzzyEvaluationPointFragmentation.state( chunk, m_divideThreshold );
+		// 初期状態が不明の場合、停止とする。
+		m_globalState = state == State.UNKNOWN ? State.STAY : state;
+		m_stateStart = m_points.get( 0 ).time();
+	}
+
+	/**
+	 * 評価点が揃っているチャンクの判定を進めます。
+	 * @param _fsc フラグメントを切り出す曲線
+	 */
+	private void proceed( SplineCurve _fsc ) {
+		Point[] chunk = new Point[ m_chunkPointNum ];
+		for ( ; m_chunkIndex + m_chunkPointNum <= m_points.size(); ++m_chunkIndex ) {
+			// チャンクの状態チェック
+			State chunkState = FuzzyEvaluationPointFragmentation.state(
+				m_points.subList( m_chunkIndex, m_chunkIndex + m_chunkPointNum ).toArray( chunk ), m_divideThreshold );
+
+			// 状態遷移の検出
+			if ( chunkState != State.UNKNOWN && m_globalState != chunkState ) {
+				Point point = m_points.get( m_chunkIndex );
+				SplineCurve curve = _fsc.part( Range.create( m_stateStart, point.time() ) );
+				if ( m_globalState == State.MOVE ) {
+					// 移動状態を同定フラグメントとする
+					m_fragments.add( IdentificationFragment.create( curve ) );
+					m_stayStart = point;
+				} else {
+					// 停止状態を区切りフラグメントとする
+					m_fragments.add( PartitionFragment.create( curve, m_stayStart, point ) );
+				}
+				// 状態開始時刻を更新
+				m_stateStart = point.time();
+				// 状態を更新
+				m_globalState = chunkState;
+			}
+		}
+	}
+
+	/**
+	 * 指定された位置以降に確定したフラグメント列を返します。
+	 * @param _from 開始位置
+	 * @return フラグメント列
+	 */
+	private Fragment[] newFragments( int _from ) {
+		List<Fragment> fragments = m_fragments.subList( _from, m_fragments.size() );
+		return fragments.toArray( new Fragment[ fragments.size() ] );
+	}
+
+	private IncrementalFuzzyFragmentation( TruthValue _divideThreshold,
+		double _divideTimeResolution, double _divideChunkLength, double _lookaheadLength ) {
+		m_divideThreshold = _divideThreshold;
+		m_divideTimeResolution = _divideTimeResolution;
+		m_lookaheadLength = _lookaheadLength;
+		m_chunkPointNum = (int) Math.ceil( _divideChunkLength / _divideTimeResolution );
+		m_points = new ArrayList<Point>();
+		m_fragments = new ArrayList<Fragment>();
+	}
+
+	/** ファジィフラグメンテーションの閾値。 */
+	private final TruthValue m_divideThreshold;
+	/** ファジィフラグメンテーションの時間解像度。 */
+	private final double m_divideTimeResolution;
+	/** 先読み時間長。 */
+	private final double m_lookaheadLength;
+	/** チャンクの構成点数。 */
+	private final int m_chunkPointNum;
+	/** 確定した評価点列。 */
+	private final List<Point> m_points;
+	/** 確定したフラグメント列。 */
+	private final List<Fragment> m_fragments;
+	/** 評価点列の始点の時刻。 */
+	private double m_origin;
+	/** 次に判定するチャンクの先頭の評価点番号。 */
+	private int m_chunkIndex;
+	/** 現在の状態(初期状態が決まるまではnull)。 */
+	private State m_globalState;
+	/** 状態開始時刻。 */
+	private double m_stateStart;
+	/** 停止点の始点側の接続点。 */
+	private Point m_stayStart;
+	/** 終了しているか。 */
+	private boolean m_finished;
+}
@@ -8,12 +8,17 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import jp.sagalab.jftk.Sigmoid;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.recognition.PrimitiveType;
 import jp.sagalab.jftk.recognition.RecognitionResult;
 import jp.sagalab.jftk.recognition.Recognizable;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 探索区間数を設定した楕円弧幾何曲線列化による最良分割点を用いてファジィフラグメンテーション法を行います。<br>
@@ -110,6 +115,7 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 
 	@Override
 	public Fragment[] createFragment( SplineCurve _splineCurve ) {
+		Metrics.Sample sample = Metrics.start( Metrics.NON_PARTITION_FRAGMENTATION );
 		//同定フラグメントの生成
 		IdentificationFragment identificationFragment = IdentificationFragment.create( _splineCurve );
 		// FSCの探索点の導出
@@ -138,6 +144,7 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 				fragments[separateParameters.length] = createFragments( parameter, targetFSC )[1];
 			}
 		}
+		Metrics.stop( sample );
 		return fragments;
 	}
 
@@ -154,9 +161,67 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 	 * @param _recognizer 幾何曲線認識法のストラテジー
 	 */
 	public NonPartitionFragmentation( int _searchInterval, Map<String, Sigmoid> _rule, Recognizable _recognizer) {
+		this( _searchInterval, _rule, _recognizer, RecognitionCache.create( DEFAULT_CACHE_CAPACITY ) );
+	}
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 *
+	 * @param _searchInterval 探索区間数
+	 * @param _rule 推論ルール
+	 * @param _recognizer 幾何曲線認識法のストラテジー
+	 * @param _cache 部分曲線の認識結果のキャッシュ
+	 * @throws IllegalArgumentException キャッシュがnullの場合
+	 */
+	public NonPartitionFragmentation( int _searchInterval, Map<String, Sigmoid> _rule, Recognizable _recognizer,
+		RecognitionCache _cache ) {
+		this( _searchInterval, _rule, _recognizer, _cache, null, 1 );
+	}
+
+	/**
+	 * 分割位置の候補を並列に認識するインスタンスを生成します。
+	 * <p>
+	 * 分割位置の探索では、探索開始位置から順に部分曲線を認識し、最初に自由曲線となった位置で打ち切ります。
+	 * 並列モードでは、まだ認識していない位置から先読み幅分の候補をまとめて投機的に認識して
+	 * キャッシュに格納し、その後は逐次モードと同じ順序で結果を参照します。
+	 * そのため探索結果は逐次モードと一致します。
+	 * </p>
+	 * <p>
+	 * 認識法のストラテジーは複数のスレッドから同時に呼び出されます。
+	 * 実行サービスの終了は呼び出し側で行ってください。
+	 * </p>
+	 *
+	 * @param _searchInterval 探索区間数
+	 * @param _rule 推論ルール
+	 * @param _recognizer 幾何曲線認識法のストラテジー
+	 * @param _cache 部分曲線の認識結果のキャッシュ
+	 * @param _executor 候補の認識を行う実行サービス（nullの場合は逐次に認識します）
+	 * @param _parallelWindow 並列に認識する候補の先読み幅
+	 * @throws IllegalArgumentException キャッシュがnullの場合
+	 * @throws IllegalArgumentException 先読み幅が1未満の場合
+	 */
+	public NonPartitionFragmentation( int _searchInterval, Map<String, Sigmoid> _rule, Recognizable _recognizer,
+		RecognitionCache _cache, ExecutorService _executor, int _parallelWindow ) {
+		if ( _cache == null ) {
+			throw new IllegalArgumentException( "_cache is null." );
+		}
+		if ( _parallelWindow < 1 ) {
+			throw new IllegalArgumentException( "_parallelWindow must be greater than 0." );
+		}
 		m_searchInterval = _searchInterval;
 		m_rule = _rule;
 		m_recognizer = _recognizer;
+		m_cache = _cache;
+		m_executor = _executor;
+		m_parallelWindow = _parallelWindow;
+	}
+
+	/**
+	 * 部分曲線の認識結果のキャッシュを返します。
+	 * @return キャッシュ
+	 */
+	public RecognitionCache recognitionCache() {
+		return m_cache;
 	}
 
 	/**
@@ -168,47 +233,52 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 	 */
 	@Override
 	public Double[] getBestDevidedParameters( IdentificationFragment _identificationFragment, SplineCurve _fsc, double[] _searchEvaluationParameters ) {
-		// 最良分割時のパラメータ列の取り出し
-		List<Double> dividedParameters = new ArrayList<Double>();
-		// 探索対象のFSC
-		SplineCurve targetFSC = _fsc;
-		// 探索対象の同定フラグメント
-		IdentificationFragment identificationFragment = _identificationFragment;
+		try {
+			// 最良分割時のパラメータ列の取り出し
+			List<Double> dividedParameters = new ArrayList<Double>();
+			// 探索対象のFSC
+			SplineCurve targetFSC = _fsc;
+			// 探索対象の同定フラグメント
+			IdentificationFragment identificationFragment = _identificationFragment;
 		
-		// 探索開始番号
-		int searchStartIndex = 0;
-		// 分割情報
-		DividedCurveInformation dividedCurveInformation;
-
-		// 最良分割点の探索
-		do {
-			// 最良分割結果の取得(FSCR')
-			dividedCurveInformation = searchBestDividedParameters( identificationFragment,
-				targetFSC,_searchEvaluationParameters, searchStartIndex );
-			Double[] dividedCurveParameters = dividedCurveInformation.parameters();
-
-			// 自由曲線が含まれている場合
-			if ( dividedCurveInformation.isIncludeFreeCurve() ) {
-				// 12・13.一つ目のパラメータを最良分割点として採用
-				dividedParameters.add( dividedCurveParameters[0] );
-
-				// 始点側fragmentの更新
-				double firstDividedParameter = dividedCurveParameters[0];
-
-				//パラメータ番号の更新
-				searchStartIndex = dividedCurveInformation.paramNums()[0];
+			// 探索開始番号
+			int searchStartIndex = 0;
+			// 分割情報
+			DividedCurveInformation dividedCurveInformation;
+
+			// 最良分割点の探索
+			do {
+				// 最良分割結果の取得(FSCR')
+				dividedCurveInformation = searchBestDividedParameters( _fsc, identificationFragment,
+					targetFSC,_searchEvaluationParameters, searchStartIndex );
+				Double[] dividedCurveParameters = dividedCurveInformation.parameters();
+
+				// 自由曲線が含まれている場合
+				if ( dividedCurveInformation.isIncludeFreeCurve() ) {
+					// 12・13.一つ目のパラメータを最良分割点として採用
+					dividedParameters.add( dividedCurveParameters[0] );
+
+					// 始点側fragmentの更新
+					double firstDividedParameter = dividedCurveParameters[0];
+
+					//パラメータ番号の更新
+					searchStartIndex = dividedCurveInformation.paramNums()[0];
 				
-				// 探索対象のFSCの更新
-				Range range = Range.create( firstDividedParameter, targetFSC.evaluateAtEnd().time() );
-				targetFSC = targetFSC.part( range );
-				// 探索対象の同定フラグメントの更新
-				identificationFragment = IdentificationFragment.create( targetFSC );
-			}
-		} while ( dividedCurveInformation.isIncludeFreeCurve() );
-		dividedParameters.addAll( Arrays.asList( dividedCurveInformation.parameters() ) );
-
-		// 分割諸量の出力
-		return dividedParameters.toArray( new Double[dividedParameters.size()] );
+					// 探索対象のFSCの更新
+					Range range = Range.create( firstDividedParameter, targetFSC.evaluateAtEnd().time() );
+					targetFSC = targetFSC.part( range );
+					// 探索対象の同定フラグメントの更新
+					identificationFragment = IdentificationFragment.create( targetFSC );
+				}
+			} while ( dividedCurveInformation.isIncludeFreeCurve() );
+			dividedParameters.addAll( Arrays.asList( dividedCurveInformation.parameters() ) );
+
+			// 分割諸量の出力
+			return dividedParameters.toArray( new Double[dividedParameters.size()] );
+		} finally {
+			// 探索を終えたFSCの認識結果は再利用されないため破棄する
+			m_cache.remove( _fsc );
+		}
 	}
 
 	/**
@@ -235,6 +305,7 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 	/**
 	 * 指定された分割数で最良分割位置を探索する。
 	 *
+	 * @param _rootFSC 探索の基となるFSC（認識結果のキャッシュのキー）
 	 * @param _identificationFragment 探索対象となる同定フラグメント
 	 * @param _targetFSC 探索対象となるFSC
 	 * @param _startPartitionFragment 始点側の区切りフラグメント
@@ -244,8 +315,9 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 	 * @param _searchStartIndex 探索開始位置のパラメータ番号
 	 * @return 最良分割パラメータ列
 	 */
-	private DividedCurveInformation searchBestDividedParameters( IdentificationFragment _identificationFragment,
-		SplineCurve _targetFSC,  double[] _dividedParameters, int _searchStartIndex ) {
+	private DividedCurveInformation searchBestDividedParameters( SplineCurve _rootFSC,
+		IdentificationFragment _identificationFragment, SplineCurve _targetFSC,  double[] _dividedParameters,
+		int _searchStartIndex ) {
 
 		// 延長FSCを認識
 		RecognitionResult recognition = m_recognizer.recognize( _identificationFragment, _targetFSC, m_rule );
@@ -288,18 +360,16 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 
 		// 探索
 		while ( true ) {
-			double targetRangeStart = targetFSC.range().start();
 			RecognitionResult dividedPointResult = null;
 
 			// 分割位置の探索（(現在のパラメータ位置+1)から見ていく）
 			for ( int index = searchStartIndex; index < _dividedParameters.length; ++index ) {
-				double dividedParameter = _dividedParameters[index];
-				// 認識させる曲線の生成
-				SplineCurve searchedCurve = targetFSC.part( Range.create( targetRangeStart, dividedParameter ) );
-				// 同定フラグメント
-				IdentificationFragment identificationFragment = IdentificationFragment.create( searchedCurve );
+				// 並列モードの場合は先の候補をまとめて認識しておく
+				if ( m_executor != null ) {
+					prefetchParts( _rootFSC, targetFSC, index, _dividedParameters );
+				}
 				// 認識
-				dividedPointResult = m_recognizer.recognize( identificationFragment, searchedCurve, m_rule );
+				dividedPointResult = recognizePart( _rootFSC, targetFSC, index, _dividedParameters );
 
 				// 現在のパラメータ位置の更新
 				currentParameterIndex = index;
@@ -314,13 +384,8 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 					searchStartIndex = index;
 					// 現在のパラメータ位置保存
 					currentParameterIndex = index - 1;
-					dividedParameter = _dividedParameters[currentParameterIndex];
-					// 認識させる曲線の生成
-					searchedCurve = targetFSC.part( Range.create( targetRangeStart, dividedParameter ) );
-					// 同定フラグメント
-					identificationFragment = IdentificationFragment.create( searchedCurve );
-					// 認識
-					dividedPointResult = m_recognizer.recognize( identificationFragment, searchedCurve, m_rule );
+					// 認識（多くの場合、直前のループで認識済み）
+					dividedPointResult = recognizePart( _rootFSC, targetFSC, currentParameterIndex, _dividedParameters );
 
 					// 2・4.探索限界位置の決定
 					if ( currentDivisionRank == requestedDivisionNum - 1 ) {
@@ -385,11 +450,8 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 					double currentParameter = _dividedParameters[currentParameterIndex];
 					preParamList.add( currentParameter );
 					// Leftのグレード値算出（フラグメントのstartRange〜現在のパラメータ位置）
-					SplineCurve leftCurve = targetFSC.part( Range.create( targetFSC.range().start(), currentParameter ) );
-					// 同定フラグメント
-					IdentificationFragment identificationFragment = IdentificationFragment.create( leftCurve );
-					// 認識
-					RecognitionResult leftRecognitionResult = m_recognizer.recognize( identificationFragment, leftCurve, m_rule );
+					RecognitionResult leftRecognitionResult = recognizePart( _rootFSC, targetFSC,
+						currentParameterIndex, _dividedParameters );
 					double leftGrade = leftRecognitionResult.calcNotFreeCurveGrade( );
 					// Rightのグレード値を取得（スタックからpop(取得して削除)）
 					rightGrade = maxGradeStack.pop();
@@ -484,6 +546,96 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 		}
 	}
 	
+	/**
+	 * 探索対象のFSCの始点から指定されたパラメータ位置までの部分曲線を認識します。
+	 * <p>
+	 * 同じ基のFSCに対して同じ範囲、同じ認識法と推論ルールで認識を行った結果はキャッシュから返します。
+	 * </p>
+	 * @param _rootFSC 探索の基となるFSC
+	 * @param _targetFSC 探索対象のFSC
+	 * @param _endIndex 部分曲線の終点に対応するパラメータ位置
+	 * @param _dividedParameters 探索パラメータ列
+	 * @return 認識結果
+	 */
+	private RecognitionResult recognizePart( SplineCurve _rootFSC, SplineCurve _targetFSC,
+		int _endIndex, double[] _dividedParameters ) {
+		double start = _targetFSC.range().start();
+		double end = _dividedParameters[_endIndex];
+		RecognitionResult result = m_cache.get( _rootFSC, start, end, m_recognizer, m_rule );
+		if ( result == null ) {
+			// 認識させる曲線の生成
+			SplineCurve searchedCurve = _targetFSC.part( Range.create( start, end ) );
+			// 同定フラグメント
+			IdentificationFragment identificationFragment = IdentificationFragment.create( searchedCurve );
+			// 認識
+			result = m_recognizer.recognize( identificationFragment, searchedCurve, m_rule );
+			m_cache.put( _rootFSC, start, end, m_recognizer, m_rule, result );
+		}
+		return result;
+	}
+
+	/**
+	 * 指定されたパラメータ位置から先読み幅分の部分曲線を並列に認識し、キャッシュに格納します。
+	 * <p>
+	 * 指定されたパラメータ位置の認識結果が既にキャッシュにある場合は何もしません。
+	 * 割り込まれた場合は先読みを中断し、残りは逐次に認識されます。
+	 * </p>
+	 * @param _rootFSC 探索の基となるFSC
+	 * @param _targetFSC 探索対象のFSC
+	 * @param _fromIndex 先読みを開始するパラメータ位置
+	 * @param _dividedParameters 探索パラメータ列
+	 */
+	private void prefetchParts( SplineCurve _rootFSC, final SplineCurve _targetFSC,
+		int _fromIndex, final double[] _dividedParameters ) {
+		final double start = _targetFSC.range().start();
+		if ( m_cache.contains( _rootFSC, start, _dividedParameters[_fromIndex], m_recognizer, m_rule ) ) {
+			return;
+		}
+		int toIndex = Math.min( _fromIndex + m_parallelWindow, _dividedParameters.length );
+		List<Double> ends = new ArrayList<Double>();
+		List<Future<RecognitionResult>> futures = new ArrayList<Future<RecognitionResult>>();
+		for ( int index = _fromIndex; index < toIndex; ++index ) {
+			if ( m_cache.contains( _rootFSC, start, _dividedParameters[index], m_recognizer, m_rule ) ) {
+				continue;
+			}
+			final double dividedParameter = _dividedParameters[index];
+			ends.add( dividedParameter );
+			futures.add( m_executor.submit( new Callable<RecognitionResult>() {
+
+				@Override
+				public RecognitionResult call() {
+					// 認識させる曲線の生成
+					SplineCurve searchedCurve = _targetFSC.part( Range.create( start, dividedParameter ) );
+					// 同定フラグメント
+					IdentificationFragment identificationFragment = IdentificationFragment.create( searchedCurve );
+					// 認識
+					return m_recognizer.recognize( identificationFragment, searchedCurve, m_rule );
+				}
+			} ) );
+		}
+		// 候補の順に結果を格納する
+		for ( int i = 0; i < futures.size(); ++i ) {
+			try {
+				m_cache.put( _rootFSC, start, ends.get( i ), m_recognizer, m_rule, futures.get( i ).get() );
+			} catch ( InterruptedException e ) {
+				for ( Future<RecognitionResult> future : futures ) {
+					future.cancel( true );
+				}
+				Thread.currentThread().interrupt();
+				return;
+			} catch ( ExecutionException e ) {
+				Throwable cause = e.getCause();
+				if ( cause instanceof RuntimeException ) {
+					throw (RuntimeException) cause;
+				}
+				if ( cause instanceof Error ) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException( cause );
+			}
+		}
+	}
+
 	/**
 	 * FSCの等時間間隔の探索パラメータ列の生成。
 	 * （探索時の誤差をなくすため、内分により求める）
@@ -513,6 +665,14 @@ public class NonPartitionFragmentation implements BestDivideParameterSearchAlgor
 	private final Recognizable m_recognizer;
 	/** 探索単位 */
 	private final int m_searchInterval;
+	/** 部分曲線の認識結果のキャッシュ */
+	private final RecognitionCache m_cache;
+	/** 候補の認識を行う実行サービス（nullの場合は逐次に認識） */
+	private final ExecutorService m_executor;
+	/** 並列に認識する候補の先読み幅 */
+	private final int m_parallelWindow;
+	/** キャッシュに保持する認識結果の既定の最大数 */
+	private static final int DEFAULT_CACHE_CAPACITY = 1024;
 	/** 探索移動量Δt(秒) */
 	private static final double MOVE_PARAM = 0.1;
 
@@ -0,0 +1,234 @@
+package jp.sagalab.jftk.fragmentation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jp.sagalab.jftk.Sigmoid;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.recognition.RecognitionResult;
+import jp.sagalab.jftk.recognition.Recognizable;
+
+/**
+ * 部分曲線の認識結果を保持するキャッシュです。
+ * <p>
+ * 最良分割点の探索では、同じ探索候補点の組で区切られた部分曲線が繰り返し認識されます。
+ * このクラスは探索の基となるFSC、部分曲線の始点・終点のパラメータ、認識法のストラテジー、推論ルールを
+ * キーとして認識結果を保持し、二度目以降の認識を参照に置き換えます。
+ * FSC、認識法のストラテジー、推論ルールは同一性で比較します。
+ * そのため、認識法や推論ルールの異なるインスタンスの間でキャッシュを共有しても、
+ * 異なる条件で得た認識結果が返されることはありません。
+ * </p>
+ * <p>
+ * 保持する認識結果の数には上限があり、上限を超えた場合は最も長く参照されていないものから破棄します。
+ * 探索を終えたFSCの認識結果は {@link #remove(SplineCurve)} で破棄してください。
+ * 複数のスレッドから同時に利用することができます。
+ * </p>
+ * @author agent
+ */
+public final class RecognitionCache {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _capacity 保持する認識結果の最大数
+	 * @return インスタンス
+	 * @throws IllegalArgumentException 最大数が0以下の場合
+	 */
+	public static RecognitionCache create( int _capacity ) {
+		if ( _capacity <= 0 ) {
+			throw new IllegalArgumentException( "_capacity must be greater than 0." );
+		}
+		return new RecognitionCache( _capacity );
+	}
+
+	/**
+	 * 指定された部分曲線の認識結果を返します。
+	 * @param _fsc 探索の基となるFSC
+	 * @param _start 部分曲線の始点のパラメータ
+	 * @param _end 部分曲線の終点のパラメータ
+	 * @param _recognizer 認識法のストラテジー
+	 * @param _rule 推論ルール
+	 * @return 認識結果。保持されていない場合はnull
+	 */
+	public synchronized RecognitionResult get( SplineCurve _fsc, double _start, double _end,
+		Recognizable _recognizer, Map<String, Sigmoid> _rule ) {
+		RecognitionResult result = m_results.get( new Key( _fsc, _start, _end, _recognizer, _rule ) );
+		if ( result != null ) {
+			++m_hitCount;
+		} else {
+			++m_missCount;
+		}
+		return result;
+	}
+
+	/**
+	 * 指定された部分曲線の認識結果を保持しているかを返します。
+	 * <p>
+	 * ヒット数、ミス数は更新されません。
+	 * </p>
+	 * @param _fsc 探索の基となるFSC
+	 * @param _start 部分曲線の始点のパラメータ
+	 * @param _end 部分曲線の終点のパラメータ
+	 * @param _recognizer 認識法のストラテジー
+	 * @param _rule 推論ルール
+	 * @return 保持している場合true
+	 */
+	public synchronized boolean contains( SplineCurve _fsc, double _start, double _end,
+		Recognizable _recognizer, Map<String, Sigmoid> _rule ) {
+		return m_results.containsKey( new Key( _fsc, _start, _end, _recognizer, _rule ) );
+	}
+
+	/**
+	 * 指定された部分曲線の認識結果を保持します。
+	 * @param _fsc 探索の基となるFSC
+	 * @param _start 部分曲線の始点のパラメータ
+	 * @param _end 部分曲線の終点のパラメータ
+	 * @param _recognizer 認識法のストラテジー
+	 * @param _rule 推論ルール
+	 * @param _result 認識結果
+	 */
+	public synchronized void put( SplineCurve _fsc, double _start, double _end,
+		Recognizable _recognizer, Map<String, Sigmoid> _rule, RecognitionResult _result ) {
+		m_results.put( new Key( _fsc, _start, _end, _recognizer, _rule ), _result );
+	}
+
+	/**
+	 * 指定されたFSCを基とする認識結果を全て破棄します。
+	 * <p>
+	 * ヒット数、ミス数はリセットされません。
+	 * </p>
+	 * @param _fsc 探索の基となるFSC
+	 */
+	public synchronized void remove( SplineCurve _fsc ) {
+		Iterator<Key> it = m_results.keySet().iterator();
+		while ( it.hasNext() ) {
+			if ( it.next().m_fsc == _fsc ) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * 保持している認識結果を全て破棄します。
+	 * <p>
+	 * ヒット数、ミス数はリセットされません。
+	 * </p>
+	 */
+	public synchronized void clear() {
+		m_results.clear();
+	}
+
+	/**
+	 * 保持している認識結果の数を返します。
+	 * @return 認識結果の数
+	 */
+	public synchronized int size() {
+		return m_results.size();
+	}
+
+	/**
+	 * 保持する認識結果の最大数を返します。
+	 * @return 最大数
+	 */
+	public int capacity() {
+		return m_capacity;
+	}
+
+	/**
+	 * 認識結果が見つかった回数を返します。
+	 * @return ヒット数
+	 */
+	public synchronized long hitCount() {
+		return m_hitCount;
+	}
+
+	/**
+	 * 認識結果が見つからなかった回数を返します。
+	 * @return ミス数
+	 */
+	public synchronized long missCount() {
+		return m_missCount;
+	}
+
+	/**
+	 * この RecognitionCache の文字列表現を返します。
+	 * @return 保持数、最大数、ヒット数、ミス数を表す String
+	 */
+	@Override
+	public synchronized String toString() {
+		return String.format( "size:%d capacity:%d hit:%d miss:%d",
+			m_results.size(), m_capacity, m_hitCount, m_missCount );
+	}
+
+	/** 認識結果のキー */
+	private static final class Key {
+
+		Key( SplineCurve _fsc, double _start, double _end, Recognizable _recognizer, Map<String, Sigmoid> _rule ) {
+			m_fsc = _fsc;
+			m_start = _start;
+			m_end = _end;
+			m_recognizer = _recognizer;
+			m_rule = _rule;
+		}
+
+		@Override
+		public boolean equals( Object obj ) {
+			if ( obj == null ) {
+				return false;
+			}
+			if ( getClass() != obj.getClass() ) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			// FSC、認識法、推論ルールは同一性で比較する
+			return m_fsc == other.m_fsc
+				&& Double.doubleToLongBits( m_start ) == Double.doubleToLongBits( other.m_start )
+				&& Double.doubleToLongBits( m_end ) == Double.doubleToLongBits( other.m_end )
+				&& m_recognizer == other.m_recognizer
+				&& m_rule == other.m_rule;
+		}
+
+		@Override
+		public int hashCode() {
+			long startBits = Double.doubleToLongBits( m_start );
+			long endBits = Double.doubleToLongBits( m_end );
+			int hash = 7;
+			hash = 31 * hash + System.identityHashCode( m_fsc );
+			hash = 31 * hash + (int) ( startBits ^ ( startBits >>> 32 ) );
+			hash = 31 * hash + (int) ( endBits ^ ( endBits >>> 32 ) );
+			hash = 31 * hash + System.identityHashCode( m_recognizer );
+			hash = 31 * hash + System.identityHashCode( m_rule );
+			return hash;
+		}
+
+		/** 探索の基となるFSC */
+		private final SplineCurve m_fsc;
+		/** 部分曲線の始点のパラメータ */
+		private final double m_start;
+		/** 部分曲線の終点のパラメータ */
+		private final double m_end;
+		/** 認識法のストラテジー */
+		private final Recognizable m_recognizer;
+		/** 推論ルール */
+		private final Map<String, Sigmoid> m_rule;
+	}
+
+	private RecognitionCache( final int _capacity ) {
+		m_capacity = _capacity;
+		m_results = new LinkedHashMap<Key, RecognitionResult>( 16, 0.75f, true ) {
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<Key, RecognitionResult> _eldest ) {
+				return size() > _capacity;
+			}
+		};
+	}
+
+	/** 認識結果 */
+	private final Map<Key, RecognitionResult> m_results;
+	/** 保持する認識結果の最大数 */
+	private final int m_capacity;
+	/** ヒット数 */
+	private long m_hitCount;
+	/** ミス数 */
+	private long m_missCount;
+}
@@ -6,6 +6,7 @@ import jp.sagalab.jftk.curve.interporation.PointExtrapolator2th;
 import jp.sagalab.jftk.curve.interporation.PointInterpolator0th;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * スプライン曲線の制御点を用いてファジィスプライン曲線を生成します。
@@ -56,6 +57,7 @@ public class ControlPointsFSCCreater implements FSCCreater{
 
 	@Override
 	public SplineCurve createFSC( Point[] _points ) {
+		Metrics.Sample sample = Metrics.start( Metrics.FSC_CREATION );
 		// 入力点列にノイズをつける
 		Point[] noisedPoints = new Point[_points.length];
 		for ( int i = 0; i < _points.length; ++i ) {
@@ -77,8 +79,10 @@ public class ControlPointsFSCCreater implements FSCCreater{
 			fsc = fsc.part( range );
 			// 時間伸縮
 //			fsc = m_timeStretcher.stretch( fsc );
+			Metrics.stop( sample );
 			return fsc;
 		} else {
+			Metrics.stop( sample );
 			return null;
 		}
 	}
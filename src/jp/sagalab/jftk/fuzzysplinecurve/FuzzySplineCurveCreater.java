@@ -1,11 +1,9 @@
 package jp.sagalab.jftk.fuzzysplinecurve;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
+import jp.sagalab.jftk.BandMatrix;
 import jp.sagalab.jftk.Matrix;
 import jp.sagalab.jftk.Point;
-import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.curve.interporation.SplineCurveInterpolator;
@@ -28,26 +26,117 @@ public final class FuzzySplineCurveCreater{
 		if ( _spline == null ) {
 			throw new IllegalArgumentException();
 		}
+		int degree = _spline.degree();
+		double[] knots = _spline.knots();
+		return create( _spline, _vCoeff, _aCoeff, Range.create( knots[degree - 1], knots[knots.length - degree] ) );
+	}
+
+	/**
+	 * 指定されたスプライン曲線からファジィスプライン曲線を生成します。
+	 * <p>
+	 * 速度・加速度から求める観測ファジネスを、有効定義域全体ではなく指定された観測範囲で評価します。
+	 * 逐次的に延長される曲線のように、有効定義域の末尾に点列の存在しない区間がある場合に用います。
+	 * </p>
+	 * @param _spline スプライン曲線
+	 * @param _vCoeff 速度係数
+	 * @param _aCoeff 加速度係数
+	 * @param _observationRange 観測範囲
+	 * @return ファジィスプライン曲線
+	 * @throws IllegalArgumentException スプライン曲線または観測範囲がnullの場合
+	 * @throws IllegalArgumentException 観測範囲が有効定義域に含まれない場合
+	 */
+	public static SplineCurve create( SplineCurve _spline, double _vCoeff, double _aCoeff, Range _observationRange ) {
+		if ( _spline == null ) {
+			throw new IllegalArgumentException( "_spline is null." );
+		}
+		if ( _observationRange == null ) {
+			throw new IllegalArgumentException( "_observationRange is null." );
+		}
 		SplineCurve vCurve = _spline.differentiate();
 		SplineCurve aCurve = vCurve.differentiate();
 
-		Point origin = Point.createXYZ( 0, 0, 0 );
 		int degree = _spline.degree();
 		double[] knots = _spline.knots();
-		Range range = Range.create( knots[degree - 1], knots[knots.length - degree] );
-		SplineCurve spline = SplineCurve.create( degree, _spline.controlPoints(), knots, range );
-		Point[] points = spline.evaluateAll( Math.max( (int) Math.ceil( range.length() / 0.01 ), 2 ),
-			EvaluationType.TIME );
-		for ( int i = 0; i < points.length; ++i ) {
-			Point p = points[i];
-			double time = p.time();
-			Point vP = vCurve.evaluate( time );
-			Point aP = aCurve.evaluate( time );
-			double fuzziness = _vCoeff * vP.distance( origin ) + _aCoeff * aP.distance( origin );
-			points[i] = Point.createXYZTF( p.x(), p.y(), p.z(), time, fuzziness );
+		Range domain = Range.create( knots[degree - 1], knots[knots.length - degree] );
+		if ( !domain.isInner( _observationRange ) ) {
+			throw new IllegalArgumentException( "_observationRange is out of domain." );
 		}
+		SplineCurve spline = SplineCurve.create( degree, _spline.controlPoints(), knots, domain );
+		double[] times = evaluationTimes( _observationRange );
+		double[] observations = observations( vCurve, aCurve, times, _vCoeff, _aCoeff );
 
-		return create( spline, points ).part( _spline.range() );
+		return create( spline, times, observations ).part( _spline.range() );
+	}
+
+	/**
+	 * 指定されたスプライン曲線から、先頭の制御点のファジネスを固定してファジィスプライン曲線を生成します。
+	 * <p>
+	 * 固定しない末尾の制御点のファジネスのみを、それらの制御点に重みを持つ観測範囲の末尾の区間で求めます。
+	 * 固定した制御点の寄与は観測ファジネスから差し引きます。
+	 * 逐次的に延長される曲線の暫定のファジネスを、延長に対して一定の計算量で求める場合に用います。
+	 * 固定するファジネスが空の場合は {@link #create(SplineCurve, double, double, Range)} と同じファジネスを求めます。
+	 * </p>
+	 * @param _spline スプライン曲線
+	 * @param _vCoeff 速度係数
+	 * @param _aCoeff 加速度係数
+	 * @param _observationRange 観測範囲
+	 * @param _fixedFuzziness 先頭から順に固定する制御点のファジネス
+	 * @return 有効定義域全体を存在範囲とするファジィスプライン曲線
+	 * @throws IllegalArgumentException 固定しない制御点の数が次数+1未満の場合
+	 */
+	static SplineCurve create( SplineCurve _spline, double _vCoeff, double _aCoeff, Range _observationRange,
+		double[] _fixedFuzziness ) {
+		int degree = _spline.degree();
+		double[] knots = _spline.knots();
+		Point[] cp = _spline.controlPoints();
+		int fixedNum = _fixedFuzziness.length;
+		int freeNum = cp.length - fixedNum;
+		if ( freeNum < degree + 1 ) {
+			throw new IllegalArgumentException( "too many fixed control points." );
+		}
+		// 固定しない先頭の制御点の重みは節点 knots[fixedNum - 1] より後で非零となるため、
+		// それ以降の時刻に重みを持つ制御点のみからなる部分曲線で観測ファジネスを求める
+		int offset = Math.max( fixedNum - degree, 0 );
+		double start = _observationRange.start();
+		if ( fixedNum > 0 ) {
+			start = Math.max( start, knots[fixedNum - 1] );
+		}
+		double[] subKnots = Arrays.copyOfRange( knots, offset, knots.length );
+		SplineCurve sub = SplineCurve.create( degree, Arrays.copyOfRange( cp, offset, cp.length ), subKnots,
+			Range.create( subKnots[degree - 1], subKnots[subKnots.length - degree] ) );
+		SplineCurve vCurve = sub.differentiate();
+		SplineCurve aCurve = vCurve.differentiate();
+		double[] times = evaluationTimes( Range.create( start, _observationRange.end() ) );
+		double[] observations = observations( vCurve, aCurve, times, _vCoeff, _aCoeff );
+		BandMatrix weightMatrix = SplineCurveInterpolator.createBandWeightMatrix( times, degree, subKnots );
+
+		// 固定した制御点の寄与を差し引き、固定しない制御点の列のみの重み行列を構成する
+		int subFixedNum = fixedNum - offset;
+		int width = weightMatrix.width();
+		int[] starts = new int[ times.length ];
+		double[] elements = new double[ times.length * width ];
+		for ( int i = 0; i < times.length; ++i ) {
+			int from = weightMatrix.start( i );
+			starts[i] = Math.max( from - subFixedNum, 0 );
+			for ( int j = from; j < from + width; ++j ) {
+				double w = weightMatrix.get( i, j );
+				if ( j < subFixedNum ) {
+					observations[i] -= w * _fixedFuzziness[offset + j];
+				} else {
+					elements[i * width + j - subFixedNum - starts[i]] = w;
+				}
+			}
+		}
+		double[] freeElements = nnls( BandMatrix.create( starts, elements, width, freeNum ), observations );
+
+		// ファジネスを制御点に付加
+		for ( int i = 0; i < cp.length; ++i ) {
+			Point p = cp[i];
+			double f = ( i < fixedNum ) ? _fixedFuzziness[i] : freeElements[i - fixedNum];
+			cp[i] = Point.createXYZTF( p.x(), p.y(), p.z(), p.time(), f );
+		}
+
+		return SplineCurve.create( degree, cp, knots, Range.create( knots[degree - 1], knots[knots.length - degree] ) );
 	}
 
 	/**
@@ -64,20 +153,33 @@ public final class FuzzySplineCurveCreater{
 		if ( _observations == null ) {
 			throw new IllegalArgumentException( "_observationalFuzziness is null." );
 		}
+		double[] times = new double[_observations.length];
 		double[] observations = new double[_observations.length];
 		for ( int i = 0; i < _observations.length; ++i ) {
+			times[i] = _observations[i].time();
 			observations[i] = _observations[i].fuzziness();
 		}
 
+		return create( _spline, times, observations );
+	}
+
+	/**
+	 * 指定された時刻列と観測ファジネス列からファジィスプライン曲線を生成します。
+	 * @param _spline スプライン曲線
+	 * @param _times 観測時刻列
+	 * @param _observations 観測ファジネス列
+	 * @return ファジィスプライン曲線
+	 */
+	private static SplineCurve create( SplineCurve _spline, double[] _times, double[] _observations ) {
 		// 次数
 		int degree = _spline.degree();
 		// 節点列
 		double[] knots = _spline.knots();
 		// 重み行列
-		Matrix weightMatrix = SplineCurveInterpolator.createWeightMatrix( _observations, degree, knots );
+		BandMatrix weightMatrix = SplineCurveInterpolator.createBandWeightMatrix( _times, degree, knots );
 
 		// 非負制約条件下の最小自乗法により，ファジネスを求める
-		double[] fuzzinessElements = nnls( weightMatrix, observations );
+		double[] fuzzinessElements = nnls( weightMatrix, _observations );
 
 		// ファジネスを制御点に付加
 		Point[] cp = _spline.controlPoints();
@@ -90,229 +192,108 @@ public final class FuzzySplineCurveCreater{
 	}
 
 	/**
-	 * 非負制約条件下で最小自乗問題を解きます。<br>
-	 * PQN-NNLS(Projected Quasi-Newton NNLS)アルゴリズムの一種であるPQN-LBFGSアルゴリズムを利用します。
-	 * @param _matrix 重み行列
-	 * @param _observation 点列
-	 * @return 最小自乗問題の解
+	 * 指定された範囲の等時間間隔の評価時刻列を生成します。
+	 * @param _range 範囲
+	 * @return 評価時刻列(ParametricCurve#evaluateAll の TIME と同じ時刻)
 	 */
-	public static double[] nnls( Matrix _matrix, double[] _observation ) {
-		int rowSize = _matrix.rowSize();
-		int columnSize = _matrix.columnSize();
-
-		Matrix transposed = _matrix.transpose();
-		Matrix transposedProductMatrix = transposed.product( _matrix );
-		double[][] observationalElements = new double[_observation.length][1];
-		for ( int i = 0; i < _observation.length; ++i ) {
-			observationalElements[i][0] = _observation[i];
+	private static double[] evaluationTimes( Range _range ) {
+		double[] times = new double[ Math.max( (int) Math.ceil( _range.length() / 0.01 ), 2 ) ];
+		double step = ( _range.end() - _range.start() ) / ( times.length - 1 );
+		times[0] = _range.start();
+		for ( int i = 1; i < times.length - 1; ++i ) {
+			times[i] = _range.start() + i * step;
 		}
-		Matrix observation = Matrix.create( observationalElements );
-		Matrix transposedProductObservation = transposed.product( observation );
-
-		Matrix vector = calculateInitialVector( _matrix, _observation );
-		Matrix gradVector = transposedProductMatrix.product( vector ).minus( transposedProductObservation );
-		Matrix directionVector = gradVector;
-		double tolerance = 1.0E-14;
-		// APA rule のステップ間隔を決定する数値。開区間(0, 1)に含まれる任意の数値。
-		double stepRatio = 0.5;
-		int maxStoredSize = 7;
-		LinkedList<Matrix> vectorQueue = new LinkedList<Matrix>();
-		LinkedList<Matrix> gradVectorQueue = new LinkedList<Matrix>();
-		LinkedList<Matrix> transposedVectorQueue = new LinkedList<Matrix>();
-		LinkedList<Matrix> transposedGradVectorQueue = new LinkedList<Matrix>();
-		LinkedList<Double> denominatorQueue = new LinkedList<Double>();
-		int iterateCount = 0;
-		while ( iterateCount < NNLS_MAX_ITERATE_TIMES ) {
-			// compute free variable set indexes
-			int[] freeIndexes = searchFreeIndexes( vector, gradVector );
-
-			// extract free variable set
-			double[][] freeElements = new double[freeIndexes.length][1];
-			double[][] gradFreeElements = new double[freeElements.length][1];
-			double[][] freeDirectionElements = new double[freeElements.length][1];
-			double[][] subMatrixElements = new double[rowSize][freeElements.length];
-			for ( int i = 0; i < freeIndexes.length; ++i ) {
-				int freeIndex = freeIndexes[i];
-				freeElements[i][0] = vector.get( freeIndex, 0 );
-				gradFreeElements[i][0] = gradVector.get( freeIndex, 0 );
-				freeDirectionElements[i][0] = directionVector.get( freeIndex, 0 );
-				for ( int j = 0; j < subMatrixElements.length; ++j ) {
-					subMatrixElements[j][i] = _matrix.get( j, freeIndex );
-				}
-			}
-
-			// the Armijo along projection arc (APA) rule
-			Matrix freeVector = Matrix.create( freeElements );
-			Matrix gradFreeVector = Matrix.create( gradFreeElements );
-			Matrix transposedGradFreeVector = gradFreeVector.transpose();
-			Matrix freeDirectionVector = Matrix.create( freeDirectionElements );
-			Matrix subMatrix = Matrix.create( subMatrixElements );
-			double freeError = estimateError( subMatrix, freeVector, observation );
-			double element = transposedGradFreeVector.product( freeVector ).get( 0, 0 );
-			double ratio = 1.0;
-			Matrix projectedVector;
-			do {
-				projectedVector = project( freeVector.minus( freeDirectionVector.magnify( ratio ) ) );
-				ratio *= stepRatio;
-			} while ( !armijoRule( subMatrix, transposedGradFreeVector, observation, projectedVector, freeError, element ) );
-
-			// update free variable set
-			double[][] preElements = new double[columnSize][1];
-			double[][] nextElements = new double[columnSize][1];
-			for ( int i = 0; i < freeIndexes.length; ++i ) {
-				int freeIndex = freeIndexes[i];
-				preElements[freeIndex][0] = freeVector.get( i, 0 );
-				nextElements[freeIndex][0] = projectedVector.get( i, 0 );
-			}
-			Matrix preVector = Matrix.create( preElements );
-			Matrix nextVector = Matrix.create( nextElements );
-			Matrix nextGradVector = transposedProductMatrix.product( nextVector ).minus( transposedProductObservation );
-
-			if ( squaredNorm( projectedVector.minus( freeVector ) ) < tolerance ) {
-				break;
-			}
-
-			// the limited memory BFGS (L-BFGS) method
-			if ( vectorQueue.size() >= maxStoredSize ) {
-				vectorQueue.poll();
-				gradVectorQueue.poll();
-				transposedVectorQueue.poll();
-				transposedGradVectorQueue.poll();
-				denominatorQueue.poll();
-			}
-			Matrix diffVector = nextVector.minus( preVector );
-			Matrix diffGradVector = nextGradVector.minus( gradVector );
-			Matrix transposedGradVector = diffGradVector.transpose();
-			vectorQueue.offer( diffVector );
-			gradVectorQueue.offer( diffGradVector );
-			transposedVectorQueue.offer( diffVector.transpose() );
-			transposedGradVectorQueue.offer( transposedGradVector );
-			denominatorQueue.offer( transposedGradVector.product( diffVector ).get( 0, 0 ) );
-
-			directionVector = calculateDirection( vectorQueue, gradVectorQueue,
-				transposedVectorQueue, transposedGradVectorQueue, denominatorQueue, nextGradVector );
-
-			gradVector = nextGradVector;
-			vector = nextVector;
-			++iterateCount;
-		}
-		if ( iterateCount >= NNLS_MAX_ITERATE_TIMES ) {
-			System.err.println( "Warnning: nnls iterate count reach " + iterateCount );
-		}
-
-		double[][] resultElements = vector.transpose().elements();
-		return resultElements[0];
+		times[times.length - 1] = _range.end();
+		return times;
 	}
 
-	private static int[] searchFreeIndexes( Matrix _vector, Matrix _gradVector ) {
-		int rowSize = _vector.rowSize();
-		List<Integer> indexList = new ArrayList<Integer>( rowSize );
-		for ( int i = 0; i < rowSize; ++i ) {
-			if ( !( _vector.get( i, 0 ) == 0.0 && _gradVector.get( i, 0 ) > 0.0 ) ) {
-				indexList.add( i );
-			}
-		}
-		int[] indexes = new int[indexList.size()];
-		for ( int i = 0; i < indexes.length; ++i ) {
-			indexes[i] = indexList.get( i );
+	/**
+	 * 評価時刻列における速度・加速度から観測ファジネス列を求めます。
+	 * @param _vCurve 速度曲線
+	 * @param _aCurve 加速度曲線
+	 * @param _times 評価時刻列
+	 * @param _vCoeff 速度係数
+	 * @param _aCoeff 加速度係数
+	 * @return 観測ファジネス列
+	 */
+	private static double[] observations( SplineCurve _vCurve, SplineCurve _aCurve, double[] _times,
+		double _vCoeff, double _aCoeff ) {
+		// 速度・加速度は評価時刻列で一括評価する
+		double[] vX = new double[ _times.length ];
+		double[] vY = new double[ _times.length ];
+		double[] vZ = new double[ _times.length ];
+		double[] aX = new double[ _times.length ];
+		double[] aY = new double[ _times.length ];
+		double[] aZ = new double[ _times.length ];
+		_vCurve.evaluateInto( _times, vX, vY, vZ, null );
+		_aCurve.evaluateInto( _times, aX, aY, aZ, null );
+		double[] observations = new double[ _times.length ];
+		for ( int i = 0; i < _times.length; ++i ) {
+			double v = Math.sqrt( vX[i] * vX[i] + vY[i] * vY[i] + vZ[i] * vZ[i] );
+			double a = Math.sqrt( aX[i] * aX[i] + aY[i] * aY[i] + aZ[i] * aZ[i] );
+			observations[i] = _vCoeff * v + _aCoeff * a;
 		}
-		return indexes;
+		return observations;
 	}
 
-	private static Matrix calculateInitialVector( Matrix _matrix, double[] _observation ) {
-		// NtN * d = NtP
-		Matrix Nt = _matrix.transpose();
-		Matrix NtN = Nt.product( _matrix );
-		double[][] elements = new double[_observation.length][1];
-		for ( int i = 0; i < _observation.length; ++i ) {
-			elements[i][0] = _observation[i];
-		}
-		Matrix NtP = Nt.product( Matrix.create( elements ) );
-
-		Matrix initialVector = NtN.solve( NtP );
-
-		elements = new double[initialVector.rowSize()][1];
-		for ( int i = 0; i < elements.length; ++i ) {
-			elements[i][0] = Math.max( initialVector.get( i, 0 ), 0 );
-		}
-		return Matrix.create( elements );
+	/**
+	 * 非負制約条件下で最小自乗問題を解きます。<br>
+	 * PQN-NNLS(Projected Quasi-Newton NNLS)アルゴリズムの一種であるPQN-LBFGSアルゴリズムを利用します。
+	 * @param _matrix 重み行列
+	 * @param _observation 点列
+	 * @return 最小自乗問題の解
+	 * @see NonNegativeLeastSquares
+	 */
+	public static double[] nnls( BandMatrix _matrix, double[] _observation ) {
+		return NonNegativeLeastSquares.solve( _matrix, _observation ).solution();
 	}
 
-	private static double squaredNorm( Matrix _vector ) {
-		int rowSize = _vector.rowSize();
-		double result = 0.0;
-		for ( int i = 0; i < rowSize; ++i ) {
-			double element = _vector.get( i, 0 );
-			result += element * element;
-		}
-		return result;
+	/**
+	 * 非負制約条件下で最小自乗問題を解きます。<br>
+	 * PQN-NNLS(Projected Quasi-Newton NNLS)アルゴリズムの一種であるPQN-LBFGSアルゴリズムを利用します。
+	 * 重み行列は各行の非零要素の区間を調べて帯形式に変換してから解きます。
+	 * @param _matrix 重み行列
+	 * @param _observation 点列
+	 * @return 最小自乗問題の解
+	 * @see #nnls(jp.sagalab.jftk.BandMatrix, double[])
+	 */
+	public static double[] nnls( Matrix _matrix, double[] _observation ) {
+		return nnls( toBandMatrix( _matrix ), _observation );
 	}
 
-	private static Matrix calculateDirection( List<Matrix> _vectors, List<Matrix> _gradVectors,
-		List<Matrix> _transposedVectors, List<Matrix> _transposedGradVectors, LinkedList<Double> _denominators, Matrix _nextGradVector ) {
-		int size = _vectors.size();
-		double[] alpha = new double[size];
-
-		Matrix direction = _nextGradVector;
-		//逆順で処理を行う
-		for ( int i = size - 1; i >= 0; --i ) {
-			Matrix transposed = _transposedVectors.get( i );
-			double element = transposed.product( direction ).get( 0, 0 );
-			alpha[i] = element / _denominators.get( i );
-			if ( Double.isInfinite( alpha[i] ) || Double.isNaN( alpha[i] ) ) {
-				alpha[i] = 1.0;
+	/**
+	 * 行列を帯形式に変換します。<br>
+	 * 非零区間の幅は全ての行の非零要素を含む最小の幅となります。
+	 * @param _matrix 行列
+	 * @return 帯形式の行列
+	 */
+	private static BandMatrix toBandMatrix( Matrix _matrix ) {
+		int rowSize = _matrix.rowSize();
+		int columnSize = _matrix.columnSize();
+		double[][] elements = _matrix.elements();
+		int[] starts = new int[ rowSize ];
+		int width = 1;
+		for ( int i = 0; i < rowSize; ++i ) {
+			int first = 0;
+			while ( first < columnSize - 1 && elements[i][first] == 0.0 ) {
+				++first;
 			}
-			direction = direction.minus( _gradVectors.get( i ).magnify( alpha[i] ) );
-		}
-		for ( int i = 0; i < size; ++i ) {
-			Matrix transposed = _transposedGradVectors.get( i );
-			double element = transposed.product( direction ).get( 0, 0 );
-			double beta = element / _denominators.get( i );
-			if ( Double.isInfinite( beta ) || Double.isNaN( beta ) ) {
-				beta = 1.0;
+			int last = columnSize - 1;
+			while ( last > first && elements[i][last] == 0.0 ) {
+				--last;
 			}
-			direction = direction.plus( _vectors.get( i ).magnify( alpha[i] - beta ) );
+			starts[i] = first;
+			width = Math.max( width, last - first + 1 );
 		}
-
-		return direction;
-	}
-
-	private static boolean armijoRule( Matrix _matrix, Matrix _transposedGradFreeMatrix,
-		Matrix _observation, Matrix _direction, double _freeError, double _element ) {
-		// 開区間(0, 0.5)に含まれる任意の数値
-		double tau = 0.25;
-
-		return ( _freeError - estimateError( _matrix, _direction, _observation )
-			>= tau * ( _element - _transposedGradFreeMatrix.product( _direction ).get( 0, 0 ) ) );
-	}
-
-	private static double estimateError( Matrix _matrix, Matrix _vector, Matrix _observation ) {
-		Matrix matrix = _matrix.product( _vector ).minus( _observation );
-		int rowSize = matrix.rowSize();
-		double result = 0.0;
+		double[] band = new double[ rowSize * width ];
 		for ( int i = 0; i < rowSize; ++i ) {
-			double element = matrix.get( i, 0 );
-			result += element * element;
-		}
-		return result / 2.0;
-	}
-
-	private static Matrix project( Matrix _matrix ) {
-		double[][] elements = _matrix.elements();
-		for ( double[] rowElements : elements ) {
-			for ( int i = 0; i < rowElements.length; ++i ) {
-				rowElements[i] = Math.max( rowElements[i], 0.0 );
-			}
+			starts[i] = Math.min( starts[i], columnSize - width );
+			System.arraycopy( elements[i], starts[i], band, i * width, width );
 		}
-		return Matrix.create( elements );
+		return BandMatrix.create( starts, band, width, columnSize );
 	}
 
 	private FuzzySplineCurveCreater() {
 		throw new UnsupportedOperationException( "can not create instance." );
 	}
-
-	/**
-	 * NNLSアルゴリズムの最大反復回数
-	 */
-	private static final int NNLS_MAX_ITERATE_TIMES = 1000;
 }
@@ -0,0 +1,294 @@
+package jp.sagalab.jftk.fuzzysplinecurve;
+
+import jp.sagalab.jftk.BandMatrix;
+import jp.sagalab.jftk.Instrumentation;
+import jp.sagalab.jftk.SymmetricBandMatrix;
+import jp.sagalab.jftk.metrics.Metrics;
+
+/**
+ * 非負制約条件下の最小自乗問題の解を表すクラスです。
+ * <p>
+ * PQN-NNLS(Projected Quasi-Newton NNLS)アルゴリズムの一種であるPQN-LBFGSアルゴリズムにより
+ * 重み行列Nと観測値bに対して ||Nx - b||<sup>2</sup> を x &gt;= 0 の条件下で最小化します。
+ * </p>
+ * <p>
+ * 重み行列は帯形式({@link BandMatrix})で扱い、勾配の計算には帯行列 NtN を用います。
+ * 反復中の作業領域は全てプリミティブ配列として最初に確保し、自由変数の抽出は
+ * 部分行列を構成せずに束縛変数を0に固定したまま行います。
+ * 反復1回あたりの計算量は観測値数をn、非零区間の幅をkとしてO(n・k)です。
+ * </p>
+ * @author agent
+ */
+public final class NonNegativeLeastSquares {
+
+	/**
+	 * 非負制約条件下で最小自乗問題を解きます。
+	 * @param _matrix 重み行列
+	 * @param _observation 観測値列
+	 * @return 最小自乗問題の解
+	 * @throws IllegalArgumentException 重み行列がnullの場合
+	 * @throws IllegalArgumentException 観測値列がnullの場合
+	 * @throws IllegalArgumentException 観測値列の要素数が重み行列の行数と等しくない場合
+	 */
+	public static NonNegativeLeastSquares solve( BandMatrix _matrix, double[] _observation ) {
+		if ( _matrix == null ) {
+			throw new IllegalArgumentException( "_matrix is null." );
+		}
+		if ( _observation == null ) {
+			throw new IllegalArgumentException( "_observation is null." );
+		}
+		if ( _observation.length != _matrix.rowSize() ) {
+			throw new IllegalArgumentException( "_observation's length not equals _matrix's row size." );
+		}
+		Metrics.Sample sample = Metrics.start( Metrics.NNLS );
+		final int size = _matrix.columnSize();
+
+		SymmetricBandMatrix transposedProductMatrix = _matrix.normalMatrix();
+		double[] transposedProductObservation = _matrix.transposeProduct( _observation );
+
+		// 作業領域
+		double[] vector = calculateInitialVector( transposedProductMatrix, transposedProductObservation );
+		double[] gradVector = new double[ size ];
+		double[] nextVector = new double[ size ];
+		double[] nextGradVector = new double[ size ];
+		double[] directionVector = new double[ size ];
+		double[] residual = new double[ _observation.length ];
+		boolean[] isFree = new boolean[ size ];
+		double[][] vectorQueue = new double[ MAX_STORED_SIZE ][ size ];
+		double[][] gradVectorQueue = new double[ MAX_STORED_SIZE ][ size ];
+		double[] denominatorQueue = new double[ MAX_STORED_SIZE ];
+		double[] alpha = new double[ MAX_STORED_SIZE ];
+		// 履歴はリングバッファとして保持する
+		int storedHead = 0;
+		int storedSize = 0;
+
+		calculateGradient( transposedProductMatrix, transposedProductObservation, vector, gradVector );
+		System.arraycopy( gradVector, 0, directionVector, 0, size );
+
+		int iterateCount = 0;
+		while ( iterateCount < MAX_ITERATE_TIMES ) {
+			// compute free variable set
+			// 束縛変数は常に0であるため、全体のベクトルのまま内積や誤差を計算できる
+			for ( int i = 0; i < size; ++i ) {
+				isFree[i] = !( vector[i] == 0.0 && gradVector[i] > 0.0 );
+			}
+
+			// the Armijo along projection arc (APA) rule
+			double freeError = estimateError( _matrix, vector, _observation, residual );
+			double element = dot( gradVector, vector );
+			double ratio = 1.0;
+			do {
+				for ( int i = 0; i < size; ++i ) {
+					nextVector[i] = isFree[i] ? Math.max( vector[i] - ratio * directionVector[i], 0.0 ) : 0.0;
+				}
+				ratio *= STEP_RATIO;
+			} while ( !( freeError - estimateError( _matrix, nextVector, _observation, residual )
+				>= TAU * ( element - dot( gradVector, nextVector ) ) ) );
+
+			// update free variable set
+			calculateGradient( transposedProductMatrix, transposedProductObservation, nextVector, nextGradVector );
+
+			double squaredNorm = 0.0;
+			for ( int i = 0; i < size; ++i ) {
+				double d = nextVector[i] - vector[i];
+				squaredNorm += d * d;
+			}
+			if ( squaredNorm < TOLERANCE ) {
+				break;
+			}
+
+			// the limited memory BFGS (L-BFGS) method
+			int slot = ( storedHead + storedSize ) % MAX_STORED_SIZE;
+			if ( storedSize >= MAX_STORED_SIZE ) {
+				storedHead = ( storedHead + 1 ) % MAX_STORED_SIZE;
+			} else {
+				++storedSize;
+			}
+			double[] diffVector = vectorQueue[slot];
+			double[] diffGradVector = gradVectorQueue[slot];
+			for ( int i = 0; i < size; ++i ) {
+				diffVector[i] = nextVector[i] - vector[i];
+				diffGradVector[i] = nextGradVector[i] - gradVector[i];
+			}
+			denominatorQueue[slot] = dot( diffGradVector, diffVector );
+
+			calculateDirection( vectorQueue, gradVectorQueue, denominatorQueue, alpha,
+				storedHead, storedSize, nextGradVector, directionVector );
+
+			// 作業領域を入れ替える
+			double[] tmp = gradVector;
+			gradVector = nextGradVector;
+			nextGradVector = tmp;
+			tmp = vector;
+			vector = nextVector;
+			nextVector = tmp;
+			++iterateCount;
+		}
+		Instrumentation.listener().nnlsSolved( iterateCount, iterateCount < MAX_ITERATE_TIMES );
+		Metrics.stop( sample );
+		Metrics.record( Metrics.NNLS_ITERATIONS, iterateCount );
+		if ( iterateCount >= MAX_ITERATE_TIMES ) {
+			Metrics.increment( Metrics.NNLS_UNCONVERGED );
+		}
+
+		return new NonNegativeLeastSquares( vector, iterateCount );
+	}
+
+	/**
+	 * 解を返します。
+	 * @return 解
+	 */
+	public double[] solution() {
+		return m_solution.clone();
+	}
+
+	/**
+	 * 解を求めるまでに要した反復回数を返します。
+	 * @return 反復回数
+	 */
+	public int iterateCount() {
+		return m_iterateCount;
+	}
+
+	/**
+	 * 最大反復回数に達する前に収束したかを返します。
+	 * @return 収束した場合true
+	 */
+	public boolean isConverged() {
+		return m_iterateCount < MAX_ITERATE_TIMES;
+	}
+
+	/**
+	 * この NonNegativeLeastSquares の文字列表現を返します。
+	 * @return 反復回数と解の要素数を表す String
+	 */
+	@Override
+	public String toString() {
+		return String.format( "iterateCount:%d size:%d", m_iterateCount, m_solution.length );
+	}
+
+	/**
+	 * 非負制約を考慮しない最小自乗解を非負に射影し、初期解とします。
+	 * @param _transposedProductMatrix NtN
+	 * @param _transposedProductObservation Ntb
+	 * @return 初期解
+	 */
+	private static double[] calculateInitialVector( SymmetricBandMatrix _transposedProductMatrix,
+		double[] _transposedProductObservation ) {
+		// NtN * d = NtP
+		double[] initialVector = _transposedProductMatrix.solve( _transposedProductObservation );
+		if ( initialVector == null ) {
+			// 解けない場合は原点から探索する
+			return new double[ _transposedProductObservation.length ];
+		}
+		for ( int i = 0; i < initialVector.length; ++i ) {
+			initialVector[i] = Math.max( initialVector[i], 0 );
+		}
+		return initialVector;
+	}
+
+	/**
+	 * 勾配 NtN x - Ntb を求めます。
+	 * @param _transposedProductMatrix NtN
+	 * @param _transposedProductObservation Ntb
+	 * @param _vector x
+	 * @param _result 結果の格納先
+	 */
+	private static void calculateGradient( SymmetricBandMatrix _transposedProductMatrix,
+		double[] _transposedProductObservation, double[] _vector, double[] _result ) {
+		_transposedProductMatrix.product( _vector, _result );
+		for ( int i = 0; i < _result.length; ++i ) {
+			_result[i] -= _transposedProductObservation[i];
+		}
+	}
+
+	/**
+	 * 二乗誤差 ||Nx - b||<sup>2</sup> / 2 を求めます。
+	 * @param _matrix N
+	 * @param _vector x
+	 * @param _observation b
+	 * @param _residual 作業領域(要素数は観測値数)
+	 * @return 二乗誤差
+	 */
+	private static double estimateError( BandMatrix _matrix, double[] _vector, double[] _observation,
+		double[] _residual ) {
+		_matrix.product( _vector, _residual );
+		double result = 0.0;
+		for ( int i = 0; i < _residual.length; ++i ) {
+			double element = _residual[i] - _observation[i];
+			result += element * element;
+		}
+		return result / 2.0;
+	}
+
+	/**
+	 * L-BFGS法の二重ループにより探索方向を求めます。
+	 * @param _vectors 解の差分の履歴
+	 * @param _gradVectors 勾配の差分の履歴
+	 * @param _denominators 履歴ごとの内積
+	 * @param _alpha 作業領域
+	 * @param _head 最も古い履歴の位置
+	 * @param _size 履歴数
+	 * @param _nextGradVector 現在の勾配
+	 * @param _result 結果の格納先
+	 */
+	private static void calculateDirection( double[][] _vectors, double[][] _gradVectors,
+		double[] _denominators, double[] _alpha, int _head, int _size,
+		double[] _nextGradVector, double[] _result ) {
+		double[] direction = _result;
+		System.arraycopy( _nextGradVector, 0, direction, 0, direction.length );
+		//逆順で処理を行う
+		for ( int i = _size - 1; i >= 0; --i ) {
+			int slot = ( _head + i ) % MAX_STORED_SIZE;
+			double alpha = dot( _vectors[slot], direction ) / _denominators[slot];
+			if ( Double.isInfinite( alpha ) || Double.isNaN( alpha ) ) {
+				alpha = 1.0;
+			}
+			_alpha[i] = alpha;
+			double[] gradVector = _gradVectors[slot];
+			for ( int j = 0; j < direction.length; ++j ) {
+				direction[j] -= alpha * gradVector[j];
+			}
+		}
+		for ( int i = 0; i < _size; ++i ) {
+			int slot = ( _head + i ) % MAX_STORED_SIZE;
+			double beta = dot( _gradVectors[slot], direction ) / _denominators[slot];
+			if ( Double.isInfinite( beta ) || Double.isNaN( beta ) ) {
+				beta = 1.0;
+			}
+			double coeff = _alpha[i] - beta;
+			double[] vector = _vectors[slot];
+			for ( int j = 0; j < direction.length; ++j ) {
+				direction[j] += coeff * vector[j];
+			}
+		}
+	}
+
+	private static double dot( double[] _a, double[] _b ) {
+		double result = 0.0;
+		for ( int i = 0; i < _a.length; ++i ) {
+			result += _a[i] * _b[i];
+		}
+		return result;
+	}
+
+	private NonNegativeLeastSquares( double[] _solution, int _iterateCount ) {
+		m_solution = _solution;
+		m_iterateCount = _iterateCount;
+	}
+
+	/** 最大反復回数 */
+	public static final int MAX_ITERATE_TIMES = 1000;
+	/** 収束判定の閾値 */
+	private static final double TOLERANCE = 1.0E-14;
+	/** APA rule のステップ間隔を決定する数値。開区間(0, 1)に含まれる任意の数値。 */
+	private static final double STEP_RATIO = 0.5;
+	/** Armijo条件の係数。開区間(0, 0.5)に含まれる任意の数値。 */
+	private static final double TAU = 0.25;
+	/** L-BFGS法で保持する履歴数 */
+	private static final int MAX_STORED_SIZE = 7;
+	/** 解 */
+	private final double[] m_solution;
+	/** 反復回数 */
+	private final int m_iterateCount;
+}
@@ -0,0 +1,394 @@
+package jp.sagalab.jftk.fuzzysplinecurve;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.curve.Range;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.curve.interporation.IncrementalSplineCurveInterpolator;
+import jp.sagalab.jftk.curve.interporation.PointExtrapolator2th;
+import jp.sagalab.jftk.metrics.Metrics;
+
+/**
+ * 入力点を受け取るたびに逐次的にファジィスプライン曲線を生成します。
+ * <p>
+ * {@link ControlPointsFSCCreater} と同じ手順(ノイズ付加、外挿、内挿、3次スプライン近似補間、FSC化)を
+ * 描画中のストローク({@link Stroke})に対して点ごとに進めます。
+ * スプライン曲線補間には {@link IncrementalSplineCurveInterpolator} を用いるため、
+ * 節点系列は一定の節点間隔で末尾に延長され、点の追加ごとに全体を補間し直すことはありません。
+ * </p>
+ * <p>
+ * 始点側の外挿は始点から0.1秒分の点が揃った時点で一度だけ行い、終点側の外挿は
+ * {@link Stroke#finish()} で行います。描画中に得られる暫定の曲線は終点側の外挿を含みません。
+ * </p>
+ * <p>
+ * 節点系列が存在範囲に合わせて伸縮されないため、{@link ControlPointsFSCCreater} が
+ * 生成する曲線とは節点の位置が異なります。
+ * </p>
+ * <p>
+ * 描画中の暫定のファジネスは、末尾の {@value #PROVISIONAL_FREE_CONTROL_POINTS} 個の制御点のみを求め直し、
+ * それより前の制御点は前回求めた値に固定します。このため暫定の曲線のファジネスは
+ * 全体を求め直した場合とわずかに異なりますが、{@link Stroke#finish()} では全体を求め直します。
+ * </p>
+ * @author agent
+ */
+public final class StreamingFSCCreater implements FSCCreater {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _pointExtrapolateLength 点列外挿の外挿時間長
+	 * @param _pointExtrapolateSpan 点列外挿の外挿時間間隔
+	 * @param _pointInterpolateSpan 点列内挿の内挿時間間隔
+	 * @param _splineInterpolateKnotSpan スプライン曲線補間の節点間隔
+	 * @param _fscConvertVelocityCoeff FSC変換の速度係数
+	 * @param _fscConvertAccelerationCoeff FSC変換の加速度係数
+	 * @return インスタンス
+	 * @throws IllegalArgumentException 時間長、時間間隔、節点間隔が0以下、NaN、もしくは無限大の場合
+	 * @throws IllegalArgumentException 係数がNaNの場合
+	 */
+	public static StreamingFSCCreater create( double _pointExtrapolateLength, double _pointExtrapolateSpan,
+		double _pointInterpolateSpan, double _splineInterpolateKnotSpan,
+		double _fscConvertVelocityCoeff, double _fscConvertAccelerationCoeff ) {
+		if ( !( _pointExtrapolateLength > 0 ) || Double.isInfinite( _pointExtrapolateLength ) ) {
+			throw new IllegalArgumentException( "_pointExtrapolateLength must be greater than 0." );
+		}
+		if ( !( _pointExtrapolateSpan > 0 ) || Double.isInfinite( _pointExtrapolateSpan ) ) {
+			throw new IllegalArgumentException( "_pointExtrapolateSpan must be greater than 0." );
+		}
+		if ( !( _pointInterpolateSpan > 0 ) || Double.isInfinite( _pointInterpolateSpan ) ) {
+			throw new IllegalArgumentException( "_pointInterpolateSpan must be greater than 0." );
+		}
+		if ( !( _splineInterpolateKnotSpan > 0 ) || Double.isInfinite( _splineInterpolateKnotSpan ) ) {
+			throw new IllegalArgumentException( "_splineInterpolateKnotSpan must be greater than 0." );
+		}
+		if ( Double.isNaN( _fscConvertVelocityCoeff ) ) {
+			throw new IllegalArgumentException( "_fscConvertVelocityCoeff is NaN." );
+		}
+		if ( Double.isNaN( _fscConvertAccelerationCoeff ) ) {
+			throw new IllegalArgumentException( "_fscConvertAccelerationCoeff is NaN." );
+		}
+		return new StreamingFSCCreater( _pointExtrapolateLength, _pointExtrapolateSpan, _pointInterpolateSpan,
+			_splineInterpolateKnotSpan, _fscConvertVelocityCoeff, _fscConvertAccelerationCoeff );
+	}
+
+	/**
+	 * 新しいストロークの入力を開始します。
+	 * @return 描画中のストローク
+	 */
+	public Stroke start() {
+		return new Stroke();
+	}
+
+	/**
+	 * 指定された入力点列を順に入力し、ファジィスプライン曲線を生成します。
+	 * @param _points 入力点列
+	 * @return ファジィスプライン曲線。生成できない場合はnull
+	 * @throws IllegalArgumentException 入力点列がnullの場合
+	 */
+	@Override
+	public SplineCurve createFSC( Point[] _points ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null." );
+		}
+		if ( _points.length == 0 ) {
+			return null;
+		}
+		Metrics.Sample sample = Metrics.start( Metrics.FSC_CREATION );
+		Stroke stroke = start();
+		for ( Point p : _points ) {
+			stroke.add( p );
+		}
+		SplineCurve fsc = stroke.finish();
+		Metrics.stop( sample );
+		return fsc;
+	}
+
+	/**
+	 * 描画中のストロークを表すクラスです。
+	 * <p>
+	 * 入力点を時刻順に {@link #add(Point)} で追加し、描画中は {@link #spline()} や {@link #fsc()} で
+	 * 暫定の曲線を、描画の終了時に {@link #finish()} で最終的なファジィスプライン曲線を得ます。
+	 * このクラスはスレッドセーフではありません。
+	 * </p>
+	 */
+	public final class Stroke {
+
+		/**
+		 * 入力点を追加します。
+		 * @param _point 入力点
+		 * @throws IllegalArgumentException 入力点がnullの場合
+		 * @throws IllegalArgumentException 入力点の時刻がNaN、もしくは無限大の場合
+		 * @throws IllegalArgumentException 入力点の時刻が直前の入力点の時刻より前の場合
+		 * @throws IllegalStateException 入力を終了している場合
+		 */
+		public void add( Point _point ) {
+			if ( _point == null ) {
+				throw new IllegalArgumentException( "_point is null." );
+			}
+			if ( Double.isNaN( _point.time() ) || Double.isInfinite( _point.time() ) ) {
+				throw new IllegalArgumentException( "point's time include NaN or infinite" );
+			}
+			if ( m_finished ) {
+				throw new IllegalStateException( "stroke is already finished." );
+			}
+			if ( m_first != null && _point.time() < m_last.time() ) {
+				throw new IllegalArgumentException( "time series is not a positive order" );
+			}
+			// 入力点にノイズをつける
+			Point p = _point.move( Math.random() * 0.002 - 0.001, Math.random() * 0.002 - 0.001, 0 );
+			if ( m_first == null ) {
+				m_first = p;
+			}
+			m_last = p;
+
+			// 終点側の外挿に用いる点を保持する
+			m_tail.addLast( p );
+			while ( m_tail.getFirst().time() < p.time() - 2 * EXTRAPOLATION_WINDOW ) {
+				m_tail.removeFirst();
+			}
+
+			if ( m_interpolator == null ) {
+				m_head.add( p );
+				// 始点側の外挿に用いる区間が閉じたら外挿して補間を開始する
+				if ( p.time() >= m_first.time() + EXTRAPOLATION_WINDOW ) {
+					m_interpolator = startInterpolation( m_head );
+					m_head = null;
+				}
+			} else {
+				m_interpolator.add( p );
+			}
+		}
+
+		/**
+		 * 現時点までの入力点列を補間した暫定のスプライン曲線を返します。
+		 * <p>
+		 * 存在範囲は始点側の外挿点列の先頭から最後の入力点(内挿点を含む)の時刻までです。
+		 * </p>
+		 * @return スプライン曲線。生成できない場合はnull
+		 */
+		public SplineCurve spline() {
+			if ( m_first == null ) {
+				return null;
+			}
+			if ( m_interpolator != null ) {
+				return m_interpolator.curve();
+			}
+			// 始点側の外挿区間が閉じていない間は、保持している点列のみで補間する
+			return startInterpolation( m_head ).curve();
+		}
+
+		/**
+		 * 現時点までの入力点列から暫定のファジィスプライン曲線を生成します。
+		 * <p>
+		 * 存在範囲は最初の入力点から最後の入力点の時刻までです。
+		 * 終了後は {@link #finish()} と同じ曲線を返します。
+		 * </p>
+		 * @return ファジィスプライン曲線。生成できない場合はnull
+		 */
+		public SplineCurve fsc() {
+			if ( m_finished ) {
+				return m_fsc;
+			}
+			if ( m_interpolator == null ) {
+				// 始点側の外挿区間が閉じていない間は、制御点が入力ごとに置き換わるため全体を求める
+				return toFSC( spline() );
+			}
+			SplineCurve spline = m_interpolator.curve();
+			// 補間器の制御点は末尾にのみ追加されるため、前回のファジネスのうち末尾以外を固定する
+			int controlPointsNum = spline.controlPoints().length;
+			int fixedNum = Math.max( Math.min( controlPointsNum - PROVISIONAL_FREE_CONTROL_POINTS,
+				m_provisionalFuzziness.length ), 0 );
+			SplineCurve fsc = FuzzySplineCurveCreater.create( spline, m_fscConvertVelocityCoeff,
+				m_fscConvertAccelerationCoeff, spline.range(), Arrays.copyOf( m_provisionalFuzziness, fixedNum ) );
+			Point[] cp = fsc.controlPoints();
+			m_provisionalFuzziness = new double[ cp.length ];
+			for ( int i = 0; i < cp.length; ++i ) {
+				m_provisionalFuzziness[i] = cp[i].fuzziness();
+			}
+			// 外挿した部分を存在範囲から外す
+			return fsc.part( Range.create( m_first.time(), m_last.time() ) );
+		}
+
+		/**
+		 * 入力を終了し、終点側の外挿を行ったファジィスプライン曲線を生成します。
+		 * <p>
+		 * 終了後に入力点を追加することはできません。二度目以降は同じ曲線を返します。
+		 * </p>
+		 * @return ファジィスプライン曲線。生成できない場合はnull
+		 */
+		public SplineCurve finish() {
+			if ( m_finished ) {
+				return m_fsc;
+			}
+			m_finished = true;
+			if ( m_first == null ) {
+				return null;
+			}
+			if ( m_interpolator == null ) {
+				m_interpolator = startInterpolation( m_head );
+				m_head = null;
+			}
+			// 外挿
+			Point[] tail = m_tail.toArray( new Point[ m_tail.size() ] );
+			Point[] extrapolated = PointExtrapolator2th.extrapolate( tail, m_pointExtrapolateLength, m_pointExtrapolateSpan );
+			for ( int i = extrapolated.length - extrapolateNum(); i < extrapolated.length; ++i ) {
+				m_interpolator.add( extrapolated[i] );
+			}
+			m_fsc = toFSC( m_interpolator.curve() );
+			return m_fsc;
+		}
+
+		/**
+		 * 入力を終了しているかを返します。
+		 * @return 終了している場合true
+		 */
+		public boolean isFinished() {
+			return m_finished;
+		}
+
+		/**
+		 * スプライン曲線からファジィスプライン曲線を生成し、入力点の時刻の範囲に制限します。
+		 * @param _spline スプライン曲線
+		 * @return ファジィスプライン曲線。スプライン曲線がnullの場合はnull
+		 */
+		private SplineCurve toFSC( SplineCurve _spline ) {
+			if ( _spline == null ) {
+				return null;
+			}
+			// ファジネスを付加してFSC化
+			SplineCurve fsc = FuzzySplineCurveCreater.create( _spline, m_fscConvertVelocityCoeff,
+				m_fscConvertAccelerationCoeff, _spline.range() );
+			// 外挿した部分を存在範囲から外す
+			return fsc.part( Range.create( m_first.time(), m_last.time() ) );
+		}
+
+		private Stroke() {
+			m_head = new ArrayList<Point>();
+			m_tail = new ArrayDeque<Point>();
+			m_provisionalFuzziness = new double[ 0 ];
+		}
+
+		/** 始点側の外挿区間が閉じるまでの入力点列 */
+		private List<Point> m_head;
+		/** 終点側の外挿に用いる入力点列 */
+		private final Deque<Point> m_tail;
+		/** 内挿と補間を行う補間器 */
+		private Interpolator m_interpolator;
+		/** 最初の入力点 */
+		private Point m_first;
+		/** 最後の入力点 */
+		private Point m_last;
+		/** 入力を終了しているか */
+		private boolean m_finished;
+		/** 最終的なファジィスプライン曲線 */
+		private SplineCurve m_fsc;
+		/** 直前に求めた暫定の制御点のファジネス */
+		private double[] m_provisionalFuzziness;
+	}
+
+	/**
+	 * 点列内挿を行いながらスプライン曲線補間を行う補間器です。
+	 * <p>
+	 * {@link jp.sagalab.jftk.curve.interporation.PointInterpolator0th} と同様に、
+	 * 許容する時間的隙間を上回っている箇所には一つ前の点と同じ位置の点を追加します。
+	 * </p>
+	 */
+	private static final class Interpolator {
+
+		Interpolator( int _degree, double _knotInterval, double _maxSpan ) {
+			m_interpolator = IncrementalSplineCurveInterpolator.create( _degree, _knotInterval );
+			m_maxSpan = _maxSpan;
+		}
+
+		/**
+		 * 点を追加します。
+		 * @param _point 点
+		 */
+		void add( Point _point ) {
+			if ( m_pre != null ) {
+				double span = _point.time() - m_pre.time();
+				while ( span >= m_maxSpan ) {
+					m_pre = Point.createXYZT( m_pre.x(), m_pre.y(), m_pre.z(), m_pre.time() + m_maxSpan );
+					m_interpolator.add( m_pre );
+					span -= m_maxSpan;
+				}
+			}
+			m_pre = _point;
+			m_interpolator.add( _point );
+		}
+
+		/**
+		 * スプライン曲線を返します。
+		 * @return スプライン曲線
+		 */
+		SplineCurve curve() {
+			return m_interpolator.curve();
+		}
+
+		/** スプライン曲線補間器 */
+		private final IncrementalSplineCurveInterpolator m_interpolator;
+		/** 許容する時間的隙間 */
+		private final double m_maxSpan;
+		/** 直前に追加した点 */
+		private Point m_pre;
+	}
+
+	/**
+	 * 始点側の外挿を行い、外挿点列と指定された入力点列を入力した補間器を生成します。
+	 * @param _head 始点側の入力点列
+	 * @return 補間器
+	 */
+	private Interpolator startInterpolation( List<Point> _head ) {
+		Interpolator interpolator = new Interpolator( DEGREE, m_splineInterpolateKnotSpan, m_pointInterpolateSpan );
+		Point[] head = _head.toArray( new Point[ _head.size() ] );
+		Point[] extrapolated = PointExtrapolator2th.extrapolate( head, m_pointExtrapolateLength, m_pointExtrapolateSpan );
+		for ( int i = 0; i < extrapolateNum(); ++i ) {
+			interpolator.add( extrapolated[i] );
+		}
+		for ( Point p : head ) {
+			interpolator.add( p );
+		}
+		return interpolator;
+	}
+
+	/**
+	 * 片側の外挿点数を返します。
+	 * @return 外挿点数
+	 */
+	private int extrapolateNum() {
+		return (int) Math.ceil( m_pointExtrapolateLength / m_pointExtrapolateSpan );
+	}
+
+	private StreamingFSCCreater( double _pointExtrapolateLength, double _pointExtrapolateSpan,
+		double _pointInterpolateSpan, double _splineInterpolateKnotSpan,
+		double _fscConvertVelocityCoeff, double _fscConvertAccelerationCoeff ) {
+		m_pointExtrapolateLength = _pointExtrapolateLength;
+		m_pointExtrapolateSpan = _pointExtrapolateSpan;
+		m_pointInterpolateSpan = _pointInterpolateSpan;
+		m_splineInterpolateKnotSpan = _splineInterpolateKnotSpan;
+		m_fscConvertVelocityCoeff = _fscConvertVelocityCoeff;
+		m_fscConvertAccelerationCoeff = _fscConvertAccelerationCoeff;
+	}
+
+	/** スプライン曲線の次数 */
+	private static final int DEGREE = 3;
+	/** 外挿の基とする端点からの時間長(PointExtrapolator2th と同じ) */
+	private static final double EXTRAPOLATION_WINDOW = 0.1;
+	/** 暫定のファジネスを求め直す末尾の制御点数 */
+	private static final int PROVISIONAL_FREE_CONTROL_POINTS = 16;
+	/** 点列外挿の外挿時間長 */
+	private final double m_pointExtrapolateLength;
+	/** 点列外挿の外挿時間間隔 */
+	private final double m_pointExtrapolateSpan;
+	/** 点列内挿の内挿時間間隔 */
+	private final double m_pointInterpolateSpan;
+	/** スプライン曲線補間の節点間隔 */
+	private final double m_splineInterpolateKnotSpan;
+	/** FSC変換の速度係数 */
+	private final double m_fscConvertVelocityCoeff;
+	/** FSC変換の加速度係数 */
+	private final double m_fscConvertAccelerationCoeff;
+}
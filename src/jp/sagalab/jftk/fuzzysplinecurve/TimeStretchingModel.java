@@ -7,6 +7,7 @@ import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.curve.interporation.PointExtrapolator2th;
 import jp.sagalab.jftk.curve.interporation.PointInterpolator0th;
 import jp.sagalab.jftk.curve.interporation.SplineCurveInterpolator;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 時間伸縮を行うためのクラスです。
@@ -89,6 +90,7 @@ public final class TimeStretchingModel {
 	 * @return 時間伸縮されたファジィスプライン曲線
 	 */
 	public SplineCurve stretch( SplineCurve _fsc ) {
+		Metrics.Sample sample = Metrics.start( Metrics.TIME_STRETCHING );
 		// 評価点数　評価点間の時間が最低時間解像度より小さくなるように求める　区間数+1
 		int num = (int) Math.ceil( _fsc.range().length() / ( m_resolution ) ) + 1;
 		Point[] points = _fsc.evaluateAll( num, ParametricEvaluable.EvaluationType.TIME );
@@ -112,6 +114,13 @@ public final class TimeStretchingModel {
 		for ( int i = 0; i < samples.length; ++i ) {
 			times[i] = samples[i].time();
 		}
+		// 積分曲線のファジネスを評価時刻列で一括評価する
+		double[] iFuz = new double[ times.length ];
+		double[] iVel = new double[ times.length ];
+		double[] iAcc = new double[ times.length ];
+		iFuzSpline.evaluateInto( times, null, null, null, iFuz );
+		iVelSpline.evaluateInto( times, null, null, null, iVel );
+		iAccSpline.evaluateInto( times, null, null, null, iAcc );
 		double delta = 0;
 		double start = 0;
 		double end = 0;
@@ -119,19 +128,13 @@ public final class TimeStretchingModel {
 			int pre = i - 1;
 			int post = i;
 			// 点列間の平均ファジネスを求める
-			double f0 = iFuzSpline.evaluate( times[pre] ).fuzziness();
-			double f1 = iFuzSpline.evaluate( times[post] ).fuzziness();
-			double fuz = ( f1 - f0 ) / ( times[post] - times[pre] );
+			double fuz = ( iFuz[post] - iFuz[pre] ) / ( times[post] - times[pre] );
 
 			// 点列間の平均速度を求める
-			f0 = iVelSpline.evaluate( times[pre] ).fuzziness();
-			f1 = iVelSpline.evaluate( times[post] ).fuzziness();
-			double vel = ( f1 - f0 ) / ( times[post] - times[pre] );
+			double vel = ( iVel[post] - iVel[pre] ) / ( times[post] - times[pre] );
 
 			// 点列間の平均加速度を求める
-			f0 = iAccSpline.evaluate( times[pre] ).fuzziness();
-			f1 = iAccSpline.evaluate( times[post] ).fuzziness();
-			double acc = ( f1 - f0 ) / ( times[post] - times[pre] );
+			double acc = ( iAcc[post] - iAcc[pre] ) / ( times[post] - times[pre] );
 
 
 			// 二次方程式 a*ratio^2 + b*ratio = c を解く
@@ -158,7 +161,9 @@ public final class TimeStretchingModel {
 			delta += dt;
 			samples[i] = Point.createXYZT( samples[i].x(), samples[i].y(), samples[i].z(), samples[0].time() + delta );
 		}
-		return pointsToSpline( samples, m_fscConvertVelocityCoeff, m_fscConvertAccelerationCoeff ).part( Range.create( start, end ) );
+		SplineCurve stretched = pointsToSpline( samples, m_fscConvertVelocityCoeff, m_fscConvertAccelerationCoeff ).part( Range.create( start, end ) );
+		Metrics.stop( sample );
+		return stretched;
 	}
 
 	private SplineCurve pointsToSpline( final Point[] _points, double _fscConvertVelocityCoeff, double _fscConvertAccelerationCoeff ) {
@@ -0,0 +1,51 @@
+package jp.sagalab.jftk.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事象の発生回数を数えるカウンタです。
+ * <p>
+ * 複数のスレッドから同時に利用することができます。
+ * </p>
+ * @author agent
+ */
+public final class Counter {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @return インスタンス
+	 */
+	public static Counter create() {
+		return new Counter();
+	}
+
+	/**
+	 * 回数を1増やします。
+	 */
+	public void increment() {
+		m_count.incrementAndGet();
+	}
+
+	/**
+	 * 回数を指定された値だけ増やします。
+	 * @param _delta 増分
+	 */
+	public void add( long _delta ) {
+		m_count.addAndGet( _delta );
+	}
+
+	/**
+	 * 回数を返します。
+	 * @return 回数
+	 */
+	public long count() {
+		return m_count.get();
+	}
+
+	private Counter() {
+		m_count = new AtomicLong();
+	}
+
+	/** 回数 */
+	private final AtomicLong m_count;
+}
@@ -0,0 +1,114 @@
+package jp.sagalab.jftk.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 非負の整数値の分布を記録するヒストグラムです。
+ * <p>
+ * 値は2のべき乗毎の区間をさらに4等分した対数区間に振り分けて数えます。
+ * そのため分位点は相対誤差25%以内の近似値となりますが、記録は値の大きさによらず一定時間で行えます。
+ * 件数、合計、最小値、最大値は正確に保持します。
+ * 負の値は0として記録します。
+ * </p>
+ * <p>
+ * 複数のスレッドから同時に利用することができます。
+ * </p>
+ * @author agent
+ */
+public final class Histogram {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @return インスタンス
+	 */
+	public static Histogram create() {
+		return new Histogram();
+	}
+
+	/**
+	 * 値を記録します。
+	 * @param _value 値
+	 */
+	public void record( long _value ) {
+		long value = Math.max( _value, 0L );
+		m_buckets.incrementAndGet( bucket( value ) );
+		m_count.incrementAndGet();
+		m_sum.addAndGet( value );
+		long min;
+		while ( value < ( min = m_min.get() ) && !m_min.compareAndSet( min, value ) ) {
+		}
+		long max;
+		while ( value > ( max = m_max.get() ) && !m_max.compareAndSet( max, value ) ) {
+		}
+	}
+
+	/**
+	 * 現時点の分布を返します。
+	 * <p>
+	 * 記録と同時に呼び出した場合、各統計量はわずかに異なる時点の値となることがあります。
+	 * </p>
+	 * @return 分布
+	 */
+	public MetricsSnapshot.Distribution snapshot() {
+		long[] buckets = new long[ BUCKET_NUM ];
+		for ( int i = 0; i < BUCKET_NUM; ++i ) {
+			buckets[i] = m_buckets.get( i );
+		}
+		long count = m_count.get();
+		return MetricsSnapshot.Distribution.create( count, m_sum.get(),
+			count > 0 ? m_min.get() : 0L, count > 0 ? m_max.get() : 0L, buckets );
+	}
+
+	/**
+	 * 値を振り分ける区間の番号を返します。
+	 * @param _value 非負の値
+	 * @return 区間の番号
+	 */
+	static int bucket( long _value ) {
+		if ( _value < SUB_BUCKET_NUM ) {
+			return (int) _value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros( _value );
+		int sub = (int) ( _value >>> ( exponent - 2 ) ) & ( SUB_BUCKET_NUM - 1 );
+		return ( exponent - 1 ) * SUB_BUCKET_NUM + sub;
+	}
+
+	/**
+	 * 区間に含まれる値の上限を返します。
+	 * @param _bucket 区間の番号
+	 * @return 上限
+	 */
+	static long upperBound( int _bucket ) {
+		if ( _bucket < SUB_BUCKET_NUM ) {
+			return _bucket;
+		}
+		int exponent = _bucket / SUB_BUCKET_NUM + 1;
+		int sub = _bucket % SUB_BUCKET_NUM;
+		long lower = (long) ( SUB_BUCKET_NUM + sub ) << ( exponent - 2 );
+		return lower + ( 1L << ( exponent - 2 ) ) - 1;
+	}
+
+	private Histogram() {
+		m_buckets = new AtomicLongArray( BUCKET_NUM );
+		m_count = new AtomicLong();
+		m_sum = new AtomicLong();
+		m_min = new AtomicLong( Long.MAX_VALUE );
+		m_max = new AtomicLong( Long.MIN_VALUE );
+	}
+
+	/** 2のべき乗毎の区間の分割数 */
+	private static final int SUB_BUCKET_NUM = 4;
+	/** 区間の数 */
+	static final int BUCKET_NUM = bucket( Long.MAX_VALUE ) + 1;
+	/** 区間毎の件数 */
+	private final AtomicLongArray m_buckets;
+	/** 件数 */
+	private final AtomicLong m_count;
+	/** 合計 */
+	private final AtomicLong m_sum;
+	/** 最小値 */
+	private final AtomicLong m_min;
+	/** 最大値 */
+	private final AtomicLong m_max;
+}
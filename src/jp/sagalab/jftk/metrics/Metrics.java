@@ -0,0 +1,159 @@
+package jp.sagalab.jftk.metrics;
+
+/**
+ * ライブラリの処理段階が計測値を記録するレジストリを保持するクラスです。
+ * <p>
+ * 既定ではレジストリは登録されておらず、計測は行われません。
+ * その間、各処理段階の計測に要する費用はレジストリの参照1回のみです。
+ * 処理段階は次のように計測します。
+ * </p>
+ * <pre>
+ * Metrics.Sample sample = Metrics.start( Metrics.FSC_CREATION );
+ * ...
+ * Metrics.stop( sample );
+ * </pre>
+ * <p>
+ * 例外によって中断された処理は記録されません。
+ * 入れ子になった処理段階はそれぞれ内側の処理段階の時間を含めて記録されます。
+ * </p>
+ * @author agent
+ */
+public final class Metrics {
+
+	/** 計測中の処理段階を表すクラスです。 */
+	public static final class Sample {
+
+		private Sample( MetricsRegistry _registry, String _name ) {
+			m_registry = _registry;
+			m_name = _name;
+			m_allocatedBytes = _registry.currentThreadAllocatedBytes();
+			m_start = System.nanoTime();
+		}
+
+		/** 記録先のレジストリ */
+		private final MetricsRegistry m_registry;
+		/** タイマーの名前 */
+		private final String m_name;
+		/** 開始時にスレッドが確保していたメモリ量 */
+		private final long m_allocatedBytes;
+		/** 開始時刻(ナノ秒) */
+		private final long m_start;
+	}
+
+	/**
+	 * 記録先のレジストリを返します。
+	 * @return レジストリ。登録されていない場合はnull
+	 */
+	public static MetricsRegistry registry() {
+		return c_registry;
+	}
+
+	/**
+	 * 記録先のレジストリを登録します。
+	 * @param _registry レジストリ(nullの場合は計測を止めます)
+	 */
+	public static void setRegistry( MetricsRegistry _registry ) {
+		c_registry = _registry;
+	}
+
+	/**
+	 * 計測が有効かを返します。
+	 * @return レジストリが登録されている場合true
+	 */
+	public static boolean isEnabled() {
+		return c_registry != null;
+	}
+
+	/**
+	 * 処理段階の計測を開始します。
+	 * @param _name タイマーの名前
+	 * @return 計測中の処理段階。計測が無効な場合はnull
+	 */
+	public static Sample start( String _name ) {
+		MetricsRegistry registry = c_registry;
+		return registry != null ? new Sample( registry, _name ) : null;
+	}
+
+	/**
+	 * 処理段階の計測を終了し、所要時間をタイマーに記録します。
+	 * @param _sample 計測中の処理段階(nullの場合は何もしません)
+	 */
+	public static void stop( Sample _sample ) {
+		if ( _sample == null ) {
+			return;
+		}
+		long nanos = System.nanoTime() - _sample.m_start;
+		long allocatedBytes = _sample.m_registry.currentThreadAllocatedBytes() - _sample.m_allocatedBytes;
+		_sample.m_registry.timer( _sample.m_name ).record( nanos, allocatedBytes );
+	}
+
+	/**
+	 * カウンタの回数を1増やします。
+	 * @param _name カウンタの名前
+	 */
+	public static void increment( String _name ) {
+		MetricsRegistry registry = c_registry;
+		if ( registry != null ) {
+			registry.counter( _name ).increment();
+		}
+	}
+
+	/**
+	 * ヒストグラムに値を記録します。
+	 * @param _name ヒストグラムの名前
+	 * @param _value 値
+	 */
+	public static void record( String _name, long _value ) {
+		MetricsRegistry registry = c_registry;
+		if ( registry != null ) {
+			registry.histogram( _name ).record( _value );
+		}
+	}
+
+	private Metrics() {
+		throw new UnsupportedOperationException( "can not create instance." );
+	}
+
+	/** スプライン曲線補間 */
+	public static final String SPLINE_INTERPOLATION = "interpolation.spline";
+	/** FSC生成 */
+	public static final String FSC_CREATION = "fsc.creation";
+	/** 時間伸縮 */
+	public static final String TIME_STRETCHING = "fsc.timeStretching";
+	/** ファジネスの非負最小自乗法 */
+	public static final String NNLS = "fsc.nnls";
+	/** 非負最小自乗法の反復回数 */
+	public static final String NNLS_ITERATIONS = "fsc.nnls.iterations";
+	/** 反復回数の上限に達した非負最小自乗法 */
+	public static final String NNLS_UNCONVERGED = "fsc.nnls.unconverged";
+	/** 評価点列を用いるファジィフラグメンテーション */
+	public static final String EVALUATION_POINT_FRAGMENTATION = "fragmentation.evaluationPoint";
+	/** 制御点列を用いるファジィフラグメンテーション */
+	public static final String CONTROL_POINT_FRAGMENTATION = "fragmentation.controlPoint";
+	/** 角点を用いるファジィフラグメンテーション */
+	public static final String CONNER_POINT_FRAGMENTATION = "fragmentation.connerPoint";
+	/** 最良分割点を用いるファジィフラグメンテーション */
+	public static final String NON_PARTITION_FRAGMENTATION = "fragmentation.nonPartition";
+	/** 線形のレファレンスモデル生成 */
+	public static final String LINEAR_REFERENCE_MODEL = "reference.linear";
+	/** 円形のレファレンスモデル生成 */
+	public static final String CIRCULAR_REFERENCE_MODEL = "reference.circular";
+	/** 楕円形のレファレンスモデル生成 */
+	public static final String ELLIPTIC_REFERENCE_MODEL = "reference.elliptic";
+	/** 楕円形リファレンスモデルの重みの探索における評価関数の評価回数 */
+	public static final String ELLIPTIC_WEIGHT_EVALUATIONS = "reference.elliptic.weightEvaluations";
+	/** FMPSによる区間真理値の導出 */
+	public static final String FMPS = "recognition.fmps";
+	/** 重複範囲の探索 */
+	public static final String OVERLAPPING_RANGE = "blend.overlappingRange";
+	/** 重複経路の探索 */
+	public static final String OVERLAPPING_PATH = "blend.overlappingPath";
+	/** 端点スナッピング */
+	public static final String END_POINTS_SNAPPING = "snapping.endPoints";
+	/** 同軸性スナッピング */
+	public static final String COAXIALITY_SNAPPING = "snapping.coaxiality";
+	/** 接続スナッピング */
+	public static final String CONNECTION_SNAPPING = "snapping.connection";
+	/** 記録先のレジストリ(計測が無効な場合はnull) */
+	private static volatile MetricsRegistry c_registry = null;
+}
@@ -0,0 +1,183 @@
+package jp.sagalab.jftk.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 名前付きのカウンタ、ヒストグラム、タイマーを保持するレジストリです。
+ * <p>
+ * 計測値は名前を指定して初めて参照した時に生成され、以後は同じものが返されます。
+ * メモリ量の記録を有効にした場合、{@link Metrics} による計測では
+ * 処理を行ったスレッドが確保したメモリ量もタイマーに記録します。
+ * メモリ量はJVMがスレッド毎の確保量の取得に対応している場合のみ記録されます。
+ * </p>
+ * <p>
+ * 複数のスレッドから同時に利用することができます。
+ * </p>
+ * @author agent
+ * @see Metrics
+ */
+public final class MetricsRegistry {
+
+	/**
+	 * メモリ量を記録しないレジストリを生成します。
+	 * @return インスタンス
+	 */
+	public static MetricsRegistry create() {
+		return new MetricsRegistry( null );
+	}
+
+	/**
+	 * レジストリを生成します。
+	 * @param _trackAllocation 処理中に確保されたメモリ量を記録する場合true
+	 * @return インスタンス
+	 */
+	public static MetricsRegistry create( boolean _trackAllocation ) {
+		return new MetricsRegistry( _trackAllocation ? allocationBean() : null );
+	}
+
+	/**
+	 * 指定された名前のカウンタを返します。
+	 * @param _name 名前
+	 * @return カウンタ
+	 * @throws IllegalArgumentException 名前がnullの場合
+	 */
+	public Counter counter( String _name ) {
+		if ( _name == null ) {
+			throw new IllegalArgumentException( "_name is null." );
+		}
+		Counter counter = m_counters.get( _name );
+		if ( counter == null ) {
+			Counter created = Counter.create();
+			counter = m_counters.putIfAbsent( _name, created );
+			if ( counter == null ) {
+				counter = created;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * 指定された名前のヒストグラムを返します。
+	 * @param _name 名前
+	 * @return ヒストグラム
+	 * @throws IllegalArgumentException 名前がnullの場合
+	 */
+	public Histogram histogram( String _name ) {
+		if ( _name == null ) {
+			throw new IllegalArgumentException( "_name is null." );
+		}
+		Histogram histogram = m_histograms.get( _name );
+		if ( histogram == null ) {
+			Histogram created = Histogram.create();
+			histogram = m_histograms.putIfAbsent( _name, created );
+			if ( histogram == null ) {
+				histogram = created;
+			}
+		}
+		return histogram;
+	}
+
+	/**
+	 * 指定された名前のタイマーを返します。
+	 * @param _name 名前
+	 * @return タイマー
+	 * @throws IllegalArgumentException 名前がnullの場合
+	 */
+	public Timer timer( String _name ) {
+		if ( _name == null ) {
+			throw new IllegalArgumentException( "_name is null." );
+		}
+		Timer timer = m_timers.get( _name );
+		if ( timer == null ) {
+			Timer created = Timer.create( isTrackingAllocation() );
+			timer = m_timers.putIfAbsent( _name, created );
+			if ( timer == null ) {
+				timer = created;
+			}
+		}
+		return timer;
+	}
+
+	/**
+	 * 処理中に確保されたメモリ量を記録するかを返します。
+	 * @return 記録する場合true
+	 */
+	public boolean isTrackingAllocation() {
+		return m_allocationBean != null;
+	}
+
+	/**
+	 * 現在のスレッドがこれまでに確保したメモリ量を返します。
+	 * @return メモリ量(バイト)。記録しない場合は0
+	 */
+	long currentThreadAllocatedBytes() {
+		if ( m_allocationBean == null ) {
+			return 0L;
+		}
+		return m_allocationBean.getThreadAllocatedBytes( Thread.currentThread().getId() );
+	}
+
+	/**
+	 * 全ての計測値の現時点の値を返します。
+	 * @return 計測値
+	 */
+	public MetricsSnapshot snapshot() {
+		Map<String, Long> counters = new TreeMap<String, Long>();
+		for ( Map.Entry<String, Counter> entry : m_counters.entrySet() ) {
+			counters.put( entry.getKey(), entry.getValue().count() );
+		}
+		Map<String, MetricsSnapshot.Distribution> histograms = new TreeMap<String, MetricsSnapshot.Distribution>();
+		for ( Map.Entry<String, Histogram> entry : m_histograms.entrySet() ) {
+			histograms.put( entry.getKey(), entry.getValue().snapshot() );
+		}
+		Map<String, MetricsSnapshot.Distribution> durations = new TreeMap<String, MetricsSnapshot.Distribution>();
+		Map<String, MetricsSnapshot.Distribution> allocations = new TreeMap<String, MetricsSnapshot.Distribution>();
+		for ( Map.Entry<String, Timer> entry : m_timers.entrySet() ) {
+			durations.put( entry.getKey(), entry.getValue().durations() );
+			if ( entry.getValue().isTrackingAllocation() ) {
+				allocations.put( entry.getKey(), entry.getValue().allocations() );
+			}
+		}
+		return MetricsSnapshot.create( counters, histograms, durations, allocations );
+	}
+
+	/**
+	 * スレッド毎のメモリ確保量を取得できるMXBeanを返します。
+	 * @return MXBean。実行環境が対応していない場合はnull
+	 */
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( !( bean instanceof com.sun.management.ThreadMXBean ) ) {
+			return null;
+		}
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+		if ( !allocationBean.isThreadAllocatedMemorySupported() ) {
+			return null;
+		}
+		if ( !allocationBean.isThreadAllocatedMemoryEnabled() ) {
+			allocationBean.setThreadAllocatedMemoryEnabled( true );
+		}
+		return allocationBean;
+	}
+
+	private MetricsRegistry( com.sun.management.ThreadMXBean _allocationBean ) {
+		m_allocationBean = _allocationBean;
+		m_counters = new ConcurrentHashMap<String, Counter>();
+		m_histograms = new ConcurrentHashMap<String, Histogram>();
+		m_timers = new ConcurrentHashMap<String, Timer>();
+	}
+
+	/** スレッド毎のメモリ確保量を取得するMXBean(記録しない場合はnull) */
+	private final com.sun.management.ThreadMXBean m_allocationBean;
+	/** カウンタ */
+	private final ConcurrentMap<String, Counter> m_counters;
+	/** ヒストグラム */
+	private final ConcurrentMap<String, Histogram> m_histograms;
+	/** タイマー */
+	private final ConcurrentMap<String, Timer> m_timers;
+}
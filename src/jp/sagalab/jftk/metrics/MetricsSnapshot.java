@@ -0,0 +1,303 @@
+package jp.sagalab.jftk.metrics;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ある時点の計測値を表すクラスです。
+ * <p>
+ * カウンタの回数、ヒストグラムの分布、タイマーの所要時間とメモリ量の分布を名前順に保持し、
+ * テキストもしくはJSONとして出力できます。
+ * </p>
+ * @author agent
+ */
+public final class MetricsSnapshot {
+
+	/** 値の分布を表すクラスです。 */
+	public static final class Distribution {
+
+		/**
+		 * このクラスのインスタンスを生成します。
+		 * @param _count 件数
+		 * @param _sum 合計
+		 * @param _min 最小値
+		 * @param _max 最大値
+		 * @param _buckets 区間毎の件数
+		 * @return インスタンス
+		 */
+		static Distribution create( long _count, long _sum, long _min, long _max, long[] _buckets ) {
+			return new Distribution( _count, _sum, _min, _max, _buckets );
+		}
+
+		/**
+		 * 件数を返します。
+		 * @return 件数
+		 */
+		public long count() {
+			return m_count;
+		}
+
+		/**
+		 * 合計を返します。
+		 * @return 合計
+		 */
+		public long sum() {
+			return m_sum;
+		}
+
+		/**
+		 * 最小値を返します。
+		 * @return 最小値。件数が0の場合は0
+		 */
+		public long min() {
+			return m_min;
+		}
+
+		/**
+		 * 最大値を返します。
+		 * @return 最大値。件数が0の場合は0
+		 */
+		public long max() {
+			return m_max;
+		}
+
+		/**
+		 * 平均値を返します。
+		 * @return 平均値。件数が0の場合は0
+		 */
+		public double mean() {
+			return m_count > 0 ? m_sum / (double) m_count : 0.0;
+		}
+
+		/**
+		 * 指定された分位点の近似値を返します。
+		 * <p>
+		 * 分位点を含む区間の上限を最小値と最大値の範囲に収めた値を返します。
+		 * </p>
+		 * @param _quantile 分位(0以上1以下)
+		 * @return 分位点。件数が0の場合は0
+		 * @throws IllegalArgumentException 分位が0以上1以下でない場合
+		 */
+		public long quantile( double _quantile ) {
+			if ( !( 0.0 <= _quantile && _quantile <= 1.0 ) ) {
+				throw new IllegalArgumentException( "_quantile must be in [0, 1]." );
+			}
+			long total = 0;
+			for ( long count : m_buckets ) {
+				total += count;
+			}
+			if ( total == 0 ) {
+				return 0L;
+			}
+			long rank = Math.max( 1L, (long) Math.ceil( _quantile * total ) );
+			long accumulated = 0;
+			for ( int i = 0; i < m_buckets.length; ++i ) {
+				accumulated += m_buckets[i];
+				if ( accumulated >= rank ) {
+					return Math.max( m_min, Math.min( m_max, Histogram.upperBound( i ) ) );
+				}
+			}
+			return m_max;
+		}
+
+		private Distribution( long _count, long _sum, long _min, long _max, long[] _buckets ) {
+			m_count = _count;
+			m_sum = _sum;
+			m_min = _min;
+			m_max = _max;
+			m_buckets = _buckets;
+		}
+
+		/** 件数 */
+		private final long m_count;
+		/** 合計 */
+		private final long m_sum;
+		/** 最小値 */
+		private final long m_min;
+		/** 最大値 */
+		private final long m_max;
+		/** 区間毎の件数 */
+		private final long[] m_buckets;
+	}
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _counters カウンタの回数
+	 * @param _histograms ヒストグラムの分布
+	 * @param _durations タイマーの所要時間(ナノ秒)の分布
+	 * @param _allocations タイマーのメモリ量(バイト)の分布
+	 * @return インスタンス
+	 */
+	static MetricsSnapshot create( Map<String, Long> _counters, Map<String, Distribution> _histograms,
+		Map<String, Distribution> _durations, Map<String, Distribution> _allocations ) {
+		return new MetricsSnapshot( _counters, _histograms, _durations, _allocations );
+	}
+
+	/**
+	 * カウンタの回数を返します。
+	 * @return 名前をキーとする回数
+	 */
+	public Map<String, Long> counters() {
+		return m_counters;
+	}
+
+	/**
+	 * ヒストグラムの分布を返します。
+	 * @return 名前をキーとする分布
+	 */
+	public Map<String, Distribution> histograms() {
+		return m_histograms;
+	}
+
+	/**
+	 * タイマーの所要時間の分布を返します。
+	 * @return 名前をキーとする所要時間(ナノ秒)の分布
+	 */
+	public Map<String, Distribution> durations() {
+		return m_durations;
+	}
+
+	/**
+	 * タイマーのメモリ量の分布を返します。
+	 * @return 名前をキーとするメモリ量(バイト)の分布。メモリ量を記録していない場合は空
+	 */
+	public Map<String, Distribution> allocations() {
+		return m_allocations;
+	}
+
+	/**
+	 * 計測値を1行に1項目のテキストとして返します。
+	 * <p>
+	 * 所要時間はミリ秒で出力します。
+	 * </p>
+	 * @return テキスト
+	 */
+	public String toText() {
+		StringBuilder builder = new StringBuilder();
+		for ( Map.Entry<String, Long> entry : m_counters.entrySet() ) {
+			builder.append( String.format( Locale.ROOT, "counter %s count=%d%n", entry.getKey(), entry.getValue() ) );
+		}
+		for ( Map.Entry<String, Distribution> entry : m_histograms.entrySet() ) {
+			Distribution d = entry.getValue();
+			builder.append( String.format( Locale.ROOT,
+				"histogram %s count=%d mean=%.1f min=%d p50=%d p90=%d p99=%d max=%d%n",
+				entry.getKey(), d.count(), d.mean(), d.min(), d.quantile( 0.5 ), d.quantile( 0.9 ),
+				d.quantile( 0.99 ), d.max() ) );
+		}
+		for ( Map.Entry<String, Distribution> entry : m_durations.entrySet() ) {
+			Distribution d = entry.getValue();
+			builder.append( String.format( Locale.ROOT,
+				"timer %s count=%d total=%.3fms mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms",
+				entry.getKey(), d.count(), d.sum() / 1e6, d.mean() / 1e6, d.quantile( 0.5 ) / 1e6,
+				d.quantile( 0.9 ) / 1e6, d.quantile( 0.99 ) / 1e6, d.max() / 1e6 ) );
+			Distribution a = m_allocations.get( entry.getKey() );
+			if ( a != null ) {
+				builder.append( String.format( Locale.ROOT, " allocated mean=%.0fB p99=%dB max=%dB",
+					a.mean(), a.quantile( 0.99 ), a.max() ) );
+			}
+			builder.append( String.format( "%n" ) );
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 計測値をJSONとして返します。
+	 * <p>
+	 * 所要時間はナノ秒、メモリ量はバイトで出力します。
+	 * </p>
+	 * @return JSON
+	 */
+	public String toJson() {
+		StringBuilder builder = new StringBuilder();
+		builder.append( "{\"counters\":{" );
+		String separator = "";
+		for ( Map.Entry<String, Long> entry : m_counters.entrySet() ) {
+			builder.append( separator );
+			appendString( builder, entry.getKey() );
+			builder.append( ':' ).append( entry.getValue() );
+			separator = ",";
+		}
+		builder.append( "},\"histograms\":{" );
+		separator = "";
+		for ( Map.Entry<String, Distribution> entry : m_histograms.entrySet() ) {
+			builder.append( separator );
+			appendString( builder, entry.getKey() );
+			builder.append( ':' );
+			appendDistribution( builder, entry.getValue() );
+			separator = ",";
+		}
+		builder.append( "},\"timers\":{" );
+		separator = "";
+		for ( Map.Entry<String, Distribution> entry : m_durations.entrySet() ) {
+			builder.append( separator );
+			appendString( builder, entry.getKey() );
+			builder.append( ":{\"nanos\":" );
+			appendDistribution( builder, entry.getValue() );
+			Distribution allocation = m_allocations.get( entry.getKey() );
+			if ( allocation != null ) {
+				builder.append( ",\"allocatedBytes\":" );
+				appendDistribution( builder, allocation );
+			}
+			builder.append( '}' );
+			separator = ",";
+		}
+		builder.append( "}}" );
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return toText();
+	}
+
+	/**
+	 * 分布をJSONのオブジェクトとして追加します。
+	 * @param _builder 追加先
+	 * @param _distribution 分布
+	 */
+	private static void appendDistribution( StringBuilder _builder, Distribution _distribution ) {
+		_builder.append( String.format( Locale.ROOT,
+			"{\"count\":%d,\"sum\":%d,\"min\":%d,\"mean\":%.3f,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}",
+			_distribution.count(), _distribution.sum(), _distribution.min(), _distribution.mean(),
+			_distribution.quantile( 0.5 ), _distribution.quantile( 0.9 ), _distribution.quantile( 0.99 ),
+			_distribution.max() ) );
+	}
+
+	/**
+	 * 文字列をJSONの文字列として追加します。
+	 * @param _builder 追加先
+	 * @param _string 文字列
+	 */
+	private static void appendString( StringBuilder _builder, String _string ) {
+		_builder.append( '"' );
+		for ( int i = 0; i < _string.length(); ++i ) {
+			char c = _string.charAt( i );
+			if ( c == '"' || c == '\\' ) {
+				_builder.append( '\\' ).append( c );
+			} else if ( c < 0x20 ) {
+				_builder.append( String.format( "\\u%04x", (int) c ) );
+			} else {
+				_builder.append( c );
+			}
+		}
+		_builder.append( '"' );
+	}
+
+	private MetricsSnapshot( Map<String, Long> _counters, Map<String, Distribution> _histograms,
+		Map<String, Distribution> _durations, Map<String, Distribution> _allocations ) {
+		m_counters = Collections.unmodifiableMap( _counters );
+		m_histograms = Collections.unmodifiableMap( _histograms );
+		m_durations = Collections.unmodifiableMap( _durations );
+		m_allocations = Collections.unmodifiableMap( _allocations );
+	}
+
+	/** カウンタの回数 */
+	private final Map<String, Long> m_counters;
+	/** ヒストグラムの分布 */
+	private final Map<String, Distribution> m_histograms;
+	/** タイマーの所要時間の分布 */
+	private final Map<String, Distribution> m_durations;
+	/** タイマーのメモリ量の分布 */
+	private final Map<String, Distribution> m_allocations;
+}
@@ -0,0 +1,77 @@
+package jp.sagalab.jftk.metrics;
+
+/**
+ * 処理の所要時間と、必要に応じて処理中に確保されたメモリ量の分布を記録するタイマーです。
+ * <p>
+ * 複数のスレッドから同時に利用することができます。
+ * </p>
+ * @author agent
+ */
+public final class Timer {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _trackAllocation 確保されたメモリ量を記録する場合true
+	 * @return インスタンス
+	 */
+	public static Timer create( boolean _trackAllocation ) {
+		return new Timer( _trackAllocation );
+	}
+
+	/**
+	 * 所要時間を記録します。
+	 * @param _nanos 所要時間(ナノ秒)
+	 */
+	public void record( long _nanos ) {
+		m_durations.record( _nanos );
+	}
+
+	/**
+	 * 所要時間と確保されたメモリ量を記録します。
+	 * <p>
+	 * メモリ量を記録しないタイマーでは、メモリ量は無視します。
+	 * </p>
+	 * @param _nanos 所要時間(ナノ秒)
+	 * @param _allocatedBytes 確保されたメモリ量(バイト)
+	 */
+	public void record( long _nanos, long _allocatedBytes ) {
+		m_durations.record( _nanos );
+		if ( m_allocations != null ) {
+			m_allocations.record( _allocatedBytes );
+		}
+	}
+
+	/**
+	 * 確保されたメモリ量を記録するかを返します。
+	 * @return 記録する場合true
+	 */
+	public boolean isTrackingAllocation() {
+		return m_allocations != null;
+	}
+
+	/**
+	 * 所要時間の分布を返します。
+	 * @return 所要時間(ナノ秒)の分布
+	 */
+	public MetricsSnapshot.Distribution durations() {
+		return m_durations.snapshot();
+	}
+
+	/**
+	 * 確保されたメモリ量の分布を返します。
+	 * @return メモリ量(バイト)の分布。記録しない場合はnull
+	 */
+	public MetricsSnapshot.Distribution allocations() {
+		return m_allocations != null ? m_allocations.snapshot() : null;
+	}
+
+	private Timer( boolean _trackAllocation ) {
+		m_durations = Histogram.create();
+		m_allocations = _trackAllocation ? Histogram.create() : null;
+	}
+
+	/** 所要時間の分布 */
+	private final Histogram m_durations;
+	/** 確保されたメモリ量の分布(記録しない場合はnull) */
+	private final Histogram m_allocations;
+}
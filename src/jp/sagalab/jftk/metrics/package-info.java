@@ -0,0 +1,12 @@
+/**
+ * 処理段階毎の所要時間や回数を計測するためのクラスを提供します。
+ * <p>
+ * {@link jp.sagalab.jftk.metrics.MetricsRegistry MetricsRegistry}
+ * は名前付きのカウンタ、ヒストグラム、タイマーを保持します。
+ * ライブラリの主要な処理段階は {@link jp.sagalab.jftk.metrics.Metrics Metrics} に登録されたレジストリへ計測値を記録します。
+ * レジストリが登録されていない間は計測を行いません。
+ * 計測値は {@link jp.sagalab.jftk.metrics.MetricsSnapshot MetricsSnapshot} として取り出し、
+ * テキストもしくはJSONとして出力できます。
+ * </p>
+ */
+package jp.sagalab.jftk.metrics;
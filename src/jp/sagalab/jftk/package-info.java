@@ -8,6 +8,8 @@
  * </p>
  * <p>
  * このパッケージに含まれるクラスは全て不変クラスです。そのため全てのクラスがスレッドセーフです。
+ * ただし、{@link jp.sagalab.jftk.Instrumentation Instrumentation} はライブラリ内部の事象の通知先を保持し、
+ * 通知先の登録によって状態が変わります。
  * </p>
  * <p>
  * {@link jp.sagalab.jftk.Point Point} クラスは位置情報とその曖昧さ(ファジネス)を持つファジィ点を表していますが、
@@ -0,0 +1,193 @@
+package jp.sagalab.jftk.pca;
+
+import jp.sagalab.jftk.Matrix;
+import jp.sagalab.jftk.Point;
+
+/**
+ * 点列の平均座標と分散共分散行列を逐次的に求めるためのクラスです。
+ * <p>
+ * 点を1つずつ追加しながら平均座標と偏差積和を更新するため、点列を1回走査するだけで
+ * 分散共分散行列が求まります。
+ * 更新にはWelfordの方法を用いており、平均座標から離れた位置に点が分布していても
+ * 桁落ちが生じにくくなっています。
+ * </p>
+ * <p>
+ * 異なる点列から求めた累積結果は {@link #merge(CovarianceAccumulator)} で統合できます。
+ * 点列を分割して並列に累積し、最後に統合することもできます。
+ * このクラスのインスタンスはスレッドセーフではありません。
+ * </p>
+ * @author agent
+ */
+public final class CovarianceAccumulator {
+
+	/**
+	 * 点を含まない累積器を生成します。
+	 * @return 累積器
+	 */
+	public static CovarianceAccumulator create() {
+		return new CovarianceAccumulator();
+	}
+
+	/**
+	 * 点を追加します。
+	 * @param _point 点
+	 * @throws IllegalArgumentException 点がnullの場合
+	 */
+	public void add( Point _point ) {
+		if ( _point == null ) {
+			throw new IllegalArgumentException( "_point is null." );
+		}
+		++m_count;
+		double dx = _point.x() - m_meanX;
+		double dy = _point.y() - m_meanY;
+		double dz = _point.z() - m_meanZ;
+		m_meanX += dx / m_count;
+		m_meanY += dy / m_count;
+		m_meanZ += dz / m_count;
+		// 更新前の偏差と更新後の偏差の積を加える
+		double ex = _point.x() - m_meanX;
+		double ey = _point.y() - m_meanY;
+		double ez = _point.z() - m_meanZ;
+		m_sumXX += dx * ex;
+		m_sumYY += dy * ey;
+		m_sumZZ += dz * ez;
+		m_sumXY += dx * ey;
+		m_sumYZ += dy * ez;
+		m_sumZX += dz * ex;
+	}
+
+	/**
+	 * 点列を追加します。
+	 * @param _points 点列
+	 * @throws IllegalArgumentException 点列がnullの場合
+	 * @throws IllegalArgumentException 点列にnullが含まれる場合
+	 */
+	public void addAll( Point[] _points ) {
+		if ( _points == null ) {
+			throw new IllegalArgumentException( "_points is null." );
+		}
+		for ( Point p : _points ) {
+			add( p );
+		}
+	}
+
+	/**
+	 * 他の累積器の累積結果を統合します。
+	 * <p>
+	 * 統合後の累積結果は、両方の累積器に追加された点を全てこの累積器に追加した場合と
+	 * (丸め誤差を除いて)等しくなります。指定された累積器は変更されません。
+	 * </p>
+	 * @param _other 他の累積器
+	 * @throws IllegalArgumentException 累積器がnullの場合
+	 */
+	public void merge( CovarianceAccumulator _other ) {
+		if ( _other == null ) {
+			throw new IllegalArgumentException( "_other is null." );
+		}
+		if ( _other.m_count == 0 ) {
+			return;
+		}
+		if ( m_count == 0 ) {
+			m_count = _other.m_count;
+			m_meanX = _other.m_meanX;
+			m_meanY = _other.m_meanY;
+			m_meanZ = _other.m_meanZ;
+			m_sumXX = _other.m_sumXX;
+			m_sumYY = _other.m_sumYY;
+			m_sumZZ = _other.m_sumZZ;
+			m_sumXY = _other.m_sumXY;
+			m_sumYZ = _other.m_sumYZ;
+			m_sumZX = _other.m_sumZX;
+			return;
+		}
+		double count = (double) m_count + _other.m_count;
+		double dx = _other.m_meanX - m_meanX;
+		double dy = _other.m_meanY - m_meanY;
+		double dz = _other.m_meanZ - m_meanZ;
+		// 平均座標の差による偏差積和の補正の係数
+		double weight = (double) m_count * _other.m_count / count;
+		double ratio = _other.m_count / count;
+
+		m_sumXX += _other.m_sumXX + dx * dx * weight;
+		m_sumYY += _other.m_sumYY + dy * dy * weight;
+		m_sumZZ += _other.m_sumZZ + dz * dz * weight;
+		m_sumXY += _other.m_sumXY + dx * dy * weight;
+		m_sumYZ += _other.m_sumYZ + dy * dz * weight;
+		m_sumZX += _other.m_sumZX + dz * dx * weight;
+		m_meanX += dx * ratio;
+		m_meanY += dy * ratio;
+		m_meanZ += dz * ratio;
+		m_count += _other.m_count;
+	}
+
+	/**
+	 * 追加された点の数を返します。
+	 * @return 点の数
+	 */
+	public long count() {
+		return m_count;
+	}
+
+	/**
+	 * 追加された点の平均座標を返します。
+	 * @return 平均座標
+	 * @throws IllegalStateException 点が追加されていない場合
+	 */
+	public Point expectation() {
+		if ( m_count == 0 ) {
+			throw new IllegalStateException( "no point is accumulated." );
+		}
+		return Point.createXYZ( m_meanX, m_meanY, m_meanZ );
+	}
+
+	/**
+	 * 追加された点の分散共分散行列を返します。
+	 * <p>
+	 * 分散・共分散は偏差積和を点の数で割ったもの(標本分散)です。
+	 * </p>
+	 * @return 3×3の分散共分散行列
+	 * @throws IllegalStateException 点が追加されていない場合
+	 */
+	public Matrix varianceCovarianceMatrix() {
+		if ( m_count == 0 ) {
+			throw new IllegalStateException( "no point is accumulated." );
+		}
+		double xx = m_sumXX / m_count;
+		double yy = m_sumYY / m_count;
+		double zz = m_sumZZ / m_count;
+		double xy = m_sumXY / m_count;
+		double yz = m_sumYZ / m_count;
+		double zx = m_sumZX / m_count;
+
+		return Matrix.create( new double[][]{
+				{ xx, xy, zx },
+				{ xy, yy, yz },
+				{ zx, yz, zz }
+			} );
+	}
+
+	private CovarianceAccumulator() {
+		m_count = 0;
+	}
+
+	/** 点の数 */
+	private long m_count;
+	/** 平均座標のx成分 */
+	private double m_meanX;
+	/** 平均座標のy成分 */
+	private double m_meanY;
+	/** 平均座標のz成分 */
+	private double m_meanZ;
+	/** x成分の偏差の自乗和 */
+	private double m_sumXX;
+	/** y成分の偏差の自乗和 */
+	private double m_sumYY;
+	/** z成分の偏差の自乗和 */
+	private double m_sumZZ;
+	/** x成分とy成分の偏差積和 */
+	private double m_sumXY;
+	/** y成分とz成分の偏差積和 */
+	private double m_sumYZ;
+	/** z成分とx成分の偏差積和 */
+	private double m_sumZX;
+}
@@ -38,6 +38,7 @@ public final class PrincipalComponentAnalyst {
 	/**
 	 * 指定された対称行列の固有値・固有ベクトルを求めます。
 	 * 返り値のMatrix配列の一つ目の要素に固有値が格納され、二つ目の要素に固有ベクトルが格納されます。
+	 * 3x3行列の場合は解析的に求め、それ以外の場合はJacobi法で求めます。
 	 * @param _matrix 対称行列
 	 * @return 固有値・固有ベクトル
 	 * ただし，固有値は対角成分に格納されます。また，固有ベクトルは列ベクトルとして格納されます。
@@ -45,22 +46,16 @@ public final class PrincipalComponentAnalyst {
 	 * @throws IllegalArgumentException 指定した行列の要素が対称でない場合
 	 */
 	public static Matrix[] calcEigen( Matrix _matrix ) {
+		double[][] elements = _matrix.elements();
+		validateSymmetric( elements );
+		if ( elements.length == 3 ) {
+			// 3x3行列(点列の分散共分散行列など)は解析的に求める
+			return calcEigen3x3( elements );
+		}
+
 		// Jacobi法によって固有値・固有ベクトルを求める
-		
 		int rowSize = _matrix.rowSize();
 		int columnSize = _matrix.columnSize();
-		if ( rowSize != columnSize ) {
-			throw new IllegalArgumentException( "not square matrix." );
-		}
-		for ( int i = 0; i < rowSize; ++i ) {
-			for ( int j = 0; j < columnSize; ++j ) {
-				if ( _matrix.get( i, j ) != _matrix.get( j, i ) ) {
-					throw new IllegalArgumentException( "not real symmetric matrix." );
-				}
-			}
-		}
-
-		double[][] elements = _matrix.elements();
 		double[][] orthogonalElements = Matrix.identity( rowSize ).elements();
 		double maxElement;
 		do {
@@ -134,18 +129,8 @@ public final class PrincipalComponentAnalyst {
 	 */
 	public static Matrix calcEigenValues( Matrix _matrix ) {
 		// QR法によって固有値を求める
+		validateSymmetric( _matrix.elements() );
 		int rowSize = _matrix.rowSize();
-		int columnSize = _matrix.columnSize();
-		if ( rowSize != columnSize ) {
-			throw new IllegalArgumentException( "not square matrix." );
-		}
-		for ( int i = 0; i < rowSize; ++i ) {
-			for ( int j = 0; j < columnSize; ++j ) {
-				if ( _matrix.get( i, j ) != _matrix.get( j, i ) ) {
-					throw new IllegalArgumentException( "not real symmetric matrix." );
-				}
-			}
-		}
 
 		// 指定された対称行列を三重対角化
 		Matrix matrix = diagonalizeTriplicity( _matrix );
@@ -268,28 +253,270 @@ public final class PrincipalComponentAnalyst {
 		if ( _points.length == 0 ) {
 			throw new IllegalArgumentException( "_points is empty." );
 		}
-		// 平均座標
-		Point expectation = calcExpectation( _points );
+		// 点列を1回走査して平均座標と偏差積和を累積する
+		CovarianceAccumulator accumulator = CovarianceAccumulator.create();
+		accumulator.addAll( _points );
 
-		// 分散共分散行列
-		double[][] varCovElem = new double[ 3 ][ 3 ];
-		// 各軸要素の共分散を算出し，行列の下三角行列に格納
-		varCovElem[0][0] = calcCovarianceXX( _points, expectation );
-		varCovElem[1][0] = calcCovarianceXY( _points, expectation );
-		varCovElem[2][0] = calcCovarianceZX( _points, expectation );
-		varCovElem[1][1] = calcCovarianceYY( _points, expectation );
-		varCovElem[2][1] = calcCovarianceYZ( _points, expectation );
-		varCovElem[2][2] = calcCovarianceZZ( _points, expectation );
-		// 下三角行列の成分を上三角行列の成分にコピー
-		for ( int i = 0; i < varCovElem.length; ++i ) {
-			for ( int j = i + 1; j < varCovElem[i].length; ++j ) {
-				varCovElem[i][j] = varCovElem[j][i];
+		return accumulator.varianceCovarianceMatrix();
+	}
+	
+	/**
+	 * 指定された行列要素が実対称行列であるかを検証します。
+	 * @param _elements 行列要素
+	 * @throws IllegalArgumentException 指定した行列が正方行列でない場合
+	 * @throws IllegalArgumentException 指定した行列の要素が対称でない場合
+	 */
+	private static void validateSymmetric( double[][] _elements ) {
+		int size = _elements.length;
+		for ( double[] row : _elements ) {
+			if ( row.length != size ) {
+				throw new IllegalArgumentException( "not square matrix." );
 			}
 		}
+		for ( int i = 0; i < size; ++i ) {
+			for ( int j = i + 1; j < size; ++j ) {
+				if ( _elements[i][j] != _elements[j][i] ) {
+					throw new IllegalArgumentException( "not real symmetric matrix." );
+				}
+			}
+		}
+	}
 
-		return Matrix.create( varCovElem );
+	/**
+	 * 指定された3x3の対称行列の固有値・固有ベクトルを解析的に求めます。
+	 * <p>
+	 * 特性方程式(3次方程式)を三角関数による解の公式で解き、他の固有値から最も離れた固有値を求めます。
+	 * その固有ベクトルを A - λI の行ベクトル同士の外積から求め、
+	 * 残りの2つはその直交補空間に射影した2x2の対称行列を1回の回転で対角化して求めます。
+	 * 固有値は各固有ベクトルのRayleigh商とするため、重解に近い場合も精度が落ちず、
+	 * 正規直交な固有ベクトルが得られます。
+	 * </p>
+	 * <p>
+	 * 固有ベクトルの向きは、各ベクトルの絶対値が最大の成分が正となるように揃えます。
+	 * Jacobi法で求めていた従来の結果と同じ向きになり、
+	 * 例えばXY平面上の点列では第三の固有ベクトルは(0, 0, 1)となります。
+	 * 右手系となることは保証しません。
+	 * </p>
+	 * @param _elements 3x3の対称行列の要素
+	 * @return 固有値の降順に並べた固有値・固有ベクトル
+	 */
+	private static Matrix[] calcEigen3x3( double[][] _elements ) {
+		// 桁あふれを防ぐため、絶対値が最大の要素で正規化する
+		double maxAbs = 0.0;
+		for ( int i = 0; i < 3; ++i ) {
+			for ( int j = i; j < 3; ++j ) {
+				maxAbs = Math.max( maxAbs, Math.abs( _elements[i][j] ) );
+			}
+		}
+		if ( maxAbs == 0.0 ) {
+			return new Matrix[]{ Matrix.create( new double[ 3 ][ 3 ] ), Matrix.identity( 3 ) };
+		}
+		double a00 = _elements[0][0] / maxAbs;
+		double a01 = _elements[0][1] / maxAbs;
+		double a02 = _elements[0][2] / maxAbs;
+		double a11 = _elements[1][1] / maxAbs;
+		double a12 = _elements[1][2] / maxAbs;
+		double a22 = _elements[2][2] / maxAbs;
+
+		double offDiagonal = a01 * a01 + a02 * a02 + a12 * a12;
+		if ( offDiagonal == 0.0 ) {
+			// 対角行列の場合は対角成分が固有値、単位ベクトルが固有ベクトル
+			return sortEigen( Matrix.create( new double[][]{
+					{ _elements[0][0], 0.0, 0.0 },
+					{ 0.0, _elements[1][1], 0.0 },
+					{ 0.0, 0.0, _elements[2][2] }
+				} ), Matrix.identity( 3 ) );
+		}
+
+		// B = ( A - qI ) / p とすると、Bの固有値 β は β^3 - 3β - det(B) = 0 を満たす
+		double q = ( a00 + a11 + a22 ) / 3.0;
+		double b00 = a00 - q;
+		double b11 = a11 - q;
+		double b22 = a22 - q;
+		double p = Math.sqrt( ( b00 * b00 + b11 * b11 + b22 * b22 + 2.0 * offDiagonal ) / 6.0 );
+		double c00 = b11 * b22 - a12 * a12;
+		double c01 = a01 * b22 - a12 * a02;
+		double c02 = a01 * a12 - b11 * a02;
+		double halfDet = ( b00 * c00 - a01 * c01 + a02 * c02 ) / ( 2.0 * p * p * p );
+		halfDet = Math.min( Math.max( halfDet, -1.0 ), 1.0 );
+		double angle = Math.acos( halfDet ) / 3.0;
+		// det(B) >= 0 なら最大固有値、そうでなければ最小固有値が他の固有値から最も離れている
+		double simpleValue = halfDet >= 0.0
+			? q + p * 2.0 * Math.cos( angle )
+			: q + p * 2.0 * Math.cos( angle + 2.0 * Math.PI / 3.0 );
+
+		double[][] a = new double[][]{
+			{ a00, a01, a02 },
+			{ a01, a11, a12 },
+			{ a02, a12, a22 }
+		};
+		double[][] vectors = new double[ 3 ][];
+		double[] values = new double[ 3 ];
+		vectors[0] = calcSimpleEigenVector( a, simpleValue );
+		values[0] = dot( vectors[0], product( a, vectors[0] ) );
+
+		// 直交補空間の正規直交基底 u, v に射影した2x2の対称行列
+		double[] u = createOrthogonalUnitVector( vectors[0] );
+		double[] v = cross( vectors[0], u );
+		double[] au = product( a, u );
+		double[] av = product( a, v );
+		double m00 = dot( u, au );
+		double m01 = dot( u, av );
+		double m11 = dot( v, av );
+		// 2x2の対称行列を対角化する回転
+		double theta = 0.5 * Math.atan2( 2.0 * m01, m00 - m11 );
+		double cos = Math.cos( theta );
+		double sin = Math.sin( theta );
+		vectors[1] = new double[]{ cos * u[0] + sin * v[0], cos * u[1] + sin * v[1], cos * u[2] + sin * v[2] };
+		vectors[2] = new double[]{ -sin * u[0] + cos * v[0], -sin * u[1] + cos * v[1], -sin * u[2] + cos * v[2] };
+		values[1] = m00 * cos * cos + 2.0 * m01 * cos * sin + m11 * sin * sin;
+		values[2] = m00 * sin * sin - 2.0 * m01 * cos * sin + m11 * cos * cos;
+
+		// 固有値の降順に並べる
+		for ( int i = 1; i < 3; ++i ) {
+			for ( int j = i; j > 0 && values[j - 1] < values[j]; --j ) {
+				double tmpValue = values[j];
+				values[j] = values[j - 1];
+				values[j - 1] = tmpValue;
+				double[] tmpVector = vectors[j];
+				vectors[j] = vectors[j - 1];
+				vectors[j - 1] = tmpVector;
+			}
+		}
+		// 直交性を保つため第三の固有ベクトルは外積から求める
+		vectors[2] = cross( vectors[0], vectors[1] );
+		// 絶対値が最大の成分が正となるように向きを揃える
+		for ( int i = 0; i < 3; ++i ) {
+			vectors[i] = alignSign( vectors[i] );
+		}
+
+		double[][] eigenValues = new double[ 3 ][ 3 ];
+		double[][] eigenVectors = new double[ 3 ][ 3 ];
+		for ( int i = 0; i < 3; ++i ) {
+			eigenValues[i][i] = values[i] * maxAbs;
+			for ( int j = 0; j < 3; ++j ) {
+				eigenVectors[j][i] = vectors[i][j];
+			}
+		}
+
+		return new Matrix[]{ Matrix.create( eigenValues ), Matrix.create( eigenVectors ) };
 	}
-	
+
+	/**
+	 * 重複しない固有値に対する3x3の対称行列の固有ベクトルを求めます。
+	 * <p>
+	 * A - λI の階数は2となるため、行ベクトル同士の外積のうちノルムが最大のものを正規化します。
+	 * </p>
+	 * @param _a 3x3の対称行列の要素
+	 * @param _value 固有値
+	 * @return 単位固有ベクトル
+	 */
+	private static double[] calcSimpleEigenVector( double[][] _a, double _value ) {
+		double[] row0 = new double[]{ _a[0][0] - _value, _a[0][1], _a[0][2] };
+		double[] row1 = new double[]{ _a[1][0], _a[1][1] - _value, _a[1][2] };
+		double[] row2 = new double[]{ _a[2][0], _a[2][1], _a[2][2] - _value };
+		double[][] candidates = new double[][]{
+			cross( row0, row1 ), cross( row0, row2 ), cross( row1, row2 )
+		};
+
+		double[] vector = candidates[0];
+		double maxNorm = dot( vector, vector );
+		for ( int i = 1; i < candidates.length; ++i ) {
+			double norm = dot( candidates[i], candidates[i] );
+			if ( norm > maxNorm ) {
+				maxNorm = norm;
+				vector = candidates[i];
+			}
+		}
+		if ( maxNorm == 0.0 ) {
+			// 丸め誤差により階数が落ちた場合は行ベクトルに直交する任意の方向とする
+			return createOrthogonalUnitVector( row0[0] != 0.0 || row0[1] != 0.0 || row0[2] != 0.0 ? row0
+				: row1[0] != 0.0 || row1[1] != 0.0 || row1[2] != 0.0 ? row1 : row2 );
+		}
+		return scale( vector, 1.0 / Math.sqrt( maxNorm ) );
+	}
+
+	/**
+	 * 指定されたベクトルに直交する単位ベクトルを生成します。
+	 * @param _vector ベクトル(零ベクトルでないこと)
+	 * @return 直交する単位ベクトル
+	 */
+	private static double[] createOrthogonalUnitVector( double[] _vector ) {
+		if ( Math.abs( _vector[0] ) > Math.abs( _vector[1] ) ) {
+			double inv = 1.0 / Math.sqrt( _vector[0] * _vector[0] + _vector[2] * _vector[2] );
+			return new double[]{ -_vector[2] * inv, 0.0, _vector[0] * inv };
+		} else {
+			double inv = 1.0 / Math.sqrt( _vector[1] * _vector[1] + _vector[2] * _vector[2] );
+			return new double[]{ 0.0, _vector[2] * inv, -_vector[1] * inv };
+		}
+	}
+
+	/**
+	 * 3次元ベクトルの外積を求めます。
+	 * @param _a ベクトルa
+	 * @param _b ベクトルb
+	 * @return 外積
+	 */
+	private static double[] cross( double[] _a, double[] _b ) {
+		return new double[]{
+			_a[1] * _b[2] - _a[2] * _b[1],
+			_a[2] * _b[0] - _a[0] * _b[2],
+			_a[0] * _b[1] - _a[1] * _b[0]
+		};
+	}
+
+	/**
+	 * 3次元ベクトルの内積を求めます。
+	 * @param _a ベクトルa
+	 * @param _b ベクトルb
+	 * @return 内積
+	 */
+	private static double dot( double[] _a, double[] _b ) {
+		return _a[0] * _b[0] + _a[1] * _b[1] + _a[2] * _b[2];
+	}
+
+	/**
+	 * 絶対値が最大の成分が正となるように3次元ベクトルの向きを揃えます。
+	 * <p>
+	 * 絶対値が等しい成分がある場合は添字の小さい成分を用います。
+	 * </p>
+	 * @param _vector ベクトル
+	 * @return 向きを揃えたベクトル
+	 */
+	private static double[] alignSign( double[] _vector ) {
+		int index = 0;
+		for ( int i = 1; i < 3; ++i ) {
+			if ( Math.abs( _vector[i] ) > Math.abs( _vector[index] ) ) {
+				index = i;
+			}
+		}
+		return _vector[index] < 0.0 ? scale( _vector, -1.0 ) : _vector;
+	}
+
+	/**
+	 * 3次元ベクトルをスカラー倍します。
+	 * @param _vector ベクトル
+	 * @param _ratio 倍率
+	 * @return スカラー倍したベクトル
+	 */
+	private static double[] scale( double[] _vector, double _ratio ) {
+		return new double[]{ _vector[0] * _ratio, _vector[1] * _ratio, _vector[2] * _ratio };
+	}
+
+	/**
+	 * 3x3行列と3次元ベクトルの積を求めます。
+	 * @param _matrix 3x3行列の要素
+	 * @param _vector ベクトル
+	 * @return 積
+	 */
+	private static double[] product( double[][] _matrix, double[] _vector ) {
+		return new double[]{
+			dot( _matrix[0], _vector ),
+			dot( _matrix[1], _vector ),
+			dot( _matrix[2], _vector )
+		};
+	}
+
 	/**
 	 * 行交換を行います。
 	 * @param _elements 行列要素
@@ -608,105 +835,6 @@ public final class PrincipalComponentAnalyst {
 		return result;
 	}
 
-	/**
-	 * 指定された点列のx成分の分散を求めます。
-	 * @param _points 点列
-	 * @param _expectation 平均座標
-	 * @return 分散
-	 */
-	private static double calcCovarianceXX( Point[] _points, Point _expectation ) {
-		double cov = 0.0;
-
-		for ( Point p : _points ) {
-			double deviation = p.x() - _expectation.x();
-			cov += deviation * deviation;
-		}
-
-		return cov / _points.length;
-	}
-
-	/**
-	 * 指定された点列のy成分の分散を求めます。
-	 * @param _points 点列
-	 * @param _expectation 平均座標
-	 * @return 分散
-	 */
-	private static double calcCovarianceYY( Point[] _points, Point _expectation ) {
-		double cov = 0.0;
-
-		for ( Point p : _points ) {
-			double deviation = p.y() - _expectation.y();
-			cov += deviation * deviation;
-		}
-
-		return cov / _points.length;
-	}
-
-	/**
-	 * 指定された点列のz成分の分散を求めます。
-	 * @param _points 点列
-	 * @param _expectation 平均座標
-	 * @return 分散
-	 */
-	private static double calcCovarianceZZ( Point[] _points, Point _expectation ) {
-		double cov = 0.0;
-
-		for ( Point p : _points ) {
-			double deviation = p.z() - _expectation.z();
-			cov += deviation * deviation;
-		}
-
-		return cov / _points.length;
-	}
-
-	/**
-	 * 指定された点列のx成分とy成分の共分散を求めます。
-	 * @param _points 点列
-	 * @param _expectation 平均座標
-	 * @return 共分散
-	 */
-	private static double calcCovarianceXY( Point[] _points, Point _expectation ) {
-		double cov = 0.0;
-
-		for ( Point p : _points ) {
-			cov += ( ( p.x() - _expectation.x() ) * ( p.y() - _expectation.y() ) );
-		}
-
-		return cov / _points.length;
-	}
-
-	/**
-	 * 指定された点列のy成分とz成分の共分散を求めます。
-	 * @param _points 点列
-	 * @param _expectation 平均座標
-	 * @return 共分散
-	 */
-	private static double calcCovarianceYZ( Point[] _points, Point _expectation ) {
-		double cov = 0.0;
-
-		for ( Point p : _points ) {
-			cov += ( ( p.y() - _expectation.y() ) * ( p.z() - _expectation.z() ) );
-		}
-
-		return cov / _points.length;
-	}
-
-	/**
-	 * 指定された点列のz成分とx成分の共分散を求めます。
-	 * @param _points 点列
-	 * @param _expectation 平均座標
-	 * @return 共分散
-	 */
-	private static double calcCovarianceZX( Point[] _points, Point _expectation ) {
-		double cov = 0.0;
-
-		for ( Point p : _points ) {
-			cov += ( ( p.z() - _expectation.z() ) * ( p.x() - _expectation.x() ) );
-		}
-
-		return cov / _points.length;
-	}
-
 	private PrincipalComponentAnalyst() {
 		throw new UnsupportedOperationException("can not create instance.");
 	}
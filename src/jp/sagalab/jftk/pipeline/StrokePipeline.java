@@ -0,0 +1,379 @@
+package jp.sagalab.jftk.pipeline;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.Sigmoid;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.fragmentation.Fragment;
+import jp.sagalab.jftk.fragmentation.FuzzyFragmentation;
+import jp.sagalab.jftk.fragmentation.IdentificationFragment;
+import jp.sagalab.jftk.fragmentation.PartitionFragment;
+import jp.sagalab.jftk.fuzzysplinecurve.FSCCreater;
+import jp.sagalab.jftk.recognition.RecognitionResult;
+import jp.sagalab.jftk.recognition.Recognizable;
+import jp.sagalab.jftk.shaper.ShapedResult;
+import jp.sagalab.jftk.shaper.snapper.FuzzyObjectSnapper;
+import jp.sagalab.jftk.shaper.snapper.GridSpace;
+
+/**
+ * 複数のストロークに対してFSC生成からスナッピングまでを並行に行うクラスです。
+ * <p>
+ * 1ストロークの処理(FSC生成、ファジィフラグメンテーション、同定単位フラグメントの幾何曲線認識、
+ * オブジェクトスナッピング)を1つのタスクとして実行サービスへ投入します。
+ * 各段階のストラテジーは複数のスレッドから同時に呼び出されます。
+ * </p>
+ * <p>
+ * 処理中(結果を通知していないもの)のストロークの数には上限があり、
+ * 上限に達している間はストロークの投入が待たされます。
+ * 処理結果は処理を終えた順ではなく入力の順に {@link StrokeResultListener} へ通知されます。
+ * 各段階の処理時間は結果毎に記録され、インスタンス全体の累計も {@link #totalTime(Stage)} で得られます。
+ * </p>
+ * <p>
+ * 実行サービスの終了は呼び出し側で行ってください。
+ * このクラスのメソッドは複数のスレッドから同時に呼び出すことができます。
+ * </p>
+ * @author agent
+ */
+public final class StrokePipeline {
+
+	/** 処理の段階を表す識別子です。 */
+	public static enum Stage {
+		/** FSC生成 */
+		CREATION,
+		/** ファジィフラグメンテーション */
+		FRAGMENTATION,
+		/** 幾何曲線認識 */
+		RECOGNITION,
+		/** オブジェクトスナッピング */
+		SNAPPING
+	}
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _fscCreater FSC生成法のストラテジー
+	 * @param _fragmentation ファジィフラグメンテーション法のストラテジー
+	 * @param _recognizer 幾何曲線認識法のストラテジー
+	 * @param _rule 推論規則
+	 * @param _snapper オブジェクトスナッピング法のストラテジー(nullの場合はスナッピングを行いません)
+	 * @param _gridSpace スナッピングに用いるグリッド
+	 * @param _executor 処理を行う実行サービス
+	 * @param _maxInFlight 同時に処理中とするストロークの最大数
+	 * @return インスタンス
+	 * @throws IllegalArgumentException FSC生成法、フラグメンテーション法、認識法、推論規則、実行サービスのいずれかがnullの場合
+	 * @throws IllegalArgumentException スナッピング法が指定されていてグリッドがnullの場合
+	 * @throws IllegalArgumentException 最大数が1未満の場合
+	 */
+	public static StrokePipeline create( FSCCreater _fscCreater, FuzzyFragmentation _fragmentation,
+		Recognizable _recognizer, Map<String, Sigmoid> _rule, FuzzyObjectSnapper _snapper, GridSpace _gridSpace,
+		Executor _executor, int _maxInFlight ) {
+		if ( _fscCreater == null ) {
+			throw new IllegalArgumentException( "_fscCreater is null." );
+		}
+		if ( _fragmentation == null ) {
+			throw new IllegalArgumentException( "_fragmentation is null." );
+		}
+		if ( _recognizer == null ) {
+			throw new IllegalArgumentException( "_recognizer is null." );
+		}
+		if ( _rule == null ) {
+			throw new IllegalArgumentException( "_rule is null." );
+		}
+		if ( _snapper != null && _gridSpace == null ) {
+			throw new IllegalArgumentException( "_gridSpace is null." );
+		}
+		if ( _executor == null ) {
+			throw new IllegalArgumentException( "_executor is null." );
+		}
+		if ( _maxInFlight < 1 ) {
+			throw new IllegalArgumentException( "_maxInFlight must be greater than 0." );
+		}
+		return new StrokePipeline( _fscCreater, _fragmentation, _recognizer, _rule, _snapper, _gridSpace,
+			_executor, _maxInFlight );
+	}
+
+	/**
+	 * 利用可能なプロセッサ数のスレッドを持つ実行サービスを生成します。
+	 * @return 実行サービス
+	 */
+	public static ExecutorService newFixedThreadExecutor() {
+		return Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+	}
+
+	/**
+	 * タスク毎に仮想スレッドを生成する実行サービスを生成します。
+	 * <p>
+	 * 仮想スレッドはJava 21以降の実行環境でのみ利用できます。
+	 * 処理は計算が主体であるため、スループットはプロセッサ数のスレッドを持つ実行サービスと大きく変わりません。
+	 * 同時に処理中とするストロークの数は {@link #create} の最大数で制限してください。
+	 * </p>
+	 * @return 実行サービス
+	 * @throws UnsupportedOperationException 実行環境が仮想スレッドに対応していない場合
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+		} catch ( NoSuchMethodException e ) {
+			throw new UnsupportedOperationException( "virtual threads are not supported.", e );
+		} catch ( IllegalAccessException e ) {
+			throw new UnsupportedOperationException( "virtual threads are not supported.", e );
+		} catch ( InvocationTargetException e ) {
+			throw new UnsupportedOperationException( "virtual threads are not supported.", e.getCause() );
+		}
+	}
+
+	/**
+	 * ストローク列を処理し、結果を入力の順に通知します。
+	 * <p>
+	 * 全てのストロークの結果を通知し終えてから戻ります。
+	 * 割り込まれた場合は新たなストロークの投入をやめて戻り、投入済みのストロークの結果はその後も通知されます。
+	 * </p>
+	 * @param _strokes 入力点列を要素とするストローク列
+	 * @param _listener 結果の通知先
+	 * @throws IllegalArgumentException ストローク列または通知先がnullの場合
+	 * @throws InterruptedException 割り込まれた場合
+	 * @throws RejectedExecutionException 実行サービスがタスクを受け付けなかった場合
+	 * @throws RuntimeException 通知先が例外を送出した場合(最初の例外)
+	 */
+	public void process( Iterator<Point[]> _strokes, StrokeResultListener _listener ) throws InterruptedException {
+		if ( _strokes == null ) {
+			throw new IllegalArgumentException( "_strokes is null." );
+		}
+		if ( _listener == null ) {
+			throw new IllegalArgumentException( "_listener is null." );
+		}
+		final Batch batch = new Batch( _listener );
+		long index = 0;
+		while ( _strokes.hasNext() ) {
+			final Point[] points = _strokes.next();
+			final long strokeIndex = index++;
+			// 処理中のストロークが上限に達している間は待つ
+			batch.m_permits.acquire();
+			try {
+				m_executor.execute( new Runnable() {
+
+					@Override
+					public void run() {
+						processStroke( batch, strokeIndex, points );
+					}
+				} );
+			} catch ( RejectedExecutionException e ) {
+				batch.m_permits.release();
+				throw e;
+			}
+		}
+		// 全ての結果の通知を待つ
+		batch.m_permits.acquire( m_maxInFlight );
+		batch.m_permits.release( m_maxInFlight );
+		if ( batch.m_listenerFailure != null ) {
+			throw batch.m_listenerFailure;
+		}
+	}
+
+	/**
+	 * ストローク列を処理し、結果を入力の順に返します。
+	 * @param _strokes 入力点列を要素とするストローク列
+	 * @return 処理結果列
+	 * @throws IllegalArgumentException ストローク列がnullの場合
+	 * @throws InterruptedException 割り込まれた場合
+	 * @throws RejectedExecutionException 実行サービスがタスクを受け付けなかった場合
+	 */
+	public List<StrokeResult> process( List<Point[]> _strokes ) throws InterruptedException {
+		if ( _strokes == null ) {
+			throw new IllegalArgumentException( "_strokes is null." );
+		}
+		final List<StrokeResult> results = new ArrayList<StrokeResult>( _strokes.size() );
+		process( _strokes.iterator(), new StrokeResultListener() {
+
+			@Override
+			public void strokeProcessed( StrokeResult _result ) {
+				results.add( _result );
+			}
+		} );
+		return results;
+	}
+
+	/**
+	 * 指定された段階の処理時間の累計を返します。
+	 * @param _stage 段階
+	 * @return 処理時間(ナノ秒)
+	 */
+	public long totalTime( Stage _stage ) {
+		return m_totalTimes[_stage.ordinal()].get();
+	}
+
+	/**
+	 * 処理を終えたストロークの数の累計を返します。
+	 * @return ストロークの数
+	 */
+	public long processedCount() {
+		return m_processedCount.get();
+	}
+
+	/**
+	 * 1ストロークを処理し、結果を通知待ちとして登録します。
+	 * @param _batch 処理中のストローク列
+	 * @param _index ストロークの番号
+	 * @param _points 入力点列
+	 */
+	private void processStroke( Batch _batch, long _index, Point[] _points ) {
+		long[] times = new long[ Stage.values().length ];
+		SplineCurve fsc = null;
+		Fragment[] fragments = new Fragment[ 0 ];
+		Map<Fragment, RecognitionResult> recognitions = new LinkedHashMap<Fragment, RecognitionResult>();
+		Map<Fragment, ShapedResult> shapedResults = Collections.emptyMap();
+		Throwable failure = null;
+		try {
+			// FSC生成
+			long start = System.nanoTime();
+			fsc = m_fscCreater.createFSC( _points );
+			times[Stage.CREATION.ordinal()] = System.nanoTime() - start;
+			if ( fsc != null ) {
+				// ファジィフラグメンテーション
+				start = System.nanoTime();
+				fragments = m_fragmentation.createFragment( fsc );
+				times[Stage.FRAGMENTATION.ordinal()] = System.nanoTime() - start;
+
+				// 同定単位フラグメントの幾何曲線認識
+				start = System.nanoTime();
+				for ( int i = 0; i < fragments.length; ++i ) {
+					if ( fragments[i] instanceof IdentificationFragment ) {
+						IdentificationFragment identificationFragment = (IdentificationFragment) fragments[i];
+						PartitionFragment head = partition( fragments, i - 1 );
+						PartitionFragment tail = partition( fragments, i + 1 );
+						recognitions.put( identificationFragment, m_recognizer.recognize( identificationFragment,
+							identificationFragment.extendCurve( head, tail ), m_rule ) );
+					}
+				}
+				times[Stage.RECOGNITION.ordinal()] = System.nanoTime() - start;
+
+				// オブジェクトスナッピング
+				if ( m_snapper != null ) {
+					start = System.nanoTime();
+					shapedResults = m_snapper.snap( recognitions,
+						new ArrayList<Fragment>( Arrays.asList( fragments ) ), m_gridSpace );
+					times[Stage.SNAPPING.ordinal()] = System.nanoTime() - start;
+				}
+			}
+		} catch ( RuntimeException e ) {
+			failure = e;
+		} catch ( Error e ) {
+			failure = e;
+			throw e;
+		} finally {
+			for ( Stage stage : Stage.values() ) {
+				m_totalTimes[stage.ordinal()].addAndGet( times[stage.ordinal()] );
+			}
+			m_processedCount.incrementAndGet();
+			_batch.complete( StrokeResult.create( _index, fsc, fragments, recognitions,
+				new LinkedHashMap<Fragment, ShapedResult>( shapedResults ), times, failure ) );
+		}
+	}
+
+	/**
+	 * 指定された位置の区切りフラグメントを返します。
+	 * @param _fragments フラグメント列
+	 * @param _index 位置
+	 * @return 区切りフラグメント。範囲外もしくは区切りフラグメントでない場合はnull
+	 */
+	private static PartitionFragment partition( Fragment[] _fragments, int _index ) {
+		if ( _index < 0 || _index >= _fragments.length || !( _fragments[_index] instanceof PartitionFragment ) ) {
+			return null;
+		}
+		return (PartitionFragment) _fragments[_index];
+	}
+
+	/** 1回の処理要求で投入したストローク列の状態を表すクラスです。 */
+	private final class Batch {
+
+		/**
+		 * 処理を終えたストロークの結果を登録し、入力の順に通知できるものを通知します。
+		 * @param _result 処理結果
+		 */
+		synchronized void complete( StrokeResult _result ) {
+			m_pending.put( _result.index(), _result );
+			StrokeResult result;
+			while ( ( result = m_pending.remove( m_next ) ) != null ) {
+				++m_next;
+				try {
+					if ( m_listenerFailure == null ) {
+						m_listener.strokeProcessed( result );
+					}
+				} catch ( RuntimeException e ) {
+					m_listenerFailure = e;
+				} finally {
+					m_permits.release();
+				}
+			}
+		}
+
+		Batch( StrokeResultListener _listener ) {
+			m_listener = _listener;
+			m_permits = new Semaphore( m_maxInFlight );
+			m_pending = new HashMap<Long, StrokeResult>();
+		}
+
+		/** 結果の通知先 */
+		private final StrokeResultListener m_listener;
+		/** 処理中とできるストロークの残り数 */
+		private final Semaphore m_permits;
+		/** 通知待ちの結果 */
+		private final Map<Long, StrokeResult> m_pending;
+		/** 次に通知するストロークの番号 */
+		private long m_next;
+		/** 通知先が送出した最初の例外 */
+		private volatile RuntimeException m_listenerFailure;
+	}
+
+	private StrokePipeline( FSCCreater _fscCreater, FuzzyFragmentation _fragmentation,
+		Recognizable _recognizer, Map<String, Sigmoid> _rule, FuzzyObjectSnapper _snapper, GridSpace _gridSpace,
+		Executor _executor, int _maxInFlight ) {
+		m_fscCreater = _fscCreater;
+		m_fragmentation = _fragmentation;
+		m_recognizer = _recognizer;
+		m_rule = _rule;
+		m_snapper = _snapper;
+		m_gridSpace = _gridSpace;
+		m_executor = _executor;
+		m_maxInFlight = _maxInFlight;
+		m_totalTimes = new AtomicLong[ Stage.values().length ];
+		for ( int i = 0; i < m_totalTimes.length; ++i ) {
+			m_totalTimes[i] = new AtomicLong();
+		}
+		m_processedCount = new AtomicLong();
+	}
+
+	/** FSC生成法のストラテジー */
+	private final FSCCreater m_fscCreater;
+	/** ファジィフラグメンテーション法のストラテジー */
+	private final FuzzyFragmentation m_fragmentation;
+	/** 幾何曲線認識法のストラテジー */
+	private final Recognizable m_recognizer;
+	/** 推論規則 */
+	private final Map<String, Sigmoid> m_rule;
+	/** オブジェクトスナッピング法のストラテジー(nullの場合はスナッピングを行わない) */
+	private final FuzzyObjectSnapper m_snapper;
+	/** スナッピングに用いるグリッド */
+	private final GridSpace m_gridSpace;
+	/** 処理を行う実行サービス */
+	private final Executor m_executor;
+	/** 同時に処理中とするストロークの最大数 */
+	private final int m_maxInFlight;
+	/** 段階毎の処理時間の累計(ナノ秒) */
+	private final AtomicLong[] m_totalTimes;
+	/** 処理を終えたストロークの数の累計 */
+	private final AtomicLong m_processedCount;
+}
@@ -0,0 +1,148 @@
+package jp.sagalab.jftk.pipeline;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.fragmentation.Fragment;
+import jp.sagalab.jftk.pipeline.StrokePipeline.Stage;
+import jp.sagalab.jftk.recognition.RecognitionResult;
+import jp.sagalab.jftk.shaper.ShapedResult;
+
+/**
+ * {@link StrokePipeline} による1ストロークの処理結果を表すクラスです。
+ * <p>
+ * 各段階の結果と処理時間を保持します。
+ * 途中の段階で例外が発生した場合は、それまでの段階の結果と発生した例外を保持します。
+ * </p>
+ * @author agent
+ */
+public final class StrokeResult {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _index 入力中のストロークの番号
+	 * @param _fsc ファジィスプライン曲線
+	 * @param _fragments フラグメント列
+	 * @param _recognitions 同定単位フラグメントの認識結果
+	 * @param _shapedResults スナッピング結果
+	 * @param _times 段階毎の処理時間(ナノ秒)
+	 * @param _failure 発生した例外
+	 * @return インスタンス
+	 */
+	static StrokeResult create( long _index, SplineCurve _fsc, Fragment[] _fragments,
+		Map<Fragment, RecognitionResult> _recognitions, Map<Fragment, ShapedResult> _shapedResults,
+		long[] _times, Throwable _failure ) {
+		return new StrokeResult( _index, _fsc, _fragments, _recognitions, _shapedResults, _times, _failure );
+	}
+
+	/**
+	 * 入力中のストロークの番号を返します。
+	 * @return 0から始まる番号
+	 */
+	public long index() {
+		return m_index;
+	}
+
+	/**
+	 * ファジィスプライン曲線を返します。
+	 * @return ファジィスプライン曲線。生成できなかった場合はnull
+	 */
+	public SplineCurve fsc() {
+		return m_fsc;
+	}
+
+	/**
+	 * フラグメント列を返します。
+	 * @return フラグメント列。フラグメンテーションを行っていない場合は空の配列
+	 */
+	public Fragment[] fragments() {
+		return m_fragments.clone();
+	}
+
+	/**
+	 * 同定単位フラグメントの認識結果を返します。
+	 * @return 同定単位フラグメントをキーとする認識結果
+	 */
+	public Map<Fragment, RecognitionResult> recognitions() {
+		return m_recognitions;
+	}
+
+	/**
+	 * スナッピング結果を返します。
+	 * @return フラグメントをキーとするスナッピング結果。スナッピングを行っていない場合は空
+	 */
+	public Map<Fragment, ShapedResult> shapedResults() {
+		return m_shapedResults;
+	}
+
+	/**
+	 * 指定された段階の処理時間を返します。
+	 * @param _stage 段階
+	 * @return 処理時間(ナノ秒)。実行していない段階は0
+	 */
+	public long time( Stage _stage ) {
+		return m_times[_stage.ordinal()];
+	}
+
+	/**
+	 * 全段階の処理時間の合計を返します。
+	 * @return 処理時間(ナノ秒)
+	 */
+	public long totalTime() {
+		long total = 0;
+		for ( long time : m_times ) {
+			total += time;
+		}
+		return total;
+	}
+
+	/**
+	 * 処理中に発生した例外を返します。
+	 * @return 例外。正常に終了した場合はnull
+	 */
+	public Throwable failure() {
+		return m_failure;
+	}
+
+	/**
+	 * 正常に処理を終えたかを返します。
+	 * @return 例外が発生しなかった場合true
+	 */
+	public boolean isSucceeded() {
+		return m_failure == null;
+	}
+
+	@Override
+	public String toString() {
+		return String.format( "index:%d fragments:%d recognitions:%d times:%s failure:%s",
+			m_index, m_fragments.length, m_recognitions.size(), Arrays.toString( m_times ), m_failure );
+	}
+
+	private StrokeResult( long _index, SplineCurve _fsc, Fragment[] _fragments,
+		Map<Fragment, RecognitionResult> _recognitions, Map<Fragment, ShapedResult> _shapedResults,
+		long[] _times, Throwable _failure ) {
+		m_index = _index;
+		m_fsc = _fsc;
+		m_fragments = _fragments;
+		m_recognitions = Collections.unmodifiableMap( _recognitions );
+		m_shapedResults = Collections.unmodifiableMap( _shapedResults );
+		m_times = _times;
+		m_failure = _failure;
+	}
+
+	/** 入力中のストロークの番号 */
+	private final long m_index;
+	/** ファジィスプライン曲線 */
+	private final SplineCurve m_fsc;
+	/** フラグメント列 */
+	private final Fragment[] m_fragments;
+	/** 同定単位フラグメントの認識結果 */
+	private final Map<Fragment, RecognitionResult> m_recognitions;
+	/** スナッピング結果 */
+	private final Map<Fragment, ShapedResult> m_shapedResults;
+	/** 段階毎の処理時間(ナノ秒) */
+	private final long[] m_times;
+	/** 発生した例外 */
+	private final Throwable m_failure;
+}
@@ -0,0 +1,19 @@
+package jp.sagalab.jftk.pipeline;
+
+/**
+ * ストロークの処理結果を受け取るためのインタフェースです。
+ * <p>
+ * {@link StrokePipeline} は処理を終えたストロークの結果を入力の順に通知します。
+ * 通知は処理を行ったスレッドから行われますが、同時に複数の通知が行われることはありません。
+ * 通知の処理が長いと後続のストロークの投入が待たされるため、重い処理は別のスレッドへ引き渡してください。
+ * </p>
+ * @author agent
+ */
+public interface StrokeResultListener {
+
+	/**
+	 * ストロークの処理結果を受け取ります。
+	 * @param _result 処理結果
+	 */
+	public void strokeProcessed( StrokeResult _result );
+}
@@ -0,0 +1,11 @@
+/**
+ * 複数のストロークをまとめて処理するためのクラスやインタフェースを提供します。
+ * <p>
+ * {@link jp.sagalab.jftk.pipeline.StrokePipeline StrokePipeline}
+ * クラスはFSC生成、ファジィフラグメンテーション、幾何曲線認識、オブジェクトスナッピングの一連の処理を
+ * ストローク単位のタスクとして実行サービス上で並行に実行します。
+ * 処理結果は {@link jp.sagalab.jftk.pipeline.StrokeResult StrokeResult} として、
+ * 入力の順に {@link jp.sagalab.jftk.pipeline.StrokeResultListener StrokeResultListener} へ通知されます。
+ * </p>
+ */
+package jp.sagalab.jftk.pipeline;
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import jp.sagalab.jftk.Instrumentation;
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.transform.TransformMatrix;
@@ -96,8 +97,8 @@ public class BoundingBox implements Transformable<BoundingBox>{
 	public Point[] getSmallRectangle( int _num ) {
 		if ( _num > getSmallRectLength() ) {
 			//XXX nullを返すか例外を投げるべき？
-			System.err.printf( "Warning: _num(%d) > BoxLength(%d) in getSmallRectangle() .\r\n",
-				_num, getSmallRectLength() );
+			Instrumentation.listener().warned( BoundingBox.class, String.format(
+				"_num(%d) > BoxLength(%d) in getSmallRectangle().", _num, getSmallRectLength() ) );
 			return new Point[0];
 		}
 		Point[] miniBox = new Point[4];
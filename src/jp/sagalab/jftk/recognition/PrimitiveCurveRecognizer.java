@@ -1,17 +1,23 @@
 package jp.sagalab.jftk.recognition;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.TreeMap;
+import jp.sagalab.jftk.Instrumentation;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.Sigmoid;
 import jp.sagalab.jftk.TruthValue;
+import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
 import jp.sagalab.jftk.curve.SplineCurve;
 import jp.sagalab.jftk.curve.rough.CircularRoughCurve;
 import jp.sagalab.jftk.curve.rough.EllipticRoughCurve;
 import jp.sagalab.jftk.curve.rough.FreeRoughCurve;
 import jp.sagalab.jftk.curve.rough.LinearRoughCurve;
 import jp.sagalab.jftk.fragmentation.IdentificationFragment;
+import jp.sagalab.jftk.metrics.Metrics;
+import jp.sagalab.jftk.reference.CurveAnalysis;
 import jp.sagalab.jftk.reference.ReferenceModel;
 import jp.sagalab.jftk.reference.circular.CircularReferenceModel;
 import jp.sagalab.jftk.reference.elliptic.EllipticReferenceModel;
@@ -46,7 +52,9 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 	public RecognitionResult recognize( IdentificationFragment _identificationFragment,
 		SplineCurve _fsc, Map<String, Sigmoid> _rule ) {
 
-		ReferenceModel[] referenceModels = constructReferenceModels( _fsc );
+		// リファレンスモデルとn/4形状のリファレンスモデルで曲線の解析結果を共有する
+		CurveAnalysis analysis = CurveAnalysis.create( _fsc );
+		ReferenceModel[] referenceModels = constructReferenceModels( analysis );
 
 		// リファレンスモデル構築
 		ReferenceModel linear = referenceModels[0];
@@ -54,9 +62,12 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 		ReferenceModel elliptic = referenceModels[2];
 
 		// 各種区間真理値をFMPSにより導出
-		TruthValue tvL = _fsc.includedIn( linear, m_fmpsNum );
-		TruthValue tvC = _fsc.includedIn( circular, m_fmpsNum );
-		TruthValue tvE = _fsc.includedIn( elliptic, m_fmpsNum );
+		Metrics.Sample sample = Metrics.start( Metrics.FMPS );
+		PointBuffer fmps = _fsc.evaluateAllAsBuffer( m_fmpsNum, EvaluationType.DISTANCE );
+		TruthValue tvL = includedIn( fmps, linear );
+		TruthValue tvC = includedIn( fmps, circular );
+		TruthValue tvE = includedIn( fmps, elliptic );
+		Metrics.stop( sample );
 		TruthValue tvCl = _fsc.evaluateAtStart().includedIn( _fsc.evaluateAtEnd() );
 
 		// 幾何曲線ごとのグレード値の導出
@@ -67,7 +78,7 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 		if ( type.equals( PrimitiveType.POINT ) ) {
 			type = types[1];
 		}
-		System.out.println( type );
+		Instrumentation.listener().recognized( type, Collections.unmodifiableMap( result ) );
 		RecognitionResult recogResult = null;
 		switch ( type ) {
 			case POINT:
@@ -94,17 +105,17 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 					type, result );
 				break;
 		}
-		recogResult = recognizeNQuartersType( recogResult, _fsc, _rule );
+		recogResult = recognizeNQuartersType( recogResult, _fsc, analysis, _rule );
 		return recogResult;
 	}
 
 	/**
 	 * 指定されたファジィスプライン曲線から三種類の仮説モデルを生成します．
 	 *
-	 * @param _fsc 認識対象のファジィスプライン曲線
+	 * @param _analysis 認識対象のファジィスプライン曲線の解析結果
 	 * @return 線形，円形，楕円形を概形した仮説モデル群
 	 */
-	abstract ReferenceModel[] constructReferenceModels( SplineCurve _fsc );
+	abstract ReferenceModel[] constructReferenceModels( CurveAnalysis _analysis );
 
 	/**
 	 * 指定された曲線種のn/4仮説モデルを生成します．
@@ -112,10 +123,10 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 	 * 1/4形状，2/4形状，3/4形状の三種類を生成します．
 	 *
 	 * @param _type 曲線種
-	 * @param _fsc 認識対象のファジィスプライン曲線
+	 * @param _analysis 認識対象のファジィスプライン曲線の解析結果
 	 * @return n/4形状を概形した仮説モデル群
 	 */
-	abstract ReferenceModel[] constructReductionModels( PrimitiveType _type, SplineCurve _fsc );
+	abstract ReferenceModel[] constructReductionModels( PrimitiveType _type, CurveAnalysis _analysis );
 
 /**
  * 認識された曲線クラスを基にサブ曲線クラスへと細分化して認識します．
@@ -123,10 +134,12 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
  * 
  * @param _recogResult 認識された曲線クラス
  * @param _fsc 認識対象のファジィスプライン曲線
+ * @param _analysis 認識対象のファジィスプライン曲線の解析結果
  * @param _rule 推論規則
  * @return 認識結果
  */
-	private RecognitionResult recognizeNQuartersType( RecognitionResult _recogResult, SplineCurve _fsc, Map<String, Sigmoid> _rule ) {
+	private RecognitionResult recognizeNQuartersType( RecognitionResult _recogResult, SplineCurve _fsc,
+		CurveAnalysis _analysis, Map<String, Sigmoid> _rule ) {
 
 		PrimitiveType primType = _recogResult.getType();
 
@@ -140,15 +153,18 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 
 			case CIRCULAR_ARC:
 			case ELLIPTIC_ARC:
-				ReferenceModel[] model = constructReductionModels( primType, _fsc );
+				ReferenceModel[] model = constructReductionModels( primType, _analysis );
 				ReferenceModel quarter = model[0];
 				ReferenceModel half = model[1];
 				ReferenceModel threeQuarters = model[2];
 
 				// 各種区間真理値をFMPSにより導出
-				TruthValue tvQ = _fsc.includedIn( quarter, m_fmpsNum );
-				TruthValue tvH = _fsc.includedIn( half, m_fmpsNum );
-				TruthValue tvT = _fsc.includedIn( threeQuarters, m_fmpsNum );
+				Metrics.Sample sample = Metrics.start( Metrics.FMPS );
+				PointBuffer fmps = _fsc.evaluateAllAsBuffer( m_fmpsNum, EvaluationType.DISTANCE );
+				TruthValue tvQ = includedIn( fmps, quarter );
+				TruthValue tvH = includedIn( fmps, half );
+				TruthValue tvT = includedIn( fmps, threeQuarters );
+				Metrics.stop( sample );
 
 				// 幾何曲線ごとのグレード値の導出
 				Map<NQuartersType, Double> result = calculateSubcurveGrade( tvQ, tvH, tvT, _rule );
@@ -181,6 +197,20 @@ abstract class PrimitiveCurveRecognizer implements Recognizable{
 		return null;
 	}
 
+	/**
+	 * FMPSがリファレンスモデルに含まれるかを評価します。
+	 * <p>
+	 * {@link SplineCurve#includedIn(jp.sagalab.jftk.curve.ParametricEvaluable, int)} と同じ値を、
+	 * 等距離間隔の評価点列を成分ごとの配列として求めて評価します。
+	 * </p>
+	 * @param _fmps ファジィスプライン曲線の等距離間隔の評価点列
+	 * @param _model リファレンスモデル
+	 * @return 区間真理値
+	 */
+	private TruthValue includedIn( PointBuffer _fmps, ReferenceModel _model ) {
+		return _fmps.includedIn( _model.evaluateAllAsBuffer( m_fmpsNum, EvaluationType.DISTANCE ) );
+	}
+
 	/**
 	 * 推論規則を用いて各幾何曲線のグレードを求めます。
 	 * @param _l 線形性
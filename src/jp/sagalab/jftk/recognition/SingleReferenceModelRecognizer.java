@@ -1,8 +1,8 @@
 package jp.sagalab.jftk.recognition;
 
-import jp.sagalab.jftk.curve.SplineCurve;
+import jp.sagalab.jftk.metrics.Metrics;
+import jp.sagalab.jftk.reference.CurveAnalysis;
 import jp.sagalab.jftk.reference.ReferenceModel;
-import jp.sagalab.jftk.reference.ReferenceModelGenerator;
 import jp.sagalab.jftk.reference.circular.CircularReferenceModelGenerator;
 import jp.sagalab.jftk.reference.elliptic.EllipticReferenceModelGenerator;
 import jp.sagalab.jftk.reference.linear.LinearReferenceModelGenerator;
@@ -23,22 +23,26 @@ public class SingleReferenceModelRecognizer extends PrimitiveCurveRecognizer {
 	}
 
 	@Override
-	ReferenceModel[] constructReductionModels( PrimitiveType _type, SplineCurve _fsc ) {
+	ReferenceModel[] constructReductionModels( PrimitiveType _type, CurveAnalysis _analysis ) {
 	// リファレンスモデル構築
-		ReferenceModelGenerator generator;
 		ReferenceModel[] models;
+		Metrics.Sample sample;
 		switch ( _type ) {
 			case CIRCULAR_ARC:
-				generator = CircularReferenceModelGenerator.create();
-				models = new ReferenceModel[]{ generator.generateQuarterModel( _fsc ),
-					generator.generateHalfModel( _fsc ),
-					generator.generateThreeQuartersModel( _fsc ) };
+				sample = Metrics.start( Metrics.CIRCULAR_REFERENCE_MODEL );
+				CircularReferenceModelGenerator circularGenerator = CircularReferenceModelGenerator.create();
+				models = new ReferenceModel[]{ circularGenerator.generateQuarterModel( _analysis ),
+					circularGenerator.generateHalfModel( _analysis ),
+					circularGenerator.generateThreeQuartersModel( _analysis ) };
+				Metrics.stop( sample );
 				return models;
 			case ELLIPTIC_ARC:
-				generator = EllipticReferenceModelGenerator.create();
-				models = new ReferenceModel[]{ generator.generateQuarterModel( _fsc ),
-					generator.generateHalfModel( _fsc ),
-					generator.generateThreeQuartersModel( _fsc ) };
+				sample = Metrics.start( Metrics.ELLIPTIC_REFERENCE_MODEL );
+				EllipticReferenceModelGenerator ellipticGenerator = EllipticReferenceModelGenerator.create();
+				models = new ReferenceModel[]{ ellipticGenerator.generateQuarterModel( _analysis ),
+					ellipticGenerator.generateHalfModel( _analysis ),
+					ellipticGenerator.generateThreeQuartersModel( _analysis ) };
+				Metrics.stop( sample );
 				return models;
 			default:
 				throw new IllegalArgumentException("円弧でも楕円弧でもない");
@@ -46,14 +50,21 @@ public class SingleReferenceModelRecognizer extends PrimitiveCurveRecognizer {
 	}
 
 	@Override
-	ReferenceModel[] constructReferenceModels( SplineCurve _fsc ) {
-		ReferenceModelGenerator linearGenerator = LinearReferenceModelGenerator.create();
-		ReferenceModelGenerator circularGenerator = CircularReferenceModelGenerator.create();
-		ReferenceModelGenerator ellipticGenerator = EllipticReferenceModelGenerator.create();
+	ReferenceModel[] constructReferenceModels( CurveAnalysis _analysis ) {
+		LinearReferenceModelGenerator linearGenerator = LinearReferenceModelGenerator.create();
+		CircularReferenceModelGenerator circularGenerator = CircularReferenceModelGenerator.create();
+		EllipticReferenceModelGenerator ellipticGenerator = EllipticReferenceModelGenerator.create();
 
-		ReferenceModel[] models = new ReferenceModel[]{ linearGenerator.generateGeneralModel( _fsc ),
-			circularGenerator.generateGeneralModel( _fsc ),
-			ellipticGenerator.generateGeneralModel( _fsc ) };
+		ReferenceModel[] models = new ReferenceModel[ 3 ];
+		Metrics.Sample sample = Metrics.start( Metrics.LINEAR_REFERENCE_MODEL );
+		models[0] = linearGenerator.generateGeneralModel( _analysis );
+		Metrics.stop( sample );
+		sample = Metrics.start( Metrics.CIRCULAR_REFERENCE_MODEL );
+		models[1] = circularGenerator.generateGeneralModel( _analysis );
+		Metrics.stop( sample );
+		sample = Metrics.start( Metrics.ELLIPTIC_REFERENCE_MODEL );
+		models[2] = ellipticGenerator.generateGeneralModel( _analysis );
+		Metrics.stop( sample );
 		return models;
 	}
 
@@ -0,0 +1,325 @@
+package jp.sagalab.jftk.reference;
+
+import java.util.HashMap;
+import java.util.Map;
+import jp.sagalab.jftk.Plane;
+import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.Vector;
+import jp.sagalab.jftk.curve.ArcLengthTable;
+import jp.sagalab.jftk.curve.ParametricCurve;
+import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
+import jp.sagalab.jftk.curve.Range;
+
+/**
+ * リファレンスモデルの生成に共通して用いる曲線の解析結果を保持するクラスです。
+ * <p>
+ * 線形、円形、楕円形のリファレンスモデルおよびn/4形状のリファレンスモデルは、
+ * 同じ曲線の評価点列、弧長、部分長、面積を2等分する点などを用います。
+ * このクラスはそれらを最初に必要になった時点で一度だけ求め、以後は同じ値を返します。
+ * 1本の曲線に対するリファレンスモデルの生成では、同じインスタンスを各生成器に渡してください。
+ * </p>
+ * <p>
+ * 複数のスレッドから同時に利用することはできません。
+ * </p>
+ * @author agent
+ * @see ReferenceModelGenerator
+ */
+public final class CurveAnalysis {
+
+	/**
+	 * このクラスのインスタンスを生成します。
+	 * @param _curve 解析対象のパラメトリック曲線
+	 * @return インスタンス
+	 * @throws IllegalArgumentException パラメトリック曲線がnullの場合
+	 */
+	public static CurveAnalysis create( ParametricCurve _curve ) {
+		if ( _curve == null ) {
+			throw new IllegalArgumentException( "_curve is null" );
+		}
+		return new CurveAnalysis( _curve );
+	}
+
+	/**
+	 * 解析対象のパラメトリック曲線を返します。
+	 * @return パラメトリック曲線
+	 */
+	public ParametricCurve curve() {
+		return m_curve;
+	}
+
+	/**
+	 * 曲線の始点を返します。
+	 * @return 始点
+	 */
+	public Point start() {
+		if ( m_start == null ) {
+			m_start = m_curve.evaluateAtStart();
+		}
+		return m_start;
+	}
+
+	/**
+	 * 曲線の終点を返します。
+	 * @return 終点
+	 */
+	public Point end() {
+		if ( m_end == null ) {
+			m_end = m_curve.evaluateAtEnd();
+		}
+		return m_end;
+	}
+
+	/**
+	 * 等距離間隔の評価点列を返します。
+	 * <p>
+	 * 評価点数毎に一度だけ評価します。
+	 * </p>
+	 * @param _num 評価点数
+	 * @return 評価点列
+	 */
+	public Point[] evaluateAllByDistance( int _num ) {
+		Point[] points = m_distancePoints.get( _num );
+		if ( points == null ) {
+			points = m_curve.evaluateAll( _num, EvaluationType.DISTANCE );
+			m_distancePoints.put( _num, points );
+		}
+		return points.clone();
+	}
+
+	/**
+	 * 直線性を用いた評価点列を返します。
+	 * <p>
+	 * 直前と同じ分割数と閾値が指定された場合は評価し直しません。
+	 * </p>
+	 * @param _num 分割数
+	 * @param _threshold 閾値
+	 * @return 評価点列
+	 */
+	public Point[] evaluateAllByOptimized( int _num, double _threshold ) {
+		if ( m_optimizedPoints == null || m_optimizedNum != _num || m_optimizedThreshold != _threshold ) {
+			m_optimizedPoints = m_curve.evaluateAllByOptimized( _num, _threshold );
+			m_optimizedNum = _num;
+			m_optimizedThreshold = _threshold;
+		}
+		return m_optimizedPoints.clone();
+	}
+
+	/**
+	 * 代表点の前後と間に対応する曲線の部分長を返します。
+	 * <p>
+	 * 曲線の長さを求める弧長の対応表({@link ParametricCurve#lengthTable()})の累積弧長から求めます。
+	 * 対応表は曲線毎に一度だけ生成されるため、代表点の時刻が異なっても曲線を評価し直しません。
+	 * </p>
+	 * @param _start 前側の代表点の時刻
+	 * @param _end 後側の代表点の時刻
+	 * @return 始点から前側の代表点まで、代表点の間、後側の代表点から終点までの部分長
+	 */
+	public double[] partialLengths( double _start, double _end ) {
+		ArcLengthTable table = m_curve.lengthTable();
+		double start = table.lengthAt( _start );
+		double end = table.lengthAt( _end );
+		return new double[]{ start, end - start, table.length() - end };
+	}
+
+	/**
+	 * 等距離間隔の評価点列と始終点を結んだ線分で囲まれた面積を2等分する点を返します。
+	 * @param _num 評価点数
+	 * @return 面積を2等分する点
+	 * @see #bisectingPoint(Point[])
+	 */
+	public Point bisectingPoint( int _num ) {
+		Point point = m_bisectingPoints.get( _num );
+		if ( point == null ) {
+			point = bisectingPoint( evaluateAllByDistance( _num ) );
+			m_bisectingPoints.put( _num, point );
+		}
+		return point;
+	}
+
+	/**
+	 * 始点と終点の垂直二等分面と曲線との交点を返します。
+	 * @return 交点
+	 * @see #perpendicularBisectorPoint(Point, Point, ParametricCurve)
+	 */
+	public Point perpendicularBisectorPoint() {
+		if ( m_perpendicularBisectorPoint == null ) {
+			m_perpendicularBisectorPoint = perpendicularBisectorPoint( start(), end(), m_curve );
+		}
+		return m_perpendicularBisectorPoint;
+	}
+
+	/**
+	 * 入力点列から作られる面積を2等分する点を求めます。
+	 * <p>
+	 * 入力点列の始終点を結んだ線分の中点を基準とした微小な平行四辺形の面積を累積し、
+	 * 累積面積が全体の半分となる点を2分探索で求めます。
+	 * </p>
+	 * @param _points 入力点列
+	 * @return 面積を2等分する点
+	 */
+	public static Point bisectingPoint( Point[] _points ) {
+		// 入力点列の始終点を結んだ直線の中点
+		Point center = _points[0].internalDivision( _points[_points.length - 1], 1, 1 );
+		// 中点と入力点列から生成される面積の配列
+		double[] summationList = getSummationList( _points, center );
+		double startSum;
+		double endSum;
+		int start = 0;
+		int end = summationList.length - 1;
+		int mid = ( summationList.length ) / 2;
+
+		// 2分探索
+		while ( true ) {
+			startSum = 0;
+			endSum = 0;
+			for ( int i = 0; i < mid; ++i ) {
+				startSum += summationList[i];
+			}
+			for ( int i = mid; i < summationList.length; ++i ) {
+				endSum += summationList[i];
+			}
+			if ( startSum > endSum ) {
+				end = mid;
+				mid = start + ( end - start ) / 2;
+			} else if ( startSum < endSum ) {
+				start = mid;
+				mid = start + ( end - start ) / 2;
+			} else {
+				break;
+			}
+
+			if ( ( end - start ) <= 1 && startSum > endSum ) {
+				mid = start;
+				break;
+			} else if ( ( end - start ) <= 1 && startSum < endSum ) {
+				mid = end;
+				break;
+			}
+		}
+
+		// 中点を基準とした両側の面積を計算
+		double areaA = 0;
+		for ( int i = 0; i < mid; ++i ) {
+			areaA += summationList[i];
+		}
+		double areaB = 0;
+		for ( int i = mid; i < summationList.length; ++i ) {
+			areaB += summationList[i];
+		}
+
+		// 最遠点（2分する点）
+		Point bisectingPoint;
+
+		if ( areaA > areaB ) {
+			// areaAの面積を更新
+			areaA = 0;
+			for ( int i = 0; i < mid - 1; ++i ) {
+				areaA += summationList[i];
+			}
+			// 面積を2等分する点が含まれる微小平行四辺形の面積
+			double sum = summationList[mid - 1];
+			if ( sum == 0 ) {
+				// 微小平行四辺形が0ならばmidの点を返す
+				return _points[mid];
+			}
+			// 比率の設定
+			double ratioA = ( areaB - areaA + sum ) / ( 2 * sum );
+			double ratioB = 1 - ratioA;
+			bisectingPoint = _points[mid - 1].internalDivision( _points[mid], ratioA, ratioB );
+		} else {
+			// areaBの面積を更新
+			areaB = 0;
+			for ( int i = mid + 1; i < summationList.length; ++i ) {
+				areaB += summationList[i];
+			}
+			// 面積を2等分する点が含まれる微小平行四辺形の面積
+			double sum = summationList[mid];
+			if ( sum == 0 ) {
+				// 微小平行四辺形が0ならばmidの点を返す
+				return _points[mid];
+			}
+			// 比率の設定
+			double ratioA = ( areaB - areaA + sum ) / ( 2 * sum );
+			double ratioB = 1 - ratioA;
+			bisectingPoint = _points[mid].internalDivision( _points[mid + 1], ratioA, ratioB );
+		}
+		return bisectingPoint;
+	}
+
+	/**
+	 * 2点の垂直二等分面と、2点の時刻の間の曲線との交点を求めます。
+	 * <p>
+	 * 交点が見つからない場合や2点が一致する場合は、2点の時刻の中間で曲線を評価した点を返します。
+	 * </p>
+	 * @param _p0 前側の点
+	 * @param _p2 後側の点
+	 * @param _curve パラメトリック曲線
+	 * @return 交点
+	 */
+	public static Point perpendicularBisectorPoint( Point _p0, Point _p2, ParametricCurve _curve ) {
+		// _p0と_p2の中点
+		Point mid = _p0.internalDivision( _p2, 1, 1 );
+		// _p0 -> _p2のベクトル
+		Vector normal = Vector.createSE( _p0, _p2 ).normalize();
+		// 中間点の初期値は_p0と_p2のパラメータ的に中間の点をセットしておく
+		Point intersection = _curve.evaluateAt( ( _p0.time() + _p2.time() ) * 0.5 );
+		if ( !Double.isInfinite( 1 / normal.length() ) ) {
+			// _p0と_p2の垂直二等分面
+			Plane plane = Plane.create( mid, normal );
+
+			// _p0から_p2までの部分区間を抽出
+			ParametricCurve part = _curve.part( Range.create( _p0.time(), _p2.time() ) );
+			// 部分区間内での交点群を導出
+			Point[] intersections = part.intersectionWith( plane );
+
+			// 交点は見つからなかったときは曲線が点に縮退しているときのはずなので、なんでも良いはず
+			// _p0と_p2のパラメータ的に中間の点を入れておく
+			if ( intersections.length > 0 ) {
+				intersection = intersections[0];
+			}
+		}
+
+		return intersection;
+	}
+
+	/**
+	 * 微小な平行四辺形の面積のリストを返します。
+	 * @param _point　点列
+	 * @param _center 候補点列の始終点を結んだ直線の中点
+	 * @return 微小な平行四辺形の配列
+	 */
+	private static double[] getSummationList( Point[] _point, Point _center ) {
+		double[] result = new double[ _point.length - 1 ];
+		for ( int i = 0; i < _point.length - 1; ++i ) {
+			Vector vecA = Vector.createSE( _point[i], _center );
+			Vector vecB = Vector.createSE( _point[i + 1], _center );
+			result[i] = vecA.cross( vecB ).length();
+		}
+		return result;
+	}
+
+	private CurveAnalysis( ParametricCurve _curve ) {
+		m_curve = _curve;
+		m_distancePoints = new HashMap<Integer, Point[]>();
+		m_bisectingPoints = new HashMap<Integer, Point>();
+	}
+
+	/** 解析対象のパラメトリック曲線 */
+	private final ParametricCurve m_curve;
+	/** 評価点数毎の等距離間隔の評価点列 */
+	private final Map<Integer, Point[]> m_distancePoints;
+	/** 評価点数毎の面積を2等分する点 */
+	private final Map<Integer, Point> m_bisectingPoints;
+	/** 始点 */
+	private Point m_start;
+	/** 終点 */
+	private Point m_end;
+	/** 直線性を用いた評価点列 */
+	private Point[] m_optimizedPoints;
+	/** 直線性を用いた評価点列の分割数 */
+	private int m_optimizedNum;
+	/** 直線性を用いた評価点列の閾値 */
+	private double m_optimizedThreshold;
+	/** 始点と終点の垂直二等分面と曲線との交点 */
+	private Point m_perpendicularBisectorPoint;
+}
@@ -3,6 +3,7 @@ package jp.sagalab.jftk.reference;
 import java.util.Arrays;
 import jp.sagalab.jftk.curve.OutOfRangeException;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.transform.Transformable;
 import jp.sagalab.jftk.TruthValue;
@@ -71,6 +72,31 @@ public abstract class ReferenceModel implements
 		return points;
 	}
 
+	/**
+	 * パラメータ範囲全体に対応する点列を評価し、座標成分ごとの点列として返します。
+	 * <p>
+	 * 評価する点は {@link #evaluateAll(int, jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType)}
+	 * と同じです。
+	 * </p>
+	 * @param _num 評価点数
+	 * @param _type 評価タイプ
+	 * @return 評価点列
+	 * @throws OutOfRangeException 評価点数が2未満の場合
+	 * @throws UnsupportedOperationException 評価タイプがTIMEまたはDISTANCEでない場合
+	 * @see QuadraticBezierCurve#evaluateAllAsBuffer(int, jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType)
+	 */
+	public PointBuffer evaluateAllAsBuffer( int _num, EvaluationType _type ) {
+		// 評価点数チェック
+		if ( _num < 2 ) {
+			throw new OutOfRangeException(
+				String.format( "_num:%d must be greater than 1", _num ) );
+		}
+		if ( _type != EvaluationType.TIME && _type != EvaluationType.DISTANCE ) {
+			throw new UnsupportedOperationException();
+		}
+		return m_curve.evaluateAllAsBuffer( _num, _type );
+	}
+
 	@Override
 	public Point evaluateAtStart() {
 		return getCurve().evaluateAtStart();
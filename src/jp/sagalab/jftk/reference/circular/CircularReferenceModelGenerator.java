@@ -1,13 +1,12 @@
 package jp.sagalab.jftk.reference.circular;
 
-import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.Vector;
 import jp.sagalab.jftk.curve.ParametricCurve;
-import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
 import jp.sagalab.jftk.curve.QuadraticBezierCurve;
 import jp.sagalab.jftk.recognition.NQuartersType;
+import jp.sagalab.jftk.reference.CurveAnalysis;
 import jp.sagalab.jftk.reference.ReferenceModelGenerator;
 
 /**
@@ -41,14 +40,28 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 		if ( _curve == null ) {
 			throw new IllegalArgumentException( " _curve is null" );
 		}
+		return generateGeneralModel( CurveAnalysis.create( _curve ) );
+	}
+
+	/**
+	 * 解析結果を共有して円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 円形リファレンスモデル
+	 * @throws IllegalArgumentException 曲線の解析結果がnullの場合
+	 * @see #generateGeneralModel(ParametricCurve)
+	 */
+	public CircularReferenceModel generateGeneralModel( CurveAnalysis _analysis ) {
+		if ( _analysis == null ) {
+			throw new IllegalArgumentException( " _analysis is null" );
+		}
 		// 代表点列の決定
-		Point[] cp = searchRepresentationPoints( _curve );
+		Point[] cp = searchRepresentationPoints( _analysis );
 
 		// 重みの決定
 		double weight = calculateWeight( cp );
 
 		// パラメータ範囲の決定
-		Range range = calculateRange( _curve, cp, weight );
+		Range range = calculateRange( _analysis, cp, weight );
 
 		QuadraticBezierCurve curve = QuadraticBezierCurve.create( cp[0], cp[1], cp[2], weight, range );
 
@@ -57,24 +70,54 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 
 	@Override
 	public CircularReferenceModel generateQuarterModel( ParametricCurve _curve ) {
-		return generateNQuartersModel( _curve, NQuartersType.QUARTER );
+		return generateNQuartersModel( CurveAnalysis.create( _curve ), NQuartersType.QUARTER );
+	}
+
+	/**
+	 * 解析結果を共有して1/4形状の円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 1/4形状の円形リファレンスモデル
+	 * @see #generateQuarterModel(ParametricCurve)
+	 */
+	public CircularReferenceModel generateQuarterModel( CurveAnalysis _analysis ) {
+		return generateNQuartersModel( _analysis, NQuartersType.QUARTER );
 	}
 
 	@Override
 	public CircularReferenceModel generateHalfModel( ParametricCurve _curve ) {
-		return generateNQuartersModel( _curve, NQuartersType.HALF );
+		return generateNQuartersModel( CurveAnalysis.create( _curve ), NQuartersType.HALF );
+	}
+
+	/**
+	 * 解析結果を共有して2/4形状の円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 2/4形状の円形リファレンスモデル
+	 * @see #generateHalfModel(ParametricCurve)
+	 */
+	public CircularReferenceModel generateHalfModel( CurveAnalysis _analysis ) {
+		return generateNQuartersModel( _analysis, NQuartersType.HALF );
 	}
 
 	@Override
 	public CircularReferenceModel generateThreeQuartersModel( ParametricCurve _curve ) {
-		return generateNQuartersModel( _curve, NQuartersType.THREE_QUARTERS );
+		return generateNQuartersModel( CurveAnalysis.create( _curve ), NQuartersType.THREE_QUARTERS );
+	}
+
+	/**
+	 * 解析結果を共有して3/4形状の円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 3/4形状の円形リファレンスモデル
+	 * @see #generateThreeQuartersModel(ParametricCurve)
+	 */
+	public CircularReferenceModel generateThreeQuartersModel( CurveAnalysis _analysis ) {
+		return generateNQuartersModel( _analysis, NQuartersType.THREE_QUARTERS );
 	}
 
-	private CircularReferenceModel generateNQuartersModel( ParametricCurve _curve, NQuartersType _type ) {
+	private CircularReferenceModel generateNQuartersModel( CurveAnalysis _analysis, NQuartersType _type ) {
 		// 重みの決定
 		double weight = decideWeight( _type );
 		// 代表点列の決定
-		Point[] cp = searchRepresentationPoints( _curve, weight );
+		Point[] cp = searchRepresentationPoints( _analysis, weight );
 
 		QuadraticBezierCurve curve = QuadraticBezierCurve.create( cp[0], cp[1], cp[2], weight, Range.zeroToOne() );
 
@@ -87,13 +130,14 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 	 * rp0は前半1/3、rp2は後半1/3から抽出されます。<br>
 	 * rp1はrp0とrp2の間です。
 	 * </p>
-	 * @param _curve パラメトリック曲線
+	 * @param _analysis 曲線の解析結果
 	 * @return 代表点列
 	 */
-	static Point[] searchRepresentationPoints( ParametricCurve _curve ) {
+	static Point[] searchRepresentationPoints( CurveAnalysis _analysis ) {
+		ParametricCurve curve = _analysis.curve();
 		// 評価点列化
 		// TODO 99点のサンプルで大丈夫か？
-		Point[] points = _curve.evaluateAll( 99, EvaluationType.DISTANCE );
+		Point[] points = _analysis.evaluateAllByDistance( 99 );
 
 		// 代表点列
 		Point[] rp = null;
@@ -109,7 +153,7 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 			Point rp0 = points[i];
 			Point rp2 = points[points.length - 1 - i];
 			// rp1の取得
-			Point rp1 = getMidPoint( rp0, rp2, _curve );
+			Point rp1 = getMidPoint( rp0, rp2, curve );
 			// 代表点によって構成される三角形の頂点
 			Point[] tmp = new Point[]{ rp0, rp1, rp2 };
 
@@ -135,22 +179,22 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 	/**
 	 * 曲線からリダクションモデルの代表点を生成します
 	 *
-	 * @param _curve FSC
+	 * @param _analysis FSCの解析結果
 	 * @param _weight 生成したい形状の重み係数
 	 * @return リダクションモデル
 	 */
-	private Point[] searchRepresentationPoints( ParametricCurve _curve, double _weight ) {
+	private Point[] searchRepresentationPoints( CurveAnalysis _analysis, double _weight ) {
 		//代表点三点を選出する
 		//cp0は始点、cp2は終点
 		double weight = _weight;
 		// 代表点列
 		Point[] rp;
 
-		Point cp0 = _curve.evaluateAtStart();
-		Point cp2 = _curve.evaluateAtEnd();
+		Point cp0 = _analysis.start();
+		Point cp2 = _analysis.end();
 		Point m = cp0.internalDivision( cp2, 1, 1 );
 
-		Point cp1 = getMidPoint( cp0, cp2, _curve );
+		Point cp1 = _analysis.perpendicularBisectorPoint();
 		// cp1 の位置を調整
 		double L = m.distance( cp0 );
 		double H = Math.sqrt( ( 1 - weight ) / ( 1 + weight ) ) * L;
@@ -173,29 +217,7 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 	 * @return 代表点１
 	 */
 	static Point getMidPoint( Point _rp0, Point _rp2, ParametricCurve _curve ) {
-		// _rp0と_rp2の中点
-		Point mid = _rp0.internalDivision( _rp2, 1, 1 );
-		// _rp0 -> _rp2のベクトル
-		Vector normal = Vector.createSE( _rp0, _rp2 ).normalize();
-		// 中間点の初期値はrp0とrp2のパラメータ的に中間の点をセットしておく
-		Point intersection = _curve.evaluateAt( ( _rp0.time() + _rp2.time() ) * 0.5 );
-		if ( !Double.isInfinite( 1 / normal.length() ) ) {
-			// _rp0と_rp2の垂直二等分面
-			Plane plane = Plane.create( mid, normal );
-
-			// _rp0から_rp2までの部分区間を抽出
-			ParametricCurve part = _curve.part( Range.create( _rp0.time(), _rp2.time() ) );
-			// 部分区間内での交点群を導出
-			Point[] intersections = part.intersectionWith( plane );
-
-			// 交点は見つからなかったときは曲線が点に縮退しているときのはずなので、なんでも良いはず
-			// rp0とrp2のパラメータ的に中間の点を入れておく
-			if ( intersections.length > 0 ) {
-				intersection = intersections[0];
-			}
-		}
-
-		return intersection;
+		return CurveAnalysis.perpendicularBisectorPoint( _rp0, _rp2, _curve );
 	}
 
 	/**
@@ -226,24 +248,22 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 
 	/**
 	 * 存在範囲を導出します。
-	 * @param _curve スプライン曲線
+	 * @param _analysis スプライン曲線の解析結果
 	 * @param _rp 代表点列
 	 * @param _weight 重み
 	 * @return 存在範囲
 	 */
-	static Range calculateRange( ParametricCurve _curve, Point[] _rp, double _weight ) {
-		// 代表点0 〜 代表点2の間に対応する元曲線の部分長
-		double centerLength = _curve.part( Range.create( _rp[0].time(), _rp[2].time() ) ).length();
-
-		// 始点から代表点0の時刻に対応する元曲線の部分長
-		double preLength = _curve.part( Range.create( _curve.range().start(), _rp[0].time() ) ).length();
-		// 代表点2から終点の時刻に対応する元曲線の部分長
-		double postLength = _curve.part( Range.create( _rp[2].time(), _curve.range().end() ) ).length();
+	static Range calculateRange( CurveAnalysis _analysis, Point[] _rp, double _weight ) {
+		// 始点から代表点0、代表点0 〜 代表点2の間、代表点2から終点に対応する元曲線の部分長
+		double[] lengths = _analysis.partialLengths( _rp[0].time(), _rp[2].time() );
+		double preLength = lengths[0];
+		double centerLength = lengths[1];
+		double postLength = lengths[2];
 
 		// リファレンスモデルの生成
 		QuadraticBezierCurve model = QuadraticBezierCurve.create( _rp[0], _rp[1], _rp[2], _weight, Range.zeroToOne() );
 		// リファレンスモデルと元曲線での中央部分での長さ比
-		double ratio = model.length() / centerLength;
+		double ratio = model.arcLength( 0, 1 ) / centerLength;
 
 		// リファレンスモデルにおける始点側・終点側の部分長
 		preLength *= ratio;
@@ -253,83 +273,13 @@ public class CircularReferenceModelGenerator implements ReferenceModelGenerator
 			return Range.zeroToOne();
 		}
 
-		// 許容誤差を設定
-		double timeTolerance = 1.0E-14;
-
-		double step = -0.1;
-		double tS = 0;
-		double length = 0;
-		double tmpLength = 0;
-		// ステップの更新が反映されているかどうか
-		boolean isUpdateStep = false;
-
-		// 許容誤差内になるまでループ
-		while ( isConvergence( length, preLength ) ) {
-			// 部分曲線を生成
-			double evalTime = tS + step;
-			// 部分曲線の長さ
-			length = QuadraticBezierCurve.create( _rp[0], _rp[1], _rp[2], _weight, Range.create( evalTime, 0 ) ).length();
-			double remainLength = preLength - tmpLength;
-			double extensionLength = length - tmpLength;
-			if ( remainLength < extensionLength ) { // 残りを上回ってしまったら、ステップ幅を短くして続ける
-				step *= remainLength / extensionLength;
-				isUpdateStep = true;
-				if ( Math.abs( step ) < timeTolerance ) {
-					break;
-				}
-			} else { //ステップ更新
-				tS = evalTime;
-				isUpdateStep = false;
-				tmpLength = length;
-			}
-		}
-		if ( isUpdateStep ) {
-			tS += step;
-		}
-
-		step = 0.1;
-		double tE = 1;
-		length = 0;
-		tmpLength = 0;
-		isUpdateStep = false;
-		while ( isConvergence( length, postLength ) ) {
-			double evalTime = tE + step;
-			// 部分曲線を生成
-			length = QuadraticBezierCurve.create( _rp[0], _rp[1], _rp[2], _weight, Range.create( 1, evalTime ) ).length();
-			double remainLength = postLength - tmpLength;
-			double extensionLength = length - tmpLength;
-			if ( remainLength < extensionLength ) { // 残りを上回ってしまったら、ステップ幅を短くして続ける
-				step *= remainLength / extensionLength;
-				isUpdateStep = true;
-				if ( step < timeTolerance ) {
-					break;
-				}
-			} else { //ステップ更新
-				tE = evalTime;
-				isUpdateStep = false;
-				tmpLength = length;
-			}
-		}
-		if ( isUpdateStep ) {
-			tE += step;
-		}
+		// 弧長が部分長と一致するパラメータまで存在範囲を延長
+		double tS = model.parameterAtLength( 0, -preLength );
+		double tE = model.parameterAtLength( 1, postLength );
 
 		return Range.create( tS, tE );
 	}
 
-	/**
-	 * 収束の判定を行います。
-	 * @param _length 長さ
-	 * @param _targetLength 対象の長さ
-	 * @return 設定した許容誤差を上回ればtrue
-	 */
-	private static boolean isConvergence( double _length, double _targetLength ) {
-		// 許容誤差を設定
-		double lengthRatioTolerance = 1.0E-6;
-		double lengthRatio = 1 - ( _length / _targetLength );
-		return ( lengthRatio * lengthRatio > lengthRatioTolerance );
-	}
-
 	/**
 	 * 指定されたタイプの重み係数を返します
 	 * @param _type　リダクションモデルのタイプ
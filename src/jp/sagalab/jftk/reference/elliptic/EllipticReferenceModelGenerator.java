@@ -1,5 +1,6 @@
 package jp.sagalab.jftk.reference.elliptic;
 
+import jp.sagalab.jftk.BrentSolver;
 import jp.sagalab.jftk.Plane;
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.curve.Range;
@@ -7,11 +8,19 @@ import jp.sagalab.jftk.Vector;
 import jp.sagalab.jftk.curve.ParametricCurve;
 import jp.sagalab.jftk.curve.ParametricEvaluable.EvaluationType;
 import jp.sagalab.jftk.curve.QuadraticBezierCurve;
+import jp.sagalab.jftk.metrics.Metrics;
 import jp.sagalab.jftk.recognition.NQuartersType;
+import jp.sagalab.jftk.reference.CurveAnalysis;
 import jp.sagalab.jftk.reference.ReferenceModelGenerator;
 
 /**
  * 楕円形リファレンスモデルを生成するためのクラスです。
+ * <p>
+ * {@link #create(boolean)} で前回の重みを引き継ぐように生成したインスタンスは、
+ * 直前に生成した楕円形リファレンスモデルの重みの近傍から重みの探索を始めます。
+ * 似た形状のストロークが続けて入力される場合に、評価関数の評価回数を減らすことができます。
+ * このインスタンスは状態を持つため、複数のスレッドから同時に利用することはできません。
+ * </p>
  * @author Akira Nishikawa
  */
 public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
@@ -21,7 +30,16 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 	 * @return 楕円弧リファレンスモデルを生成するためのインスタンス
 	 */
 	public static EllipticReferenceModelGenerator create() {
-		return new EllipticReferenceModelGenerator();
+		return new EllipticReferenceModelGenerator( false );
+	}
+
+	/**
+	 * 前回の重みを引き継ぐかを指定してインスタンスを生成します。
+	 * @param _warmStart 直前に求めた重みを次の重みの探索の初期点とするか
+	 * @return 楕円弧リファレンスモデルを生成するためのインスタンス
+	 */
+	public static EllipticReferenceModelGenerator create( boolean _warmStart ) {
+		return new EllipticReferenceModelGenerator( _warmStart );
 	}
 
 	/**
@@ -39,16 +57,33 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 		if ( _curve == null ) {
 			throw new IllegalArgumentException( "_curve is null" );
 		}
+		return generateGeneralModel( CurveAnalysis.create( _curve ) );
+	}
+
+	/**
+	 * 解析結果を共有して楕円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 楕円形リファレンスモデル
+	 * @throws IllegalArgumentException 曲線の解析結果がnullである場合
+	 * @see #generateGeneralModel(ParametricCurve)
+	 */
+	public EllipticReferenceModel generateGeneralModel( CurveAnalysis _analysis ) {
+		if ( _analysis == null ) {
+			throw new IllegalArgumentException( "_analysis is null" );
+		}
 		// 補助点を含む代表点列を見つける
-		Point[] rp = searchRepresentationPoints( _curve );
+		Point[] rp = searchRepresentationPoints( _analysis );
 		if ( rp == null ) {
 			return null;
 		}
 
 		// 重みを導出
-		double weight = calculateWeight( rp, _curve );
+		double weight = calculateWeight( rp, _analysis, m_lastWeight );
+		if ( m_warmStart ) {
+			m_lastWeight = weight;
+		}
 		// 存在範囲を決定
-		Range range = calculateRange( _curve, rp, weight );
+		Range range = calculateRange( _analysis, rp, weight );
 		// 楕円形仮設モデルを生成
 		QuadraticBezierCurve elliptic = QuadraticBezierCurve.create( rp[0], rp[1], rp[2], weight, range );
 
@@ -57,23 +92,53 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 
 	@Override
 	public EllipticReferenceModel generateQuarterModel( ParametricCurve _curve ) {
-		return generateNQurtersModel( _curve, NQuartersType.QUARTER );
+		return generateNQurtersModel( CurveAnalysis.create( _curve ), NQuartersType.QUARTER );
+	}
+
+	/**
+	 * 解析結果を共有して1/4形状の楕円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 1/4形状の楕円形リファレンスモデル
+	 * @see #generateQuarterModel(ParametricCurve)
+	 */
+	public EllipticReferenceModel generateQuarterModel( CurveAnalysis _analysis ) {
+		return generateNQurtersModel( _analysis, NQuartersType.QUARTER );
 	}
 
 	@Override
 	public EllipticReferenceModel generateHalfModel( ParametricCurve _curve ) {
-		return generateNQurtersModel( _curve, NQuartersType.HALF );
+		return generateNQurtersModel( CurveAnalysis.create( _curve ), NQuartersType.HALF );
+	}
+
+	/**
+	 * 解析結果を共有して2/4形状の楕円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 2/4形状の楕円形リファレンスモデル
+	 * @see #generateHalfModel(ParametricCurve)
+	 */
+	public EllipticReferenceModel generateHalfModel( CurveAnalysis _analysis ) {
+		return generateNQurtersModel( _analysis, NQuartersType.HALF );
 	}
 
 	@Override
 	public EllipticReferenceModel generateThreeQuartersModel( ParametricCurve _curve ) {
-		return generateNQurtersModel( _curve, NQuartersType.THREE_QUARTERS );
+		return generateNQurtersModel( CurveAnalysis.create( _curve ), NQuartersType.THREE_QUARTERS );
 	}
 
-	private EllipticReferenceModel generateNQurtersModel( ParametricCurve _curve, NQuartersType _type ) {
+	/**
+	 * 解析結果を共有して3/4形状の楕円形リファレンスモデルを生成します。
+	 * @param _analysis 曲線の解析結果
+	 * @return 3/4形状の楕円形リファレンスモデル
+	 * @see #generateThreeQuartersModel(ParametricCurve)
+	 */
+	public EllipticReferenceModel generateThreeQuartersModel( CurveAnalysis _analysis ) {
+		return generateNQurtersModel( _analysis, NQuartersType.THREE_QUARTERS );
+	}
+
+	private EllipticReferenceModel generateNQurtersModel( CurveAnalysis _analysis, NQuartersType _type ) {
 
 		double weight = decideWeight( _type );
-		Point[] cp = searchRepresentationPoints( _curve, _type );
+		Point[] cp = searchRepresentationPoints( _analysis, _type );
 
 		QuadraticBezierCurve curve = QuadraticBezierCurve.create( cp[0], cp[1], cp[2], weight, Range.zeroToOne() );
 		return EllipticReferenceModel.create( curve, _type );
@@ -98,12 +163,12 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 
 	/**
 	 * 代表点列の探索を行います。
-	 * @param _curve パラメトリック曲線
+	 * @param _analysis 曲線の解析結果
 	 * @return 代表点列
 	 */
-	static Point[] searchRepresentationPoints( ParametricCurve _curve ) {
+	static Point[] searchRepresentationPoints( CurveAnalysis _analysis ) {
 		// 直線性を用いて評価点列化
-		Point[] evalPoints = _curve.evaluateAllByOptimized( 99, 0.001 );
+		Point[] evalPoints = _analysis.evaluateAllByOptimized( 99, 0.001 );
 
 		// 代表点列
 		Point[] rp = null;
@@ -137,16 +202,16 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 	/**
 	 * 曲線からリダクションモデルの代表点を生成します
 	 *
-	 * @param _curve FSC
+	 * @param _analysis FSCの解析結果
 	 * @param _wight 生成したい形状の重み係数
 	 * @return リダクションモデル
 	 */
-	private Point[] searchRepresentationPoints( ParametricCurve _curve, NQuartersType _type ) {
-		Point[] points = _curve.evaluateAll( 99, ParametricCurve.EvaluationType.DISTANCE );
+	private Point[] searchRepresentationPoints( CurveAnalysis _analysis, NQuartersType _type ) {
+		Point[] points = _analysis.evaluateAllByDistance( 99 );
 		Point[] cp = new Point[ 3 ];
 		cp[0] = points[0];
 		cp[2] = points[points.length - 1];
-		Point f = EllipticReferenceModelGenerator.getBisectingPoint( points );
+		Point f = _analysis.bisectingPoint( 99 );
 
 		cp[1] = f;
 
@@ -159,92 +224,7 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 	 * @return 面積を2等分する点
 	 */
 	static Point getBisectingPoint( Point[] _points ) {
-		// 入力点列の始終点を結んだ直線の中点
-		Point center = _points[0].internalDivision( _points[_points.length - 1], 1, 1 );
-		// 中点と入力点列から生成される面積の配列
-		double[] summationList = getSummationList( _points, center );
-		double startSum;
-		double endSum;
-		int start = 0;
-		int end = summationList.length - 1;
-		int mid = ( summationList.length ) / 2;
-
-		// 2分探索
-		while ( true ) {
-			startSum = 0;
-			endSum = 0;
-			for ( int i = 0; i < mid; ++i ) {
-				startSum += summationList[i];
-			}
-			for ( int i = mid; i < summationList.length; ++i ) {
-				endSum += summationList[i];
-			}
-			if ( startSum > endSum ) {
-				end = mid;
-				mid = start + ( end - start ) / 2;
-			} else if ( startSum < endSum ) {
-				start = mid;
-				mid = start + ( end - start ) / 2;
-			} else {
-				break;
-			}
-
-			if ( ( end - start ) <= 1 && startSum > endSum ) {
-				mid = start;
-				break;
-			} else if ( ( end - start ) <= 1 && startSum < endSum ) {
-				mid = end;
-				break;
-			}
-		}
-
-		// 中点を基準とした両側の面積を計算
-		double areaA = 0;
-		for ( int i = 0; i < mid; ++i ) {
-			areaA += summationList[i];
-		}
-		double areaB = 0;
-		for ( int i = mid; i < summationList.length; ++i ) {
-			areaB += summationList[i];
-		}
-
-		// 最遠点（2分する点）
-		Point bisectingPoint;
-
-		if ( areaA > areaB ) {
-			// areaAの面積を更新
-			areaA = 0;
-			for ( int i = 0; i < mid - 1; ++i ) {
-				areaA += summationList[i];
-			}
-			// 面積を2等分する点が含まれる微小平行四辺形の面積
-			double sum = summationList[mid - 1];
-			if ( sum == 0 ) {
-				// 微小平行四辺形が0ならばmidの点を返す
-				return _points[mid];
-			}
-			// 比率の設定
-			double ratioA = ( areaB - areaA + sum ) / ( 2 * sum );
-			double ratioB = 1 - ratioA;
-			bisectingPoint = _points[mid - 1].internalDivision( _points[mid], ratioA, ratioB );
-		} else {
-			// areaBの面積を更新
-			areaB = 0;
-			for ( int i = mid + 1; i < summationList.length; ++i ) {
-				areaB += summationList[i];
-			}
-			// 面積を2等分する点が含まれる微小平行四辺形の面積
-			double sum = summationList[mid];
-			if ( sum == 0 ) {
-				// 微小平行四辺形が0ならばmidの点を返す
-				return _points[mid];
-			}
-			// 比率の設定
-			double ratioA = ( areaB - areaA + sum ) / ( 2 * sum );
-			double ratioB = 1 - ratioA;
-			bisectingPoint = _points[mid].internalDivision( _points[mid + 1], ratioA, ratioB );
-		}
-		return bisectingPoint;
+		return CurveAnalysis.bisectingPoint( _points );
 	}
 
 	/**
@@ -311,35 +291,57 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 
 	/**
 	 * 重みを導出します。
+	 * <p>
+	 * 初期点が指定された場合は、まず初期点の近傍に限って探索します。
+	 * 近傍の端で探索が止まった場合は、その点から重みの取り得る全範囲を探索し直します。
+	 * </p>
 	 * @param _rp 代表点列
+	 * @param _analysis 曲線の解析結果
+	 * @param _initialWeight 探索の初期点(NaNの場合は初期点を指定しない)
 	 * @return 重み
 	 */
-	static double calculateWeight( Point[] _rp, ParametricCurve _curve ) {
-		BrentMethodForElliptic brent = BrentMethodForElliptic.create( _rp, _curve, 1.0e-3 );
-		double weight = brent.search( -0.999, 0.999 );
-		return weight;
+	static double calculateWeight( Point[] _rp, CurveAnalysis _analysis, double _initialWeight ) {
+		EllipticWeightFunction function = EllipticWeightFunction.create( _rp, _analysis );
+		BrentSolver.Result result;
+		int evaluations = 0;
+		if ( Double.isNaN( _initialWeight ) ) {
+			result = WEIGHT_SOLVER.minimize( function, MIN_WEIGHT, MAX_WEIGHT );
+		} else {
+			double floor = Math.max( _initialWeight - WARM_START_RADIUS, MIN_WEIGHT );
+			double ceiling = Math.min( _initialWeight + WARM_START_RADIUS, MAX_WEIGHT );
+			result = WEIGHT_SOLVER.minimize( function, floor, ceiling, _initialWeight );
+			double point = result.point();
+			// 近傍の端に張り付いた場合は最小点が近傍の外にあるとみなす
+			if ( ( floor > MIN_WEIGHT && point - floor <= WARM_START_MARGIN )
+				|| ( ceiling < MAX_WEIGHT && ceiling - point <= WARM_START_MARGIN ) ) {
+				evaluations += result.evaluations();
+				result = WEIGHT_SOLVER.minimize( function, MIN_WEIGHT, MAX_WEIGHT, point );
+			}
+		}
+		evaluations += result.evaluations();
+		Metrics.record( Metrics.ELLIPTIC_WEIGHT_EVALUATIONS, evaluations );
+
+		return result.point();
 	}
 
 	/**
 	 * 存在範囲を導出します。
-	 * @param _curve ファジィスプライン曲線
+	 * @param _analysis ファジィスプライン曲線の解析結果
 	 * @param _rp 代表点列
 	 * @param _weight 重み
 	 * @return 存在範囲
 	 */
-	static Range calculateRange( ParametricCurve _curve, Point[] _rp, double _weight ) {
-		// 代表点0 〜 代表点2の間に対応する元曲線の部分長
-		double centerLength = _curve.part( Range.create( _rp[0].time(), _rp[2].time() ) ).length();
-
-		// 始点から代表点0の時刻に対応する元曲線の部分長
-		double preLength = _curve.part( Range.create( _curve.range().start(), _rp[0].time() ) ).length();
-		// 代表点2から終点の時刻に対応する元曲線の部分長
-		double postLength = _curve.part( Range.create( _rp[2].time(), _curve.range().end() ) ).length();
+	static Range calculateRange( CurveAnalysis _analysis, Point[] _rp, double _weight ) {
+		// 始点から代表点0、代表点0 〜 代表点2の間、代表点2から終点に対応する元曲線の部分長
+		double[] lengths = _analysis.partialLengths( _rp[0].time(), _rp[2].time() );
+		double preLength = lengths[0];
+		double centerLength = lengths[1];
+		double postLength = lengths[2];
 
 		// リファレンスモデルの生成
 		QuadraticBezierCurve model = QuadraticBezierCurve.create( _rp[0], _rp[1], _rp[2], _weight, Range.zeroToOne() );
 		// リファレンスモデルと元曲線での中央部分での長さ比
-		double ratio = model.length() / centerLength;
+		double ratio = model.arcLength( 0, 1 ) / centerLength;
 
 		// リファレンスモデルにおける始点側・終点側の部分長
 		preLength *= ratio;
@@ -349,83 +351,13 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 			return Range.zeroToOne();
 		}
 
-		// 許容誤差を設定
-		double timeTolerance = 1.0E-14;
-
-		double step = -0.1;
-		double tS = 0;
-		double length = 0;
-		double tmpLength = 0;
-		// ステップの更新が反映されているかどうか
-		boolean isUpdateStep = false;
-
-		// 許容誤差内になるまでループ
-		while ( isConvergence( length, preLength ) ) {
-			// 部分曲線を生成
-			double evalTime = tS + step;
-			length = QuadraticBezierCurve.create( _rp[0], _rp[1], _rp[2], _weight, Range.create( evalTime, 0 ) ).length();
-			double remainLength = preLength - tmpLength;
-			double extensionLength = length - tmpLength;
-			if ( remainLength < extensionLength ) { // 残りを上回ってしまったら、ステップ幅を短くして続ける
-				step *= remainLength / extensionLength;
-				isUpdateStep = true;
-				if ( Math.abs( step ) < timeTolerance ) {
-					break;
-				}
-			} else { //ステップ更新
-				tS = evalTime;
-				isUpdateStep = false;
-				tmpLength = length;
-			}
-		}
-		if ( isUpdateStep ) {
-			tS += step;
-		}
-
-		step = 0.1;
-		double tE = 1;
-		length = 0;
-		tmpLength = 0;
-		isUpdateStep = false;
-		while ( isConvergence( length, postLength ) ) {
-			double evalTime = tE + step;
-			// 部分曲線を生成
-			length = QuadraticBezierCurve.create( _rp[0], _rp[1], _rp[2], _weight, Range.create( 1, evalTime ) ).length();
-			double remainLength = postLength - tmpLength;
-			double extensionLength = length - tmpLength;
-			if ( remainLength < extensionLength ) { // 残りを上回ってしまったら、ステップ幅を短くして続ける
-				step *= remainLength / extensionLength;
-				isUpdateStep = true;
-				if ( step < timeTolerance ) {
-					break;
-				}
-			} else { //ステップ更新
-				tE = evalTime;
-				isUpdateStep = false;
-				tmpLength = length;
-			}
-		}
-		if ( isUpdateStep ) {
-			tE += step;
-		}
+		// 弧長が部分長と一致するパラメータまで存在範囲を延長
+		double tS = model.parameterAtLength( 0, -preLength );
+		double tE = model.parameterAtLength( 1, postLength );
 
 		return Range.create( tS, tE );
 	}
 
-	/**
-	 * 微小な平行四辺形の面積のリストを返します。
-	 * @param _point　点列
-	 * @param _center 候補点列の始終点を結んだ直線の中点
-	 * @return 微小な平行四辺形の配列
-	 */
-	private static double[] getSummationList( Point[] _point, Point _center ) {
-		double[] result = new double[ _point.length - 1 ];
-		for ( int i = 0; i < _point.length - 1; ++i ) {
-			result[i] = getParallelogramSummation( _center, _point[i], _point[i + 1] );
-		}
-		return result;
-	}
-
 	/**
 	 * 3点から外積により平行四辺形の面積を求めます。
 	 * @param _base 基点(辺の始点)
@@ -456,22 +388,27 @@ public class EllipticReferenceModelGenerator implements ReferenceModelGenerator{
 		return v.square() - t * t / _direction.square();
 	}
 
-	/**
-	 * 収束の判定を行います。
-	 * @param _length 長さ
-	 * @param _targetLength 対象の長さ
-	 * @return 設定した許容誤差を上回ればtrue
-	 */
-	private static boolean isConvergence( double _length, double _targetLength ) {
-		// 許容誤差を設定
-		double lengthRatioTolerance = 1.0E-5;
-		double lengthRatio = 1 - ( _length / _targetLength );
-		return ( lengthRatio * lengthRatio > lengthRatioTolerance );
-	}
-
 	/**
 	 * このクラスのインスタンスを生成します。
+	 * @param _warmStart 直前に求めた重みを次の重みの探索の初期点とするか
 	 */
-	private EllipticReferenceModelGenerator() {
+	private EllipticReferenceModelGenerator( boolean _warmStart ) {
+		m_warmStart = _warmStart;
+		m_lastWeight = Double.NaN;
 	}
+
+	/** 直前に求めた重みを次の重みの探索の初期点とするか */
+	private final boolean m_warmStart;
+	/** 直前に求めた重み(未導出の場合はNaN) */
+	private double m_lastWeight;
+	/** 重みの探索に用いるBrent法 */
+	private static final BrentSolver WEIGHT_SOLVER = BrentSolver.create( 1.0e-3 );
+	/** 重みの下限 */
+	private static final double MIN_WEIGHT = -0.999;
+	/** 重みの上限 */
+	private static final double MAX_WEIGHT = 0.999;
+	/** 初期点を指定した場合に最初に探索する近傍の半径 */
+	private static final double WARM_START_RADIUS = 0.1;
+	/** 近傍の端に張り付いたとみなす距離 */
+	private static final double WARM_START_MARGIN = 1.0e-2;
 }
@@ -1,46 +1,50 @@
 package jp.sagalab.jftk.reference.elliptic;
 
 import java.util.Arrays;
-import jp.sagalab.jftk.BrentMethod;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.UnivariateFunction;
 import jp.sagalab.jftk.curve.ParametricCurve;
 import jp.sagalab.jftk.curve.QuadraticBezierCurve;
+import jp.sagalab.jftk.reference.CurveAnalysis;
 import static jp.sagalab.jftk.reference.elliptic.EllipticReferenceModelGenerator.calculateRange;
 
 /**
- * 楕円弧におけるBrent法の計算を行うクラスです。
+ * 楕円弧の重みを探索するための評価関数を表すクラスです。
+ * <p>
+ * 重みから生成した楕円弧と元曲線とのFMPSを1から引いた値を返します。
+ * {@link jp.sagalab.jftk.BrentSolver} で最小化することで重みを求めます。
+ * </p>
  * @author ishiguro
  */
-class BrentMethodForElliptic extends BrentMethod{
+class EllipticWeightFunction implements UnivariateFunction{
 
 	/**
-	 * 楕円弧におけるBreant法の計算を行うためのインスタンスを生成します。
+	 * 楕円弧の重みを探索するための評価関数を生成します。
 	 * @param _rp 代表点列
-	 * @param _curve パラメトリック曲線
-	 * @param _tol Brent法による探索の相対誤差
+	 * @param _analysis パラメトリック曲線の解析結果
 	 * @return インスタンス
 	 * @throws IllegalArgumentException 代表点列の要素にNullが存在する場合
-	 * @throws IllegalArgumentException パラメトリック曲線がNullである場合
+	 * @throws IllegalArgumentException パラメトリック曲線の解析結果がNullである場合
 	 */
-	static BrentMethodForElliptic create( Point[] _rp, ParametricCurve _curve, double _tol ) {
+	static EllipticWeightFunction create( Point[] _rp, CurveAnalysis _analysis ) {
 		if ( Arrays.asList( _rp ).indexOf( null ) > -1 ) {
 			throw new IllegalArgumentException( "_rp include null." );
 		}
-		if ( _curve == null ) {
-			throw new IllegalArgumentException( "_curve is null." );
+		if ( _analysis == null ) {
+			throw new IllegalArgumentException( "_analysis is null." );
 		}
-		return new BrentMethodForElliptic( _rp, _curve, _tol );
+		return new EllipticWeightFunction( _rp, _analysis );
 	}
 
 	@Override
-	public double function( double _x ) {
+	public double value( double _x ) {
 		// 2次有理Bezier曲線から楕円弧を生成
-		QuadraticBezierCurve bezier = QuadraticBezierCurve.create( m_rp[0], m_rp[1], m_rp[2], _x, calculateRange( m_curve, m_rp, _x ) );
+		QuadraticBezierCurve bezier = QuadraticBezierCurve.create( m_rp[0], m_rp[1], m_rp[2], _x, calculateRange( m_analysis, m_rp, _x ) );
 		// 2次有理Bezier曲線を楕円形リファレンスモデルに変換
 		EllipticReferenceModel model = EllipticReferenceModel.create( bezier );
 		// 負の値を含む可能性値を用いてFMPSを導出
 		Point[] points = model.evaluateAll( NUM_OF_EVALUATION, ParametricCurve.EvaluationType.DISTANCE );
-		Point[] otherPoints = m_curve.evaluateAll( NUM_OF_EVALUATION, ParametricCurve.EvaluationType.DISTANCE );
+		Point[] otherPoints = m_curvePoints;
 		double pos = 1;
 		for ( int i = 0; i < NUM_OF_EVALUATION; ++i ) {
 			double distance = points[i].distance( otherPoints[i] );
@@ -64,19 +68,21 @@ class BrentMethodForElliptic extends BrentMethod{
 	/**
 	 * コンストラクタ。
 	 * @param _rp 代表点列
-	 * @param _curve パラメトリック曲線
-	 * @param _tol Brent法による探索の相対誤差
+	 * @param _analysis パラメトリック曲線の解析結果
 	 */
-	private BrentMethodForElliptic( Point[] _rp, ParametricCurve _curve, double _tol ) {
-		super( _tol );
+	private EllipticWeightFunction( Point[] _rp, CurveAnalysis _analysis ) {
 		m_rp = _rp;
-		m_curve = _curve;
+		m_analysis = _analysis;
+		// 元曲線の評価点列は重みによらないため一度だけ評価する
+		m_curvePoints = _analysis.evaluateAllByDistance( NUM_OF_EVALUATION );
 	}
 
 	/** 代表点列 */
 	private final Point[] m_rp;
-	/** パラメトリック曲線 */
-	private final ParametricCurve m_curve;
+	/** パラメトリック曲線の解析結果 */
+	private final CurveAnalysis m_analysis;
+	/** パラメトリック曲線の評価点列 */
+	private final Point[] m_curvePoints;
 	/** 評価点数 */
 	private static final int NUM_OF_EVALUATION = 10;
 }
@@ -2,6 +2,7 @@ package jp.sagalab.jftk.reference.linear;
 
 import jp.sagalab.jftk.curve.OutOfRangeException;
 import jp.sagalab.jftk.Point;
+import jp.sagalab.jftk.PointBuffer;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.transform.TransformMatrix;
 import jp.sagalab.jftk.curve.QuadraticBezierCurve;
@@ -91,6 +92,43 @@ public class LinearReferenceModel extends ReferenceModel{
 		return points;
 	}
 
+	@Override
+	public PointBuffer evaluateAllAsBuffer( int _num, EvaluationType _type ) {
+		if ( _num < 2 || _type != EvaluationType.DISTANCE ) {
+			return super.evaluateAllAsBuffer( _num, _type );
+		}
+		// evaluateAllByDistance と同じ点を、評価点を生成せずに成分ごとの配列に格納する
+		Point[] cp = getCurve().controlPoints();
+		Range range = getCurve().range();
+		double parameter = range.end() - range.start();
+		double[] x = new double[ _num ];
+		double[] y = new double[ _num ];
+		double[] z = new double[ _num ];
+		double[] t = new double[ _num ];
+		double[] f = new double[ _num ];
+		for ( int n = 0; n < _num; ++n ) {
+			double p;
+			if ( n == 0 ) {
+				p = range.start();
+			} else if ( n == _num - 1 ) {
+				p = range.end();
+			} else {
+				p = range.start() + n * parameter / ( _num - 1 );
+			}
+			// cp[0].internalDivision( cp[2], p, 1 - p ) と同じ内分
+			double tA = p;
+			double tB = 1 - p;
+			double sumOfRatio = tA + tB;
+			x[n] = ( tB * cp[0].x() + tA * cp[2].x() ) / sumOfRatio;
+			y[n] = ( tB * cp[0].y() + tA * cp[2].y() ) / sumOfRatio;
+			z[n] = ( tB * cp[0].z() + tA * cp[2].z() ) / sumOfRatio;
+			t[n] = p;
+			f[n] = ( Math.abs( tB ) * cp[0].fuzziness() + Math.abs( tA ) * cp[2].fuzziness() ) / sumOfRatio;
+		}
+
+		return PointBuffer.create( x, y, z, t, f );
+	}
+
 	/**
 	 * 線形レファレンスモデルを生成します。
 	 * @param _curve 仮説ファジィ曲線モデル
@@ -4,6 +4,7 @@ import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.curve.Range;
 import jp.sagalab.jftk.curve.ParametricCurve;
 import jp.sagalab.jftk.curve.QuadraticBezierCurve;
+import jp.sagalab.jftk.reference.CurveAnalysis;
 import jp.sagalab.jftk.reference.ReferenceModel;
 import jp.sagalab.jftk.reference.ReferenceModelGenerator;
 
@@ -31,8 +32,20 @@ public class LinearReferenceModelGenerator implements ReferenceModelGenerator {
 	 */
 	@Override
 	public LinearReferenceModel generateGeneralModel( ParametricCurve _curve ) {
-		Point start = _curve.evaluateAtStart();
-		Point end = _curve.evaluateAtEnd();
+		return generateGeneralModel( CurveAnalysis.create( _curve ) );
+	}
+
+	/**
+	 * 解析結果を共有して線形リファレンスモデルを生成します。
+	 * <p>
+	 * パラメトリック曲線の始点と終点を用います。
+	 * </p>
+	 * @param _analysis 曲線の解析結果
+	 * @return 線形リファレンスモデル
+	 */
+	public LinearReferenceModel generateGeneralModel( CurveAnalysis _analysis ) {
+		Point start = _analysis.start();
+		Point end = _analysis.end();
 		Point mid = start.internalDivision( end, 1, 1 );
 		return LinearReferenceModel.create(
 			 QuadraticBezierCurve.create(	start, mid, end, 0, Range.zeroToOne() ) );
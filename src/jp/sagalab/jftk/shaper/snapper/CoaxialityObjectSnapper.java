@@ -25,6 +25,7 @@ import jp.sagalab.jftk.shaper.ShapedResult;
 import jp.sagalab.jftk.transform.AffineMatrix;
 import jp.sagalab.jftk.transform.SimMatrix;
 import jp.sagalab.jftk.transform.TransformMatrix;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 重複度により指示されたファジィオブジェクトをスナッピングします。
@@ -91,14 +92,13 @@ public class CoaxialityObjectSnapper implements FuzzyObjectSnapper{
 
 		// 各スナッピング点列をスナッピング
 		for ( SnappingCandidate candidate : snappingCandidateList ) {
-			Point[] points = candidate.getPoints();
-			Point[] pointSet = new Point[points.length];
-			GridSpace[] gridSpaceSet = new GridSpace[points.length];
-			for ( int i = 0; i < points.length; ++i ) {
+			FuzzyGridSnapper.GridPoint[] gridPoints = candidate.calculateSnappedPointsData( m_gridSnapper, _grid );
+			Point[] pointSet = new Point[gridPoints.length];
+			GridSpace[] gridSpaceSet = new GridSpace[gridPoints.length];
+			for ( int i = 0; i < gridPoints.length; ++i ) {
 				// 最初の要素の点を用いる
-				FuzzyGridSnapper.GridPoint gridPoint = m_gridSnapper.snap( _grid, points[i] );
-				pointSet[i] = gridPoint.getPoint();
-				gridSpaceSet[i] = gridPoint.getGrid();
+				pointSet[i] = gridPoints[i].getPoint();
+				gridSpaceSet[i] = gridPoints[i].getGrid();
 			}
 			gridSpaceList.add( gridSpaceSet );
 			snappedPointsList.add( pointSet );
@@ -161,6 +161,7 @@ public class CoaxialityObjectSnapper implements FuzzyObjectSnapper{
 
 	@Override
 	public Map<Fragment, ShapedResult> snap( Map<Fragment, RecognitionResult> _recognitions, List<Fragment> _fragments, GridSpace _gridSpace ) {
+		Metrics.Sample sample = Metrics.start( Metrics.COAXIALITY_SNAPPING );
 
 		int connectedSize = _fragments.size();
 		Map<Fragment, ShapedResult> result = new HashMap<Fragment, ShapedResult>();
@@ -182,6 +183,7 @@ public class CoaxialityObjectSnapper implements FuzzyObjectSnapper{
 				result.put( fragment, shapedResult );
 			}
 		}
+		Metrics.stop( sample );
 		return result;
 	}
 
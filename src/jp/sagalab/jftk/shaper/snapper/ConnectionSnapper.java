@@ -27,6 +27,7 @@ import jp.sagalab.jftk.shaper.snapper.FuzzyGridSnapper.GridPoint;
 import jp.sagalab.jftk.transform.AffineMatrix;
 import jp.sagalab.jftk.transform.SimMatrix;
 import jp.sagalab.jftk.transform.TransformMatrix;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 単一のレファレンスモデルによる認識結果をスナッピングします。
@@ -105,13 +106,14 @@ public class ConnectionSnapper implements FuzzyObjectSnapper{
 			Vector snappedNormal = calcSnappedNormal( (QuadraticBezierCurve) model.getCurve(),
 				m_gridSnapper, _grid );
 			// スナッピングに用いる変換行列を求める
-			Point[] snappingPoints = snappingCandidateList.get( snappingIndex ).getPoints();
-			snappedPoints = new Point[snappingPoints.length];
-			gridSpaces = new GridSpace[snappingPoints.length];
-			for ( int i = 0; i < snappingPoints.length; ++i ) {
-				GridPoint gridPoint = m_gridSnapper.snap( _grid, snappingPoints[i] );
-				snappedPoints[i] = gridPoint.getPoint();
-				gridSpaces[i] = gridPoint.getGrid();
+			SnappingCandidate snappingCandidate = snappingCandidateList.get( snappingIndex );
+			Point[] snappingPoints = snappingCandidate.getPoints();
+			GridPoint[] gridPoints = snappingCandidate.calculateSnappedPointsData( m_gridSnapper, _grid );
+			snappedPoints = new Point[gridPoints.length];
+			gridSpaces = new GridSpace[gridPoints.length];
+			for ( int i = 0; i < gridPoints.length; ++i ) {
+				snappedPoints[i] = gridPoints[i].getPoint();
+				gridSpaces[i] = gridPoints[i].getGrid();
 			}
 
 			// 曲線整形
@@ -157,6 +159,7 @@ public class ConnectionSnapper implements FuzzyObjectSnapper{
 
 	@Override
 	public Map<Fragment, ShapedResult> snap( Map<Fragment, RecognitionResult> _recognitions, List<Fragment> _fragments, GridSpace _gridSpace ) {
+		Metrics.Sample sample = Metrics.start( Metrics.CONNECTION_SNAPPING );
 
 		int connectedSize = _fragments.size();
 		Map<Fragment, ShapedResult> result = new HashMap<Fragment, ShapedResult>();
@@ -193,6 +196,7 @@ public class ConnectionSnapper implements FuzzyObjectSnapper{
 				result.put( fragment, shapedResult );
 			}
 		}
+		Metrics.stop( sample );
 		return result;
 	}
 
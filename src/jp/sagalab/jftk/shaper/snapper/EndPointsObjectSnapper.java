@@ -22,6 +22,7 @@ import jp.sagalab.jftk.recognition.RecognitionResult;
 import jp.sagalab.jftk.shaper.ShapedResult;
 import jp.sagalab.jftk.transform.SimMatrix;
 import jp.sagalab.jftk.transform.TransformMatrix;
+import jp.sagalab.jftk.metrics.Metrics;
 
 /**
  * 単一のレファレンスモデルによる認識結果の始終点をスナッピングすることで整形します。
@@ -112,6 +113,7 @@ public class EndPointsObjectSnapper implements FuzzyObjectSnapper{
 
 	@Override
 	public Map<Fragment, ShapedResult> snap( Map<Fragment, RecognitionResult> _recognitions, List<Fragment> _fragments, GridSpace _gridSpace ) {
+		Metrics.Sample sample = Metrics.start( Metrics.END_POINTS_SNAPPING );
 
 		int connectedSize = _fragments.size();
 		Map<Fragment, ShapedResult> result = new HashMap<Fragment, ShapedResult>();
@@ -133,6 +135,7 @@ public class EndPointsObjectSnapper implements FuzzyObjectSnapper{
 				result.put( fragment, shapedResult );
 			}
 		}
+		Metrics.stop( sample );
 		return result;
 	}
 
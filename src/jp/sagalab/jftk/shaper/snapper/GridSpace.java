@@ -70,20 +70,102 @@ public final class GridSpace implements Transformable<GridSpace>{
 		return m_factor;
 	}
 
+	/**
+	 * グリッド空間からの逆変換行列を返します。
+	 * <p>
+	 * 逆変換行列は最初に必要になった時点で一度だけ生成され、以降のスナッピングで共有されます。
+	 * </p>
+	 * @return 基準グリッド空間からの逆変換行列
+	 */
+	public TransformMatrix inverseGrid() {
+		TransformMatrix inverse = m_inverseGrid;
+		if ( inverse == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			inverse = m_basedGrid.inverse();
+			m_inverseGrid = inverse;
+		}
+		return inverse;
+	}
+
+	/**
+	 * グリッド空間への変換行列のスケールを返します。
+	 * @return 基準グリッド空間への変換行列のスケール
+	 */
+	public double scale() {
+		return m_scale;
+	}
+
 	/**
 	 * グリッドの解像度を倍率に従って下げます。
+	 * <p>
+	 * 生成したグリッド空間は保持され、以降の呼び出しでは同じインスタンスを返します。
+	 * これにより解像度を上げ下げしながら探索するスナッピングでは、
+	 * 各解像度の逆変換行列が点の間で共有されます。
+	 * </p>
 	 * @return 基準グリッドの解像度を下げたグリッド空間
 	 */
 	public GridSpace downResolution() {
-		return changeResolution( factor());
+		GridSpace grid = m_downResolution;
+		if ( grid == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			grid = changeResolution( factor() );
+			m_downResolution = grid;
+		}
+		return grid;
 	}
 
 	/**
 	 * グリッドの解像度を倍率に従って上げます。
+	 * <p>
+	 * 生成したグリッド空間は保持され、以降の呼び出しでは同じインスタンスを返します。
+	 * </p>
 	 * @return 基準グリッドの解像度を上げたグリッド
 	 */
 	public GridSpace upResolution() {
-		return changeResolution( 1 / factor() );
+		GridSpace grid = m_upResolution;
+		if ( grid == null ) {
+			// 複数のスレッドで同時に生成されても結果は同じ
+			grid = changeResolution( 1 / factor() );
+			m_upResolution = grid;
+		}
+		return grid;
+	}
+
+	/**
+	 * 基準グリッドから解像度を倍率に従って下げたグリッド空間列を返します。
+	 * <p>
+	 * 各グリッド空間は {@link #downResolution()} によって生成され、保持されたものを共有します。
+	 * </p>
+	 * @param _num グリッド数
+	 * @return 解像度の低い順に並べたグリッド空間列。末尾の要素はこのグリッド空間です。
+	 * @throws IllegalArgumentException グリッド数に0以下の値が指定された場合
+	 */
+	public GridSpace[] downResolutions( int _num ) {
+		if ( _num <= 0 ) {
+			throw new IllegalArgumentException( "grid num less than 0." );
+		}
+		GridSpace[] grids = new GridSpace[ _num ];
+		grids[_num - 1] = this;
+		for ( int i = _num - 2; i >= 0; --i ) {
+			grids[i] = grids[i + 1].downResolution();
+		}
+		return grids;
+	}
+
+	/**
+	 * 基準グリッドで指定された点に最も近いファジィグリッド格子点を生成します。
+	 * @param _point スナッピング対象となる点
+	 * @return ファジィグリッド格子点
+	 */
+	public Point nearestPoint( Point _point ) {
+		Point p = _point.transform( inverseGrid() );
+		double x = Math.round( p.x() );
+		double y = Math.round( p.y() );
+		double z = Math.round( p.z() );
+		double t = Double.NaN;
+		double f = m_basedFuzziness / m_scale;
+
+		return Point.createXYZTF( x, y, z, t, f ).transform( m_basedGrid );
 	}
 
 	/**
@@ -117,6 +199,7 @@ public final class GridSpace implements Transformable<GridSpace>{
 		m_basedGrid = _basedGrid;
 		m_basedFuzziness = _basedFuzziness;
 		m_factor = _factor;
+		m_scale = _basedGrid.scalalize();
 	}
 
 	/** グリッド空間への変換行列 */
@@ -125,4 +208,12 @@ public final class GridSpace implements Transformable<GridSpace>{
 	private final double m_basedFuzziness;
 	/** グリッド解像度の上げ下げの指標となるグリッドの倍率 */
 	private final double m_factor;
+	/** グリッド空間への変換行列のスケール */
+	private final double m_scale;
+	/** グリッド空間からの逆変換行列 */
+	private volatile TransformMatrix m_inverseGrid;
+	/** 解像度を下げたグリッド空間 */
+	private volatile GridSpace m_downResolution;
+	/** 解像度を上げたグリッド空間 */
+	private volatile GridSpace m_upResolution;
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package jp.sagalab.jftk.shaper.snapper;
 
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.Sigmoid;
-import jp.sagalab.jftk.transform.TransformMatrix;
 
 /**
  * 無限解像度ファジィグリッドスナッピング(Infinite-resolution Fuzzy Grid Snapping, IFGS)
@@ -61,7 +60,7 @@ public class IFGSSnapper implements FuzzyGridSnapper<Point>{
 	 */
 	public static Point snapBasedGrid( GridSpace _grid, Point _p ) {
 		//XXX このメソッドがここにあるのは適当か？ BasedGridSnapper的なクラスを作るべき？
-		return nearestPoint( _grid, _p );
+		return _grid.nearestPoint( _p );
 	}
 
 	/**
@@ -83,7 +82,7 @@ public class IFGSSnapper implements FuzzyGridSnapper<Point>{
 
 		while ( true ) {
 			// スナッピング対象の点に最も近いファジィグリッド交点を生成
-			Point gridPoint = nearestPoint( grid, _p );
+			Point gridPoint = grid.nearestPoint( _p );
 			// ファジィグリッド交点がスナップ対象の点に含まれている必然性値
 			double nec = gridPoint.includedIn( _p ).necessity();
 
@@ -99,6 +98,24 @@ public class IFGSSnapper implements FuzzyGridSnapper<Point>{
 
 		return FuzzyGridSnapper.GridPoint.create( snapped, snappedGrid );
 	}
+
+	/**
+	 * 複数の点に対して無限解像度ファジィグリッドスナッピングを行います。
+	 * <p>
+	 * 探索で辿る解像度毎のグリッド空間は {@link GridSpace} に保持されるため、
+	 * 全ての点で逆変換行列の計算を共有します。
+	 * </p>
+	 * @param _grid IFGSを行う基準グリッド
+	 * @param _points スナッピング対象となる点列
+	 * @return スナッピング先のグリッド格子点列
+	 */
+	public FuzzyGridSnapper.GridPoint[] snap( GridSpace _grid, Point[] _points ) {
+		FuzzyGridSnapper.GridPoint[] gridPoints = new FuzzyGridSnapper.GridPoint[ _points.length ];
+		for ( int i = 0; i < _points.length; ++i ) {
+			gridPoints[i] = snap( _grid, _points[i] );
+		}
+		return gridPoints;
+	}
 	
 	@Override
 	public boolean equals( Object obj ) {
@@ -149,7 +166,7 @@ public class IFGSSnapper implements FuzzyGridSnapper<Point>{
 		int i = 0;
 		// 解像度を上げながら探索を行う
 		while ( true ) {
-			Point gridPoint = nearestPoint( targetGrid, _p );
+			Point gridPoint = targetGrid.nearestPoint( _p );
 			nec = gridPoint.includedIn( _p ).necessity();
 
 			if ( _true.calculate( nec ) > _false.calculate( nec ) ) {
@@ -165,26 +182,6 @@ public class IFGSSnapper implements FuzzyGridSnapper<Point>{
 		}
 	}
 
-	/**
-	 * グリッドスナッピングを行います。
-	 * @param _point スナッピング対象となる点
-	 * @param _mat スナッピングに用いるグリッド
-	 * @return スナッピングされた点
-	 */
-	private static Point nearestPoint( GridSpace _grid, Point _point ) {
-		TransformMatrix basedGrid = _grid.grid();
-		TransformMatrix invMat = basedGrid.inverse();
-		Point p = _point.transform( invMat );
-		double x = Math.round( p.x() );
-		double y = Math.round( p.y() );
-		double z = Math.round( p.z() );
-		double t = Double.NaN;
-		double f = _grid.basedFuzziness() / basedGrid.scalalize();
-		Point point = Point.createXYZTF( x, y, z, t, f ).transform( basedGrid );
-
-		return point;
-	}
-
 	private IFGSSnapper( Sigmoid _true, Sigmoid _false ) {
 		m_true = _true;
 		m_false = _false;
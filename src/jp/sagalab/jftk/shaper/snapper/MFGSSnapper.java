@@ -2,7 +2,6 @@ package jp.sagalab.jftk.shaper.snapper;
 
 import jp.sagalab.jftk.Point;
 import jp.sagalab.jftk.Sigmoid;
-import jp.sagalab.jftk.transform.TransformMatrix;
 
 /**
  * 多重解像度ファジィグリッドスナッピング(Multi-Resolution Fuzzy Grid Snapping, MFGS)
@@ -60,12 +59,36 @@ public class MFGSSnapper implements FuzzyGridSnapper<Point>{
 	@Override
 	public GridPoint snap( GridSpace _grid, Point _p ) {
 		// 倍率、グリッド解像度の数に従って解像度を生成
-		GridSpace[] grids = new GridSpace[m_gridNum];
-		// 基準グリッドを最高解像度に設定
-		grids[m_gridNum - 1] = _grid;
-		for ( int i = m_gridNum - 2; i >= 0; --i ) {
-			grids[i] = grids[i + 1].downResolution();
+		return snap( _grid.downResolutions( m_gridNum ), _grid, _p );
+	}
+
+	/**
+	 * 複数の点に対して多重解像度ファジィグリッドスナッピングを行います。
+	 * <p>
+	 * 解像度毎のグリッド空間は一度だけ生成し、全ての点で共有します。
+	 * </p>
+	 * @param _grid スナッピングに用いるグリッド
+	 * @param _points スナッピング対象となる点列
+	 * @return スナッピング先のグリッド格子点列
+	 */
+	public GridPoint[] snap( GridSpace _grid, Point[] _points ) {
+		// 倍率、グリッド解像度の数に従って解像度を生成
+		GridSpace[] grids = _grid.downResolutions( m_gridNum );
+		GridPoint[] gridPoints = new GridPoint[ _points.length ];
+		for ( int i = 0; i < _points.length; ++i ) {
+			gridPoints[i] = snap( grids, _grid, _points[i] );
 		}
+		return gridPoints;
+	}
+
+	/**
+	 * 生成済みの解像度列を用いて多重解像度ファジィグリッドスナッピングを行います。
+	 * @param _grids 解像度の低い順に並べたグリッド空間列
+	 * @param _grid スナッピングに用いるグリッド
+	 * @param _p スナッピング対象となる点
+	 * @return スナッピング先のグリッド格子点
+	 */
+	private GridPoint snap( GridSpace[] _grids, GridSpace _grid, Point _p ) {
 		// スナッピング点
 		Point snapped = _p;
 
@@ -76,9 +99,9 @@ public class MFGSSnapper implements FuzzyGridSnapper<Point>{
 		double maxGrade = 0.0;
 		GridSpace tmpGrid = _grid;
 		// ノースナッピングの場合は一番細かい解像度を返す
-		for ( GridSpace grid : grids ) {
+		for ( GridSpace grid : _grids ) {
 			// スナッピング対象の点に最も近いファジィグリッド格子点を生成
-			Point gridPoint = nearestPoint( grid, _p );
+			Point gridPoint = grid.nearestPoint( _p );
 			// ファジィグリッド格子点がスナップ対象の点に含まれている必然性値
 			double nec = gridPoint.includedIn( _p ).necessity();
 			// グレード値の導出
@@ -96,31 +119,6 @@ public class MFGSSnapper implements FuzzyGridSnapper<Point>{
 		return GridPoint.create(snapped, tmpGrid);
 	}
 
-	/**
-	 * グリッドスナッピングを行います。
-	 * @param _point スナッピング対象となる点
-	 * @param _mat スナッピング二用いるグリッド
-	 * @return スナッピングされた点
-	 */
-	private static Point nearestPoint( GridSpace _grid, Point _point ) {
-		TransformMatrix basedGrid = _grid.grid();
-		TransformMatrix invMat = basedGrid.inverse();
-		Point p;
-		try {
-			p = _point.transform( invMat );
-		} catch ( IllegalArgumentException e ) {
-			p = _point.transform( invMat );
-		}
-		double x = Math.round( p.x() );
-		double y = Math.round( p.y() );
-		double z = Math.round( p.z() );
-		double t = Double.NaN;
-		double f = _grid.basedFuzziness() / basedGrid.scalalize();
-		Point point = Point.createXYZTF( x, y, z, t, f ).transform( basedGrid );
-
-		return point;
-	}
-
 	private MFGSSnapper(Sigmoid _true, Sigmoid _false, int _num){
 		m_true = _true;
 		m_false = _false;
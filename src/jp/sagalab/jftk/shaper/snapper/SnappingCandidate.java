@@ -65,12 +65,7 @@ public class SnappingCandidate{
 	 * @return グリット格子点列
 	 */
 	public GridPoint[] calculateSnappedPointsData( FuzzyGridSnapper _snapper, GridSpace _grid ) {
-		Point[] points = getPoints();
-		GridPoint[] gridPoints = new GridPoint[points.length];
-		for ( int i = 0; i < points.length; i++ ) {
-			gridPoints[i] = _snapper.snap( _grid, points[i] );
-		}
-		return gridPoints;
+		return snap( _snapper, _grid, getPoints() );
 	}
 
 	/**
@@ -80,11 +75,10 @@ public class SnappingCandidate{
 	 * @return スナッピング先の点列
 	 */
 	public Point[] calculateSnappedPoints( FuzzyGridSnapper _snapper, GridSpace _grid ) {
-		Point[] multiPoints = getPoints();
-		Point[] points = new Point[multiPoints.length];
-		for ( int i = 0; i < multiPoints.length; i++ ) {
-			GridPoint gridPoint = _snapper.snap( _grid, multiPoints[i] );
-			points[i] = gridPoint.getPoint();
+		GridPoint[] gridPoints = snap( _snapper, _grid, getPoints() );
+		Point[] points = new Point[gridPoints.length];
+		for ( int i = 0; i < gridPoints.length; i++ ) {
+			points[i] = gridPoints[i].getPoint();
 		}
 		return points;
 	}
@@ -96,11 +90,10 @@ public class SnappingCandidate{
 	 * @return グリッド空間の配列
 	 */
 	public GridSpace[] calculateSnappedGridSpaces( FuzzyGridSnapper _snapper, GridSpace _grid ) {
-		Point[] multiPoints = getPoints();
-		GridSpace[] gridSpaces = new GridSpace[multiPoints.length];
-		for ( int i = 0; i < multiPoints.length; i++ ) {
-			GridPoint gridPoint = _snapper.snap( _grid, multiPoints[i] );
-			gridSpaces[i] = gridPoint.getGrid();
+		GridPoint[] gridPoints = snap( _snapper, _grid, getPoints() );
+		GridSpace[] gridSpaces = new GridSpace[gridPoints.length];
+		for ( int i = 0; i < gridPoints.length; i++ ) {
+			gridSpaces[i] = gridPoints[i].getGrid();
 		}
 		return gridSpaces;
 	}
@@ -128,7 +121,33 @@ public class SnappingCandidate{
 	public BoundingBox getBox() {
 		return m_box;
 	}
-	
+
+	/**
+	 * 点列をファジィグリッドスナッピングします。
+	 * <p>
+	 * {@link IFGSSnapper} と {@link MFGSSnapper} の場合は点列をまとめてスナッピングし、
+	 * 解像度毎のグリッド空間の生成を全ての点で共有します。
+	 * それ以外のスナッパーの場合は各点を個別にスナッピングします。
+	 * </p>
+	 * @param _snapper グリッドスナッピングを行うためのスナッパー
+	 * @param _grid 格子点が属すグリッド空間
+	 * @param _points スナッピング対象となる点列
+	 * @return グリット格子点列
+	 */
+	private static GridPoint[] snap( FuzzyGridSnapper _snapper, GridSpace _grid, Point[] _points ) {
+		if ( _snapper instanceof IFGSSnapper ) {
+			return ( (IFGSSnapper) _snapper ).snap( _grid, _points );
+		}
+		if ( _snapper instanceof MFGSSnapper ) {
+			return ( (MFGSSnapper) _snapper ).snap( _grid, _points );
+		}
+		GridPoint[] gridPoints = new GridPoint[_points.length];
+		for ( int i = 0; i < _points.length; i++ ) {
+			gridPoints[i] = _snapper.snap( _grid, _points[i] );
+		}
+		return gridPoints;
+	}
+
 	private SnappingCandidate( Point[] _points, SnappingPointType[] _types, BoundingBox _box ) {
 		m_points = _points.clone();
 		m_types = _types.clone();